@@ -1,114 +1,237 @@
 package com.briandidthat.graphs.algorithms;
 
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.DoubleShortestPathTree;
 import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.LongShortestPathTree;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.SearchWorkspace;
+import com.briandidthat.graphs.utils.WeightMath;
 
-import java.util.*;
+import java.util.Arrays;
 
 /**
  * This class is an implementation of the BellmanFord Algorithm used to find the shortest path on a weighted graph with
- * possible negative weights. To avoid integer overflow, we will use a large integer value in our distance info class
- * rather than Integer.MaxValue.
+ * possible negative weights. The distances are kept as longs, with Long.MAX_VALUE for a vertex that has not been
+ * reached, and every relaxation saturates instead of overflowing, so an unreached vertex can never look reachable. The
+ * int version narrows the distances at the end. The edges are copied into flat arrays once, and every pass relaxes them
+ * in place. There is a double version for fractional weights.
  */
-public class BellmanFord {
-    private static class DistanceInfo {
-        private int distance;
-        private int lastVertex;
-
-        private DistanceInfo() {
-            this.distance = 100000;
-            this.lastVertex = -1;
+public class BellmanFord implements ShortestPathTreeBuilder {
+    @Override
+    public ShortestPathTree buildShortestPathTree(Graph graph, int source) {
+        return buildShortestPathTree(graph, source, CancellationToken.NONE);
+    }
+
+    // The token is checked before every pass and every CHECK_INTERVAL vertices within a pass. IF it stops the run, the
+    // distances found so far are returned and the negative cycle check is skipped, so a stopped run on a graph with a
+    // negative cycle does not throw.
+    @Override
+    public ShortestPathTree buildShortestPathTree(Graph graph, int source, CancellationToken token) {
+        int numVertices = graph.getNumVertices();
+        // The long distances are only needed until they are narrowed, so they live in the workspace of the thread.
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) {
+            long[] distances = workspace.getLongScratch();
+            int[] lastVertices = new int[numVertices];
+            RunStatus status = run(graph, source, token, distances, lastVertices);
+
+            // Narrow the distances. An unreached vertex gets Integer.MAX_VALUE, the same as in Djikstras.
+            int[] intDistances = new int[numVertices];
+            for (int v = 0; v < numVertices; v++) {
+                intDistances[v] = WeightMath.toIntDistance(distances[v]);
+            }
+            return new ShortestPathTree(source, intDistances, lastVertices, status);
         }
     }
 
-    public void findShortestPath(Graph graph, Integer source, Integer destination) {
-        Map<Integer, DistanceInfo> distanceTable = buildDistanceTable(graph,source);
-        // Since we'll be backtracking, we'll use a stack
-        Stack<Integer> stack = new Stack<>();
-        stack.push(destination);
-
-        int previousVertex = distanceTable.get(destination).lastVertex;
-        while (previousVertex != -1 && previousVertex != source) {
-            // Add the last vertex of every node to the stack
-            stack.push(previousVertex);
-            previousVertex = distanceTable.get(previousVertex).lastVertex;
+    public LongShortestPathTree buildLongShortestPathTree(Graph graph, int source) {
+        return buildLongShortestPathTree(graph, source, CancellationToken.NONE);
+    }
+
+    // The graph can have int or long weights.
+    public LongShortestPathTree buildLongShortestPathTree(Graph graph, int source, CancellationToken token) {
+        int numVertices = graph.getNumVertices();
+        long[] distances = new long[numVertices];
+        int[] lastVertices = new int[numVertices];
+        RunStatus status = run(graph, source, token, distances, lastVertices);
+        return new LongShortestPathTree(source, distances, lastVertices, status);
+    }
+
+    public DoubleShortestPathTree buildDoubleShortestPathTree(Graph graph, int source) {
+        return buildDoubleShortestPathTree(graph, source, CancellationToken.NONE);
+    }
+
+    // The same algorithm with double distances, for graphs with fractional weights. An unreached vertex has a distance
+    // of infinity. The graph can have any weight type.
+    public DoubleShortestPathTree buildDoubleShortestPathTree(Graph graph, int source, CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("bellman-ford");
+        run.phase("snapshot");
+        AdjacencyArrays adjacency = snapshot(graph, source);
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+        double[] weights = adjacency.getDoubleWeights();
+
+        int numVertices = graph.getNumVertices();
+        double[] distances = new double[numVertices];
+        int[] lastVertices = new int[numVertices];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(lastVertices, -1);
+        distances[source] = 0;
+        lastVertices[source] = source;
+
+        run.phase("relax");
+        long relaxed = 0;
+        RunStatus status = RunStatus.COMPLETED;
+        for (int numIterations = 0; numIterations < numVertices - 1 && status == RunStatus.COMPLETED; numIterations++) {
+            if (token.isCancelled()) {
+                status = token.getStatus();
+                break;
+            }
+            boolean updated = false;
+            run.addPasses(1);
+            for (int currentVertex = 0; currentVertex < numVertices; currentVertex++) {
+                boolean check = (currentVertex & CancellationToken.CHECK_MASK) == CancellationToken.CHECK_MASK;
+                if (check && token.isCancelled()) {
+                    status = token.getStatus();
+                    break;
+                }
+                if (distances[currentVertex] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                relaxed += offsets[currentVertex + 1] - offsets[currentVertex];
+                for (int edge = offsets[currentVertex]; edge < offsets[currentVertex + 1]; edge++) {
+                    int neighbor = targets[edge];
+                    double distance = distances[currentVertex] + weights[edge];
+                    if (distance < distances[neighbor]) {
+                        distances[neighbor] = distance;
+                        lastVertices[neighbor] = currentVertex;
+                        updated = true;
+                    }
+                }
+            }
+            if (!updated) {
+                break;
+            }
         }
+        run.addEdgesRelaxed(relaxed);
 
-        // IF there is no valid last vertex in the distance table, no path exists from source to destination.
-        if (previousVertex == -1) {
-            System.out.println("There is no path from source: " + source + " to destination: " + destination);
-        } else {
-            System.out.print("Shortest path is: " + source);
-            while (!stack.isEmpty()) {
-                System.out.print(" -> " + stack.pop());
+        run.phase("negative-cycle-check");
+        for (int currentVertex = 0; currentVertex < numVertices && status == RunStatus.COMPLETED; currentVertex++) {
+            if (distances[currentVertex] == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            for (int edge = offsets[currentVertex]; edge < offsets[currentVertex + 1]; edge++) {
+                if (distances[currentVertex] + weights[edge] < distances[targets[edge]]) {
+                    run.finish();
+                    throw new IllegalArgumentException("The graph has a negative cycle.");
+                }
             }
-            System.out.println(" We have now completed BellmanFord Algorithm.");
         }
+        run.finish();
+        return new DoubleShortestPathTree(source, distances, lastVertices, status);
     }
 
+    // Returns the vertices on the shortest path from source to destination, or an empty array IF there is no path.
+    public int[] findShortestPath(Graph graph, int source, int destination) {
+        return buildShortestPathTree(graph, source).getPath(destination);
+    }
 
-    private Map<Integer, DistanceInfo> buildDistanceTable(Graph graph, int source) {
-        Map<Integer, DistanceInfo> distanceTable = new HashMap<>();
-        for (int i = 0; i < graph.getNumVertices(); i++) {
-            distanceTable.put(i, new DistanceInfo());
+    private AdjacencyArrays snapshot(Graph graph, int source) {
+        if (!graph.isWeighted()) {
+            throw new IllegalArgumentException("This is not a weighted graph.");
         }
+        if (source >= graph.getNumVertices() || source < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        return new AdjacencyArrays(graph);
+    }
 
-        // Set up the distance of the specified source.
-        distanceTable.get(source).distance = 0;
-        distanceTable.get(source).lastVertex = source;
+    // The algorithm on long distances, shared by the int and long versions. Fills in the distances and last vertices
+    // of the first numVertices entries and returns the status of the run.
+    private RunStatus run(Graph graph, int source, CancellationToken token, long[] distances, int[] lastVertices) {
+        AlgorithmRun run = AlgorithmMetrics.start("bellman-ford");
+        run.phase("snapshot");
+        AdjacencyArrays adjacency = snapshot(graph, source);
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+        long[] weights = adjacency.getLongWeights();
 
-        LinkedList<Integer> queue = new LinkedList<>();
+        int numVertices = graph.getNumVertices();
+        Arrays.fill(distances, 0, numVertices, Long.MAX_VALUE);
+        Arrays.fill(lastVertices, -1);
 
-        // (Relaxing) Processing all the edges in numVertices - 1 times.
-        for (int numIterations = 0; numIterations < graph.getNumVertices(); numIterations++) {
-            // Add Every Vertex to the queue so we're sure to access all the vertices in the graph.
-            for (int v = 0; v < graph.getNumVertices(); v++) {
-                queue.add(v);
+        // Set up the distance of the specified source.
+        distances[source] = 0;
+        lastVertices[source] = source;
+
+        run.phase("relax");
+        long relaxed = 0;
+        RunStatus status = RunStatus.COMPLETED;
+        // (Relaxing) Processing all the edges numVertices - 1 times. IF a whole pass changes nothing, the distances are
+        // final and the remaining passes can be skipped.
+        for (int numIterations = 0; numIterations < numVertices - 1 && status == RunStatus.COMPLETED; numIterations++) {
+            if (token.isCancelled()) {
+                status = token.getStatus();
+                break;
             }
-
-            // Keep track of all we have visited using a set.
-            Set<String> visitedEdges = new HashSet<>();
-            while(!queue.isEmpty()) {
-                int currentVertex = queue.pollFirst();
-
-                for (int neighbor: graph.getAdjacentVertices(currentVertex)) {
-                    String edge = String.valueOf(currentVertex) + neighbor;
-                    // Avoid visiting edges more than once on each iteration.
-                    if (visitedEdges.contains(edge)) {
-                        continue;
-                    }
-                    visitedEdges.add(edge);
+            boolean updated = false;
+            run.addPasses(1);
+            for (int currentVertex = 0; currentVertex < numVertices; currentVertex++) {
+                boolean check = (currentVertex & CancellationToken.CHECK_MASK) == CancellationToken.CHECK_MASK;
+                if (check && token.isCancelled()) {
+                    status = token.getStatus();
+                    break;
+                }
+                // A vertex that has not been reached yet has nothing to relax.
+                if (distances[currentVertex] == Long.MAX_VALUE) {
+                    continue;
+                }
+                relaxed += offsets[currentVertex + 1] - offsets[currentVertex];
+                for (int edge = offsets[currentVertex]; edge < offsets[currentVertex + 1]; edge++) {
+                    int neighbor = targets[edge];
                     // Calculate the new distance for comparison with the old distance.
-                    int distance = distanceTable.get(currentVertex).distance +
-                            graph.getWeightedEdge(currentVertex, neighbor);
+                    long distance = WeightMath.saturatedAdd(distances[currentVertex], weights[edge]);
                     // IF we find a shorter path to the neighbor, update the distance and last vertex.
-                    if (distance < distanceTable.get(neighbor).distance) {
-                        distanceTable.get(neighbor).distance = distance;
-                        distanceTable.get(neighbor).lastVertex = currentVertex;
+                    if (distance < distances[neighbor]) {
+                        distances[neighbor] = distance;
+                        lastVertices[neighbor] = currentVertex;
+                        updated = true;
                     }
                 }
             }
+            if (!updated) {
+                break;
+            }
         }
 
-        // Add all the vertices to the queue one more time to check for negative cycles.
-        for (int v = 0; v < graph.getNumVertices(); v++) {
-            queue.add(v);
-        }
+        run.addEdgesRelaxed(relaxed);
 
         // (Relaxing) processing all the edges one last time to check for a negative cycle.
-        while(!queue.isEmpty()) {
-            int currentVertex = queue.pollFirst();
-            for (int neighbor : graph.getAdjacentVertices(currentVertex)) {
-                int distance = distanceTable.get(currentVertex).distance +
-                        graph.getWeightedEdge(currentVertex, neighbor);
+        run.phase("negative-cycle-check");
+        for (int currentVertex = 0; currentVertex < numVertices && status == RunStatus.COMPLETED; currentVertex++) {
+            if (distances[currentVertex] == Long.MAX_VALUE) {
+                continue;
+            }
+            // A distance stuck at the bottom of the range can no longer go down, so the check below could miss it.
+            if (distances[currentVertex] == Long.MIN_VALUE) {
+                run.finish();
+                throw new IllegalArgumentException("The distances do not fit in a long.");
+            }
+            for (int edge = offsets[currentVertex]; edge < offsets[currentVertex + 1]; edge++) {
                 // IF the distance table can be updated after we have performed numVertices - 1 iterations,
                 // there is a negative cycle in the graph. Throw an Exception since we cant find path in graph with
                 // negative cycles.
-                if (distance < distanceTable.get(neighbor).distance) {
+                if (WeightMath.saturatedAdd(distances[currentVertex], weights[edge]) < distances[targets[edge]]) {
+                    run.finish();
                     throw new IllegalArgumentException("The graph has a negative cycle.");
                 }
             }
         }
-
-        return distanceTable;
+        run.finish();
+        return status;
     }
 }
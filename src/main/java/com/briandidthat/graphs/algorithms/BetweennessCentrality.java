@@ -0,0 +1,258 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.IndexedMinHeap;
+import com.briandidthat.graphs.utils.ParallelHelper;
+import com.briandidthat.graphs.utils.WeightMath;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is an implementation of Brandes' algorithm for betweenness centrality, the number of shortest paths between
+ * other pairs of vertices that pass through a vertex. From every source we run a breadth first search (or Djikstra's
+ * algorithm on a weighted graph) that counts the shortest paths to each vertex, then walk the vertices back in order of
+ * decreasing distance and accumulate each vertex's dependency on the source.
+ *
+ * The sources are independent, so they are split into chunks across a fork join pool. Each chunk owns its own search
+ * arrays and its own centrality array, and the chunk results are added together at the end. Exact centrality costs
+ * O(V * E); approximate() only searches from a random sample of k sources and scales the result up by V / k.
+ * On an undirected graph every path is found from both of its ends, so the scores are halved. Int and long weights are
+ * supported; double weights are not, since counting shortest paths needs exact ties between distances.
+ *
+ * With a cancellation token, the token is checked before every source. IF it stops the run, the scores of the sources
+ * searched so far are scaled up the same way as a sample, so the result is an approximation rather than a partial sum.
+ */
+public class BetweennessCentrality {
+    private ForkJoinPool pool;
+
+    public BetweennessCentrality() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BetweennessCentrality(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public double[] exact(Graph graph) {
+        return exact(graph, CancellationToken.NONE).getValue();
+    }
+
+    public PartialResult<double[]> exact(Graph graph, CancellationToken token) {
+        int[] sources = new int[graph.getNumVertices()];
+        for (int v = 0; v < sources.length; v++) {
+            sources[v] = v;
+        }
+        return centrality(graph, sources, token);
+    }
+
+    // The same seed and sample size always pick the same sources.
+    public double[] approximate(Graph graph, int numSamples, long seed) {
+        return approximate(graph, numSamples, seed, CancellationToken.NONE).getValue();
+    }
+
+    public PartialResult<double[]> approximate(Graph graph, int numSamples, long seed, CancellationToken token) {
+        int numVertices = graph.getNumVertices();
+        if (numSamples <= 0) {
+            throw new IllegalArgumentException("The number of samples must be positive.");
+        }
+        if (numSamples >= numVertices) {
+            return exact(graph, token);
+        }
+
+        // Partial Fisher-Yates shuffle to draw the sources without repeats.
+        int[] vertices = new int[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            vertices[v] = v;
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < numSamples; i++) {
+            int j = i + random.nextInt(numVertices - i);
+            int swap = vertices[i];
+            vertices[i] = vertices[j];
+            vertices[j] = swap;
+        }
+        return centrality(graph, Arrays.copyOf(vertices, numSamples), token);
+    }
+
+    // Every source's scores are scaled by numVertices / (the number of sources searched), which is 1 for exact scores.
+    private PartialResult<double[]> centrality(Graph graph, int[] sources, CancellationToken token) {
+        if (graph.isWeighted() && graph.weightType() == Graph.WeightType.DOUBLE) {
+            throw new IllegalArgumentException("Betweenness centrality does not support double weights.");
+        }
+        AdjacencyArrays adjacency = new AdjacencyArrays(graph);
+        int numVertices = adjacency.getNumVertices();
+        // Int weights are widened once here and shared by every chunk.
+        long[] weights = adjacency.getLongWeights();
+        if (weights != null) {
+            for (long weight : weights) {
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Betweenness centrality requires non-negative weights.");
+                }
+            }
+        }
+
+        AlgorithmRun run = AlgorithmMetrics.start("betweenness");
+        double[] centrality = new double[numVertices];
+        AtomicInteger numSearched = new AtomicInteger();
+        LongAdder settled = new LongAdder();
+        LongAdder relaxed = new LongAdder();
+        ParallelHelper.forEachRange(pool, sources.length, 1, (start, end) -> {
+            Search search = new Search(adjacency, weights);
+            int searched = 0;
+            for (int i = start; i < end && !token.isCancelled(); i++) {
+                search.accumulate(sources[i]);
+                searched++;
+            }
+            numSearched.addAndGet(searched);
+            settled.add(search.settled);
+            relaxed.add(search.relaxed);
+            // Fold this chunk's scores into the shared result.
+            synchronized (centrality) {
+                for (int v = 0; v < numVertices; v++) {
+                    centrality[v] += search.centrality[v];
+                }
+            }
+        });
+
+        RunStatus status = numSearched.get() < sources.length ? token.getStatus() : RunStatus.COMPLETED;
+        double scale = numSearched.get() == 0 ? 0 : (double) numVertices / numSearched.get();
+        if (graph.graphType() == Graph.GraphType.UNDIRECTED) {
+            scale /= 2;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            centrality[v] *= scale;
+        }
+        run.addPasses(numSearched.get());
+        run.addVerticesSettled(settled.sum());
+        run.addEdgesRelaxed(relaxed.sum());
+        run.finish();
+        return new PartialResult<>(centrality, status);
+    }
+
+    // The arrays for one chunk of sources. They are reset per source and reused, so a chunk allocates them only once.
+    private static class Search {
+        private int[] offsets;
+        private int[] targets;
+        private long[] weights;
+        // The distance of every vertex from the source, or -1 if it has not been reached.
+        private long[] distance;
+        // The number of shortest paths from the source to every vertex.
+        private double[] numPaths;
+        private double[] dependency;
+        // Vertices in the order their distance was settled, which is non-decreasing distance.
+        private int[] order;
+        private IndexedMinHeap heap;
+        private double[] centrality;
+        // Counters for the metrics, summed over every source of the chunk.
+        private long settled;
+        private long relaxed;
+
+        private Search(AdjacencyArrays adjacency, long[] weights) {
+            int numVertices = adjacency.getNumVertices();
+            this.offsets = adjacency.getOffsets();
+            this.targets = adjacency.getTargets();
+            this.weights = weights;
+            this.distance = new long[numVertices];
+            this.numPaths = new double[numVertices];
+            this.dependency = new double[numVertices];
+            this.order = new int[numVertices];
+            this.heap = weights != null ? new IndexedMinHeap(numVertices) : null;
+            this.centrality = new double[numVertices];
+            Arrays.fill(distance, -1);
+        }
+
+        private void accumulate(int source) {
+            int numSettled = weights == null ? breadthFirst(source) : djikstras(source);
+            settled += numSettled;
+
+            // Walk back from the farthest vertex. Every shortest path successor w of v has already been finished, so
+            // its dependency is final when v adds its share.
+            for (int i = numSettled - 1; i >= 0; i--) {
+                int v = order[i];
+                double sum = 0;
+                for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                    int w = targets[edge];
+                    if (distance[w] == WeightMath.saturatedAdd(distance[v], weight(edge))) {
+                        sum += numPaths[v] / numPaths[w] * (1 + dependency[w]);
+                    }
+                }
+                dependency[v] = sum;
+                if (v != source) {
+                    centrality[v] += sum;
+                }
+            }
+
+            // Reset only the vertices this search touched.
+            for (int i = 0; i < numSettled; i++) {
+                int v = order[i];
+                relaxed += offsets[v + 1] - offsets[v];
+                distance[v] = -1;
+                numPaths[v] = 0;
+                dependency[v] = 0;
+            }
+        }
+
+        private int breadthFirst(int source) {
+            // The order array doubles as the queue, since a breadth first search settles vertices in queue order.
+            int head = 0;
+            int tail = 0;
+            order[tail++] = source;
+            distance[source] = 0;
+            numPaths[source] = 1;
+
+            while (head < tail) {
+                int v = order[head++];
+                for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                    int w = targets[edge];
+                    if (distance[w] == -1) {
+                        distance[w] = distance[v] + 1;
+                        order[tail++] = w;
+                    }
+                    if (distance[w] == distance[v] + 1) {
+                        numPaths[w] += numPaths[v];
+                    }
+                }
+            }
+            return tail;
+        }
+
+        private int djikstras(int source) {
+            int numSettled = 0;
+            distance[source] = 0;
+            numPaths[source] = 1;
+            heap.offer(source, 0);
+
+            while (!heap.isEmpty()) {
+                int v = heap.poll();
+                order[numSettled++] = v;
+                for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                    int w = targets[edge];
+                    long newDistance = WeightMath.saturatedAdd(distance[v], weights[edge]);
+                    if (distance[w] == -1 || newDistance < distance[w]) {
+                        // A strictly shorter path replaces every path counted so far.
+                        distance[w] = newDistance;
+                        numPaths[w] = numPaths[v];
+                        heap.offer(w, newDistance);
+                    } else if (newDistance == distance[w] && heap.contains(w)) {
+                        numPaths[w] += numPaths[v];
+                    }
+                }
+            }
+            return numSettled;
+        }
+
+        private long weight(int edge) {
+            return weights == null ? 1 : weights[edge];
+        }
+    }
+}
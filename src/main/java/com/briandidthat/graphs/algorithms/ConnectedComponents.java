@@ -0,0 +1,184 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.ComponentInfo;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.ParallelHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is an implementation of the Afforest algorithm for labeling the connected components of an undirected graph in
+ * parallel. Every vertex points at a parent in a lock-free union-find, and two trees are merged with a single
+ * compare-and-set that always hooks the higher root under the lower one. Instead of processing every edge, we first
+ * link only the first few neighbors of each vertex, which is usually enough to put most vertices into one giant
+ * component. We then find that component by sampling and skip the remaining edges of every vertex already inside it.
+ *
+ * The versions with a cancellation token check it before every phase and every CHECK_INTERVAL vertices of the last one.
+ * IF it stops the run, the trees linked so far are labeled: every component returned lies inside one real component,
+ * but some components may still be split up.
+ */
+public class ConnectedComponents {
+    // The number of neighbors of each vertex that are linked before sampling.
+    private static final int NEIGHBOR_ROUNDS = 2;
+    // The number of vertices sampled to guess the largest intermediate component.
+    private static final int NUM_SAMPLES = 1024;
+
+    public ComponentInfo findComponents(Graph graph) {
+        return findComponents(graph, CancellationToken.NONE).getValue();
+    }
+
+    public PartialResult<ComponentInfo> findComponents(Graph graph, CancellationToken token) {
+        if (graph.graphType() != Graph.GraphType.UNDIRECTED) {
+            throw new IllegalArgumentException("Connected components require an undirected graph.");
+        }
+
+        return findComponents(new AdjacencyArrays(graph), token);
+    }
+
+    // The snapshot must be of an undirected graph, so that every edge is stored in both directions.
+    public ComponentInfo findComponents(AdjacencyArrays adjacency) {
+        return findComponents(adjacency, CancellationToken.NONE).getValue();
+    }
+
+    public PartialResult<ComponentInfo> findComponents(AdjacencyArrays adjacency, CancellationToken token) {
+        int numVertices = adjacency.getNumVertices();
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+
+        AlgorithmRun run = AlgorithmMetrics.start("connected-components");
+        run.phase("link-neighbors");
+        // Every vertex starts out as the root of its own tree.
+        AtomicIntegerArray parent = new AtomicIntegerArray(numVertices);
+        ParallelHelper.forEach(numVertices, v -> parent.lazySet(v, v));
+
+        // Link each vertex to its first few neighbors, compressing the trees after every round.
+        for (int round = 0; round < NEIGHBOR_ROUNDS; round++) {
+            if (token.isCancelled()) {
+                ComponentInfo info = relabel(parent, numVertices);
+                run.finish();
+                return new PartialResult<>(info, token.getStatus());
+            }
+            int neighborIndex = round;
+            ParallelHelper.forEach(numVertices, v -> {
+                int edge = offsets[v] + neighborIndex;
+                if (edge < offsets[v + 1]) {
+                    link(parent, v, targets[edge]);
+                }
+            });
+            compress(parent, numVertices);
+            run.addPasses(1);
+        }
+
+        // Guess the largest component. Its vertices need no more work, since every remaining edge into it is also
+        // stored at the vertex on the other end, which is outside of it.
+        run.phase("sample");
+        int largestComponent = sampleFrequentRoot(parent, numVertices);
+
+        run.phase("link-remaining");
+        AtomicBoolean stopped = new AtomicBoolean();
+        LongAdder linked = new LongAdder();
+        ParallelHelper.forEachRange(numVertices, (start, end) -> {
+            long edges = 0;
+            for (int v = start; v < end; v++) {
+                if (((v - start + 1) & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                    stopped.set(true);
+                    break;
+                }
+                if (parent.get(v) == largestComponent) {
+                    continue;
+                }
+                for (int edge = offsets[v] + NEIGHBOR_ROUNDS; edge < offsets[v + 1]; edge++) {
+                    link(parent, v, targets[edge]);
+                    edges++;
+                }
+            }
+            linked.add(edges);
+        });
+        compress(parent, numVertices);
+        run.addPasses(1);
+        run.addEdgesRelaxed(linked.sum());
+
+        run.phase("relabel");
+        ComponentInfo info = relabel(parent, numVertices);
+        run.addVerticesSettled(numVertices);
+        run.finish();
+        return new PartialResult<>(info, stopped.get() ? token.getStatus() : RunStatus.COMPLETED);
+    }
+
+    // Merge the trees containing v1 and v2. The higher root is always hooked under the lower one, so no cycles form.
+    private void link(AtomicIntegerArray parent, int v1, int v2) {
+        int parent1 = parent.get(v1);
+        int parent2 = parent.get(v2);
+
+        while (parent1 != parent2) {
+            int high = Math.max(parent1, parent2);
+            int low = Math.min(parent1, parent2);
+            int parentOfHigh = parent.get(high);
+            // IF high is already hooked under low, or we manage to hook it there, the trees are merged.
+            if (parentOfHigh == low || (parentOfHigh == high && parent.compareAndSet(high, high, low))) {
+                break;
+            }
+            // Another thread moved high in the meantime. Climb one level on both sides and try again.
+            parent1 = parent.get(parent.get(high));
+            parent2 = parent.get(low);
+        }
+    }
+
+    // Point every vertex directly at the root of its tree.
+    private void compress(AtomicIntegerArray parent, int numVertices) {
+        ParallelHelper.forEach(numVertices, v -> {
+            while (parent.get(v) != parent.get(parent.get(v))) {
+                parent.set(v, parent.get(parent.get(v)));
+            }
+        });
+    }
+
+    private int sampleFrequentRoot(AtomicIntegerArray parent, int numVertices) {
+        if (numVertices == 0) {
+            return -1;
+        }
+        // A fixed seed keeps the work done on every run of the same graph identical.
+        Random random = new Random(numVertices);
+        Map<Integer, Integer> counts = new HashMap<>();
+        int frequentRoot = parent.get(0);
+        int frequentCount = 0;
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            int root = parent.get(random.nextInt(numVertices));
+            int count = counts.merge(root, 1, Integer::sum);
+            if (count > frequentCount) {
+                frequentCount = count;
+                frequentRoot = root;
+            }
+        }
+        return frequentRoot;
+    }
+
+    // Replace the root ids with compact component ids, numbered in order of the lowest vertex in each component.
+    private ComponentInfo relabel(AtomicIntegerArray parent, int numVertices) {
+        int[] componentIds = new int[numVertices];
+        int numComponents = 0;
+        // Roots are always the lowest vertex of their tree, so a root is seen before any other member of its tree.
+        for (int v = 0; v < numVertices; v++) {
+            int root = parent.get(v);
+            componentIds[v] = root == v ? numComponents++ : componentIds[root];
+        }
+
+        int[] componentSizes = new int[numComponents];
+        for (int v = 0; v < numVertices; v++) {
+            componentSizes[componentIds[v]]++;
+        }
+
+        return new ComponentInfo(componentIds, componentSizes);
+    }
+}
@@ -0,0 +1,591 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.IndexedMinHeap;
+import com.briandidthat.graphs.utils.WeightMath;
+
+import java.util.Arrays;
+
+/**
+ * This is an implementation of Contraction Hierarchies for fast point to point shortest paths on a static graph with
+ * non-negative weights (an unweighted graph counts every edge as 1).
+ *
+ * Preprocessing: vertices are contracted one at a time, least important first. Contracting v removes it from the
+ * remaining graph, and for every pair of edges u -> v -> x a "shortcut" edge u -> x is added, unless a short local
+ * Djikstra search (the witness search) finds another path from u to x that is no longer. The order is picked lazily
+ * by the edge difference (shortcuts added minus edges removed) plus the number of already contracted neighbors, which
+ * keeps the hierarchy flat and the number of shortcuts low.
+ *
+ * Query: a shortest path always climbs up the hierarchy and then comes back down. So we run Djikstra's algorithm
+ * forwards from the source and backwards from the destination, each only following edges to higher ranked vertices,
+ * and take the best vertex where the two searches meet. Both searches only see a tiny part of the graph. Shortcuts on
+ * the resulting path are then unpacked back into the original edges.
+ *
+ * Int and long weights are supported, double weights are not. Distances saturate at Long.MAX_VALUE, which counts as no
+ * path. The hierarchy is stored in compressed sparse row arrays. Queries are safe to run from several threads, each
+ * thread keeps its own search arrays. The hierarchy does not see edges added to the graph after it was built.
+ *
+ * build() takes a cancellation token, which is checked before every contraction; each one runs several witness
+ * searches, so reading the clock is cheap next to it. A hierarchy that is only partly contracted would give wrong
+ * distances, so a stopped build has no hierarchy.
+ */
+public class ContractionHierarchy {
+    // The witness search gives up after settling this many vertices and adds the shortcut just in case.
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int NO_MIDDLE = -1;
+
+    private int numVertices;
+    // rank[v] is the position of v in the contraction order.
+    private int[] rank;
+    // Edges v -> x with rank[x] > rank[v], stored at v.
+    private int[] upOffsets;
+    private int[] upTargets;
+    private long[] upWeights;
+    private int[] upMiddles;
+    // Edges u -> v with rank[u] > rank[v], stored at v (the reverse of the edge is followed by the backward search).
+    private int[] downOffsets;
+    private int[] downSources;
+    private long[] downWeights;
+    private int[] downMiddles;
+    private ThreadLocal<QuerySearch> searches;
+    // How the build ended. Only read by build().
+    private RunStatus buildStatus;
+
+    public ContractionHierarchy(Graph graph) {
+        this(graph, CancellationToken.NONE);
+    }
+
+    // Returns the hierarchy, or a null value IF the token stopped the contraction.
+    public static PartialResult<ContractionHierarchy> build(Graph graph, CancellationToken token) {
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graph, token);
+        return new PartialResult<>(hierarchy.buildStatus == RunStatus.COMPLETED ? hierarchy : null,
+                hierarchy.buildStatus);
+    }
+
+    private ContractionHierarchy(Graph graph, CancellationToken token) {
+        if (graph.isWeighted() && graph.weightType() == Graph.WeightType.DOUBLE) {
+            throw new IllegalArgumentException("Contraction hierarchies do not support double weights.");
+        }
+        AlgorithmRun run = AlgorithmMetrics.start("contraction-hierarchy");
+        run.phase("snapshot");
+        AdjacencyArrays adjacency = new AdjacencyArrays(graph);
+        this.numVertices = adjacency.getNumVertices();
+        this.searches = ThreadLocal.withInitial(QuerySearch::new);
+
+        EdgeLists outEdges = new EdgeLists(numVertices);
+        EdgeLists inEdges = new EdgeLists(numVertices);
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+        long[] weights = adjacency.getLongWeights();
+        for (int v = 0; v < numVertices; v++) {
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                long weight = weights == null ? 1 : weights[edge];
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Contraction hierarchies require non-negative weights.");
+                }
+                if (targets[edge] != v) {
+                    outEdges.put(v, targets[edge], weight, NO_MIDDLE);
+                    inEdges.put(targets[edge], v, weight, NO_MIDDLE);
+                }
+            }
+        }
+
+        run.phase("contract");
+        Contraction contraction = new Contraction(outEdges, inEdges);
+        this.buildStatus = contraction.run(token);
+        run.addPasses(contraction.numContracted);
+        run.addVerticesSettled(contraction.witnessSettled);
+        run.addEdgesRelaxed(contraction.witnessRelaxed);
+        run.addHeapPushes(contraction.witnessPushes);
+        if (buildStatus == RunStatus.COMPLETED) {
+            run.phase("hierarchy");
+            buildHierarchy(outEdges, inEdges);
+        }
+        run.finish();
+    }
+
+    // Returns the length of the shortest path from source to destination, or -1 IF there is no path.
+    public long findDistance(int source, int destination) {
+        validate(source, destination);
+        QuerySearch search = searches.get();
+        search.run(source, destination);
+        long distance = search.bestDistance;
+        search.reset();
+        return distance == Long.MAX_VALUE ? -1 : distance;
+    }
+
+    // Returns the vertices on the shortest path from source to destination, or an empty array IF there is no path.
+    public int[] findShortestPath(int source, int destination) {
+        validate(source, destination);
+        QuerySearch search = searches.get();
+        search.run(source, destination);
+        int[] path = search.bestDistance == Long.MAX_VALUE ? new int[0] : search.unpackPath(source, destination);
+        search.reset();
+        return path;
+    }
+
+    public int getRank(int v) {
+        return rank[v];
+    }
+
+    // The number of edges in the hierarchy, original edges and shortcuts.
+    public int getNumEdges() {
+        return upTargets.length + downSources.length;
+    }
+
+    private void validate(int source, int destination) {
+        if (source >= numVertices || source < 0 || destination >= numVertices || destination < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+    }
+
+    // Split the edges left after contraction into upward and downward edges, and pack both into flat arrays.
+    private void buildHierarchy(EdgeLists outEdges, EdgeLists inEdges) {
+        this.upOffsets = new int[numVertices + 1];
+        this.downOffsets = new int[numVertices + 1];
+        for (int v = 0; v < numVertices; v++) {
+            upOffsets[v + 1] = upOffsets[v] + countHigher(outEdges, v);
+            downOffsets[v + 1] = downOffsets[v] + countHigher(inEdges, v);
+        }
+
+        this.upTargets = new int[upOffsets[numVertices]];
+        this.upWeights = new long[upTargets.length];
+        this.upMiddles = new int[upTargets.length];
+        this.downSources = new int[downOffsets[numVertices]];
+        this.downWeights = new long[downSources.length];
+        this.downMiddles = new int[downSources.length];
+        for (int v = 0; v < numVertices; v++) {
+            copyHigher(outEdges, v, upOffsets[v], upTargets, upWeights, upMiddles);
+            copyHigher(inEdges, v, downOffsets[v], downSources, downWeights, downMiddles);
+        }
+    }
+
+    private int countHigher(EdgeLists edges, int v) {
+        int count = 0;
+        for (int i = 0; i < edges.sizes[v]; i++) {
+            if (rank[edges.neighbors[v][i]] > rank[v]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void copyHigher(EdgeLists edges, int v, int slot, int[] neighbors, long[] weights, int[] middles) {
+        for (int i = 0; i < edges.sizes[v]; i++) {
+            int neighbor = edges.neighbors[v][i];
+            if (rank[neighbor] > rank[v]) {
+                neighbors[slot] = neighbor;
+                weights[slot] = edges.weights[v][i];
+                middles[slot] = edges.middles[v][i];
+                slot++;
+            }
+        }
+    }
+
+    // Growable per-vertex edge lists used while contracting. Only the lightest edge between two vertices is kept.
+    private static class EdgeLists {
+        private int[][] neighbors;
+        private long[][] weights;
+        private int[][] middles;
+        private int[] sizes;
+
+        private EdgeLists(int numVertices) {
+            this.neighbors = new int[numVertices][];
+            this.weights = new long[numVertices][];
+            this.middles = new int[numVertices][];
+            this.sizes = new int[numVertices];
+            for (int v = 0; v < numVertices; v++) {
+                neighbors[v] = new int[2];
+                weights[v] = new long[2];
+                middles[v] = new int[2];
+            }
+        }
+
+        private void put(int v, int neighbor, long weight, int middle) {
+            for (int i = 0; i < sizes[v]; i++) {
+                if (neighbors[v][i] == neighbor) {
+                    if (weight < weights[v][i]) {
+                        weights[v][i] = weight;
+                        middles[v][i] = middle;
+                    }
+                    return;
+                }
+            }
+            if (sizes[v] == neighbors[v].length) {
+                neighbors[v] = Arrays.copyOf(neighbors[v], sizes[v] * 2);
+                weights[v] = Arrays.copyOf(weights[v], sizes[v] * 2);
+                middles[v] = Arrays.copyOf(middles[v], sizes[v] * 2);
+            }
+            neighbors[v][sizes[v]] = neighbor;
+            weights[v][sizes[v]] = weight;
+            middles[v][sizes[v]] = middle;
+            sizes[v]++;
+        }
+    }
+
+    // The state of the preprocessing phase.
+    private class Contraction {
+        private EdgeLists outEdges;
+        private EdgeLists inEdges;
+        private boolean[] contracted;
+        private int[] contractedNeighbors;
+        // Scratch space for the witness searches. Only the touched entries are reset between searches.
+        private long[] distance;
+        private int[] touched;
+        private int numTouched;
+        private IndexedMinHeap witnessHeap;
+        // Counters for the metrics. Every contraction counts as one pass.
+        private long numContracted;
+        private long witnessSettled;
+        private long witnessRelaxed;
+        private long witnessPushes;
+
+        private Contraction(EdgeLists outEdges, EdgeLists inEdges) {
+            this.outEdges = outEdges;
+            this.inEdges = inEdges;
+            this.contracted = new boolean[numVertices];
+            this.contractedNeighbors = new int[numVertices];
+            this.distance = new long[numVertices];
+            this.touched = new int[numVertices];
+            this.witnessHeap = new IndexedMinHeap(numVertices);
+            Arrays.fill(distance, Long.MAX_VALUE);
+        }
+
+        private RunStatus run(CancellationToken token) {
+            rank = new int[numVertices];
+            IndexedMinHeap order = new IndexedMinHeap(numVertices);
+            for (int v = 0; v < numVertices; v++) {
+                order.offer(v, priority(v));
+            }
+
+            int nextRank = 0;
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                // Priorities go stale as neighbors are contracted. IF v is no longer the least important, put it back.
+                long current = priority(v);
+                if (!order.isEmpty() && current > order.peekKey()) {
+                    order.offer(v, current);
+                    continue;
+                }
+                if (token.isCancelled()) {
+                    return token.getStatus();
+                }
+
+                contract(v, true);
+                numContracted++;
+                contracted[v] = true;
+                rank[v] = nextRank++;
+                for (int i = 0; i < outEdges.sizes[v]; i++) {
+                    contractedNeighbors[outEdges.neighbors[v][i]]++;
+                }
+                for (int i = 0; i < inEdges.sizes[v]; i++) {
+                    contractedNeighbors[inEdges.neighbors[v][i]]++;
+                }
+            }
+            return RunStatus.COMPLETED;
+        }
+
+        private long priority(int v) {
+            int removedEdges = 0;
+            for (int i = 0; i < outEdges.sizes[v]; i++) {
+                if (!contracted[outEdges.neighbors[v][i]]) {
+                    removedEdges++;
+                }
+            }
+            for (int i = 0; i < inEdges.sizes[v]; i++) {
+                if (!contracted[inEdges.neighbors[v][i]]) {
+                    removedEdges++;
+                }
+            }
+            return (long) contract(v, false) - removedEdges + contractedNeighbors[v];
+        }
+
+        // Finds the shortcuts needed to contract v and returns how many there are. IF apply is true, they are added.
+        private int contract(int v, boolean apply) {
+            int numShortcuts = 0;
+            for (int i = 0; i < inEdges.sizes[v]; i++) {
+                int from = inEdges.neighbors[v][i];
+                if (contracted[from]) {
+                    continue;
+                }
+                long inWeight = inEdges.weights[v][i];
+
+                // The witness search only needs to look as far as the longest path through v.
+                long maxDistance = 0;
+                for (int j = 0; j < outEdges.sizes[v]; j++) {
+                    int to = outEdges.neighbors[v][j];
+                    if (!contracted[to] && to != from) {
+                        maxDistance = Math.max(maxDistance, WeightMath.saturatedAdd(inWeight, outEdges.weights[v][j]));
+                    }
+                }
+                witnessSearch(from, v, maxDistance);
+
+                for (int j = 0; j < outEdges.sizes[v]; j++) {
+                    int to = outEdges.neighbors[v][j];
+                    if (contracted[to] || to == from) {
+                        continue;
+                    }
+                    long viaWeight = WeightMath.saturatedAdd(inWeight, outEdges.weights[v][j]);
+                    // IF no witness path is as short as the path through v, v is needed and we add a shortcut.
+                    if (distance[to] > viaWeight) {
+                        numShortcuts++;
+                        if (apply) {
+                            outEdges.put(from, to, viaWeight, v);
+                            inEdges.put(to, from, viaWeight, v);
+                        }
+                    }
+                }
+                resetWitnessSearch();
+            }
+            return numShortcuts;
+        }
+
+        // A Djikstra search from the source over the remaining graph, skipping the vertex being contracted.
+        private void witnessSearch(int source, int skipped, long maxDistance) {
+            distance[source] = 0;
+            touched[numTouched++] = source;
+            witnessHeap.offer(source, 0);
+
+            int settled = 0;
+            long relaxed = 0;
+            long pushes = 1;
+            while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (witnessHeap.peekKey() > maxDistance) {
+                    break;
+                }
+                int current = witnessHeap.poll();
+                settled++;
+                for (int i = 0; i < outEdges.sizes[current]; i++) {
+                    int next = outEdges.neighbors[current][i];
+                    if (next == skipped || contracted[next]) {
+                        continue;
+                    }
+                    relaxed++;
+                    long newDistance = WeightMath.saturatedAdd(distance[current], outEdges.weights[current][i]);
+                    if (newDistance < distance[next]) {
+                        if (distance[next] == Long.MAX_VALUE) {
+                            touched[numTouched++] = next;
+                        }
+                        distance[next] = newDistance;
+                        witnessHeap.offer(next, newDistance);
+                        pushes++;
+                    }
+                }
+            }
+            witnessSettled += settled;
+            witnessRelaxed += relaxed;
+            witnessPushes += pushes;
+        }
+
+        private void resetWitnessSearch() {
+            for (int i = 0; i < numTouched; i++) {
+                distance[touched[i]] = Long.MAX_VALUE;
+            }
+            numTouched = 0;
+            witnessHeap.clear();
+        }
+    }
+
+    // The search arrays for one query thread. Only the touched entries are reset after each query.
+    private class QuerySearch {
+        private long[] forwardDistance;
+        private long[] backwardDistance;
+        // The edge slot each vertex was reached through, in the up arrays (forward) or down arrays (backward).
+        private int[] forwardEdge;
+        private int[] backwardEdge;
+        private int[] forwardParent;
+        private int[] backwardParent;
+        private IndexedMinHeap forwardHeap;
+        private IndexedMinHeap backwardHeap;
+        private int[] touched;
+        private int numTouched;
+        private long bestDistance;
+        private int meeting;
+
+        private QuerySearch() {
+            this.forwardDistance = new long[numVertices];
+            this.backwardDistance = new long[numVertices];
+            this.forwardEdge = new int[numVertices];
+            this.backwardEdge = new int[numVertices];
+            this.forwardParent = new int[numVertices];
+            this.backwardParent = new int[numVertices];
+            this.forwardHeap = new IndexedMinHeap(numVertices);
+            this.backwardHeap = new IndexedMinHeap(numVertices);
+            this.touched = new int[numVertices];
+            Arrays.fill(forwardDistance, Long.MAX_VALUE);
+            Arrays.fill(backwardDistance, Long.MAX_VALUE);
+        }
+
+        private void run(int source, int destination) {
+            bestDistance = Long.MAX_VALUE;
+            meeting = -1;
+            touch(source);
+            touch(destination);
+            forwardDistance[source] = 0;
+            forwardParent[source] = -1;
+            backwardDistance[destination] = 0;
+            backwardParent[destination] = -1;
+            forwardHeap.offer(source, 0);
+            backwardHeap.offer(destination, 0);
+            updateBest(source);
+            updateBest(destination);
+
+            // Alternate between the two searches. A search stops once nothing it could still settle beats the best.
+            boolean forward = true;
+            while (true) {
+                boolean forwardDone = forwardHeap.isEmpty() || forwardHeap.peekKey() >= bestDistance;
+                boolean backwardDone = backwardHeap.isEmpty() || backwardHeap.peekKey() >= bestDistance;
+                if (forwardDone && backwardDone) {
+                    break;
+                }
+                if (forward ? !forwardDone : backwardDone) {
+                    step(forwardHeap, forwardDistance, forwardParent, forwardEdge, upOffsets, upTargets, upWeights);
+                } else {
+                    step(backwardHeap, backwardDistance, backwardParent, backwardEdge, downOffsets, downSources,
+                            downWeights);
+                }
+                forward = !forward;
+            }
+        }
+
+        private void step(IndexedMinHeap heap, long[] distance, int[] parent, int[] parentEdge, int[] offsets,
+                          int[] neighbors, long[] weights) {
+            int current = heap.poll();
+            for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+                int next = neighbors[edge];
+                long newDistance = WeightMath.saturatedAdd(distance[current], weights[edge]);
+                if (newDistance < distance[next]) {
+                    touch(next);
+                    distance[next] = newDistance;
+                    parent[next] = current;
+                    parentEdge[next] = edge;
+                    heap.offer(next, newDistance);
+                    updateBest(next);
+                }
+            }
+        }
+
+        private void updateBest(int v) {
+            if (forwardDistance[v] != Long.MAX_VALUE && backwardDistance[v] != Long.MAX_VALUE
+                    && WeightMath.saturatedAdd(forwardDistance[v], backwardDistance[v]) < bestDistance) {
+                bestDistance = forwardDistance[v] + backwardDistance[v];
+                meeting = v;
+            }
+        }
+
+        private void touch(int v) {
+            if (forwardDistance[v] == Long.MAX_VALUE && backwardDistance[v] == Long.MAX_VALUE) {
+                touched[numTouched++] = v;
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < numTouched; i++) {
+                forwardDistance[touched[i]] = Long.MAX_VALUE;
+                backwardDistance[touched[i]] = Long.MAX_VALUE;
+            }
+            numTouched = 0;
+            forwardHeap.clear();
+            backwardHeap.clear();
+        }
+
+        private int[] unpackPath(int source, int destination) {
+            PathBuilder path = new PathBuilder();
+            path.add(source);
+
+            // Collect the vertices from the meeting vertex back up to the source, then unpack their edges in order.
+            int[] climbed = new int[16];
+            int numClimbed = 0;
+            for (int v = meeting; v != source; v = forwardParent[v]) {
+                if (numClimbed == climbed.length) {
+                    climbed = Arrays.copyOf(climbed, numClimbed * 2);
+                }
+                climbed[numClimbed++] = v;
+            }
+            for (int i = numClimbed - 1; i >= 0; i--) {
+                int v = climbed[i];
+                unpack(path, forwardParent[v], upMiddles[forwardEdge[v]], v);
+            }
+
+            // The backward edges already run from the meeting vertex towards the destination.
+            for (int v = meeting; v != destination; v = backwardParent[v]) {
+                int edge = backwardEdge[v];
+                int next = backwardParent[v];
+                unpack(path, v, downMiddles[edge], next);
+            }
+            return path.toArray();
+        }
+
+        // Appends the original vertices of the edge from -> to (excluding from) to the path. A shortcut from -> to
+        // through middle is made of the downward edge from -> middle and the upward edge middle -> to, each of which
+        // may be a shortcut itself, so an explicit stack of pending edges is used.
+        private void unpack(PathBuilder path, int from, int middle, int to) {
+            int[] stack = new int[48];
+            int size = 0;
+            stack[size++] = from;
+            stack[size++] = middle;
+            stack[size++] = to;
+            while (size > 0) {
+                int end = stack[--size];
+                int via = stack[--size];
+                int start = stack[--size];
+                if (via == NO_MIDDLE) {
+                    path.add(end);
+                    continue;
+                }
+                if (size + 6 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                // Push the second half first so the first half is unpacked first.
+                stack[size++] = via;
+                stack[size++] = upMiddle(via, end);
+                stack[size++] = end;
+                stack[size++] = start;
+                stack[size++] = downMiddle(start, via);
+                stack[size++] = via;
+            }
+        }
+
+        // The middle of the upward edge from -> to, stored at from.
+        private int upMiddle(int from, int to) {
+            for (int edge = upOffsets[from]; edge < upOffsets[from + 1]; edge++) {
+                if (upTargets[edge] == to) {
+                    return upMiddles[edge];
+                }
+            }
+            throw new IllegalStateException("Missing hierarchy edge " + from + " -> " + to);
+        }
+
+        // The middle of the downward edge from -> to, stored at to.
+        private int downMiddle(int from, int to) {
+            for (int edge = downOffsets[to]; edge < downOffsets[to + 1]; edge++) {
+                if (downSources[edge] == from) {
+                    return downMiddles[edge];
+                }
+            }
+            throw new IllegalStateException("Missing hierarchy edge " + from + " -> " + to);
+        }
+    }
+
+    private static class PathBuilder {
+        private int[] vertices = new int[16];
+        private int size;
+
+        private void add(int v) {
+            if (size == vertices.length) {
+                vertices = Arrays.copyOf(vertices, size * 2);
+            }
+            vertices[size++] = v;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(vertices, size);
+        }
+    }
+}
@@ -1,83 +1,272 @@
 package com.briandidthat.graphs.algorithms;
 
-import com.briandidthat.graphs.model.DistanceInfo;
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.DoubleShortestPathTree;
 import com.briandidthat.graphs.model.Graph;
-import com.briandidthat.graphs.model.VertexInfo;
+import com.briandidthat.graphs.model.LongShortestPathTree;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.IndexedMinHeap;
+import com.briandidthat.graphs.utils.SearchWorkspace;
+import com.briandidthat.graphs.utils.WeightMath;
 
-import java.util.*;
+import java.util.Arrays;
 
 /**
  * This is an implementation of Djikstra's path finding algorithm using a distance table. This is an example of a
- * "Greedy Algorithm".
+ * "Greedy Algorithm". The distance table is kept in primitive arrays (distance and last vertex) and the priority queue
+ * is an indexed heap, so a shorter path to a vertex already in the queue is a decrease-key rather than a remove. The
+ * int version keeps its tentative distances in longs and only narrows a distance once the vertex is settled, so a long
+ * detour found first does not throw when the shortest path still fits in an int.
+ * There are long and double versions of the search for weights that are too big or not whole numbers; they keep their
+ * distances in primitive long and double arrays.
+ *
+ * The heap comes from the SearchWorkspace of the thread rather than being allocated for every search. findShortestPath
+ * keeps its whole distance table in the workspace and stops once the destination is settled, so it only costs the part
+ * of the graph it explored.
  */
-public class Djikstras {
-    public void findShortestPath(Graph graph, Integer source, Integer destination) {
-        Map<Integer, DistanceInfo> distanceTable = buildDistanceTable(graph, source);
-        // Since this will require backtracking, we will use a stack.
-        Stack<Integer> stack = new Stack<>();
-        stack.push(destination);
-
-        int previousVertex = distanceTable.get(destination).getLastVertex();
-        while (previousVertex != -1 && previousVertex != source) {
-            // Add the last vertex of each node and add it to the stack
-            stack.push(previousVertex);
-            previousVertex = distanceTable.get(previousVertex).getLastVertex();
+public class Djikstras implements ShortestPathTreeBuilder {
+    @Override
+    public ShortestPathTree buildShortestPathTree(Graph graph, int source) {
+        return buildShortestPathTree(graph, source, CancellationToken.NONE);
+    }
+
+    // The token is checked every CHECK_INTERVAL settled vertices. IF it stops the run, the settled vertices have their
+    // final distances and the vertices still in the queue have the best distances found so far.
+    @Override
+    public ShortestPathTree buildShortestPathTree(Graph graph, int source, CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("djikstras");
+        int numVertices = graph.getNumVertices();
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) {
+            long[] distances = workspace.getLongScratch();
+            int[] lastVertices = new int[numVertices];
+            Arrays.fill(distances, 0, numVertices, Long.MAX_VALUE);
+            Arrays.fill(lastVertices, -1);
+
+            distances[source] = 0;
+            lastVertices[source] = source;
+            // This Priority Queue will return nodes in order of the shortest distance from the source.
+            // "Greedy Solution"
+            IndexedMinHeap queue = workspace.getHeap();
+            queue.offer(source, 0);
+            // Count in locals and hand the totals to the run at the end, to keep the loop free of field writes.
+            long settled = 0;
+            RunStatus status = RunStatus.COMPLETED;
+            long relaxed = 0;
+            long pushes = 1;
+            long decreaseKeys = 0;
+
+            while (!queue.isEmpty()) {
+                // Access the priority queue to find the closest vertex.
+                int currentVertex = queue.poll();
+                if ((++settled & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                    status = token.getStatus();
+                    break;
+                }
+                // The distance of a settled vertex is final, so IF it does not fit in an int, the tree cannot be built.
+                WeightMath.toIntDistance(distances[currentVertex]);
+
+                for (int neighbor : graph.getAdjacentVertices(currentVertex)) {
+                    // Get the new distance and account for the weighted edge.
+                    long distance = distances[currentVertex] + graph.getWeightedEdge(currentVertex, neighbor);
+                    relaxed++;
+                    // Check if we have found a shorter path to the neighbor. If so, update the existing distance and
+                    // vertex, and move the neighbor up the queue.
+                    if (distance < distances[neighbor]) {
+                        distances[neighbor] = distance;
+                        lastVertices[neighbor] = currentVertex;
+                        if (queue.contains(neighbor)) {
+                            decreaseKeys++;
+                        } else {
+                            pushes++;
+                        }
+                        queue.offer(neighbor, distance);
+                    }
+                }
+            }
+            run.addVerticesSettled(settled);
+            run.addEdgesRelaxed(relaxed);
+            run.addHeapPushes(pushes);
+            run.addDecreaseKeys(decreaseKeys);
+            run.finish();
+            return new ShortestPathTree(source, narrow(distances, lastVertices, numVertices), lastVertices, status);
         }
-        // IF there was no valid last vertex in the distance table, no path exists from source to destination.
-        if (previousVertex == -1) {
-            System.out.println("There is no path from source: " + source + " to destination: " + destination);
-        } else {
-            System.out.print("Shortest path is: " + source);
-            while(!stack.isEmpty()) {
-                System.out.print(" -> " + stack.pop());
+    }
+
+    // Narrows the distances of a search. Every settled vertex was checked when it was settled; a vertex still in the
+    // queue of a stopped search whose distance does not fit yet is left as not reached.
+    static int[] narrow(long[] distances, int[] lastVertices, int numVertices) {
+        int[] intDistances = new int[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            if (distances[v] >= Integer.MAX_VALUE || distances[v] < Integer.MIN_VALUE) {
+                intDistances[v] = Integer.MAX_VALUE;
+                lastVertices[v] = -1;
+            } else {
+                intDistances[v] = (int) distances[v];
+            }
+        }
+        return intDistances;
+    }
+
+    public LongShortestPathTree buildLongShortestPathTree(Graph graph, int source) {
+        return buildLongShortestPathTree(graph, source, CancellationToken.NONE);
+    }
+
+    // The same search with long distances, for graphs whose weights or path lengths do not fit in an int. The graph can
+    // have int or long weights.
+    public LongShortestPathTree buildLongShortestPathTree(Graph graph, int source, CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("djikstras");
+        int numVertices = graph.getNumVertices();
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) {
+            long[] distances = new long[numVertices];
+            int[] lastVertices = new int[numVertices];
+            Arrays.fill(distances, Long.MAX_VALUE);
+            Arrays.fill(lastVertices, -1);
+
+            distances[source] = 0;
+            lastVertices[source] = source;
+            IndexedMinHeap queue = workspace.getHeap();
+            queue.offer(source, 0);
+            long settled = 0;
+            RunStatus status = RunStatus.COMPLETED;
+            long relaxed = 0;
+            long pushes = 1;
+            long decreaseKeys = 0;
+
+            while (!queue.isEmpty()) {
+                int currentVertex = queue.poll();
+                if ((++settled & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                    status = token.getStatus();
+                    break;
+                }
+
+                for (int neighbor : graph.getAdjacentVertices(currentVertex)) {
+                    long distance = WeightMath.saturatedAdd(distances[currentVertex],
+                            graph.getLongWeightedEdge(currentVertex, neighbor));
+                    relaxed++;
+                    if (distance < distances[neighbor]) {
+                        distances[neighbor] = distance;
+                        lastVertices[neighbor] = currentVertex;
+                        if (queue.contains(neighbor)) {
+                            decreaseKeys++;
+                        } else {
+                            pushes++;
+                        }
+                        queue.offer(neighbor, distance);
+                    }
+                }
             }
-            System.out.println(" We have completed Djikstras Algorithm.");
+            run.addVerticesSettled(settled);
+            run.addEdgesRelaxed(relaxed);
+            run.addHeapPushes(pushes);
+            run.addDecreaseKeys(decreaseKeys);
+            run.finish();
+            return new LongShortestPathTree(source, distances, lastVertices, status);
         }
     }
 
+    public DoubleShortestPathTree buildDoubleShortestPathTree(Graph graph, int source) {
+        return buildDoubleShortestPathTree(graph, source, CancellationToken.NONE);
+    }
+
+    // The same search with double distances, for graphs with fractional weights. The graph can have any weight type.
+    // The queue is keyed by the sortable long form of the distance, so it stays a primitive heap.
+    public DoubleShortestPathTree buildDoubleShortestPathTree(Graph graph, int source, CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("djikstras");
+        int numVertices = graph.getNumVertices();
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) {
+            double[] distances = new double[numVertices];
+            int[] lastVertices = new int[numVertices];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            Arrays.fill(lastVertices, -1);
+
+            distances[source] = 0;
+            lastVertices[source] = source;
+            IndexedMinHeap queue = workspace.getHeap();
+            queue.offer(source, WeightMath.sortableKey(0));
+            long settled = 0;
+            RunStatus status = RunStatus.COMPLETED;
+            long relaxed = 0;
+            long pushes = 1;
+            long decreaseKeys = 0;
 
-    private Map<Integer, DistanceInfo> buildDistanceTable(Graph graph, int source) {
-        Map<Integer, DistanceInfo> distanceTable = new HashMap<>();
-        // This Priority Queue will return nodes in order of the shortest distance from the source. "Greedy Solution"
-        PriorityQueue<VertexInfo> queue = new PriorityQueue<>(Comparator.comparingInt(VertexInfo::getDistance));
-        Map<Integer, VertexInfo> vertexInfoMap = new HashMap<>();
-        // For each vertex we will initialize a distance info entry.
-        for (int i = 0; i < graph.getNumVertices(); i++) {
-            distanceTable.put(i, new DistanceInfo(true));
+            while (!queue.isEmpty()) {
+                int currentVertex = queue.poll();
+                if ((++settled & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                    status = token.getStatus();
+                    break;
+                }
+
+                for (int neighbor : graph.getAdjacentVertices(currentVertex)) {
+                    double distance = distances[currentVertex] + graph.getDoubleWeightedEdge(currentVertex, neighbor);
+                    relaxed++;
+                    if (distance < distances[neighbor]) {
+                        distances[neighbor] = distance;
+                        lastVertices[neighbor] = currentVertex;
+                        if (queue.contains(neighbor)) {
+                            decreaseKeys++;
+                        } else {
+                            pushes++;
+                        }
+                        queue.offer(neighbor, WeightMath.sortableKey(distance));
+                    }
+                }
+            }
+            run.addVerticesSettled(settled);
+            run.addEdgesRelaxed(relaxed);
+            run.addHeapPushes(pushes);
+            run.addDecreaseKeys(decreaseKeys);
+            run.finish();
+            return new DoubleShortestPathTree(source, distances, lastVertices, status);
         }
+    }
 
-        distanceTable.get(source).setDistance(0);
-        distanceTable.get(source).setLastVertex(source);
-        // Initialize and add the source to the priority queue since we will explore it first.
-        VertexInfo sourceVertex = new VertexInfo(source, 0);
-        queue.add(sourceVertex);
-        vertexInfoMap.put(source, sourceVertex);
-
-        while (!queue.isEmpty()) {
-            // Access the priority queue to find the closest vertex.
-            VertexInfo vertexInfo = queue.poll();
-            int currentVertex = vertexInfo.getVertexId();
-
-            for (Integer neighbor : graph.getAdjacentVertices(currentVertex)) {
-                // Get the new distance and account for the weighted edge.
-                int distance = distanceTable.get(currentVertex).getDistance() +
-                        graph.getWeightedEdge(currentVertex, neighbor);
-                // Check if we have found a shorter path to the neighbor. If so, update the existing distance and vertex.
-                if (distance < distanceTable.get(neighbor).getDistance()) {
-                    distanceTable.get(neighbor).setDistance(distance);
-                    distanceTable.get(neighbor).setLastVertex(currentVertex);
-                    // Since we've found a new shortest path to the neighbor, remove the old one from the queue.
-                    VertexInfo neighborVertexInfo = vertexInfoMap.get(neighbor);
-                    if (neighborVertexInfo != null) {
-                        queue.remove(neighborVertexInfo);
+    // Returns the vertices on the shortest path from source to destination, or an empty array IF there is no path.
+    public int[] findShortestPath(Graph graph, int source, int destination) {
+        int numVertices = graph.getNumVertices();
+        if (source >= numVertices || source < 0 || destination >= numVertices || destination < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        AlgorithmRun run = AlgorithmMetrics.start("djikstras");
+        long settled = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        long decreaseKeys = 0;
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) {
+            IndexedMinHeap queue = workspace.getHeap();
+            workspace.set(source, 0, source);
+            queue.offer(source, 0);
+            while (!queue.isEmpty()) {
+                int currentVertex = queue.poll();
+                settled++;
+                // The destination is settled, so its distance is final.
+                if (currentVertex == destination) {
+                    break;
+                }
+                long currentDistance = workspace.getDistance(currentVertex);
+                for (int neighbor : graph.getAdjacentVertices(currentVertex)) {
+                    long distance = currentDistance + graph.getWeightedEdge(currentVertex, neighbor);
+                    relaxed++;
+                    if (distance < workspace.getDistance(neighbor)) {
+                        workspace.set(neighbor, distance, currentVertex);
+                        if (queue.contains(neighbor)) {
+                            decreaseKeys++;
+                        } else {
+                            pushes++;
+                        }
+                        queue.offer(neighbor, distance);
                     }
-                    // Enter the neighbor with the updated values.
-                    neighborVertexInfo = new VertexInfo(neighbor, distance);
-                    queue.add(neighborVertexInfo);
-                    vertexInfoMap.put(neighbor, neighborVertexInfo);
                 }
             }
+            return workspace.getPath(source, destination);
+        } finally {
+            run.addVerticesSettled(settled);
+            run.addEdgesRelaxed(relaxed);
+            run.addHeapPushes(pushes);
+            run.addDecreaseKeys(decreaseKeys);
+            run.finish();
         }
-        return distanceTable;
     }
 }
@@ -0,0 +1,233 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.GraphListener;
+import com.briandidthat.graphs.utils.IndexedMinHeap;
+import com.briandidthat.graphs.utils.WeightMath;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the shortest path tree of one source up to date while the graph changes, in the style of
+ * Ramalingam and Reps. It listens to the graph, and when an edge is added or gets cheaper it only repairs the vertices
+ * whose distance actually improves: starting from the far end of the edge, a Djikstra search spreads the improvement
+ * and stops wherever the old distances are already as good. The cost is proportional to the part of the tree that
+ * changed rather than the whole graph.
+ *
+ * An edge that gets more expensive or is removed only matters IF it is in the tree. In that case the subtree
+ * hanging below it has lost its path. On an undirected graph that subtree is cleared and rebuilt from the neighbors
+ * around it, as long as it is smaller than maxRepairFraction of the graph. Otherwise, and always on a directed graph
+ * (which has no cheap way to find the incoming edges of the subtree), the whole tree is recomputed.
+ *
+ * Weights must be non-negative ints or longs, and double weights are rejected. Distances are longs that stop at
+ * Long.MAX_VALUE instead of overflowing. An unweighted graph counts every edge as 1. This class is not thread-safe: it
+ * must be updated and read from the thread that changes the graph. Call close() to stop listening to the graph.
+ *
+ * Every change is one run of the metrics. A full recompute counts as a pass of that run, so the passes over the runs
+ * show how often the local repair gave up.
+ */
+public class DynamicShortestPaths implements GraphListener, AutoCloseable {
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+    private static final double DEFAULT_MAX_REPAIR_FRACTION = 0.25;
+
+    private Graph graph;
+    private int source;
+    private double maxRepairFraction;
+    private long[] distances;
+    private int[] lastVertices;
+    private IndexedMinHeap heap;
+    private int numRecomputes;
+
+    public DynamicShortestPaths(Graph graph, int source) {
+        this(graph, source, DEFAULT_MAX_REPAIR_FRACTION);
+    }
+
+    public DynamicShortestPaths(Graph graph, int source, double maxRepairFraction) {
+        if (source >= graph.getNumVertices() || source < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        if (graph.isWeighted() && graph.weightType() == Graph.WeightType.DOUBLE) {
+            throw new IllegalArgumentException("Dynamic shortest paths do not support double weights.");
+        }
+        this.graph = graph;
+        this.source = source;
+        this.maxRepairFraction = maxRepairFraction;
+        this.distances = new long[graph.getNumVertices()];
+        this.lastVertices = new int[graph.getNumVertices()];
+        this.heap = new IndexedMinHeap(graph.getNumVertices());
+        AlgorithmRun run = AlgorithmMetrics.start("dynamic-shortest-paths");
+        recompute(run);
+        run.finish();
+        graph.addListener(this);
+    }
+
+    // Returns the distance from the source, or -1 IF the vertex cannot be reached.
+    public long getDistance(int v) {
+        return distances[v] == UNREACHABLE ? -1 : distances[v];
+    }
+
+    public int getLastVertex(int v) {
+        return lastVertices[v];
+    }
+
+    // Returns the vertices from the source to the destination, or an empty array IF there is no path.
+    public int[] getPath(int destination) {
+        if (lastVertices[destination] == -1) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int v = destination; v != source; v = lastVertices[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int i = length - 1, v = destination; i >= 0; i--, v = lastVertices[v]) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    // The number of times a change could not be repaired locally and the whole tree was recomputed.
+    public int getNumRecomputes() {
+        return numRecomputes;
+    }
+
+    @Override
+    public void close() {
+        graph.removeListener(this);
+    }
+
+    @Override
+    public void edgeChanged(Graph graph, int v1, int v2, Change change, long previousWeight, long weight) {
+        AlgorithmRun run = AlgorithmMetrics.start("dynamic-shortest-paths");
+        edgeChanged(v1, v2, change, previousWeight, weight, run);
+        if (graph.graphType() == Graph.GraphType.UNDIRECTED) {
+            edgeChanged(v2, v1, change, previousWeight, weight, run);
+        }
+        run.finish();
+    }
+
+    private void edgeChanged(int from, int to, Change change, long previousWeight, long weight, AlgorithmRun run) {
+        if (change != Change.REMOVED && weight < 0) {
+            throw new IllegalArgumentException("Dynamic shortest paths require non-negative weights.");
+        }
+
+        if (change == Change.ADDED || (change == Change.WEIGHT_CHANGED && weight < previousWeight)) {
+            // The edge was added or got cheaper. IF it gives a shorter path to its far end, spread the improvement.
+            long distance = WeightMath.saturatedAdd(distances[from], weight);
+            if (distances[from] != UNREACHABLE && distance < distances[to]) {
+                distances[to] = distance;
+                lastVertices[to] = from;
+                heap.offer(to, distances[to]);
+                run.addHeapPushes(1);
+                propagate(run);
+            }
+        } else if (lastVertices[to] == from && to != source) {
+            // A tree edge got more expensive or was removed.
+            repairSubtree(to, run);
+        }
+    }
+
+    // Djikstra's algorithm from the vertices in the heap, only following edges that improve a distance.
+    private void propagate(AlgorithmRun run) {
+        long settled = 0;
+        long relaxed = 0;
+        long pushes = 0;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled++;
+            for (int neighbor : graph.getAdjacentVertices(current)) {
+                relaxed++;
+                long distance = WeightMath.saturatedAdd(distances[current], weight(current, neighbor));
+                if (distance < distances[neighbor]) {
+                    distances[neighbor] = distance;
+                    lastVertices[neighbor] = current;
+                    heap.offer(neighbor, distance);
+                    pushes++;
+                }
+            }
+        }
+        run.addVerticesSettled(settled);
+        run.addEdgesRelaxed(relaxed);
+        run.addHeapPushes(pushes);
+    }
+
+    private void repairSubtree(int root, AlgorithmRun run) {
+        int[] subtree = graph.graphType() == Graph.GraphType.UNDIRECTED ? collectSubtree(root) : null;
+        if (subtree == null || subtree.length > maxRepairFraction * graph.getNumVertices()) {
+            numRecomputes++;
+            recompute(run);
+            return;
+        }
+
+        // Forget the paths of the whole subtree, then offer every subtree vertex the best path through a neighbor
+        // outside of it and let Djikstra's algorithm settle the rest.
+        for (int v : subtree) {
+            distances[v] = UNREACHABLE;
+            lastVertices[v] = -1;
+        }
+        for (int v : subtree) {
+            for (int neighbor : graph.getAdjacentVertices(v)) {
+                if (distances[neighbor] == UNREACHABLE) {
+                    continue;
+                }
+                long distance = WeightMath.saturatedAdd(distances[neighbor], weight(neighbor, v));
+                if (distance < distances[v]) {
+                    distances[v] = distance;
+                    lastVertices[v] = neighbor;
+                    heap.offer(v, distance);
+                }
+            }
+        }
+        propagate(run);
+    }
+
+    // Every vertex whose path runs through root, root included.
+    private int[] collectSubtree(int root) {
+        int numVertices = graph.getNumVertices();
+        // Turn the last vertex array into child lists, stored as linked lists in two arrays.
+        int[] firstChild = new int[numVertices];
+        int[] nextSibling = new int[numVertices];
+        Arrays.fill(firstChild, -1);
+        for (int v = 0; v < numVertices; v++) {
+            int parent = lastVertices[v];
+            if (parent != -1 && v != source) {
+                nextSibling[v] = firstChild[parent];
+                firstChild[parent] = v;
+            }
+        }
+
+        int[] subtree = new int[numVertices];
+        int size = 0;
+        subtree[size++] = root;
+        for (int i = 0; i < size; i++) {
+            for (int child = firstChild[subtree[i]]; child != -1; child = nextSibling[child]) {
+                subtree[size++] = child;
+            }
+        }
+        return Arrays.copyOf(subtree, size);
+    }
+
+    private void recompute(AlgorithmRun run) {
+        run.addPasses(1);
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(lastVertices, -1);
+        distances[source] = 0;
+        lastVertices[source] = source;
+        heap.clear();
+        heap.offer(source, 0);
+        propagate(run);
+    }
+
+    private long weight(int v1, int v2) {
+        if (!graph.isWeighted()) {
+            return 1;
+        }
+        long weight = graph.getLongWeightedEdge(v1, v2);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Dynamic shortest paths require non-negative weights.");
+        }
+        return weight;
+    }
+}
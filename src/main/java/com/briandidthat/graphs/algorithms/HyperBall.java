@@ -0,0 +1,252 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.NeighbourhoodFunction;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.ParallelHelper;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is an implementation of HyperBall, which estimates the neighbourhood function of a graph (how many pairs of
+ * vertices are within t hops, for every t) without a search from every vertex. Every vertex gets a HyperLogLog counter
+ * that starts out holding only itself. In iteration t, every vertex takes the union of its counter with the counters of
+ * its neighbors, so afterwards it counts the ball of radius t around it. The iterations stop when no counter changes,
+ * which happens after about diameter iterations. The sizes of the balls give the neighbourhood function, and their
+ * growth gives the closeness and harmonic centrality of every vertex, all in O(diameter * E) word operations.
+ *
+ * Each counter is 2^log2Registers registers of 8 bits, packed 8 to a long in one long array for all the vertices, so
+ * the memory is fixed per vertex. The union of two counters is a register-wise maximum, done 8 registers at a time with
+ * broadword arithmetic. A vertex only needs a new union IF one of its neighbors changed in the last iteration, so the
+ * later iterations, when most counters have stopped growing, are cheap. The vertices are split across a fork join
+ * pool; every vertex writes only its own counter, so no locking is needed.
+ *
+ * The balls follow the outgoing edges, so the distances are the distances from each vertex. The token is checked before
+ * every iteration.
+ */
+public class HyperBall {
+    private static final int REGISTERS_PER_LONG = 8;
+    // The top bit of every 8 bit register. Registers never get that high, which keeps the broadword maximum exact.
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    private ForkJoinPool pool;
+    private int log2Registers;
+    private long seed;
+
+    public HyperBall() {
+        this(ForkJoinPool.commonPool(), 6, 0);
+    }
+
+    // More registers per vertex give better estimates for more memory: the relative error is about
+    // 1.04 / sqrt(2^log2Registers), and every vertex takes 2 * 2^log2Registers bytes.
+    public HyperBall(ForkJoinPool pool, int log2Registers, long seed) {
+        if (log2Registers < 4 || log2Registers > 16) {
+            throw new IllegalArgumentException("The number of registers must be between 2^4 and 2^16.");
+        }
+        this.pool = pool;
+        this.log2Registers = log2Registers;
+        this.seed = seed;
+    }
+
+    public NeighbourhoodFunction run(Graph graph) {
+        return run(new AdjacencyArrays(graph), CancellationToken.NONE);
+    }
+
+    public NeighbourhoodFunction run(Graph graph, CancellationToken token) {
+        return run(new AdjacencyArrays(graph), token);
+    }
+
+    public NeighbourhoodFunction run(AdjacencyArrays adjacency, CancellationToken token) {
+        int numVertices = adjacency.getNumVertices();
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+        int numRegisters = 1 << log2Registers;
+        int words = numRegisters / REGISTERS_PER_LONG;
+        if ((long) numVertices * words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The graph is too large for this many registers.");
+        }
+
+        AlgorithmRun run = AlgorithmMetrics.start("hyperball");
+        run.phase("initialize");
+        long[] current = new long[numVertices * words];
+        long[] next = new long[numVertices * words];
+        // The size of every ball as of the last iteration, and the running sums for the centralities.
+        double[] sizes = new double[numVertices];
+        double[] distanceSums = new double[numVertices];
+        double[] harmonic = new double[numVertices];
+        boolean[] changed = new boolean[numVertices];
+        boolean[] nextChanged = new boolean[numVertices];
+        long[] initial = current;
+        boolean[] initialFlags = changed;
+        ParallelHelper.forEach(pool, numVertices, v -> {
+            add(initial, v * words, v);
+            sizes[v] = estimate(initial, v * words, words);
+            initialFlags[v] = true;
+        });
+        double[] function = new double[16];
+        function[0] = sum(sizes);
+        int numIterations = 0;
+
+        run.phase("iterate");
+        RunStatus status = RunStatus.COMPLETED;
+        LongAdder unions = new LongAdder();
+        while (true) {
+            if (token.isCancelled()) {
+                status = token.getStatus();
+                break;
+            }
+            int t = numIterations + 1;
+            boolean[] last = changed;
+            long[] counters = current;
+            long[] updated = next;
+            boolean[] updatedFlags = nextChanged;
+            LongAdder numChanged = new LongAdder();
+            ParallelHelper.forEachRange(pool, numVertices, MIN_CHUNK_SIZE, (start, end) -> {
+                long localUnions = 0;
+                long localChanged = 0;
+                for (int v = start; v < end; v++) {
+                    int base = v * words;
+                    System.arraycopy(counters, base, updated, base, words);
+                    boolean grew = false;
+                    for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                        int neighbor = targets[edge];
+                        // A neighbor that did not change was already taken in during the last iteration.
+                        if (!last[neighbor]) {
+                            continue;
+                        }
+                        localUnions++;
+                        grew |= union(updated, base, counters, neighbor * words, words);
+                    }
+                    updatedFlags[v] = grew;
+                    if (grew) {
+                        localChanged++;
+                        // The new vertices in the ball are at distance t.
+                        double size = Math.max(sizes[v], estimate(updated, base, words));
+                        double found = size - sizes[v];
+                        distanceSums[v] += t * found;
+                        harmonic[v] += found / t;
+                        sizes[v] = size;
+                    }
+                }
+                unions.add(localUnions);
+                numChanged.add(localChanged);
+            });
+            run.addPasses(1);
+            if (numChanged.sum() == 0) {
+                break;
+            }
+            numIterations = t;
+            if (t == function.length) {
+                function = Arrays.copyOf(function, t * 2);
+            }
+            function[t] = sum(sizes);
+
+            long[] swapCounters = current;
+            current = next;
+            next = swapCounters;
+            boolean[] swapFlags = changed;
+            changed = nextChanged;
+            nextChanged = swapFlags;
+        }
+        run.addEdgesRelaxed(unions.sum());
+        run.finish();
+
+        double[] closeness = new double[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            closeness[v] = distanceSums[v] > 0 ? 1 / distanceSums[v] : 0;
+        }
+        return new NeighbourhoodFunction(Arrays.copyOf(function, numIterations + 1), closeness, harmonic, status);
+    }
+
+    // Adds the vertex to the counter at base: the top bits of its hash pick a register, and the register keeps the
+    // largest number of leading zeros (plus one) seen in the rest of the hash.
+    private void add(long[] counters, int base, int vertex) {
+        long hash = mix(vertex + seed * 0x9E3779B97F4A7C15L);
+        int register = (int) (hash >>> (Long.SIZE - log2Registers));
+        // The extra bit stops the count at 64 - log2Registers + 1, well below the top bit of a register.
+        long rest = (hash << log2Registers) | (1L << (log2Registers - 1));
+        long rank = Long.numberOfLeadingZeros(rest) + 1;
+        int word = base + register / REGISTERS_PER_LONG;
+        int shift = (register % REGISTERS_PER_LONG) * 8;
+        if (((counters[word] >>> shift) & 0xFF) < rank) {
+            counters[word] = (counters[word] & ~(0xFFL << shift)) | (rank << shift);
+        }
+    }
+
+    // The SplitMix64 finalizer, so nearby vertex ids get unrelated hashes.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Sets the counter at base to the register-wise maximum of itself and the other counter. Returns true IF any
+    // register went up.
+    private static boolean union(long[] counters, int base, long[] others, int otherBase, int words) {
+        boolean grew = false;
+        for (int i = 0; i < words; i++) {
+            long x = counters[base + i];
+            long y = others[otherBase + i];
+            // With the top bit of every register of x set, x - y cannot borrow from one register into the next, and
+            // the top bit of a register survives exactly where x >= y. Spread it into a mask of the registers to keep.
+            long keepX = ((x | HIGH_BITS) - y) & HIGH_BITS;
+            keepX = (keepX >>> 7) * 0xFF;
+            long max = (x & keepX) | (y & ~keepX);
+            if (max != x) {
+                counters[base + i] = max;
+                grew = true;
+            }
+        }
+        return grew;
+    }
+
+    // The HyperLogLog estimate of the counter at base, with linear counting while there are many empty registers.
+    private static double estimate(long[] counters, int base, int words) {
+        int numRegisters = words * REGISTERS_PER_LONG;
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < words; i++) {
+            long word = counters[base + i];
+            for (int shift = 0; shift < Long.SIZE; shift += 8) {
+                int register = (int) ((word >>> shift) & 0xFF);
+                sum += Double.longBitsToDouble((long) (1023 - register) << 52);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        }
+        double estimate = alpha(numRegisters) * numRegisters * numRegisters / sum;
+        if (estimate <= 2.5 * numRegisters && zeros > 0) {
+            return numRegisters * Math.log((double) numRegisters / zeros);
+        }
+        return estimate;
+    }
+
+    private static double alpha(int numRegisters) {
+        switch (numRegisters) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / numRegisters);
+        }
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,457 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.RankedPaths;
+import com.briandidthat.graphs.utils.IndexedMinHeap;
+import com.briandidthat.graphs.utils.ParallelHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This is an implementation of Yen's algorithm for the k shortest loopless paths. Every new path is found by taking a
+ * path already found, keeping a prefix of it (the root) and searching for the best way to the destination that leaves
+ * the root at its last vertex (the spur) through an edge no earlier path with the same root took, without going back
+ * through the root. The best of all these candidates is the next path. Lawler's rule only spurs a path from the vertex
+ * where it left its parent onward, which also keeps the same candidate from being found twice.
+ *
+ * The spur searches reuse one shortest path tree towards the destination, built once on the reversed graph. Its
+ * distances are exact lower bounds for every spur search, so each search is an A* search that goes almost straight to
+ * the destination, and it stops as soon as the tree path from the vertex it reached is still allowed. The spur searches
+ * of one path are independent and run in parallel, each thread with its own reused arrays. The candidates are kept in
+ * one heap of primitive keys.
+ *
+ * IF preferFewerEdges is true, paths of the same distance are ranked by their number of edges, and costs are packed
+ * into a long with the distance in the high bits and the number of edges in the low bits, like in ShortestDistance.
+ * Only as many low bits are used as the edge counts need, and a graph whose weights could push a packed cost past a
+ * long is rejected. Otherwise the cost is the distance alone and equal paths come in the order they were found.
+ * Weights must be non-negative ints; long and double weights are rejected.
+ */
+public class KShortestPaths {
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private ForkJoinPool pool;
+    private boolean preferFewerEdges;
+    private ThreadLocal<Workspace> workspaces;
+
+    public KShortestPaths() {
+        this(ForkJoinPool.commonPool(), false);
+    }
+
+    public KShortestPaths(ForkJoinPool pool, boolean preferFewerEdges) {
+        this.pool = pool;
+        this.preferFewerEdges = preferFewerEdges;
+        this.workspaces = ThreadLocal.withInitial(Workspace::new);
+    }
+
+    public RankedPaths findPaths(Graph graph, int source, int destination, int k) {
+        if (graph.isWeighted() && graph.weightType() != Graph.WeightType.INT) {
+            throw new IllegalArgumentException("K shortest paths only support int weights.");
+        }
+        return findPaths(new AdjacencyArrays(graph), new AdjacencyArrays(graph, true), source, destination, k);
+    }
+
+    // Takes the outgoing and incoming snapshots of the graph, so queries on the same graph can share them.
+    public RankedPaths findPaths(AdjacencyArrays outgoing, AdjacencyArrays incoming, int source, int destination,
+                                 int k) {
+        int numVertices = outgoing.getNumVertices();
+        if (source >= numVertices || source < 0 || destination >= numVertices || destination < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        if (k < 1) {
+            throw new IllegalArgumentException("At least one path must be asked for.");
+        }
+        if (!hasIntWeights(outgoing) || !hasIntWeights(incoming)) {
+            throw new IllegalArgumentException("K shortest paths only support int weights.");
+        }
+        long totalWeight = outgoing.getNumEdges();
+        if (outgoing.isWeighted()) {
+            totalWeight = 0;
+            for (int weight : outgoing.getWeights()) {
+                if (weight < 0) {
+                    throw new IllegalArgumentException("K shortest paths require non-negative weights.");
+                }
+                totalWeight += weight;
+            }
+        }
+        int shift = costShift(numVertices, totalWeight);
+
+        AlgorithmRun run = AlgorithmMetrics.start("k-shortest-paths");
+        run.phase("reverse-tree");
+        long[] treeCosts = new long[numVertices];
+        int[] nextVertices = new int[numVertices];
+        buildReverseTree(incoming, destination, treeCosts, nextVertices, shift);
+        if (treeCosts[source] == UNREACHABLE) {
+            run.finish();
+            return new RankedPaths(new int[0][], new long[0]);
+        }
+
+        run.phase("spur-searches");
+        List<int[]> paths = new ArrayList<>();
+        long[] costs = new long[k];
+        int[] deviations = new int[k];
+        paths.add(treePath(source, destination, nextVertices));
+        costs[0] = treeCosts[source];
+        CandidateHeap candidates = new CandidateHeap();
+
+        while (paths.size() < k) {
+            int[] last = paths.get(paths.size() - 1);
+            int deviation = deviations[paths.size() - 1];
+            long[] prefixCosts = prefixCosts(outgoing, last, shift);
+            int numSpurs = last.length - 1 - deviation;
+            int[][] spurPaths = new int[numSpurs][];
+            long[] spurCosts = new long[numSpurs];
+
+            ParallelHelper.forEachRange(pool, numSpurs, 1, (start, end) -> {
+                Workspace workspace = workspaces.get();
+                workspace.ensureCapacity(numVertices);
+                for (int i = start; i < end; i++) {
+                    int spurIndex = deviation + i;
+                    int[] blockedNext = blockedNextVertices(paths, last, spurIndex);
+                    spurPaths[i] = workspace.search(outgoing, treeCosts, nextVertices, last, spurIndex, blockedNext,
+                            destination, shift);
+                    spurCosts[i] = workspace.spurCost;
+                }
+            });
+
+            // Add the candidates in spur order, so the result does not depend on the timing of the threads.
+            for (int i = 0; i < numSpurs; i++) {
+                if (spurPaths[i] == null) {
+                    continue;
+                }
+                int spurIndex = deviation + i;
+                int[] candidate = new int[spurIndex + spurPaths[i].length];
+                System.arraycopy(last, 0, candidate, 0, spurIndex);
+                System.arraycopy(spurPaths[i], 0, candidate, spurIndex, spurPaths[i].length);
+                candidates.offer(prefixCosts[spurIndex] + spurCosts[i], candidate, spurIndex);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            costs[paths.size()] = candidates.peekCost();
+            deviations[paths.size()] = candidates.peekDeviation();
+            paths.add(candidates.poll());
+        }
+        run.addPasses(paths.size());
+        run.finish();
+
+        int[][] result = paths.toArray(new int[0][]);
+        long[] distances = new long[result.length];
+        for (int i = 0; i < result.length; i++) {
+            distances[i] = costs[i] >>> shift;
+        }
+        return new RankedPaths(result, distances);
+    }
+
+    private static boolean hasIntWeights(AdjacencyArrays adjacency) {
+        return !adjacency.isWeighted() || adjacency.getWeightType() == Graph.WeightType.INT;
+    }
+
+    // The number of low bits that hold the number of edges. A cost in the searches is at most a root, a spur path and
+    // a tree path, each of them loopless, so it is below three times the total weight and three times the number of
+    // vertices in edges.
+    private int costShift(int numVertices, long totalWeight) {
+        if (!preferFewerEdges) {
+            return 0;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(3L * numVertices);
+        if (totalWeight > (Long.MAX_VALUE >>> shift) / 3) {
+            throw new IllegalArgumentException("The weights are too large to rank paths by their number of edges.");
+        }
+        return shift;
+    }
+
+    // The packed cost of one edge: its weight in the high bits and, IF edges count, 1 in the low bits.
+    private long edgeCost(int[] weights, int edge, int shift) {
+        return ((long) (weights == null ? 1 : weights[edge]) << shift) | (preferFewerEdges ? 1 : 0);
+    }
+
+    // Djikstra's algorithm from the destination over the incoming edges. treeCosts[v] is the cost of the best path
+    // from v to the destination and nextVertices[v] the vertex after v on it.
+    private void buildReverseTree(AdjacencyArrays incoming, int destination, long[] treeCosts, int[] nextVertices,
+                                  int shift) {
+        int[] offsets = incoming.getOffsets();
+        int[] targets = incoming.getTargets();
+        int[] weights = incoming.getWeights();
+        Arrays.fill(treeCosts, UNREACHABLE);
+        Arrays.fill(nextVertices, -1);
+        treeCosts[destination] = 0;
+        IndexedMinHeap heap = new IndexedMinHeap(treeCosts.length);
+        heap.offer(destination, 0);
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                int u = targets[edge];
+                long cost = treeCosts[v] + edgeCost(weights, edge, shift);
+                if (cost < treeCosts[u]) {
+                    treeCosts[u] = cost;
+                    nextVertices[u] = v;
+                    heap.offer(u, cost);
+                }
+            }
+        }
+    }
+
+    private int[] treePath(int from, int destination, int[] nextVertices) {
+        int length = 1;
+        for (int v = from; v != destination; v = nextVertices[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        int v = from;
+        for (int i = 0; i < length; i++) {
+            path[i] = v;
+            v = nextVertices[v];
+        }
+        return path;
+    }
+
+    // prefixCosts[i] is the cost of the path up to its i-th vertex.
+    private long[] prefixCosts(AdjacencyArrays outgoing, int[] path, int shift) {
+        int[] offsets = outgoing.getOffsets();
+        int[] targets = outgoing.getTargets();
+        int[] weights = outgoing.getWeights();
+        long[] prefixCosts = new long[path.length];
+        for (int i = 1; i < path.length; i++) {
+            int u = path[i - 1];
+            long best = UNREACHABLE;
+            for (int edge = offsets[u]; edge < offsets[u + 1]; edge++) {
+                if (targets[edge] == path[i]) {
+                    best = Math.min(best, edgeCost(weights, edge, shift));
+                }
+            }
+            prefixCosts[i] = prefixCosts[i - 1] + best;
+        }
+        return prefixCosts;
+    }
+
+    // The vertices that earlier paths with the same root as path[0..spurIndex] went to next. The spur search may not
+    // take those edges again.
+    private int[] blockedNextVertices(List<int[]> paths, int[] path, int spurIndex) {
+        int[] blocked = new int[paths.size()];
+        int numBlocked = 0;
+        for (int[] other : paths) {
+            if (other.length <= spurIndex + 1) {
+                continue;
+            }
+            boolean sameRoot = true;
+            for (int i = 0; i <= spurIndex && sameRoot; i++) {
+                sameRoot = other[i] == path[i];
+            }
+            if (sameRoot) {
+                blocked[numBlocked++] = other[spurIndex + 1];
+            }
+        }
+        return Arrays.copyOf(blocked, numBlocked);
+    }
+
+    // The arrays of one thread's spur searches. Entries are only valid IF their stamp is the current one, so nothing
+    // is cleared between searches.
+    private class Workspace {
+        private long[] costs = new long[0];
+        private int[] lastVertices = new int[0];
+        private int[] seen = new int[0];
+        private int[] blocked = new int[0];
+        private int[] onPrefix = new int[0];
+        private int stamp;
+        private int prefixStamp;
+        private IndexedMinHeap heap = new IndexedMinHeap(0);
+        private long spurCost;
+
+        private void ensureCapacity(int numVertices) {
+            if (costs.length != numVertices) {
+                costs = new long[numVertices];
+                lastVertices = new int[numVertices];
+                seen = new int[numVertices];
+                blocked = new int[numVertices];
+                onPrefix = new int[numVertices];
+                heap = new IndexedMinHeap(numVertices);
+                stamp = 0;
+                prefixStamp = 0;
+            }
+        }
+
+        // A* from path[spurIndex] to the destination, avoiding the root path[0..spurIndex - 1] and the blocked next
+        // vertices. Returns the spur path and sets spurCost, or returns null IF there is no such path.
+        private int[] search(AdjacencyArrays outgoing, long[] treeCosts, int[] nextVertices, int[] path, int spurIndex,
+                             int[] blockedNext, int destination, int shift) {
+            int[] offsets = outgoing.getOffsets();
+            int[] targets = outgoing.getTargets();
+            int[] weights = outgoing.getWeights();
+            if (++stamp == 0) {
+                Arrays.fill(seen, 0);
+                Arrays.fill(blocked, 0);
+                stamp = 1;
+            }
+            int spur = path[spurIndex];
+            for (int i = 0; i < spurIndex; i++) {
+                blocked[path[i]] = stamp;
+            }
+
+            costs[spur] = 0;
+            lastVertices[spur] = -1;
+            seen[spur] = stamp;
+            heap.offer(spur, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                if (u != spur && treePathAllowed(u, spur, nextVertices, destination)) {
+                    heap.clear();
+                    spurCost = costs[u] + treeCosts[u];
+                    return spurPath(u, spur, nextVertices, destination);
+                }
+                for (int edge = offsets[u]; edge < offsets[u + 1]; edge++) {
+                    int v = targets[edge];
+                    if (v == spur || blocked[v] == stamp || treeCosts[v] == UNREACHABLE ||
+                            (u == spur && contains(blockedNext, v))) {
+                        continue;
+                    }
+                    long cost = costs[u] + edgeCost(weights, edge, shift);
+                    if (seen[v] != stamp || cost < costs[v]) {
+                        seen[v] = stamp;
+                        costs[v] = cost;
+                        lastVertices[v] = u;
+                        heap.offer(v, cost + treeCosts[v]);
+                    }
+                }
+            }
+            return null;
+        }
+
+        // The tree path from u is allowed IF it avoids the spur, the root and the part of the spur path before u.
+        private boolean treePathAllowed(int u, int spur, int[] nextVertices, int destination) {
+            if (u == destination) {
+                return true;
+            }
+            if (++prefixStamp == 0) {
+                Arrays.fill(onPrefix, 0);
+                prefixStamp = 1;
+            }
+            for (int v = u; v != -1; v = lastVertices[v]) {
+                onPrefix[v] = prefixStamp;
+            }
+            for (int v = nextVertices[u]; ; v = nextVertices[v]) {
+                if (v == spur || blocked[v] == stamp || onPrefix[v] == prefixStamp) {
+                    return false;
+                }
+                if (v == destination) {
+                    return true;
+                }
+            }
+        }
+
+        private int[] spurPath(int u, int spur, int[] nextVertices, int destination) {
+            int prefixLength = 1;
+            for (int v = u; v != spur; v = lastVertices[v]) {
+                prefixLength++;
+            }
+            int suffixLength = 0;
+            for (int v = u; v != destination; v = nextVertices[v]) {
+                suffixLength++;
+            }
+            int[] spurPath = new int[prefixLength + suffixLength];
+            int v = u;
+            for (int i = prefixLength - 1; i >= 0; i--) {
+                spurPath[i] = v;
+                v = lastVertices[v];
+            }
+            v = u;
+            for (int i = prefixLength; i < spurPath.length; i++) {
+                v = nextVertices[v];
+                spurPath[i] = v;
+            }
+            return spurPath;
+        }
+
+        private boolean contains(int[] values, int value) {
+            for (int v : values) {
+                if (v == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // A binary min heap of candidate paths, ordered by packed cost and then by the order they were added. The keys are
+    // kept in a primitive array; the paths themselves are only touched when a candidate is taken.
+    private static class CandidateHeap {
+        private long[] costs = new long[16];
+        private int[] ids = new int[16];
+        private int size;
+        private List<int[]> paths = new ArrayList<>();
+        private int[] deviations = new int[16];
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void offer(long cost, int[] path, int deviation) {
+            int id = paths.size();
+            paths.add(path);
+            if (id == deviations.length) {
+                deviations = Arrays.copyOf(deviations, id * 2);
+            }
+            deviations[id] = deviation;
+            if (size == costs.length) {
+                costs = Arrays.copyOf(costs, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int i = size++;
+            // Sift up.
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!less(cost, id, costs[parent], ids[parent])) {
+                    break;
+                }
+                costs[i] = costs[parent];
+                ids[i] = ids[parent];
+                i = parent;
+            }
+            costs[i] = cost;
+            ids[i] = id;
+        }
+
+        private long peekCost() {
+            return costs[0];
+        }
+
+        private int peekDeviation() {
+            return deviations[ids[0]];
+        }
+
+        private int[] poll() {
+            int[] path = paths.get(ids[0]);
+            // Drop the reference, the path now belongs to the result.
+            paths.set(ids[0], null);
+            size--;
+            long cost = costs[size];
+            int id = ids[size];
+            int i = 0;
+            // Sift down.
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && less(costs[child + 1], ids[child + 1], costs[child], ids[child])) {
+                    child++;
+                }
+                if (!less(costs[child], ids[child], cost, id)) {
+                    break;
+                }
+                costs[i] = costs[child];
+                ids[i] = ids[child];
+                i = child;
+            }
+            costs[i] = cost;
+            ids[i] = id;
+            return path;
+        }
+
+        private boolean less(long cost1, int id1, long cost2, int id2) {
+            return cost1 < cost2 || (cost1 == cost2 && id1 < id2);
+        }
+    }
+}
@@ -1,85 +1,223 @@
 package com.briandidthat.graphs.algorithms;
 
-import com.briandidthat.graphs.model.EdgeInfo;
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.DoubleSpanningTree;
 import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.LongSpanningTree;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.model.SpanningTree;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.WeightMath;
 
-import java.util.*;
+import java.util.Arrays;
 
 /**
  * This is an implementation of kruskals minimum spanning tree algorithm. It is a greedy algorithm as it finds a
  * minimum spanning tree for a connected weighted graph adding increasing cost arcs at each step. However, this
- * algorithm can be used on a forest as well (un-connected graph). An edge will be represented in string format, "01"
- * representing that an edge between node 0 and node 1 exist.
+ * algorithm can be used on a forest as well (un-connected graph), in which case the result is a spanning forest.
+ * The edges are sorted once by a radix sort of long keys, and a union find over int arrays tells whether an edge would
+ * close a cycle, so no searching of the tree built so far is needed.
+ *
+ * The int, long and double versions share the same code: an int or long weight is its own key, and a double weight is
+ * turned into a long that sorts the same way.
  */
 
 public class Kruskals {
-    public void spanningTree(Graph graph) {
-        // This priority queue will allow us to store and access edges on the basis of their weights.
-        PriorityQueue<EdgeInfo> queue = new PriorityQueue<>(Comparator.comparing(EdgeInfo::getWeight));
+    private static final int RADIX_BITS = 16;
 
-        // Add all edges into the priority queue
-        for(int i = 0; i < graph.getNumVertices(); i++) {
+    public SpanningTree spanningTree(Graph graph) {
+        return spanningTree(graph, CancellationToken.NONE).getValue();
+    }
+
+    // The token is checked every CHECK_INTERVAL vertices while collecting and every CHECK_INTERVAL edges while joining
+    // the sets. IF it stops the run, the edges chosen so far are returned; they are part of the minimum spanning
+    // forest, but do not span the graph yet.
+    public PartialResult<SpanningTree> spanningTree(Graph graph, CancellationToken token) {
+        Edges edges = choose(graph, Graph.WeightType.INT, token);
+        int[] weights = new int[edges.numEdges];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (int) edges.keys[i];
+        }
+        return new PartialResult<>(new SpanningTree(graph.getNumVertices(), edges.vertex1(), edges.vertex2(), weights),
+                edges.status);
+    }
+
+    // The graph can have int or long weights.
+    public LongSpanningTree longSpanningTree(Graph graph) {
+        Edges edges = choose(graph, Graph.WeightType.LONG, CancellationToken.NONE);
+        return new LongSpanningTree(graph.getNumVertices(), edges.vertex1(), edges.vertex2(),
+                Arrays.copyOf(edges.keys, edges.numEdges));
+    }
+
+    // The graph can have any weight type.
+    public DoubleSpanningTree doubleSpanningTree(Graph graph) {
+        Edges edges = choose(graph, Graph.WeightType.DOUBLE, CancellationToken.NONE);
+        double[] weights = new double[edges.numEdges];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = WeightMath.fromSortableKey(edges.keys[i]);
+        }
+        return new DoubleSpanningTree(graph.getNumVertices(), edges.vertex1(), edges.vertex2(), weights);
+    }
+
+    // The chosen edges with the keys of their weights.
+    private static class Edges {
+        private int[] vertex1;
+        private int[] vertex2;
+        private long[] keys;
+        private int numEdges;
+        private RunStatus status = RunStatus.COMPLETED;
+
+        private Edges(int capacity) {
+            this.vertex1 = new int[capacity];
+            this.vertex2 = new int[capacity];
+            this.keys = new long[capacity];
+        }
+
+        private int[] vertex1() {
+            return Arrays.copyOf(vertex1, numEdges);
+        }
+
+        private int[] vertex2() {
+            return Arrays.copyOf(vertex2, numEdges);
+        }
+    }
+
+    private Edges choose(Graph graph, Graph.WeightType weightType, CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("kruskals");
+        run.phase("collect");
+        int numVertices = graph.getNumVertices();
+        boolean undirected = graph.graphType() == Graph.GraphType.UNDIRECTED;
+
+        // Collect all the edges. An undirected edge is listed by both of its vertices, so only keep it once.
+        int capacity = 16;
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        long[] edgeKeys = new long[capacity];
+        int numCandidates = 0;
+        for (int i = 0; i < numVertices; i++) {
+            if ((i & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                Edges none = new Edges(0);
+                none.status = token.getStatus();
+                run.finish();
+                return none;
+            }
             for (int neighbor : graph.getAdjacentVertices(i)) {
-                queue.add(new EdgeInfo(i, neighbor, graph.getWeightedEdge(i, neighbor)));
+                if (undirected && neighbor < i) {
+                    continue;
+                }
+                if (numCandidates == capacity) {
+                    capacity *= 2;
+                    from = Arrays.copyOf(from, capacity);
+                    to = Arrays.copyOf(to, capacity);
+                    edgeKeys = Arrays.copyOf(edgeKeys, capacity);
+                }
+                from[numCandidates] = i;
+                to[numCandidates] = neighbor;
+                edgeKeys[numCandidates] = weightKey(graph, weightType, i, neighbor);
+                numCandidates++;
             }
         }
-        // HashSet to track what vertices we've visited.
-        Set<Integer> visited = new HashSet<>();
-        Set<EdgeInfo> spanningTree = new HashSet<>();
-        Map<Integer, Set<Integer>> edgeMap = new HashMap<>();
-        // This edge map will track the edges added to the spanning to see if a cycle exists.
-        for (int v = 0; v < graph.getNumVertices(); v++) {
-            edgeMap.put(v, new HashSet<>());
+
+        // Sort the edges on the basis of their weights. The sort is stable, so equal weights keep the order above.
+        run.phase("sort");
+        int[] sortedEdges = sortByKey(edgeKeys, numCandidates);
+
+        run.phase("union");
+        // Every vertex starts in its own set.
+        int[] parent = new int[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            parent[v] = v;
         }
+
+        int edgeCount = Math.max(numVertices - 1, 0);
+        Edges edges = new Edges(edgeCount);
+        int i = 0;
         // The spanning tree should have (numVertices - 1) Edges
-        while (!queue.isEmpty() && spanningTree.size() < graph.getNumVertices() - 1) {
-            EdgeInfo currentEdge = queue.poll();
-            // Add the new edge to the edge map and check if it ends up with a cycle. IF so, discard this edge and
-            // get the next edge from the priority queue.
-            edgeMap.get(currentEdge.getVertex1()).add(currentEdge.getVertex2());
-            if (hasCycle(edgeMap)) {
-                edgeMap.get(currentEdge.getVertex1()).remove(currentEdge.getVertex2());
+        for (; i < numCandidates && edges.numEdges < edgeCount; i++) {
+            if (((i + 1) & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                edges.status = token.getStatus();
+                break;
+            }
+            int e = sortedEdges[i];
+            int root1 = find(parent, from[e]);
+            int root2 = find(parent, to[e]);
+            // IF both vertices are already in the same set, this edge would close a cycle. Discard it.
+            if (root1 == root2) {
                 continue;
             }
+            parent[root1] = root2;
 
-            spanningTree.add(currentEdge);
-
-            // Add both vertices to the visited list. The set will ensure that only one copy of the vertex exists.
-            visited.add(currentEdge.getVertex1());
-            visited.add(currentEdge.getVertex2());
+            edges.vertex1[edges.numEdges] = from[e];
+            edges.vertex2[edges.numEdges] = to[e];
+            edges.keys[edges.numEdges] = edgeKeys[e];
+            edges.numEdges++;
         }
 
-        // Ensure that all vertices have been covered by the spanning tree.
-        if (visited.size() != graph.getNumVertices()) {
-            System.out.println("Minimum spanning tree is not possible.");
-        } else {
-            System.out.println("Minimum spanning tree using Kruskals Algorithm:");
-            for (EdgeInfo edgeInfo : spanningTree) {
-                System.out.print(edgeInfo);
-                System.out.print(" -> ");
-            }
+        // An edge is relaxed when the union find looks at it.
+        run.addEdgesRelaxed(i);
+        run.finish();
+        return edges;
+    }
+
+    private long weightKey(Graph graph, Graph.WeightType weightType, int v1, int v2) {
+        switch (weightType) {
+            case INT:
+                return graph.getWeightedEdge(v1, v2);
+            case LONG:
+                return graph.getLongWeightedEdge(v1, v2);
+            default:
+                return WeightMath.sortableKey(graph.getDoubleWeightedEdge(v1, v2));
         }
     }
 
-    private boolean hasCycle(Map<Integer, Set<Integer>> edgeMap) {
-        // Iterate over every vertex in the edgeMap and explore all the vertices in the spanning tree.
-        for (Integer source : edgeMap.keySet()) {
-            LinkedList<Integer> queue = new LinkedList<>();
-            queue.add(source);
-            Set<Integer> visited = new HashSet<>();
-
-            while (!queue.isEmpty()) {
-                int currentVertex = queue.pollFirst();
-                // IF we ever revisit a vertex, that means there is a cycle present in the spanning tree.
-                if (visited.contains(currentVertex)) {
-                    return true;
-                }
-                // Mark the current vertex as visited.
-                visited.add(currentVertex);
-                queue.addAll(edgeMap.get(currentVertex)); // Add the adjacent vertices of current to queue.
+    // Returns the indices of the first count keys in ascending order of key, with a least significant digit radix sort
+    // RADIX_BITS at a time. The sign bit is flipped on the way in, so negative keys come first.
+    private int[] sortByKey(long[] keys, int count) {
+        int[] order = new int[count];
+        int[] buffer = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        int[] counts = new int[(1 << RADIX_BITS) + 1];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < count; i++) {
+                counts[digit(keys[i], shift) + 1]++;
+            }
+            // Every key has the same digit, so this pass would not move anything.
+            boolean oneDigit = false;
+            for (int d = 1; d < counts.length && !oneDigit; d++) {
+                oneDigit = counts[d] == count;
+            }
+            if (oneDigit) {
+                continue;
+            }
+            for (int d = 1; d < counts.length; d++) {
+                counts[d] += counts[d - 1];
             }
+            for (int i = 0; i < count; i++) {
+                int e = order[i];
+                buffer[counts[digit(keys[e], shift)]++] = e;
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
         }
+        return order;
+    }
 
-        return false;
+    private int digit(long key, int shift) {
+        return (int) (((key ^ Long.MIN_VALUE) >>> shift) & ((1 << RADIX_BITS) - 1));
+    }
+
+    // Find the root of the set of v, halving the path on the way so later lookups are shorter.
+    private int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
     }
 }
@@ -0,0 +1,156 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.ParallelHelper;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is an implementation of the multi-source breadth first search (MS-BFS) for unweighted graphs. Instead of one
+ * traversal per source, up to 64 sources are advanced together: every vertex keeps a long in which bit i says that
+ * source i has reached it. Expanding a level ORs the frontier bits of each vertex's incoming neighbors together, so one
+ * sweep over the edges moves all 64 searches forward at once, and a batch of sources costs about as much as a single
+ * traversal. Larger source lists are processed in batches of 64.
+ *
+ * Each level pulls from the incoming neighbors of a vertex, so every vertex only writes to its own entries and the
+ * vertex range can be split across threads without any synchronization.
+ */
+public class MultiSourceBfs {
+    private static final int BATCH_SIZE = Long.SIZE;
+
+    // Returns distances[i][v], the number of edges from sources[i] to v, or -1 if v cannot be reached from sources[i].
+    public int[][] findDistances(Graph graph, int[] sources) {
+        return findDistances(new AdjacencyArrays(graph, true), sources);
+    }
+
+    // The snapshot must hold the incoming edges of the graph, as built by new AdjacencyArrays(graph, true).
+    public int[][] findDistances(AdjacencyArrays incoming, int[] sources) {
+        return findDistances(incoming, sources, CancellationToken.NONE).getValue();
+    }
+
+    public PartialResult<int[][]> findDistances(Graph graph, int[] sources, CancellationToken token) {
+        return findDistances(new AdjacencyArrays(graph, true), sources, token);
+    }
+
+    // The token is checked before every level. IF it stops the run, the distances found so far are exact, and the
+    // vertices the searches had not reached yet are -1 like the unreachable ones.
+    public PartialResult<int[][]> findDistances(AdjacencyArrays incoming, int[] sources, CancellationToken token) {
+        int numVertices = incoming.getNumVertices();
+        for (int source : sources) {
+            if (source >= numVertices || source < 0) {
+                throw new IllegalArgumentException("Invalid vertex number.");
+            }
+        }
+
+        int[][] distances = new int[sources.length][numVertices];
+        for (int[] distance : distances) {
+            Arrays.fill(distance, -1);
+        }
+
+        AlgorithmRun run = AlgorithmMetrics.start("ms-bfs");
+        // The bit masks are reused by every batch.
+        long[] seen = new long[numVertices];
+        long[] visit = new long[numVertices];
+        long[] visitNext = new long[numVertices];
+        for (int first = 0; first < sources.length; first += BATCH_SIZE) {
+            int batchSize = Math.min(BATCH_SIZE, sources.length - first);
+            Arrays.fill(seen, 0);
+            Arrays.fill(visit, 0);
+            if (!runBatch(incoming, sources, first, batchSize, distances, seen, visit, visitNext, token, run)) {
+                run.finish();
+                return new PartialResult<>(distances, token.getStatus());
+            }
+        }
+
+        run.finish();
+        return new PartialResult<>(distances, RunStatus.COMPLETED);
+    }
+
+    // Returns false IF the token stopped the batch.
+    private boolean runBatch(AdjacencyArrays incoming, int[] sources, int first, int batchSize, int[][] distances,
+                             long[] seen, long[] visit, long[] visitNext, CancellationToken token,
+                             AlgorithmRun run) {
+        int[] offsets = incoming.getOffsets();
+        int[] targets = incoming.getTargets();
+        // A vertex that every source of the batch has reached needs no more work.
+        long allSources = batchSize == BATCH_SIZE ? -1L : (1L << batchSize) - 1;
+
+        for (int i = 0; i < batchSize; i++) {
+            int source = sources[first + i];
+            seen[source] |= 1L << i;
+            visit[source] |= 1L << i;
+            distances[first + i][source] = 0;
+        }
+
+        run.addVerticesSettled(batchSize);
+        int level = 0;
+        AtomicBoolean advanced = new AtomicBoolean(true);
+        // Counters for the metrics. Every (source, vertex) pair that is discovered counts as one settled vertex.
+        LongAdder settled = new LongAdder();
+        LongAdder relaxed = new LongAdder();
+        while (advanced.get()) {
+            if (token.isCancelled()) {
+                break;
+            }
+            advanced.set(false);
+            int distance = ++level;
+            long[] frontier = visit;
+            long[] nextFrontier = visitNext;
+
+            ParallelHelper.forEachRange(incoming.getNumVertices(), (start, end) -> {
+                boolean found = false;
+                long discoveries = 0;
+                long edges = 0;
+                for (int v = start; v < end; v++) {
+                    nextFrontier[v] = 0;
+                    if (seen[v] == allSources) {
+                        continue;
+                    }
+                    // Collect every search that reached one of the incoming neighbors on the previous level.
+                    long reached = 0;
+                    edges += offsets[v + 1] - offsets[v];
+                    for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                        reached |= frontier[targets[edge]];
+                    }
+                    // Keep only the searches that see this vertex for the first time.
+                    long discovered = reached & ~seen[v];
+                    if (discovered == 0) {
+                        continue;
+                    }
+                    seen[v] |= discovered;
+                    nextFrontier[v] = discovered;
+                    found = true;
+                    discoveries += Long.bitCount(discovered);
+                    // Record the distance for every search that discovered the vertex on this level.
+                    while (discovered != 0) {
+                        int bit = Long.numberOfTrailingZeros(discovered);
+                        distances[first + bit][v] = distance;
+                        discovered &= discovered - 1;
+                    }
+                }
+                if (found) {
+                    advanced.set(true);
+                }
+                settled.add(discoveries);
+                relaxed.add(edges);
+            });
+            run.addPasses(1);
+
+            // The next frontier becomes the current one. The old frontier is overwritten on the next level.
+            long[] swap = visit;
+            visit = visitNext;
+            visitNext = swap;
+        }
+        run.addVerticesSettled(settled.sum());
+        run.addEdgesRelaxed(relaxed.sum());
+        return !advanced.get();
+    }
+}
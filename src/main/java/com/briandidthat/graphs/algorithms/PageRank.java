@@ -0,0 +1,168 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.ParallelHelper;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * This is an implementation of PageRank using power iteration. Each iteration is written in "pull" style: a vertex
+ * sums the contributions of its incoming neighbors into its own entry of a double[] rank array. Since no two vertices
+ * write to the same entry, the vertex range is split across a fork join pool without any locking.
+ *
+ * Dangling vertices (no outgoing edges) would leak rank out of the graph, so their rank is collected each iteration and
+ * handed back out following the personalization vector, the same way as a random jump. Without a personalization
+ * vector every vertex is equally likely to be jumped to. An undirected edge counts as an edge in both directions.
+ * Iteration stops when the L1 change between two iterations drops below the tolerance, or after maxIterations.
+ */
+public class PageRank {
+    private double dampingFactor;
+    private double tolerance;
+    private int maxIterations;
+    private ForkJoinPool pool;
+
+    public PageRank() {
+        this(0.85, 1e-6, 100, ForkJoinPool.commonPool());
+    }
+
+    public PageRank(double dampingFactor, double tolerance, int maxIterations, ForkJoinPool pool) {
+        if (dampingFactor < 0 || dampingFactor >= 1) {
+            throw new IllegalArgumentException("The damping factor must be in [0, 1).");
+        }
+        this.dampingFactor = dampingFactor;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.pool = pool;
+    }
+
+    public double[] rank(Graph graph) {
+        return rank(new AdjacencyArrays(graph, true), null);
+    }
+
+    // The personalization vector holds a non-negative weight per vertex. It does not need to sum to 1.
+    public double[] rank(Graph graph, double[] personalization) {
+        return rank(new AdjacencyArrays(graph, true), personalization);
+    }
+
+    // The snapshot must hold the incoming edges of the graph, as built by new AdjacencyArrays(graph, true).
+    public double[] rank(AdjacencyArrays incoming, double[] personalization) {
+        return rank(incoming, personalization, CancellationToken.NONE).getValue();
+    }
+
+    public PartialResult<double[]> rank(Graph graph, double[] personalization, CancellationToken token) {
+        return rank(new AdjacencyArrays(graph, true), personalization, token);
+    }
+
+    // The token is checked before every iteration. IF it stops the run, the ranks of the last finished iteration are
+    // returned. They still sum to 1, they have just not converged yet.
+    public PartialResult<double[]> rank(AdjacencyArrays incoming, double[] personalization,
+                                        CancellationToken token) {
+        int numVertices = incoming.getNumVertices();
+        if (numVertices == 0) {
+            return new PartialResult<>(new double[0], RunStatus.COMPLETED);
+        }
+        int[] offsets = incoming.getOffsets();
+        int[] targets = incoming.getTargets();
+        double[] jump = normalize(personalization, numVertices);
+        AlgorithmRun run = AlgorithmMetrics.start("pagerank");
+
+        // Every incoming edge u -> v adds one to the outdegree of u.
+        int[] outDegree = new int[numVertices];
+        for (int source : targets) {
+            outDegree[source]++;
+        }
+
+        double[] rank = new double[numVertices];
+        double[] nextRank = new double[numVertices];
+        double[] contribution = new double[numVertices];
+        Arrays.fill(rank, 1.0 / numVertices);
+
+        RunStatus status = RunStatus.COMPLETED;
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            if (token.isCancelled()) {
+                status = token.getStatus();
+                break;
+            }
+            double[] currentRank = rank;
+            double[] updatedRank = nextRank;
+            // Every iteration pulls along every edge once.
+            run.addPasses(1);
+            run.addEdgesRelaxed(targets.length);
+
+            // Spread the rank of every vertex evenly over its outgoing edges, and gather the rank of dangling vertices.
+            DoubleAdder danglingRank = new DoubleAdder();
+            ParallelHelper.forEachRange(pool, numVertices, (start, end) -> {
+                double localDangling = 0;
+                for (int v = start; v < end; v++) {
+                    if (outDegree[v] == 0) {
+                        contribution[v] = 0;
+                        localDangling += currentRank[v];
+                    } else {
+                        contribution[v] = currentRank[v] / outDegree[v];
+                    }
+                }
+                danglingRank.add(localDangling);
+            });
+            double dangling = danglingRank.sum();
+
+            // Pull the contributions of the incoming neighbors and measure how much the ranks moved.
+            DoubleAdder change = new DoubleAdder();
+            ParallelHelper.forEachRange(pool, numVertices, (start, end) -> {
+                double localChange = 0;
+                for (int v = start; v < end; v++) {
+                    double sum = 0;
+                    for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                        sum += contribution[targets[edge]];
+                    }
+                    updatedRank[v] = (1 - dampingFactor) * jump[v] + dampingFactor * (sum + dangling * jump[v]);
+                    localChange += Math.abs(updatedRank[v] - currentRank[v]);
+                }
+                change.add(localChange);
+            });
+
+            rank = updatedRank;
+            nextRank = currentRank;
+            if (change.sum() < tolerance) {
+                break;
+            }
+        }
+        run.finish();
+
+        return new PartialResult<>(rank, status);
+    }
+
+    // Scale the personalization vector to sum to 1, or build a uniform one IF none was given.
+    private double[] normalize(double[] personalization, int numVertices) {
+        double[] jump = new double[numVertices];
+        if (personalization == null) {
+            Arrays.fill(jump, 1.0 / numVertices);
+            return jump;
+        }
+
+        if (personalization.length != numVertices) {
+            throw new IllegalArgumentException("The personalization vector needs one entry per vertex.");
+        }
+        double total = 0;
+        for (double weight : personalization) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Personalization weights cannot be negative.");
+            }
+            total += weight;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The personalization vector cannot be all zeros.");
+        }
+        for (int v = 0; v < numVertices; v++) {
+            jump[v] = personalization[v] / total;
+        }
+        return jump;
+    }
+}
@@ -1,86 +1,166 @@
 package com.briandidthat.graphs.algorithms;
 
-import com.briandidthat.graphs.model.DistanceInfo;
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.DoubleSpanningTree;
 import com.briandidthat.graphs.model.Graph;
-import com.briandidthat.graphs.model.VertexInfo;
+import com.briandidthat.graphs.model.LongSpanningTree;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.model.SpanningTree;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.IndexedMinHeap;
+import com.briandidthat.graphs.utils.WeightMath;
 
-import java.util.*;
+import java.util.Arrays;
 
 /**
  * This class is an implementation of the Prims Algorithm for minimum spanning tree. This algorithm is useful for
  * connected, weighted undirected graphs. The running time for this algorithm if using a binary heap for the priority
- * queue is O(E log V). I'll use the DistanceInfo & VertexInfo classes i've created.
+ * queue is O(E log V). The distance table is kept in primitive arrays and the queue is an indexed heap, so a cheaper
+ * edge to a vertex already in the queue is a decrease-key. IF the graph is not connected, only the part reachable from
+ * the source is spanned.
+ *
+ * The int, long and double versions share one search over long keys: an int or long weight is its own key, and a double
+ * weight is turned into a long that sorts the same way. Prims never adds weights up, so nothing can overflow.
  */
 public class Prims {
-    public void spanningTree(Graph graph, int source) {
-        Map<Integer, DistanceInfo> distanceTable = new HashMap<>();
-        // This Priority Queue will return nodes in the order of shortest distance from the source using a comparator.
-        PriorityQueue<VertexInfo> queue = new PriorityQueue<>(Comparator.comparingInt(VertexInfo::getDistance));
-        // Add a distance table entry for each node in the graph
-        for (int i = 0; i < graph.getNumVertices(); i++) {
-            distanceTable.put(i, new DistanceInfo(true));
+    public SpanningTree spanningTree(Graph graph, int source) {
+        return spanningTree(graph, source, CancellationToken.NONE).getValue();
+    }
+
+    // The token is checked every CHECK_INTERVAL vertices added to the tree. IF it stops the run, the edges added so far
+    // are returned; they are part of the minimum spanning tree, but do not span the graph yet.
+    public PartialResult<SpanningTree> spanningTree(Graph graph, int source, CancellationToken token) {
+        Edges edges = grow(graph, source, Graph.WeightType.INT, token);
+        int[] weights = new int[edges.numEdges];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (int) edges.keys[i];
         }
+        return new PartialResult<>(new SpanningTree(graph.getNumVertices(), edges.vertex1(), edges.vertex2(), weights),
+                edges.status);
+    }
 
-        distanceTable.get(source).setDistance(0);
-        distanceTable.get(source).setLastVertex(source);
+    // The graph can have int or long weights.
+    public LongSpanningTree longSpanningTree(Graph graph, int source) {
+        Edges edges = grow(graph, source, Graph.WeightType.LONG, CancellationToken.NONE);
+        return new LongSpanningTree(graph.getNumVertices(), edges.vertex1(), edges.vertex2(),
+                Arrays.copyOf(edges.keys, edges.numEdges));
+    }
 
-        Map<Integer, VertexInfo> vertexInfoMap = new HashMap<>();
-        // Add the source to the priority queue and set up the mapping to the vertex info for every vertex in the queue.
-        VertexInfo sourceVertexInfo = new VertexInfo(source, 0);
-        queue.add(sourceVertexInfo);
-        vertexInfoMap.put(source, sourceVertexInfo);
+    // The graph can have any weight type.
+    public DoubleSpanningTree doubleSpanningTree(Graph graph, int source) {
+        Edges edges = grow(graph, source, Graph.WeightType.DOUBLE, CancellationToken.NONE);
+        double[] weights = new double[edges.numEdges];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = WeightMath.fromSortableKey(edges.keys[i]);
+        }
+        return new DoubleSpanningTree(graph.getNumVertices(), edges.vertex1(), edges.vertex2(), weights);
+    }
 
-        // The spanning tree Set will contain the edges connecting all the nodes of the graph. An Edge is represented
-        // by "01" if it connects vertices 0 and 1.
-        Set<String> spanningTree = new HashSet<>();
-        // This set will keep track of the vertices we've visited as we traverse through the graph.
-        Set<Integer> visited = new HashSet<>();
+    // The spanning tree edges, in the order they are added, with the key of their weight. The tree has at most
+    // numVertices - 1 edges.
+    private static class Edges {
+        private int[] vertex1;
+        private int[] vertex2;
+        private long[] keys;
+        private int numEdges;
+        private RunStatus status = RunStatus.COMPLETED;
 
-        while (!queue.isEmpty()) {
-            VertexInfo vertexInfo = queue.poll();
-            int currentVertex = vertexInfo.getVertexId();
+        private Edges(int capacity) {
+            this.vertex1 = new int[capacity];
+            this.vertex2 = new int[capacity];
+            this.keys = new long[capacity];
+        }
+
+        private int[] vertex1() {
+            return Arrays.copyOf(vertex1, numEdges);
+        }
+
+        private int[] vertex2() {
+            return Arrays.copyOf(vertex2, numEdges);
+        }
+    }
+
+    private Edges grow(Graph graph, int source, Graph.WeightType weightType, CancellationToken token) {
+        int numVertices = graph.getNumVertices();
+        if (source >= numVertices || source < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        AlgorithmRun run = AlgorithmMetrics.start("prims");
+        long[] distances = new long[numVertices];
+        int[] lastVertices = new int[numVertices];
+        boolean[] visited = new boolean[numVertices];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        Arrays.fill(lastVertices, -1);
+
+        distances[source] = 0;
+        lastVertices[source] = source;
+        // This Priority Queue will return vertices in the order of the cheapest edge connecting them to the tree.
+        IndexedMinHeap queue = new IndexedMinHeap(numVertices);
+        queue.offer(source, 0);
+
+        Edges edges = new Edges(Math.max(numVertices - 1, 0));
+        long relaxed = 0;
+        long pushes = 1;
+        long decreaseKeys = 0;
 
-            // Avoid visiting nodes we've already visited
-            if (visited.contains(currentVertex)) {
-                continue;
+        while (!queue.isEmpty()) {
+            if (((edges.numEdges + 1) & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                edges.status = token.getStatus();
+                break;
             }
-            visited.add(currentVertex);
+            int currentVertex = queue.poll();
+            visited[currentVertex] = true;
 
             // IF the vertex is a source, we do not have an edge yet.
             if (currentVertex != source) {
-                String edge = String.valueOf(currentVertex) +
-                        distanceTable.get(currentVertex).getLastVertex();
-                // Add the edge to the spanning tree if it does not already exist.
-                if (!spanningTree.contains(edge)) {
-                    spanningTree.add(edge);
-                }
+                edges.vertex1[edges.numEdges] = lastVertices[currentVertex];
+                edges.vertex2[edges.numEdges] = currentVertex;
+                edges.keys[edges.numEdges] = distances[currentVertex];
+                edges.numEdges++;
             }
             // Explore all of the adjacent vertices and check what the weight is
-            for (Integer neighbor : graph.getAdjacentVertices(currentVertex)) {
+            for (int neighbor : graph.getAdjacentVertices(currentVertex)) {
+                // Avoid going back to vertices that are already in the tree.
+                if (visited[neighbor]) {
+                    continue;
+                }
                 // We only consider the weight of the edge in assigning the distance to a node, not the current distance
                 // from the source to that node since we do not care about cumulative distance for this algorithm.
-                int distance = graph.getWeightedEdge(currentVertex, neighbor);
+                long distance = weightKey(graph, weightType, currentVertex, neighbor);
+                relaxed++;
 
-                //IF we find the new shortest path, update the distance and the last vertex.
-                if (distanceTable.get(neighbor).getDistance() > distance) {
-                    distanceTable.get(neighbor).setDistance(distance);
-                    distanceTable.get(neighbor).setLastVertex(currentVertex);
-
-                    VertexInfo neighborVertex = vertexInfoMap.get(neighbor);
-                    if (neighborVertex != null) {
-                        // Remove the old distance from the queue.
-                        queue.remove(neighborVertex);
+                //IF we find a cheaper edge, update the distance and the last vertex.
+                if (distances[neighbor] > distance) {
+                    distances[neighbor] = distance;
+                    lastVertices[neighbor] = currentVertex;
+                    if (queue.contains(neighbor)) {
+                        decreaseKeys++;
+                    } else {
+                        pushes++;
                     }
-                    // Reassign the values of the neighbor node and add to queue.
-                    neighborVertex = new VertexInfo(neighbor, distance);
-                    vertexInfoMap.put(neighbor, neighborVertex);
-                    queue.add(neighborVertex);
+                    queue.offer(neighbor, distance);
                 }
             }
         }
+        // Every vertex in the tree was settled once: the source plus one per edge.
+        run.addVerticesSettled(edges.numEdges + 1);
+        run.addEdgesRelaxed(relaxed);
+        run.addHeapPushes(pushes);
+        run.addDecreaseKeys(decreaseKeys);
+        run.finish();
+        return edges;
+    }
 
-        for (String edge : spanningTree) {
-            System.out.println(edge);
+    private long weightKey(Graph graph, Graph.WeightType weightType, int v1, int v2) {
+        switch (weightType) {
+            case INT:
+                return graph.getWeightedEdge(v1, v2);
+            case LONG:
+                return graph.getLongWeightedEdge(v1, v2);
+            default:
+                return WeightMath.sortableKey(graph.getDoubleWeightedEdge(v1, v2));
         }
     }
 }
@@ -0,0 +1,288 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.ComponentInfo;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class answers "can u reach v?" queries on a directed graph without traversing it for every query. The graph is
+ * first condensed into its DAG of strongly connected components (two vertices in the same SCC always reach each other),
+ * and every SCC is then labeled with:
+ *
+ * - its topological rank: an SCC can only reach SCCs with a higher rank.
+ * - a pre/post order interval from a depth first spanning forest: IF v's interval is nested in u's, v is a descendant
+ *   of u in the forest, so u reaches v.
+ * - a "reach" interval [low, post] where low is the lowest post order number u can reach: IF v's post order number is
+ *   outside of it, u cannot reach v.
+ *
+ * IF the full transitive closure of the condensation fits in maxIndexBytes, it is stored as one bitset row per SCC and
+ * every query is a single bit lookup. Otherwise the labels above answer most queries in O(1), and only the rest fall
+ * back to a breadth first search that is pruned with the same labels. The index is read-only once built, so it is safe
+ * to query from several threads. It does not see edges added to the graph after it was built.
+ *
+ * build() takes a cancellation token, which is checked while the SCCs are found and every CHECK_INTERVAL rows of the
+ * closure. IF it stops the SCC search there is no index. IF it stops the closure, the index is returned without one and
+ * answers every query with the labels and the search.
+ */
+public class ReachabilityIndex {
+    private static final long DEFAULT_MAX_INDEX_BYTES = 64L << 20;
+
+    private ComponentInfo components;
+    private AdjacencyArrays dag;
+    private int[] topologicalRank;
+    private int[] preOrder;
+    private int[] postOrder;
+    private int[] lowPostOrder;
+    // closure[c] has bit d set when SCC c reaches SCC d. Null IF the closure would not fit in the memory budget.
+    private long[][] closure;
+    // How the build ended. Only read by build().
+    private RunStatus buildStatus;
+
+    public ReachabilityIndex(Graph graph) {
+        this(graph, DEFAULT_MAX_INDEX_BYTES);
+    }
+
+    public ReachabilityIndex(Graph graph, long maxIndexBytes) {
+        this(graph, maxIndexBytes, CancellationToken.NONE);
+    }
+
+    // Returns the index, or a null value IF the token stopped the run before the labels were done.
+    public static PartialResult<ReachabilityIndex> build(Graph graph, long maxIndexBytes, CancellationToken token) {
+        ReachabilityIndex index = new ReachabilityIndex(graph, maxIndexBytes, token);
+        return new PartialResult<>(index.topologicalRank == null ? null : index, index.buildStatus);
+    }
+
+    private ReachabilityIndex(Graph graph, long maxIndexBytes, CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("reachability-index");
+        run.phase("components");
+        StronglyConnectedComponents stronglyConnectedComponents = new StronglyConnectedComponents();
+        PartialResult<ComponentInfo> found = stronglyConnectedComponents.findComponents(graph, token);
+        this.buildStatus = found.getStatus();
+        if (!found.isComplete()) {
+            run.finish();
+            return;
+        }
+        run.phase("label");
+        this.components = found.getValue();
+        this.dag = new AdjacencyArrays(stronglyConnectedComponents.condense(graph, components));
+
+        int numComponents = components.getNumComponents();
+        int[] order = topologicalOrder();
+        this.topologicalRank = new int[numComponents];
+        for (int rank = 0; rank < numComponents; rank++) {
+            topologicalRank[order[rank]] = rank;
+        }
+
+        labelIntervals(order);
+
+        long closureBytes = (long) numComponents * ((numComponents + 63) / 64) * Long.BYTES;
+        if (closureBytes <= maxIndexBytes) {
+            run.phase("closure");
+            run.addEdgesRelaxed(buildClosure(order, token));
+        }
+        run.addVerticesSettled(numComponents);
+        run.finish();
+    }
+
+    public boolean canReach(int source, int destination) {
+        int numVertices = components.getComponentIds().length;
+        if (source >= numVertices || source < 0 || destination >= numVertices || destination < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+
+        int from = components.getComponentId(source);
+        int to = components.getComponentId(destination);
+        if (from == to) {
+            return true;
+        }
+        if (topologicalRank[from] > topologicalRank[to]) {
+            return false;
+        }
+        if (closure != null) {
+            return (closure[from][to >>> 6] & (1L << to)) != 0;
+        }
+
+        Boolean answer = answerFromLabels(from, to);
+        if (answer != null) {
+            return answer;
+        }
+        return search(from, to);
+    }
+
+    public boolean hasTransitiveClosure() {
+        return closure != null;
+    }
+
+    // Returns the answer IF the labels alone decide it, or null if a search is needed.
+    private Boolean answerFromLabels(int from, int to) {
+        if (isTreeDescendant(from, to)) {
+            return Boolean.TRUE;
+        }
+        if (!mayReach(from, to)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    private boolean isTreeDescendant(int ancestor, int descendant) {
+        return preOrder[ancestor] <= preOrder[descendant] && postOrder[descendant] <= postOrder[ancestor];
+    }
+
+    private boolean mayReach(int from, int to) {
+        return lowPostOrder[from] <= postOrder[to] && postOrder[to] <= postOrder[from];
+    }
+
+    // Breadth first search over the condensation, skipping every SCC whose labels prove it cannot lead to the target.
+    private boolean search(int from, int to) {
+        int[] offsets = dag.getOffsets();
+        int[] targets = dag.getTargets();
+        BitSet visited = new BitSet(dag.getNumVertices());
+        int[] queue = new int[16];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        visited.set(from);
+
+        while (head < tail) {
+            int current = queue[head++];
+            for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+                int next = targets[edge];
+                if (next == to || isTreeDescendant(next, to)) {
+                    return true;
+                }
+                if (visited.get(next) || topologicalRank[next] > topologicalRank[to] || !mayReach(next, to)) {
+                    continue;
+                }
+                visited.set(next);
+                if (tail == queue.length) {
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+                }
+                queue[tail++] = next;
+            }
+        }
+        return false;
+    }
+
+    // Kahn's algorithm over the condensation, which is acyclic by construction.
+    private int[] topologicalOrder() {
+        int numComponents = dag.getNumVertices();
+        int[] offsets = dag.getOffsets();
+        int[] targets = dag.getTargets();
+        int[] inDegree = new int[numComponents];
+        for (int target : targets) {
+            inDegree[target]++;
+        }
+
+        int[] order = new int[numComponents];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < numComponents; c++) {
+            if (inDegree[c] == 0) {
+                order[tail++] = c;
+            }
+        }
+        while (head < tail) {
+            int current = order[head++];
+            for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+                if (--inDegree[targets[edge]] == 0) {
+                    order[tail++] = targets[edge];
+                }
+            }
+        }
+        return order;
+    }
+
+    // An iterative depth first search from every source of the DAG, numbering SCCs in pre and post order. low is the
+    // smallest post order number reachable from an SCC, which is final once all of its successors are finished.
+    private void labelIntervals(int[] order) {
+        int numComponents = dag.getNumVertices();
+        int[] offsets = dag.getOffsets();
+        int[] targets = dag.getTargets();
+        this.preOrder = new int[numComponents];
+        this.postOrder = new int[numComponents];
+        this.lowPostOrder = new int[numComponents];
+        Arrays.fill(preOrder, -1);
+
+        int[] callVertex = new int[numComponents];
+        int[] callEdge = new int[numComponents];
+        int nextPre = 0;
+        int nextPost = 0;
+        for (int root : order) {
+            if (preOrder[root] != -1) {
+                continue;
+            }
+            int callSize = 0;
+            preOrder[root] = nextPre++;
+            lowPostOrder[root] = Integer.MAX_VALUE;
+            callVertex[callSize] = root;
+            callEdge[callSize++] = offsets[root];
+
+            while (callSize > 0) {
+                int current = callVertex[callSize - 1];
+                int edge = callEdge[callSize - 1];
+                if (edge < offsets[current + 1]) {
+                    callEdge[callSize - 1]++;
+                    int next = targets[edge];
+                    if (preOrder[next] == -1) {
+                        preOrder[next] = nextPre++;
+                        lowPostOrder[next] = Integer.MAX_VALUE;
+                        callVertex[callSize] = next;
+                        callEdge[callSize++] = offsets[next];
+                    } else {
+                        // Already finished, since the graph has no cycles. Take over its reach.
+                        lowPostOrder[current] = Math.min(lowPostOrder[current], lowPostOrder[next]);
+                    }
+                    continue;
+                }
+
+                postOrder[current] = nextPost++;
+                lowPostOrder[current] = Math.min(lowPostOrder[current], postOrder[current]);
+                callSize--;
+                if (callSize > 0) {
+                    int caller = callVertex[callSize - 1];
+                    lowPostOrder[caller] = Math.min(lowPostOrder[caller], lowPostOrder[current]);
+                }
+            }
+        }
+    }
+
+    // Fill in the closure in reverse topological order, so the rows of all successors are complete before their use.
+    // Returns the number of rows merged, one per edge of the condensation.
+    private long buildClosure(int[] order, CancellationToken token) {
+        int numComponents = dag.getNumVertices();
+        int[] offsets = dag.getOffsets();
+        int[] targets = dag.getTargets();
+        int words = (numComponents + 63) / 64;
+        this.closure = new long[numComponents][words];
+        long merged = 0;
+
+        for (int i = numComponents - 1; i >= 0; i--) {
+            if (((numComponents - i) & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                // Half a closure would answer false for pairs it has not filled in yet.
+                this.closure = null;
+                this.buildStatus = token.getStatus();
+                return merged;
+            }
+            int current = order[i];
+            long[] row = closure[current];
+            for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+                int next = targets[edge];
+                row[next >>> 6] |= 1L << next;
+                long[] nextRow = closure[next];
+                for (int word = 0; word < words; word++) {
+                    row[word] |= nextRow[word];
+                }
+            }
+            merged += offsets[current + 1] - offsets[current];
+        }
+        return merged;
+    }
+}
@@ -1,100 +1,161 @@
 package com.briandidthat.graphs.algorithms;
 
-import com.briandidthat.graphs.model.DistanceEdgeInfo;
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
 import com.briandidthat.graphs.model.Graph;
-import com.briandidthat.graphs.model.VertexInfo;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.IndexedMinHeap;
+import com.briandidthat.graphs.utils.SearchWorkspace;
+import com.briandidthat.graphs.utils.WeightMath;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Stack;
+import java.util.Arrays;
 
 /**
  * This is an implementation of the the shortest distance with a slight difference. Here we are to find the shortest
  * path from a source to a destination node, considering the num of edges as well. Explanation: IF two paths have the
  * same accumulated weight of edges between them, the one with the least amount of edges takes precedence.
+ *
+ * The heap comes from the SearchWorkspace of the thread rather than being allocated for every search, and
+ * findShortestPath keeps its whole table in the workspace and stops at the destination.
  */
 
-public class ShortestDistance {
-    public Map<Integer, DistanceEdgeInfo> buildDistanceTable(Graph graph, int source) {
-        // This Priority queue checks both the distance and number of edges for a vertex. IF the distance is the same,
-        // only then the number of edges is checked.
-        Map<Integer, DistanceEdgeInfo> distanceTable = new HashMap<>();
-        PriorityQueue<VertexInfo> queue = new PriorityQueue<>((v1, v2) -> {
-            if (v1.getDistance() != v2.getDistance()) {
-                return ((Integer) v1.getDistance()).compareTo(v2.getDistance());
-            }
-            return ((Integer) v1.getNumEdges()).compareTo(v2.getNumEdges());
-        });
-        // Add an entry to distance table for each vertex in the graph
-        for (int i = 0; i < graph.getNumVertices(); i++) {
-            distanceTable.put(i, new DistanceEdgeInfo());
-        }
-
-        distanceTable.get(source).setInfo(source, 0, 0);
-
-        VertexInfo sourceVertex = new VertexInfo(source, 0, 0);
-        queue.add(sourceVertex);
-
-        Map<Integer, VertexInfo> vertexInfoMap = new HashMap<>();
-        vertexInfoMap.put(source, sourceVertex);
-
-        while (!queue.isEmpty()) {
-            // Remove the highest priority element form the queue
-            VertexInfo currentVertexInfo = queue.poll();
-
-            for (Integer neighbor : graph.getAdjacentVertices(currentVertexInfo.getVertexId())) {
-                // Get the distance and number of edges from the current vertex to the neighbor
-                int distance = distanceTable.get(currentVertexInfo.getVertexId()).getDistance() +
-                        graph.getWeightedEdge(currentVertexInfo.getVertexId(), neighbor);
-                int edges = distanceTable.get(currentVertexInfo.getVertexId()).getNumEdges() + 1;
-
-                int neighborDistance = distanceTable.get(neighbor).getDistance();
-                if (neighborDistance > distance || (neighborDistance == distance) &&
-                        (distanceTable.get(neighbor).getNumEdges() > edges)) {
-
-                    // Update the distance table for the neighbor with the new information
-                    distanceTable.get(neighbor).setInfo(currentVertexInfo.getVertexId(), distance, edges);
+public class ShortestDistance implements ShortestPathTreeBuilder {
+    @Override
+    public ShortestPathTree buildShortestPathTree(Graph graph, int source) {
+        return buildShortestPathTree(graph, source, CancellationToken.NONE);
+    }
 
-                    VertexInfo neighborVertexInfo = vertexInfoMap.get(neighbor);
-                    if (neighborVertexInfo != null) {
-                        // Remove vertex info from the queue since we are updating it
-                        queue.remove(neighborVertexInfo);
+    // The token is checked every CHECK_INTERVAL settled vertices. IF it stops the run, the settled vertices have their
+    // final distances and the vertices still in the queue have the best distances found so far.
+    @Override
+    public ShortestPathTree buildShortestPathTree(Graph graph, int source, CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("shortest-distance");
+        int numVertices = graph.getNumVertices();
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) {
+            // The tentative distances are longs, and a distance is only narrowed once its vertex is settled.
+            long[] distances = workspace.getLongScratch();
+            int[] numEdges = new int[numVertices];
+            int[] lastVertices = new int[numVertices];
+            Arrays.fill(distances, 0, numVertices, Long.MAX_VALUE);
+            Arrays.fill(numEdges, Integer.MAX_VALUE);
+            Arrays.fill(lastVertices, -1);
+
+            distances[source] = 0;
+            numEdges[source] = 0;
+            lastVertices[source] = source;
+            // This Priority queue checks both the distance and number of edges for a vertex. IF the distance is the
+            // same, only then the number of edges is checked.
+            IndexedMinHeap queue = workspace.getHeap();
+            queue.offer(source, priority(0, 0));
+            long settled = 0;
+            RunStatus status = RunStatus.COMPLETED;
+            long relaxed = 0;
+            long pushes = 1;
+            long decreaseKeys = 0;
+
+            while (!queue.isEmpty()) {
+                // Remove the highest priority element form the queue
+                int currentVertex = queue.poll();
+                if ((++settled & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                    status = token.getStatus();
+                    break;
+                }
+                // The distance of a settled vertex is final, so IF it does not fit in an int, the tree cannot be built.
+                WeightMath.toIntDistance(distances[currentVertex]);
+
+                for (int neighbor : graph.getAdjacentVertices(currentVertex)) {
+                    // Get the distance and number of edges from the current vertex to the neighbor
+                    long distance = distances[currentVertex] + graph.getWeightedEdge(currentVertex, neighbor);
+                    int edges = numEdges[currentVertex] + 1;
+                    relaxed++;
+
+                    long neighborDistance = distances[neighbor];
+                    if (neighborDistance > distance || (neighborDistance == distance && numEdges[neighbor] > edges)) {
+                        // Update the distance table for the neighbor with the new information
+                        distances[neighbor] = distance;
+                        numEdges[neighbor] = edges;
+                        lastVertices[neighbor] = currentVertex;
+                        if (queue.contains(neighbor)) {
+                            decreaseKeys++;
+                        } else {
+                            pushes++;
+                        }
+                        queue.offer(neighbor, priority(distances[neighbor], edges));
                     }
-
-                    // Reassign the vertex info values to the updated values
-                    neighborVertexInfo = new VertexInfo(neighbor, distance, edges);
-                    queue.add(neighborVertexInfo);
-                    vertexInfoMap.put(neighbor, neighborVertexInfo);
                 }
             }
+            run.addVerticesSettled(settled);
+            run.addEdgesRelaxed(relaxed);
+            run.addHeapPushes(pushes);
+            run.addDecreaseKeys(decreaseKeys);
+            run.finish();
+
+            return new ShortestPathTree(source, Djikstras.narrow(distances, lastVertices, numVertices), lastVertices,
+                    status);
         }
-
-        return distanceTable;
     }
 
-    public void findShortestPath(Graph graph, Integer source, Integer destination) {
-        Map<Integer, DistanceEdgeInfo> distanceTable = buildDistanceTable(graph, source);
-        // Since we will be backtracking, we will be using a stack. Start
-        Stack<Integer> stack = new Stack<>();
-        stack.push(destination);
-
-        int previousVertex = distanceTable.get(destination).getLastVertex();
-        while (previousVertex != -1 && previousVertex != source) {
-            stack.push(previousVertex);
-            previousVertex = distanceTable.get(previousVertex).getLastVertex();
+    // Returns the vertices on the shortest path considering the number of edges, or an empty array IF there is no path.
+    public int[] findShortestPath(Graph graph, int source, int destination) {
+        int numVertices = graph.getNumVertices();
+        if (source >= numVertices || source < 0 || destination >= numVertices || destination < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
         }
-        // Because we've initialized the previous vertex to -1, if it remains the same there is no path from source to
-        // the destination.
-        if (previousVertex == -1) {
-            System.out.println("There is no path from node: " + source + " to node: " + destination);
-        } else {
-            System.out.print("Shortest path considering the number of edges is: " + source);
-            while (!stack.isEmpty()) {
-                System.out.print(" -> " + stack.pop());
+        AlgorithmRun run = AlgorithmMetrics.start("shortest-distance");
+        long settled = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        long decreaseKeys = 0;
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) {
+            IndexedMinHeap queue = workspace.getHeap();
+            // The number of edges of a vertex is only valid IF the vertex has been visited.
+            int[] numEdges = workspace.getScratch(0);
+            workspace.set(source, 0, source);
+            numEdges[source] = 0;
+            queue.offer(source, priority(0, 0));
+            while (!queue.isEmpty()) {
+                int currentVertex = queue.poll();
+                settled++;
+                long currentDistance = workspace.getDistance(currentVertex);
+                // Every vertex left in the queue is at least this far away, so the destination is too.
+                WeightMath.toIntDistance(currentDistance);
+                if (currentVertex == destination) {
+                    break;
+                }
+                for (int neighbor : graph.getAdjacentVertices(currentVertex)) {
+                    long distance = currentDistance + graph.getWeightedEdge(currentVertex, neighbor);
+                    int edges = numEdges[currentVertex] + 1;
+                    relaxed++;
+
+                    long neighborDistance = workspace.getDistance(neighbor);
+                    if (neighborDistance > distance || (neighborDistance == distance && numEdges[neighbor] > edges)) {
+                        workspace.set(neighbor, distance, currentVertex);
+                        numEdges[neighbor] = edges;
+                        if (queue.contains(neighbor)) {
+                            decreaseKeys++;
+                        } else {
+                            pushes++;
+                        }
+                        queue.offer(neighbor, priority(distance, edges));
+                    }
+                }
             }
-            System.out.println(" Djikstra done!");
+            return workspace.getPath(source, destination);
+        } finally {
+            run.addVerticesSettled(settled);
+            run.addEdgesRelaxed(relaxed);
+            run.addHeapPushes(pushes);
+            run.addDecreaseKeys(decreaseKeys);
+            run.finish();
         }
+    }
 
+    // Pack the distance into the high bits and the number of edges into the low bits, so one long comparison orders
+    // by distance first and breaks ties by the number of edges.
+    // A distance too long for an int is clamped. Such a vertex throws once it is settled, so its order does not matter.
+    private long priority(long distance, int edges) {
+        return (Math.min(distance, Integer.MAX_VALUE) << 32) | edges;
     }
 }
@@ -0,0 +1,276 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.QueryResults;
+import com.briandidthat.graphs.model.QueryStatistics;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.IndexedMinHeap;
+import com.briandidthat.graphs.utils.SearchWorkspace;
+import com.briandidthat.graphs.utils.WeightMath;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class answers batches of (source, destination) shortest path queries. The queries of a batch are grouped by
+ * source, so one Djikstra search answers every destination of that source, and the search stops as soon as the last of
+ * those destinations is settled. The groups are handed out to parallelism workers on the given executor; every search
+ * keeps its distance table, heap and destination marks in the SearchWorkspace of its thread, whose entries are
+ * stamped with the search, so a search does not pay O(V) to get started.
+ *
+ * The searches run over an AdjacencyArrays snapshot of the graph, which is rebuilt IF the graph has changed since the
+ * last batch. Weights must be non-negative ints, since the answers are int distances; a graph with long or double
+ * weights is rejected. An unweighted graph counts every edge as 1. Batches may be executed from
+ * several threads at once.
+ *
+ * With a cancellation token, workers check it before every search and every CHECK_INTERVAL settled vertices within a
+ * search. Once it stops, the batch returns with the groups finished so far answered and the rest marked unanswered, so
+ * the slow tail of a batch can be cut off without losing the rest.
+ */
+public class ShortestPathQueryEngine {
+    private Graph graph;
+    private Executor executor;
+    private int parallelism;
+    private AdjacencyArrays adjacency;
+    private long version;
+    private ThreadLocal<Workspace> workspaces;
+
+    public ShortestPathQueryEngine(Graph graph) {
+        this(graph, ForkJoinPool.commonPool(), ForkJoinPool.commonPool().getParallelism());
+    }
+
+    public ShortestPathQueryEngine(Graph graph, Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1.");
+        }
+        if (graph.isWeighted() && graph.weightType() != Graph.WeightType.INT) {
+            throw new IllegalArgumentException("Shortest path queries only support int weights.");
+        }
+        this.graph = graph;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.version = -1;
+        this.workspaces = ThreadLocal.withInitial(Workspace::new);
+    }
+
+    public QueryResults execute(int[] sources, int[] destinations) {
+        return execute(sources, destinations, false);
+    }
+
+    // Answers the queries (sources[i], destinations[i]). IF withPaths is true, the path of every query is kept as well.
+    public QueryResults execute(int[] sources, int[] destinations, boolean withPaths) {
+        return execute(sources, destinations, withPaths, CancellationToken.NONE);
+    }
+
+    public QueryResults execute(int[] sources, int[] destinations, boolean withPaths, CancellationToken token) {
+        if (sources.length != destinations.length) {
+            throw new IllegalArgumentException("Every query needs a source and a destination.");
+        }
+        AdjacencyArrays snapshot = getSnapshot();
+        int numVertices = snapshot.getNumVertices();
+        int numQueries = sources.length;
+        for (int i = 0; i < numQueries; i++) {
+            if (sources[i] >= numVertices || sources[i] < 0 || destinations[i] >= numVertices || destinations[i] < 0) {
+                throw new IllegalArgumentException("Invalid vertex number.");
+            }
+        }
+
+        long start = System.nanoTime();
+        // Sort the queries by source. The source goes into the high bits and the query index into the low bits.
+        long[] sortedQueries = new long[numQueries];
+        for (int i = 0; i < numQueries; i++) {
+            sortedQueries[i] = ((long) sources[i] << 32) | i;
+        }
+        Arrays.sort(sortedQueries);
+        int[] order = new int[numQueries];
+        int[] groupStarts = new int[numQueries + 1];
+        int numGroups = 0;
+        for (int i = 0; i < numQueries; i++) {
+            order[i] = (int) sortedQueries[i];
+            if (i == 0 || (sortedQueries[i] >>> 32) != (sortedQueries[i - 1] >>> 32)) {
+                groupStarts[numGroups++] = i;
+            }
+        }
+        groupStarts[numGroups] = numQueries;
+
+        int[] distances = new int[numQueries];
+        int[][] paths = withPaths ? new int[numQueries][] : null;
+        long[] latencies = new long[numQueries];
+        boolean[] answered = new boolean[numQueries];
+        int groups = numGroups;
+
+        // Every worker keeps taking the next group until none are left, so a few expensive sources do not hold up
+        // the rest of the batch.
+        AtomicInteger nextGroup = new AtomicInteger();
+        Runnable worker = () -> {
+            AlgorithmRun run = AlgorithmMetrics.start("query-engine");
+            Workspace workspace = workspaces.get();
+            int group;
+            while (!token.isCancelled() && (group = nextGroup.getAndIncrement()) < groups) {
+                long searchStart = System.nanoTime();
+                boolean finished = workspace.search(snapshot, sources[order[groupStarts[group]]], order,
+                        groupStarts[group], groupStarts[group + 1], destinations, distances, paths, token);
+                if (!finished) {
+                    break;
+                }
+                long latency = System.nanoTime() - searchStart;
+                for (int i = groupStarts[group]; i < groupStarts[group + 1]; i++) {
+                    latencies[order[i]] = latency;
+                    answered[order[i]] = true;
+                }
+            }
+            // The searches of this worker counted into its workspace. Fold them into the totals once, at the end.
+            workspace.flushCounters(run);
+            run.finish();
+        };
+
+        int numWorkers = Math.min(parallelism, numGroups);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[numWorkers];
+        for (int i = 0; i < numWorkers; i++) {
+            futures[i] = CompletableFuture.runAsync(worker, executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        int numAnswered = 0;
+        for (int i = 0; i < numQueries; i++) {
+            if (answered[i]) {
+                latencies[numAnswered++] = latencies[i];
+            } else {
+                distances[i] = -1;
+                if (paths != null) {
+                    paths[i] = new int[0];
+                }
+            }
+        }
+        if (numAnswered == numQueries) {
+            return new QueryResults(distances, paths, new QueryStatistics(numQueries, numGroups, elapsed, latencies));
+        }
+        // The statistics only cover the queries that were answered.
+        int numSearches = 0;
+        for (int group = 0; group < numGroups; group++) {
+            if (answered[order[groupStarts[group]]]) {
+                numSearches++;
+            }
+        }
+        QueryStatistics statistics = new QueryStatistics(numAnswered, numSearches, elapsed,
+                Arrays.copyOf(latencies, numAnswered));
+        return new QueryResults(distances, paths, answered, token.getStatus(), statistics);
+    }
+
+    // Returns a snapshot of the current graph, rebuilding it IF the graph has changed.
+    private synchronized AdjacencyArrays getSnapshot() {
+        long currentVersion = graph.getVersion();
+        if (adjacency == null || version != currentVersion) {
+            AdjacencyArrays snapshot = new AdjacencyArrays(graph);
+            if (snapshot.isWeighted()) {
+                for (int weight : snapshot.getWeights()) {
+                    if (weight < 0) {
+                        throw new IllegalArgumentException("Shortest path queries require non-negative weights.");
+                    }
+                }
+            }
+            adjacency = snapshot;
+            version = currentVersion;
+        }
+        return adjacency;
+    }
+
+    // The counters of one worker thread. The searches themselves keep their state in the SearchWorkspace of the thread.
+    private static class Workspace {
+        private long settled;
+        private long relaxed;
+        private long pushes;
+        private long decreaseKeys;
+
+        // Run Djikstra's algorithm from source until the destinations of the queries order[from] to order[to - 1] are
+        // settled, then write their answers. Returns false, without writing any answers, IF the token stopped it.
+        private boolean search(AdjacencyArrays adjacency, int source, int[] order, int from, int to,
+                               int[] destinations, int[] results, int[][] paths, CancellationToken token) {
+            int[] offsets = adjacency.getOffsets();
+            int[] targets = adjacency.getTargets();
+            int[] weights = adjacency.getWeights();
+
+            try (SearchWorkspace workspace = SearchWorkspace.acquire(adjacency.getNumVertices())) {
+                // A vertex is a destination of this search IF it is marked.
+                int remaining = 0;
+                for (int i = from; i < to; i++) {
+                    int destination = destinations[order[i]];
+                    if (!workspace.isMarked(destination)) {
+                        workspace.mark(destination);
+                        remaining++;
+                    }
+                }
+
+                IndexedMinHeap heap = workspace.getHeap();
+                workspace.set(source, 0, source);
+                heap.offer(source, 0);
+                pushes++;
+                boolean finished = true;
+                while (!heap.isEmpty()) {
+                    int currentVertex = heap.poll();
+                    if ((++settled & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                        finished = false;
+                        break;
+                    }
+                    // Stop once every destination of this source has its final distance.
+                    if (workspace.isMarked(currentVertex) && --remaining == 0) {
+                        break;
+                    }
+                    long distance = workspace.getDistance(currentVertex);
+                    relaxed += offsets[currentVertex + 1] - offsets[currentVertex];
+                    for (int edge = offsets[currentVertex]; edge < offsets[currentVertex + 1]; edge++) {
+                        int neighbor = targets[edge];
+                        long newDistance = distance + (weights == null ? 1 : weights[edge]);
+                        if (newDistance < workspace.getDistance(neighbor)) {
+                            workspace.set(neighbor, newDistance, currentVertex);
+                            if (heap.contains(neighbor)) {
+                                decreaseKeys++;
+                            } else {
+                                pushes++;
+                            }
+                            heap.offer(neighbor, newDistance);
+                        }
+                    }
+                }
+
+                for (int i = from; i < to && finished; i++) {
+                    int query = order[i];
+                    int destination = destinations[query];
+                    long distance = workspace.getDistance(destination);
+                    results[query] = distance == Long.MAX_VALUE ? -1 : WeightMath.toIntDistance(distance);
+                    if (paths != null) {
+                        paths[query] = workspace.getPath(source, destination);
+                    }
+                }
+                return finished;
+            }
+        }
+
+        private void flushCounters(AlgorithmRun run) {
+            run.addVerticesSettled(settled);
+            run.addEdgesRelaxed(relaxed);
+            run.addHeapPushes(pushes);
+            run.addDecreaseKeys(decreaseKeys);
+            settled = 0;
+            relaxed = 0;
+            pushes = 0;
+            decreaseKeys = 0;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.utils.CancellationToken;
+
+/**
+ * Implemented by the single source shortest path algorithms, so callers such as the ShortestPathTreeCache can work with
+ * any of them.
+ */
+public interface ShortestPathTreeBuilder {
+
+    ShortestPathTree buildShortestPathTree(Graph graph, int source);
+
+    // Builds the tree but stops early IF the token is stopped, returning the tree found so far. Builders that are fast
+    // enough to always finish can keep this default, which ignores the token.
+    default ShortestPathTree buildShortestPathTree(Graph graph, int source, CancellationToken token) {
+        return buildShortestPathTree(graph, source);
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.ShortestPathTree;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class caches the shortest path trees built by one of the single source shortest path algorithms, so repeated
+ * queries from the same source do not rebuild the whole distance table. Once the tree of a source is cached, a path
+ * from it is rebuilt in O(path length).
+ *
+ * Every entry remembers the version of the graph it was built from. IF the graph has been changed since (any addEdge
+ * call bumps the version), the entry is stale: it is dropped and rebuilt on the next lookup. The cache is bounded by
+ * the memory held by its trees, and evicts the least recently used trees first. Graphs are compared by identity.
+ * All methods are safe to call from several threads. Trees are built outside of the lock, so a slow build does not
+ * block lookups of other sources.
+ */
+public class ShortestPathTreeCache {
+    private ShortestPathTreeBuilder builder;
+    private long maxBytes;
+    private long usedBytes;
+    // An access ordered map iterates from the least to the most recently used entry.
+    private LinkedHashMap<CacheKey, CacheEntry> entries;
+    private AtomicLong hits;
+    private AtomicLong misses;
+    private AtomicLong evictions;
+    private AtomicLong invalidations;
+
+    public ShortestPathTreeCache(ShortestPathTreeBuilder builder, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("The cache size must be positive.");
+        }
+        this.builder = builder;
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.invalidations = new AtomicLong();
+    }
+
+    public ShortestPathTree getShortestPathTree(Graph graph, int source) {
+        CacheKey key = new CacheKey(graph, source);
+        long version = graph.getVersion();
+
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.version == version) {
+                    hits.incrementAndGet();
+                    return entry.tree;
+                }
+                // The graph has changed since this tree was built.
+                remove(key, entry);
+                invalidations.incrementAndGet();
+            }
+        }
+
+        misses.incrementAndGet();
+        ShortestPathTree tree = builder.buildShortestPathTree(graph, source);
+
+        synchronized (this) {
+            // Another thread may have changed the graph meanwhile. Only cache the tree IF it is still current.
+            if (graph.getVersion() == version) {
+                CacheEntry previous = entries.put(key, new CacheEntry(tree, version));
+                if (previous != null) {
+                    usedBytes -= previous.tree.sizeInBytes();
+                }
+                usedBytes += tree.sizeInBytes();
+                evict();
+            }
+        }
+        return tree;
+    }
+
+    // Returns the vertices on the shortest path, or an empty array IF there is no path.
+    public int[] findShortestPath(Graph graph, int source, int destination) {
+        return getShortestPathTree(graph, source).getPath(destination);
+    }
+
+    // Drops every cached tree of the graph, for example before the caller lets go of it.
+    public synchronized void invalidate(Graph graph) {
+        Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CacheKey, CacheEntry> entry = iterator.next();
+            if (entry.getKey().graph == graph) {
+                usedBytes -= entry.getValue().tree.sizeInBytes();
+                iterator.remove();
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public double getHitRate() {
+        long lookups = hits.get() + misses.get();
+        return lookups == 0 ? 0 : (double) hits.get() / lookups;
+    }
+
+    private void remove(CacheKey key, CacheEntry entry) {
+        entries.remove(key);
+        usedBytes -= entry.tree.sizeInBytes();
+    }
+
+    // Drop the least recently used trees until the cache fits in its budget again. The newest tree is always kept.
+    private void evict() {
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (usedBytes > maxBytes && entries.size() > 1) {
+            CacheEntry eldest = iterator.next();
+            usedBytes -= eldest.tree.sizeInBytes();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static class CacheKey {
+        private Graph graph;
+        private int source;
+
+        private CacheKey(Graph graph, int source) {
+            this.graph = graph;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return graph == other.graph && source == other.source;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(graph) + source;
+        }
+    }
+
+    private static class CacheEntry {
+        private ShortestPathTree tree;
+        private long version;
+
+        private CacheEntry(ShortestPathTree tree, long version) {
+            this.tree = tree;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.ComponentInfo;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.ParallelHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class finds the strongly connected components (SCCs) of a directed graph. There are two modes:
+ *
+ * tarjan: Tarjan's algorithm written with an explicit stack, so deep graphs cannot overflow the call stack. It is
+ * sequential and runs in O(V + E). Component ids come out in reverse topological order of the condensation.
+ *
+ * forwardBackward: The FW-BW algorithm. The vertices reachable both forwards and backwards from a pivot form one SCC,
+ * and the three sets left over (forward only, backward only, neither) can be decomposed independently, so they are
+ * handed to a fork join pool. Vertices with no incoming or no outgoing edges are trimmed off first, since each of them
+ * is an SCC on its own.
+ *
+ * findComponents picks the mode based on the size of the graph.
+ *
+ * The versions with a cancellation token check it every CHECK_INTERVAL vertices in tarjan, and once per pivot in
+ * forwardBackward. IF it stops the run, every vertex that was not placed yet becomes a component of its own. So every
+ * component returned lies inside one real SCC, but some SCCs may still be split up, and tarjan's ids are no longer in
+ * topological order.
+ */
+public class StronglyConnectedComponents {
+    // Below this many edges the sequential Tarjan is faster than paying for the parallel machinery.
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    // Vertex sets smaller than this are decomposed by the current task instead of forking new ones.
+    private static final int FORK_THRESHOLD = 4096;
+    // Color of a vertex whose SCC has been found.
+    private static final int DONE = -1;
+
+    public ComponentInfo findComponents(Graph graph) {
+        return findComponents(graph, CancellationToken.NONE).getValue();
+    }
+
+    public PartialResult<ComponentInfo> findComponents(Graph graph, CancellationToken token) {
+        validate(graph);
+        AdjacencyArrays adjacency = new AdjacencyArrays(graph);
+        if (adjacency.getNumEdges() < PARALLEL_THRESHOLD) {
+            return tarjan(adjacency, token);
+        }
+        return forwardBackward(adjacency, new AdjacencyArrays(graph, true), token);
+    }
+
+    public ComponentInfo tarjan(Graph graph) {
+        validate(graph);
+        return tarjan(new AdjacencyArrays(graph));
+    }
+
+    public ComponentInfo forwardBackward(Graph graph) {
+        validate(graph);
+        return forwardBackward(new AdjacencyArrays(graph), new AdjacencyArrays(graph, true));
+    }
+
+    // Build the condensation of the graph: one vertex per SCC, with an edge between two SCCs if any edge of the graph
+    // connects them. The condensation is always a Directed Acyclic Graph, so it can be topologically sorted.
+    public Graph condense(Graph graph, ComponentInfo components) {
+        validate(graph);
+        Graph condensation = new AdjacencySetGraph(components.getNumComponents(), Graph.GraphType.DIRECTED);
+        for (int v = 0; v < graph.getNumVertices(); v++) {
+            int component = components.getComponentId(v);
+            for (int neighbor : graph.getAdjacentVertices(v)) {
+                int neighborComponent = components.getComponentId(neighbor);
+                // Edges inside an SCC disappear. The adjacency set drops the duplicate edges between two SCCs.
+                if (component != neighborComponent) {
+                    condensation.addEdge(component, neighborComponent);
+                }
+            }
+        }
+        return condensation;
+    }
+
+    public ComponentInfo tarjan(AdjacencyArrays adjacency) {
+        return tarjan(adjacency, CancellationToken.NONE).getValue();
+    }
+
+    public PartialResult<ComponentInfo> tarjan(AdjacencyArrays adjacency, CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("scc-tarjan");
+        int numVertices = adjacency.getNumVertices();
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+
+        // index is the order a vertex was discovered in (0 means not discovered yet), lowLink is the lowest index
+        // reachable from its DFS subtree.
+        int[] index = new int[numVertices];
+        int[] lowLink = new int[numVertices];
+        int[] componentIds = new int[numVertices];
+        boolean[] onStack = new boolean[numVertices];
+        // The stack of vertices that do not have an SCC yet.
+        int[] stack = new int[numVertices];
+        int stackSize = 0;
+        // The explicit DFS call stack. For each frame we keep the vertex and the next edge to explore.
+        int[] callVertex = new int[numVertices];
+        int[] callEdge = new int[numVertices];
+        int callSize = 0;
+
+        int nextIndex = 1;
+        int numComponents = 0;
+        long relaxed = 0;
+        RunStatus status = RunStatus.COMPLETED;
+        search:
+        for (int root = 0; root < numVertices; root++) {
+            if (index[root] != 0) {
+                continue;
+            }
+
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            callVertex[callSize] = root;
+            callEdge[callSize++] = offsets[root];
+
+            while (callSize > 0) {
+                int vertex = callVertex[callSize - 1];
+                int edge = callEdge[callSize - 1];
+
+                if (edge < offsets[vertex + 1]) {
+                    callEdge[callSize - 1]++;
+                    relaxed++;
+                    int neighbor = targets[edge];
+                    if (index[neighbor] == 0) {
+                        if ((nextIndex & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                            status = token.getStatus();
+                            break search;
+                        }
+                        // Descend into the neighbor, the same as the recursive call would.
+                        index[neighbor] = lowLink[neighbor] = nextIndex++;
+                        stack[stackSize++] = neighbor;
+                        onStack[neighbor] = true;
+                        callVertex[callSize] = neighbor;
+                        callEdge[callSize++] = offsets[neighbor];
+                    } else if (onStack[neighbor]) {
+                        lowLink[vertex] = Math.min(lowLink[vertex], index[neighbor]);
+                    }
+                    continue;
+                }
+
+                // All edges of the vertex are done. IF it is the root of an SCC, pop the SCC off the stack.
+                if (lowLink[vertex] == index[vertex]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        componentIds[member] = numComponents;
+                    } while (member != vertex);
+                    numComponents++;
+                }
+
+                // Return to the caller and pass the low link up.
+                callSize--;
+                if (callSize > 0) {
+                    int caller = callVertex[callSize - 1];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[vertex]);
+                }
+            }
+        }
+
+        if (status != RunStatus.COMPLETED) {
+            // The vertices still on the stack and the ones never reached have no SCC yet.
+            for (int v = 0; v < numVertices; v++) {
+                if (index[v] == 0 || onStack[v]) {
+                    componentIds[v] = numComponents++;
+                }
+            }
+        }
+        run.addVerticesSettled(nextIndex - 1);
+        run.addEdgesRelaxed(relaxed);
+        run.finish();
+        return new PartialResult<>(new ComponentInfo(componentIds, countSizes(componentIds, numComponents)), status);
+    }
+
+    public ComponentInfo forwardBackward(AdjacencyArrays adjacency, AdjacencyArrays transpose) {
+        return forwardBackward(adjacency, transpose, CancellationToken.NONE).getValue();
+    }
+
+    public PartialResult<ComponentInfo> forwardBackward(AdjacencyArrays adjacency, AdjacencyArrays transpose,
+                                                        CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("scc-forward-backward");
+        run.phase("trim");
+        Decomposition decomposition = new Decomposition(adjacency, transpose, token);
+        int numVertices = adjacency.getNumVertices();
+
+        trim(decomposition);
+
+        // Gather the vertices that survived trimming into the first set.
+        int remaining = 0;
+        for (int v = 0; v < numVertices; v++) {
+            if (decomposition.colors[v] != DONE) {
+                remaining++;
+            }
+        }
+        int[] vertices = new int[remaining];
+        for (int v = 0, i = 0; v < numVertices; v++) {
+            if (decomposition.colors[v] != DONE) {
+                vertices[i++] = v;
+            }
+        }
+
+        run.phase("decompose");
+        ForkJoinPool.commonPool().invoke(new ForwardBackwardTask(decomposition, vertices, 0));
+
+        int[] componentIds = decomposition.componentIds;
+        RunStatus status = RunStatus.COMPLETED;
+        if (decomposition.stopped) {
+            status = token.getStatus();
+            for (int v = 0; v < numVertices; v++) {
+                if (decomposition.colors[v] != DONE) {
+                    componentIds[v] = decomposition.nextComponent.getAndIncrement();
+                }
+            }
+        }
+        // Every pivot takes two colors, and color 0 is the first set.
+        run.addPasses((decomposition.nextColor.get() - 1) / 2);
+        run.addVerticesSettled(numVertices);
+        run.addEdgesRelaxed(decomposition.relaxed.sum());
+        run.finish();
+        return new PartialResult<>(new ComponentInfo(componentIds,
+                countSizes(componentIds, decomposition.nextComponent.get())), status);
+    }
+
+    // Vertices without incoming or outgoing edges (ignoring self loops) cannot be on a cycle, so each is its own SCC.
+    private void trim(Decomposition decomposition) {
+        ParallelHelper.forEach(decomposition.colors.length, v -> {
+            if (!hasOtherNeighbor(decomposition.adjacency, v) || !hasOtherNeighbor(decomposition.transpose, v)) {
+                decomposition.colors[v] = DONE;
+                decomposition.componentIds[v] = decomposition.nextComponent.getAndIncrement();
+            }
+        });
+    }
+
+    private boolean hasOtherNeighbor(AdjacencyArrays adjacency, int v) {
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+        for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+            if (targets[edge] != v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The state shared by every task of one FW-BW run. A vertex belongs to exactly one task at a time, so tasks only
+    // write to the entries of their own vertices.
+    private static class Decomposition {
+        private AdjacencyArrays adjacency;
+        private AdjacencyArrays transpose;
+        // Every vertex in the same undecided set shares a color. Colors are never reused, so a task can tell which
+        // vertices belong to it without any locking.
+        private int[] colors;
+        private int[] componentIds;
+        // Scratch space for trimming: the number of incoming and outgoing neighbors inside the vertex's own set.
+        private int[] inCounts;
+        private int[] outCounts;
+        private AtomicInteger nextColor;
+        private AtomicInteger nextComponent;
+        // The number of edges walked by the pivot searches, for the metrics.
+        private LongAdder relaxed;
+        private CancellationToken token;
+        // Set once the token has stopped the run, so the other tasks stop at their next pivot without the clock.
+        private volatile boolean stopped;
+
+        private Decomposition(AdjacencyArrays adjacency, AdjacencyArrays transpose, CancellationToken token) {
+            int numVertices = adjacency.getNumVertices();
+            this.adjacency = adjacency;
+            this.transpose = transpose;
+            this.colors = new int[numVertices];
+            this.componentIds = new int[numVertices];
+            this.inCounts = new int[numVertices];
+            this.outCounts = new int[numVertices];
+            this.nextColor = new AtomicInteger(1);
+            this.nextComponent = new AtomicInteger();
+            this.relaxed = new LongAdder();
+            this.token = token;
+        }
+    }
+
+    private static class ForwardBackwardTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private Decomposition decomposition;
+        private int[] colors;
+        private int[] vertices;
+        private int color;
+
+        private ForwardBackwardTask(Decomposition decomposition, int[] vertices, int color) {
+            this.decomposition = decomposition;
+            this.colors = decomposition.colors;
+            this.vertices = vertices;
+            this.color = color;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForwardBackwardTask> forked = new ArrayList<>();
+            // Keep decomposing one of the sets on this thread and fork the others if they are big enough.
+            while (vertices.length > 0) {
+                // Peel off the singleton SCCs first. Without this, most pivots on a sparse graph only find themselves.
+                if (trim()) {
+                    vertices = collect(color);
+                    if (vertices.length == 0) {
+                        break;
+                    }
+                }
+
+                if (decomposition.stopped || decomposition.token.isCancelled()) {
+                    decomposition.stopped = true;
+                    break;
+                }
+                int pivot = vertices[0];
+                int forwardColor = decomposition.nextColor.getAndIncrement();
+                int backwardColor = decomposition.nextColor.getAndIncrement();
+                int component = decomposition.nextComponent.getAndIncrement();
+
+                // Everything reachable from the pivot inside this set is recolored to the forward color.
+                colors[pivot] = forwardColor;
+                search(decomposition.adjacency, pivot, forwardColor, -1, -1);
+                // Walking backwards, forward colored vertices are in the SCC, and the rest of the set is backward only.
+                colors[pivot] = DONE;
+                decomposition.componentIds[pivot] = component;
+                search(decomposition.transpose, pivot, backwardColor, forwardColor, component);
+
+                int[][] sets = {collect(forwardColor), collect(backwardColor), collect(color)};
+                int[] setColors = {forwardColor, backwardColor, color};
+                int largest = 0;
+                for (int i = 1; i < sets.length; i++) {
+                    if (sets[i].length > sets[largest].length) {
+                        largest = i;
+                    }
+                }
+                for (int i = 0; i < sets.length; i++) {
+                    if (i == largest || sets[i].length == 0) {
+                        continue;
+                    }
+                    ForwardBackwardTask task = new ForwardBackwardTask(decomposition, sets[i], setColors[i]);
+                    if (sets[i].length >= FORK_THRESHOLD) {
+                        task.fork();
+                        forked.add(task);
+                    } else {
+                        task.compute();
+                    }
+                }
+
+                vertices = sets[largest];
+                color = setColors[largest];
+            }
+
+            for (ForwardBackwardTask task : forked) {
+                task.join();
+            }
+        }
+
+        // Repeatedly remove the vertices of this set that have no incoming or no outgoing neighbor inside the set.
+        // Each of them is an SCC on its own. Returns true if any vertex was removed.
+        private boolean trim() {
+            int[] inCounts = decomposition.inCounts;
+            int[] outCounts = decomposition.outCounts;
+            int[] queue = new int[vertices.length];
+            int tail = 0;
+
+            for (int v : vertices) {
+                inCounts[v] = countInSet(decomposition.transpose, v);
+                outCounts[v] = countInSet(decomposition.adjacency, v);
+            }
+            for (int v : vertices) {
+                if (inCounts[v] == 0 || outCounts[v] == 0) {
+                    tail = remove(v, queue, tail);
+                }
+            }
+
+            // Removing a vertex lowers the counts of its neighbors, which may expose more vertices to remove.
+            for (int head = 0; head < tail; head++) {
+                int vertex = queue[head];
+                tail = release(decomposition.adjacency, vertex, inCounts, queue, tail);
+                tail = release(decomposition.transpose, vertex, outCounts, queue, tail);
+            }
+
+            return tail > 0;
+        }
+
+        private int countInSet(AdjacencyArrays arrays, int v) {
+            int[] offsets = arrays.getOffsets();
+            int[] targets = arrays.getTargets();
+            int count = 0;
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                if (targets[edge] != v && colors[targets[edge]] == color) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private int release(AdjacencyArrays arrays, int v, int[] counts, int[] queue, int tail) {
+            int[] offsets = arrays.getOffsets();
+            int[] targets = arrays.getTargets();
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                int neighbor = targets[edge];
+                if (neighbor != v && colors[neighbor] == color && --counts[neighbor] == 0) {
+                    tail = remove(neighbor, queue, tail);
+                }
+            }
+            return tail;
+        }
+
+        private int remove(int v, int[] queue, int tail) {
+            colors[v] = DONE;
+            decomposition.componentIds[v] = decomposition.nextComponent.getAndIncrement();
+            queue[tail] = v;
+            return tail + 1;
+        }
+
+        // Breadth first search from the pivot over vertices of this set. They are recolored to newColor, except that
+        // IF sccColor is set, vertices with that color are placed in the pivot's SCC instead.
+        private void search(AdjacencyArrays arrays, int pivot, int newColor, int sccColor, int component) {
+            int[] offsets = arrays.getOffsets();
+            int[] targets = arrays.getTargets();
+            int[] queue = new int[vertices.length];
+            int head = 0;
+            int tail = 0;
+            long edges = 0;
+            queue[tail++] = pivot;
+
+            while (head < tail) {
+                int vertex = queue[head++];
+                edges += offsets[vertex + 1] - offsets[vertex];
+                for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                    int neighbor = targets[edge];
+                    if (colors[neighbor] == color) {
+                        colors[neighbor] = newColor;
+                        queue[tail++] = neighbor;
+                    } else if (sccColor != -1 && colors[neighbor] == sccColor) {
+                        colors[neighbor] = DONE;
+                        decomposition.componentIds[neighbor] = component;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+            decomposition.relaxed.add(edges);
+        }
+
+        private int[] collect(int color) {
+            int count = 0;
+            for (int v : vertices) {
+                if (colors[v] == color) {
+                    count++;
+                }
+            }
+            int[] set = new int[count];
+            int i = 0;
+            for (int v : vertices) {
+                if (colors[v] == color) {
+                    set[i++] = v;
+                }
+            }
+            return set;
+        }
+    }
+
+    private int[] countSizes(int[] componentIds, int numComponents) {
+        int[] componentSizes = new int[numComponents];
+        for (int component : componentIds) {
+            componentSizes[component]++;
+        }
+        return componentSizes;
+    }
+
+    private void validate(Graph graph) {
+        if (graph.graphType() != Graph.GraphType.DIRECTED) {
+            throw new IllegalArgumentException("Strongly connected components require a directed graph.");
+        }
+    }
+}
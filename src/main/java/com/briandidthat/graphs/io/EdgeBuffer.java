@@ -0,0 +1,64 @@
+package com.briandidthat.graphs.io;
+
+import com.briandidthat.graphs.model.Graph;
+
+import java.util.Arrays;
+
+// A growable list of edges kept in primitive arrays. Every parser thread fills its own buffer. The weights are kept as
+// longs whatever the weight type, a double weight as its bits.
+class EdgeBuffer {
+    private int[] sources;
+    private int[] targets;
+    private long[] weights;
+    private int size;
+    private int maxVertex;
+
+    EdgeBuffer(int capacity) {
+        this.sources = new int[Math.max(capacity, 16)];
+        this.targets = new int[sources.length];
+        this.weights = new long[sources.length];
+        this.maxVertex = -1;
+    }
+
+    void add(int source, int target, long weight) {
+        if (size == sources.length) {
+            int capacity = size * 2;
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        sources[size] = source;
+        targets[size] = target;
+        weights[size] = weight;
+        size++;
+        maxVertex = Math.max(maxVertex, Math.max(source, target));
+    }
+
+    void add(int source, int target, double weight) {
+        add(source, target, Double.doubleToLongBits(weight));
+    }
+
+    int size() {
+        return size;
+    }
+
+    // The largest vertex id in the buffer, or -1 IF it is empty.
+    int getMaxVertex() {
+        return maxVertex;
+    }
+
+    // Adds the edges with weights of the given type, or without weights IF weightType is null.
+    void addTo(Graph graph, Graph.WeightType weightType) {
+        for (int i = 0; i < size; i++) {
+            if (weightType == null) {
+                graph.addEdge(sources[i], targets[i]);
+            } else if (weightType == Graph.WeightType.INT) {
+                graph.addEdge(sources[i], targets[i], (int) weights[i]);
+            } else if (weightType == Graph.WeightType.LONG) {
+                graph.addEdge(sources[i], targets[i], weights[i]);
+            } else {
+                graph.addEdge(sources[i], targets[i], Double.longBitsToDouble(weights[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,577 @@
+package com.briandidthat.graphs.io;
+
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import com.briandidthat.graphs.utils.ParallelHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * This class reads graphs from files in three formats:
+ *
+ * - Edge lists: one edge per line, "v1 v2" or "v1 v2 weight", with 0-based vertex ids. Values may be separated by
+ *   spaces, tabs or commas, and lines starting with '#' or '%' are comments.
+ * - DIMACS shortest path files (.gr): a "p sp vertices arcs" line followed by "a v1 v2 weight" arcs, 1-based.
+ * - MatrixMarket coordinate files (.mtx): a "%%MatrixMarket matrix coordinate field symmetry" banner, a
+ *   "rows columns entries" line and one "row column [value]" entry per line, 1-based. A symmetric matrix is read as an
+ *   undirected graph, a general one as a directed graph. A real matrix is read with double weights.
+ *
+ * New graphs are sparse: a weighted input goes into a WeightedAdjacencyListGraph and an unweighted one into an
+ * AdjacencySetGraph, both O(E + V), so the size of a file is only limited by the memory its edges need. DIMACS files
+ * and integer matrices have int weights, and a weight outside of the int range is an error.
+ *
+ * The input is read through a channel in large blocks, each block is cut at its last newline, and the lines of the block
+ * are split into segments that are parsed in parallel straight from the bytes, without creating a String per line.
+ * Every segment collects its edges into its own int arrays, and the segments are then added to the graph in file order
+ * on the calling thread, since the graphs do not support concurrent writes. Files ending in ".gz" are decompressed on
+ * the fly; the decompression itself is sequential. It's constructor is private to restrict instantiation of the class.
+ */
+public class GraphReader {
+    private static final int BLOCK_SIZE = 1 << 24;
+    // Segments smaller than this are not worth handing to another thread.
+    private static final int MIN_SEGMENT_SIZE = 1 << 16;
+    // Every power of ten up to 10^22 is exact as a double.
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18,
+            1e19, 1e20, 1e21, 1e22
+    };
+
+    private GraphReader() {}
+
+    // Reads an edge list into a new graph with just enough vertices for the largest vertex id in the file. The weights
+    // of a weighted edge list are ints.
+    public static Graph readEdgeList(Path path, Graph.GraphType graphType, boolean weighted) throws IOException {
+        Graph.WeightType weightType = weighted ? Graph.WeightType.INT : null;
+        List<EdgeBuffer> buffers = new ArrayList<>();
+        try (ReadableByteChannel channel = open(path)) {
+            read(channel, new EdgeListFormat(weightType), buffers::add);
+        }
+        int maxVertex = -1;
+        for (EdgeBuffer buffer : buffers) {
+            maxVertex = Math.max(maxVertex, buffer.getMaxVertex());
+        }
+        Graph graph = newGraph(maxVertex + 1, graphType, weightType);
+        for (EdgeBuffer buffer : buffers) {
+            buffer.addTo(graph, weightType);
+        }
+        return graph;
+    }
+
+    // Adds the edges of an edge list to an existing graph. The weights are only read IF the graph is weighted, and are
+    // parsed as the weight type of the graph.
+    public static void readEdgeList(Path path, Graph graph) throws IOException {
+        try (ReadableByteChannel channel = open(path)) {
+            readEdgeList(channel, graph, Long.MAX_VALUE);
+        }
+    }
+
+    // The same as above, for an edge list that arrives as a stream, for example an upload. The stream is not closed.
+    public static void readEdgeList(InputStream in, Graph graph) throws IOException {
+        readEdgeList(Channels.newChannel(in), graph, Long.MAX_VALUE);
+    }
+
+    // The same again, but the read stops with an error as soon as the stream holds more than maxEdges edges. The count
+    // is checked before every block is added, so at most one block more than the limit is ever parsed.
+    public static void readEdgeList(InputStream in, Graph graph, long maxEdges) throws IOException {
+        readEdgeList(Channels.newChannel(in), graph, maxEdges);
+    }
+
+    public static Graph readDimacs(Path path) throws IOException {
+        DimacsFormat format = new DimacsFormat();
+        return readWithHeader(path, format);
+    }
+
+    public static Graph readMatrixMarket(Path path) throws IOException {
+        MatrixMarketFormat format = new MatrixMarketFormat();
+        return readWithHeader(path, format);
+    }
+
+    private static void readEdgeList(ReadableByteChannel channel, Graph graph, long maxEdges) throws IOException {
+        Graph.WeightType weightType = graph.isWeighted() ? graph.weightType() : null;
+        long[] numEdges = new long[1];
+        read(channel, new EdgeListFormat(weightType), buffer -> {
+            numEdges[0] += buffer.size();
+            if (numEdges[0] > maxEdges) {
+                throw new IllegalArgumentException("The edge list has more than " + maxEdges + " edges.");
+            }
+            buffer.addTo(graph, weightType);
+        });
+    }
+
+    // The graph is created as soon as the header has been read, and every block is added to it as it is parsed.
+    private static Graph readWithHeader(Path path, HeaderFormat format) throws IOException {
+        Graph[] graph = new Graph[1];
+        long[] numEdges = new long[1];
+        try (ReadableByteChannel channel = open(path)) {
+            read(channel, format, buffer -> {
+                if (graph[0] == null) {
+                    graph[0] = newGraph(format.numVertices, format.graphType, format.weightType);
+                }
+                buffer.addTo(graph[0], format.weightType);
+                numEdges[0] += buffer.size();
+            });
+        }
+        if (numEdges[0] != format.numEdges) {
+            throw new IllegalArgumentException("The header declares " + format.numEdges + " edges but the file has " +
+                    numEdges[0] + ".");
+        }
+        return graph[0] != null ? graph[0] : newGraph(format.numVertices, format.graphType, format.weightType);
+    }
+
+    // Returns an unweighted graph IF weightType is null.
+    private static Graph newGraph(int numVertices, Graph.GraphType graphType, Graph.WeightType weightType) {
+        return weightType != null ? new WeightedAdjacencyListGraph(numVertices, weightType, graphType)
+                : new AdjacencySetGraph(numVertices, graphType);
+    }
+
+    private static ReadableByteChannel open(Path path) throws IOException {
+        if (path.getFileName().toString().endsWith(".gz")) {
+            return Channels.newChannel(new GZIPInputStream(Files.newInputStream(path), 1 << 16));
+        }
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    // Reads the channel block by block. Header lines are handed to the format one at a time, everything after the
+    // header is parsed in parallel and passed to the sink in file order.
+    private static void read(ReadableByteChannel channel, LineFormat format, Consumer<EdgeBuffer> sink)
+            throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        byte[] buffer = new byte[BLOCK_SIZE];
+        int length = 0;
+        long offset = 0;
+        boolean eof = false;
+
+        while (!eof || length > 0) {
+            while (!eof && length < buffer.length) {
+                int read = channel.read(ByteBuffer.wrap(buffer, length, buffer.length - length));
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    length += read;
+                }
+            }
+
+            // Only parse whole lines. The rest of the last line is moved to the front for the next block.
+            int end = eof ? length : lastLineEnd(buffer, length);
+            if (end == 0) {
+                if (eof) {
+                    break;
+                }
+                // A single line is longer than the whole buffer.
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                continue;
+            }
+
+            int start = 0;
+            if (!format.isHeaderDone()) {
+                ByteScanner scanner = new ByteScanner(buffer, 0, end, offset);
+                while (!format.isHeaderDone() && scanner.nextLine()) {
+                    format.parseHeaderLine(scanner);
+                }
+                start = scanner.getNextLineStart();
+            }
+            if (start < end) {
+                parseSegments(pool, buffer, start, end, offset, format, sink);
+            }
+
+            System.arraycopy(buffer, end, buffer, 0, length - end);
+            offset += end;
+            length -= end;
+        }
+
+        if (!format.isHeaderDone()) {
+            throw new IllegalArgumentException("The file is missing its header.");
+        }
+    }
+
+    private static int lastLineEnd(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static void parseSegments(ForkJoinPool pool, byte[] buffer, int start, int end, long offset,
+                                      LineFormat format, Consumer<EdgeBuffer> sink) {
+        int size = end - start;
+        int numSegments = Math.max(1, Math.min(size / MIN_SEGMENT_SIZE, pool.getParallelism() * 4));
+        // Every segment starts right after a newline.
+        int[] bounds = new int[numSegments + 1];
+        bounds[0] = start;
+        bounds[numSegments] = end;
+        for (int i = 1; i < numSegments; i++) {
+            int bound = Math.max(start + (int) ((long) size * i / numSegments), bounds[i - 1]);
+            while (bound < end && buffer[bound - 1] != '\n') {
+                bound++;
+            }
+            bounds[i] = bound;
+        }
+
+        EdgeBuffer[] segments = new EdgeBuffer[numSegments];
+        ParallelHelper.forEachRange(pool, numSegments, 1, (from, to) -> {
+            for (int s = from; s < to; s++) {
+                // Roughly one edge every 8 bytes, the buffer grows IF the lines are shorter.
+                EdgeBuffer edges = new EdgeBuffer((bounds[s + 1] - bounds[s]) / 8);
+                ByteScanner scanner = new ByteScanner(buffer, bounds[s], bounds[s + 1], offset);
+                while (scanner.nextLine()) {
+                    format.parseDataLine(scanner, edges);
+                }
+                segments[s] = edges;
+            }
+        });
+
+        for (EdgeBuffer edges : segments) {
+            sink.accept(edges);
+        }
+    }
+
+    // A format reads its header lines one at a time, then parses data lines. parseDataLine is called from several
+    // threads at once, so it may only read the state set up by the header.
+    private abstract static class LineFormat {
+        abstract boolean isHeaderDone();
+
+        abstract void parseHeaderLine(ByteScanner scanner);
+
+        abstract void parseDataLine(ByteScanner scanner, EdgeBuffer edges);
+    }
+
+    private abstract static class HeaderFormat extends LineFormat {
+        int numVertices;
+        long numEdges;
+        Graph.GraphType graphType;
+        // null IF the file has no weights.
+        Graph.WeightType weightType;
+        boolean headerDone;
+
+        @Override
+        boolean isHeaderDone() {
+            return headerDone;
+        }
+
+        int readVertex(ByteScanner scanner) {
+            int v = scanner.readInt() - 1;
+            if (v < 0 || v >= numVertices) {
+                throw scanner.error("Invalid vertex number");
+            }
+            return v;
+        }
+    }
+
+    private static class EdgeListFormat extends LineFormat {
+        private Graph.WeightType weightType;
+
+        private EdgeListFormat(Graph.WeightType weightType) {
+            this.weightType = weightType;
+        }
+
+        @Override
+        boolean isHeaderDone() {
+            return true;
+        }
+
+        @Override
+        void parseHeaderLine(ByteScanner scanner) {
+        }
+
+        @Override
+        void parseDataLine(ByteScanner scanner, EdgeBuffer edges) {
+            int c = scanner.peek();
+            if (c == -1 || c == '#' || c == '%') {
+                return;
+            }
+            int v1 = scanner.readInt();
+            int v2 = scanner.readInt();
+            if (v1 < 0 || v2 < 0) {
+                throw scanner.error("Invalid vertex number");
+            }
+            if (weightType == Graph.WeightType.DOUBLE) {
+                double weight = scanner.readDouble();
+                scanner.expectLineEnd();
+                edges.add(v1, v2, weight);
+            } else {
+                long weight = weightType == Graph.WeightType.LONG ? scanner.readLong()
+                        : weightType == Graph.WeightType.INT ? scanner.readInt() : 1;
+                scanner.expectLineEnd();
+                edges.add(v1, v2, weight);
+            }
+        }
+    }
+
+    private static class DimacsFormat extends HeaderFormat {
+        private DimacsFormat() {
+            this.graphType = Graph.GraphType.DIRECTED;
+            this.weightType = Graph.WeightType.INT;
+        }
+
+        @Override
+        void parseHeaderLine(ByteScanner scanner) {
+            int c = scanner.peek();
+            if (c == -1 || c == 'c') {
+                return;
+            }
+            if (c != 'p') {
+                throw scanner.error("Expected the problem line");
+            }
+            scanner.readWord();
+            scanner.readWord();
+            numVertices = scanner.readInt();
+            numEdges = scanner.readInt();
+            scanner.expectLineEnd();
+            headerDone = true;
+        }
+
+        @Override
+        void parseDataLine(ByteScanner scanner, EdgeBuffer edges) {
+            int c = scanner.peek();
+            if (c == -1 || c == 'c') {
+                return;
+            }
+            if (c != 'a') {
+                throw scanner.error("Expected an arc");
+            }
+            scanner.readWord();
+            int v1 = readVertex(scanner);
+            int v2 = readVertex(scanner);
+            int weight = scanner.readInt();
+            scanner.expectLineEnd();
+            edges.add(v1, v2, weight);
+        }
+    }
+
+    private static class MatrixMarketFormat extends HeaderFormat {
+        private boolean bannerRead;
+
+        @Override
+        void parseHeaderLine(ByteScanner scanner) {
+            if (!bannerRead) {
+                if (!scanner.readWord().equalsIgnoreCase("%%MatrixMarket") ||
+                        !scanner.readWord().equalsIgnoreCase("matrix") ||
+                        !scanner.readWord().equalsIgnoreCase("coordinate")) {
+                    throw scanner.error("Expected a MatrixMarket coordinate banner");
+                }
+                String field = scanner.readWord().toLowerCase();
+                String symmetry = scanner.readWord().toLowerCase();
+                if (!field.equals("pattern") && !field.equals("integer") && !field.equals("real")) {
+                    throw scanner.error("Unsupported field " + field);
+                }
+                if (!symmetry.equals("general") && !symmetry.equals("symmetric")) {
+                    throw scanner.error("Unsupported symmetry " + symmetry);
+                }
+                weightType = field.equals("pattern") ? null
+                        : field.equals("real") ? Graph.WeightType.DOUBLE : Graph.WeightType.INT;
+                graphType = symmetry.equals("symmetric") ? Graph.GraphType.UNDIRECTED : Graph.GraphType.DIRECTED;
+                bannerRead = true;
+                return;
+            }
+
+            int c = scanner.peek();
+            if (c == -1 || c == '%') {
+                return;
+            }
+            int rows = scanner.readInt();
+            int columns = scanner.readInt();
+            numEdges = scanner.readInt();
+            scanner.expectLineEnd();
+            numVertices = Math.max(rows, columns);
+            headerDone = true;
+        }
+
+        @Override
+        void parseDataLine(ByteScanner scanner, EdgeBuffer edges) {
+            int c = scanner.peek();
+            if (c == -1 || c == '%') {
+                return;
+            }
+            int v1 = readVertex(scanner);
+            int v2 = readVertex(scanner);
+            if (weightType == Graph.WeightType.DOUBLE) {
+                double weight = scanner.readDouble();
+                scanner.expectLineEnd();
+                edges.add(v1, v2, weight);
+            } else {
+                int weight = weightType != null ? scanner.readInt() : 1;
+                scanner.expectLineEnd();
+                edges.add(v1, v2, weight);
+            }
+        }
+    }
+
+    // Reads values straight out of a byte array, one line at a time. Values are separated by spaces, tabs or commas.
+    private static class ByteScanner {
+        private byte[] buffer;
+        private int end;
+        // The offset in the file of buffer[0], to point at the right place in error messages.
+        private long offset;
+        private int position;
+        private int lineEnd;
+        private int nextLineStart;
+
+        private ByteScanner(byte[] buffer, int start, int end, long offset) {
+            this.buffer = buffer;
+            this.end = end;
+            this.offset = offset;
+            this.nextLineStart = start;
+        }
+
+        private boolean nextLine() {
+            if (nextLineStart >= end) {
+                return false;
+            }
+            position = nextLineStart;
+            int i = position;
+            while (i < end && buffer[i] != '\n') {
+                i++;
+            }
+            nextLineStart = i + 1;
+            if (i > position && buffer[i - 1] == '\r') {
+                i--;
+            }
+            lineEnd = i;
+            return true;
+        }
+
+        private int getNextLineStart() {
+            return Math.min(nextLineStart, end);
+        }
+
+        // Returns the next character of the line without consuming it, or -1 at the end of the line.
+        private int peek() {
+            skipSeparators();
+            return position < lineEnd ? buffer[position] : -1;
+        }
+
+        private int readInt() {
+            return (int) readNumber(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        private long readLong() {
+            return readNumber(Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+
+        // The digits are collected as a negative value, since the smallest value has no positive counterpart. The
+        // range is checked on every digit, so a long run of digits cannot overflow.
+        private long readNumber(long min, long max) {
+            skipSeparators();
+            boolean negative = position < lineEnd && buffer[position] == '-';
+            if (negative) {
+                position++;
+            }
+            int start = position;
+            long limit = negative ? min : -max;
+            long value = 0;
+            while (position < lineEnd && buffer[position] >= '0' && buffer[position] <= '9') {
+                int digit = buffer[position++] - '0';
+                if (value < (limit + digit) / 10) {
+                    throw error("Number out of range");
+                }
+                value = value * 10 - digit;
+            }
+            if (position == start || !atSeparator()) {
+                throw error("Expected a number");
+            }
+            return negative ? value : -value;
+        }
+
+        // Reads a decimal number like -1.5e3. When the digits fit in 53 bits and the power of ten is exact, one
+        // multiplication or division gives the correctly rounded value. Anything longer goes through
+        // Double.parseDouble, so every value reads back exactly as it was written.
+        private double readDouble() {
+            skipSeparators();
+            int start = position;
+            boolean negative = position < lineEnd && buffer[position] == '-';
+            if (negative || (position < lineEnd && buffer[position] == '+')) {
+                position++;
+            }
+            long mantissa = 0;
+            int exponent = 0;
+            int numDigits = 0;
+            boolean fraction = false;
+            for (; position < lineEnd; position++) {
+                byte b = buffer[position];
+                if (b == '.' && !fraction) {
+                    fraction = true;
+                } else if (b >= '0' && b <= '9') {
+                    if (mantissa < 100_000_000_000_000_000L) {
+                        mantissa = mantissa * 10 + (b - '0');
+                        if (fraction) {
+                            exponent--;
+                        }
+                    } else if (!fraction) {
+                        exponent++;
+                    }
+                    numDigits++;
+                } else {
+                    break;
+                }
+            }
+            if (numDigits > 0 && position < lineEnd && (buffer[position] == 'e' || buffer[position] == 'E')) {
+                position++;
+                if (position < lineEnd && buffer[position] == '+') {
+                    position++;
+                }
+                exponent += readInt();
+            }
+            if (numDigits == 0 || !atSeparator()) {
+                position = start;
+                throw error("Expected a number");
+            }
+            if (mantissa >= 1L << 53 || exponent < -22 || exponent > 22 || numDigits > 18) {
+                return Double.parseDouble(new String(buffer, start, position - start, StandardCharsets.US_ASCII));
+            }
+            double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+
+        // Only used for headers, where creating a String does not matter.
+        private String readWord() {
+            skipSeparators();
+            int start = position;
+            while (position < lineEnd && !atSeparator()) {
+                position++;
+            }
+            return new String(buffer, start, position - start, StandardCharsets.US_ASCII);
+        }
+
+        private void expectLineEnd() {
+            if (peek() != -1) {
+                throw error("Unexpected value");
+            }
+        }
+
+        private void skipSeparators() {
+            while (position < lineEnd && isSeparator(buffer[position])) {
+                position++;
+            }
+        }
+
+        private boolean atSeparator() {
+            return position >= lineEnd || isSeparator(buffer[position]);
+        }
+
+        private boolean isSeparator(byte b) {
+            return b == ' ' || b == '\t' || b == ',';
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at byte " + (offset + position) + ".");
+        }
+    }
+}
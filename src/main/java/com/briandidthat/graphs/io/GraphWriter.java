@@ -0,0 +1,245 @@
+package com.briandidthat.graphs.io;
+
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.model.SpanningTree;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class writes graphs in the formats GraphReader reads (edge list, DIMACS and MatrixMarket), as well as shortest
+ * path trees and spanning trees as plain text tables. Int and long numbers are formatted straight into a byte buffer
+ * rather than through Strings; double weights go through Double.toString, so they read back exactly. Files ending in
+ * ".gz" are compressed. It's constructor is private to restrict instantiation of the
+ * class.
+ */
+public class GraphWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private GraphWriter() {}
+
+    // Writes "v1 v2" or "v1 v2 weight" lines with 0-based ids. An undirected edge is written once.
+    public static void writeEdgeList(Graph graph, Path path) throws IOException {
+        AdjacencyArrays adjacency = new AdjacencyArrays(graph);
+        boolean undirected = graph.graphType() == Graph.GraphType.UNDIRECTED;
+        try (ByteWriter writer = new ByteWriter(path)) {
+            writer.writeText("# " + graph.graphType() + " graph with " + graph.getNumVertices() + " vertices\n");
+            EdgeWeights weights = new EdgeWeights(adjacency);
+            forEachEdge(adjacency, undirected, (v1, v2, edge) -> {
+                writer.writeInt(v1);
+                writer.writeByte(' ');
+                writer.writeInt(v2);
+                if (adjacency.isWeighted()) {
+                    writer.writeByte(' ');
+                    weights.write(writer, edge);
+                }
+                writer.writeByte('\n');
+            });
+        }
+    }
+
+    // DIMACS arcs are directed, so an undirected edge is written as an arc in both directions. An unweighted graph
+    // gets a weight of 1 on every arc. DIMACS weights are integers, so a graph with double weights is rejected.
+    public static void writeDimacs(Graph graph, Path path) throws IOException {
+        if (graph.isWeighted() && graph.weightType() == Graph.WeightType.DOUBLE) {
+            throw new IllegalArgumentException("DIMACS files cannot hold double weights.");
+        }
+        AdjacencyArrays adjacency = new AdjacencyArrays(graph);
+        try (ByteWriter writer = new ByteWriter(path)) {
+            writer.writeText("p sp " + adjacency.getNumVertices() + " " + adjacency.getNumEdges() + "\n");
+            EdgeWeights weights = new EdgeWeights(adjacency);
+            forEachEdge(adjacency, false, (v1, v2, edge) -> {
+                writer.writeText("a ");
+                writer.writeInt(v1 + 1);
+                writer.writeByte(' ');
+                writer.writeInt(v2 + 1);
+                writer.writeByte(' ');
+                if (adjacency.isWeighted()) {
+                    weights.write(writer, edge);
+                } else {
+                    writer.writeByte('1');
+                }
+                writer.writeByte('\n');
+            });
+        }
+    }
+
+    // An undirected graph is written as a symmetric matrix, which only stores the lower triangle. Double weights make a
+    // real matrix, int and long weights an integer one.
+    public static void writeMatrixMarket(Graph graph, Path path) throws IOException {
+        AdjacencyArrays adjacency = new AdjacencyArrays(graph);
+        boolean undirected = graph.graphType() == Graph.GraphType.UNDIRECTED;
+        long[] numEntries = new long[1];
+        forEachEdge(adjacency, undirected, (v1, v2, edge) -> numEntries[0]++);
+        String field = !adjacency.isWeighted() ? "pattern"
+                : adjacency.getWeightType() == Graph.WeightType.DOUBLE ? "real" : "integer";
+
+        try (ByteWriter writer = new ByteWriter(path)) {
+            writer.writeText("%%MatrixMarket matrix coordinate " + field + " " +
+                    (undirected ? "symmetric" : "general") + "\n");
+            writer.writeText(adjacency.getNumVertices() + " " + adjacency.getNumVertices() + " " + numEntries[0] +
+                    "\n");
+            EdgeWeights weights = new EdgeWeights(adjacency);
+            forEachEdge(adjacency, undirected, (v1, v2, edge) -> {
+                // forEachEdge gives v1 <= v2, the lower triangle has the larger id as the row.
+                writer.writeInt((undirected ? v2 : v1) + 1);
+                writer.writeByte(' ');
+                writer.writeInt((undirected ? v1 : v2) + 1);
+                if (adjacency.isWeighted()) {
+                    writer.writeByte(' ');
+                    weights.write(writer, edge);
+                }
+                writer.writeByte('\n');
+            });
+        }
+    }
+
+    // Writes one "vertex distance lastVertex" line per vertex. Unreachable vertices have a distance of -1.
+    public static void writeShortestPathTree(ShortestPathTree tree, Path path) throws IOException {
+        try (ByteWriter writer = new ByteWriter(path)) {
+            writer.writeText("# shortest paths from " + tree.getSource() + ": vertex distance lastVertex\n");
+            for (int v = 0; v < tree.getNumVertices(); v++) {
+                writer.writeInt(v);
+                writer.writeByte(' ');
+                writer.writeInt(tree.hasPath(v) ? tree.getDistance(v) : -1);
+                writer.writeByte(' ');
+                writer.writeInt(tree.getLastVertex(v));
+                writer.writeByte('\n');
+            }
+        }
+    }
+
+    // Writes the spanning tree as a weighted edge list, which GraphReader can read back as a graph.
+    public static void writeSpanningTree(SpanningTree tree, Path path) throws IOException {
+        try (ByteWriter writer = new ByteWriter(path)) {
+            writer.writeText("# spanning tree with " + tree.getNumEdges() + " edges and total weight " +
+                    tree.getTotalWeight() + "\n");
+            for (int i = 0; i < tree.getNumEdges(); i++) {
+                writer.writeInt(tree.getVertex1(i));
+                writer.writeByte(' ');
+                writer.writeInt(tree.getVertex2(i));
+                writer.writeByte(' ');
+                writer.writeInt(tree.getWeight(i));
+                writer.writeByte('\n');
+            }
+        }
+    }
+
+    private interface EdgeVisitor {
+        void visit(int v1, int v2, int edge) throws IOException;
+    }
+
+    // Visits every edge of the snapshot with its index in the snapshot. IF once is true, an undirected edge is only
+    // visited from its smaller vertex.
+    private static void forEachEdge(AdjacencyArrays adjacency, boolean once, EdgeVisitor visitor) throws IOException {
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+        for (int v = 0; v < adjacency.getNumVertices(); v++) {
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                if (!once || targets[edge] >= v) {
+                    visitor.visit(v, targets[edge], edge);
+                }
+            }
+        }
+    }
+
+    // The weights of a snapshot in whichever array its weight type uses, so they are written without being narrowed.
+    private static class EdgeWeights {
+        private int[] weights;
+        private long[] longWeights;
+        private double[] doubleWeights;
+
+        private EdgeWeights(AdjacencyArrays adjacency) {
+            if (adjacency.getWeightType() == Graph.WeightType.INT) {
+                this.weights = adjacency.getWeights();
+            } else if (adjacency.getWeightType() == Graph.WeightType.LONG) {
+                this.longWeights = adjacency.getLongWeights();
+            } else if (adjacency.getWeightType() == Graph.WeightType.DOUBLE) {
+                this.doubleWeights = adjacency.getDoubleWeights();
+            }
+        }
+
+        private void write(ByteWriter writer, int edge) throws IOException {
+            if (weights != null) {
+                writer.writeLong(weights[edge]);
+            } else if (longWeights != null) {
+                writer.writeLong(longWeights[edge]);
+            } else {
+                writer.writeText(Double.toString(doubleWeights[edge]));
+            }
+        }
+    }
+
+    // A buffered writer of ASCII text that formats ints without going through a String.
+    private static class ByteWriter implements AutoCloseable {
+        private OutputStream out;
+        private byte[] buffer;
+        private int size;
+        private byte[] digits;
+
+        private ByteWriter(Path path) throws IOException {
+            OutputStream file = Files.newOutputStream(path);
+            this.out = path.getFileName().toString().endsWith(".gz") ? new GZIPOutputStream(file, BUFFER_SIZE) : file;
+            this.buffer = new byte[BUFFER_SIZE];
+            this.digits = new byte[20];
+        }
+
+        private void writeByte(int b) throws IOException {
+            if (size == buffer.length) {
+                flushBuffer();
+            }
+            buffer[size++] = (byte) b;
+        }
+
+        private void writeInt(int value) throws IOException {
+            writeLong(value);
+        }
+
+        private void writeLong(long value) throws IOException {
+            if (buffer.length - size < digits.length + 1) {
+                flushBuffer();
+            }
+            // The digits are taken from the negative value, since Long.MIN_VALUE has no positive counterpart.
+            long v = value;
+            if (v < 0) {
+                buffer[size++] = '-';
+            } else {
+                v = -v;
+            }
+            int numDigits = 0;
+            do {
+                digits[numDigits++] = (byte) ('0' - v % 10);
+                v /= 10;
+            } while (v < 0);
+            while (numDigits > 0) {
+                buffer[size++] = digits[--numDigits];
+            }
+        }
+
+        private void writeText(String text) throws IOException {
+            for (byte b : text.getBytes(StandardCharsets.US_ASCII)) {
+                writeByte(b);
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, size);
+            size = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushBuffer();
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
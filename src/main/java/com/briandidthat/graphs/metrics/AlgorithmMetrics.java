@@ -0,0 +1,77 @@
+package com.briandidthat.graphs.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This class keeps the totals of every instrumented algorithm, keyed by algorithm name. An algorithm calls start()
+ * when a run begins and finish() on the returned run when it ends. The totals are global, like the algorithms
+ * themselves, which are created with new rather than injected. Metrics are on by default; turning them off makes
+ * start() return a run that records nothing. It's constructor is private to restrict instantiation of the class.
+ */
+public class AlgorithmMetrics {
+    private static volatile boolean enabled = true;
+    private static Map<String, AlgorithmStats> algorithms = new ConcurrentHashMap<>();
+    private static CopyOnWriteArrayList<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    private AlgorithmMetrics() {}
+
+    public static AlgorithmRun start(String algorithm) {
+        if (!enabled) {
+            return new AlgorithmRun(null);
+        }
+        AlgorithmStats stats = algorithms.get(algorithm);
+        if (stats == null) {
+            AlgorithmStats created = new AlgorithmStats(algorithm);
+            stats = algorithms.putIfAbsent(algorithm, created);
+            if (stats == null) {
+                stats = created;
+                for (MetricsListener listener : listeners) {
+                    listener.algorithmAdded(created);
+                }
+            }
+        }
+        return new AlgorithmRun(stats);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        AlgorithmMetrics.enabled = enabled;
+    }
+
+    // Returns the totals of the algorithm, or null IF it has not run yet.
+    public static AlgorithmStats getStats(String algorithm) {
+        return algorithms.get(algorithm);
+    }
+
+    public static Collection<AlgorithmStats> getAllStats() {
+        return algorithms.values();
+    }
+
+    // The listener is told about the algorithms and phases seen so far straight away, and about new ones as they come.
+    // An algorithm added while this runs can be reported twice, so listeners should ignore repeats.
+    public static void addListener(MetricsListener listener) {
+        listeners.add(listener);
+        for (AlgorithmStats stats : algorithms.values()) {
+            listener.algorithmAdded(stats);
+            for (PhaseStats phase : stats.getPhases()) {
+                listener.phaseAdded(stats, phase);
+            }
+        }
+    }
+
+    public static void removeListener(MetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    static void phaseAdded(AlgorithmStats stats, PhaseStats phase) {
+        for (MetricsListener listener : listeners) {
+            listener.phaseAdded(stats, phase);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.briandidthat.graphs.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * This binder publishes the AlgorithmMetrics totals to Micrometer, so they show up under /actuator/metrics. The meters
+ * are function based: they read the LongAdders when the registry is scraped, and nothing is added to the algorithms
+ * themselves. Algorithms and phases get their meters the first time they run, tagged with their names.
+ *
+ * The listeners live in a static list, so every registry this is bound to keeps one there. They are removed again when
+ * the binder is shut down, which lets the registries of a closed application context be collected.
+ */
+@Component
+public class AlgorithmMetricsBinder implements MeterBinder {
+    private List<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Registering a meter that already exists returns the existing one, so repeated notifications are harmless.
+        MetricsListener listener = new MetricsListener() {
+            @Override
+            public void algorithmAdded(AlgorithmStats stats) {
+                FunctionTimer.builder("graphs.algorithm.runs", stats, AlgorithmStats::getRuns,
+                        AlgorithmStats::getTotalNanos, TimeUnit.NANOSECONDS)
+                        .tag("algorithm", stats.getName())
+                        .description("Completed runs of the algorithm and their total time")
+                        .register(registry);
+                counter(registry, "graphs.algorithm.vertices.settled", stats, AlgorithmStats::getVerticesSettled);
+                counter(registry, "graphs.algorithm.edges.relaxed", stats, AlgorithmStats::getEdgesRelaxed);
+                counter(registry, "graphs.algorithm.heap.pushes", stats, AlgorithmStats::getHeapPushes);
+                counter(registry, "graphs.algorithm.heap.decrease.keys", stats, AlgorithmStats::getDecreaseKeys);
+                counter(registry, "graphs.algorithm.passes", stats, AlgorithmStats::getPasses);
+            }
+
+            @Override
+            public void phaseAdded(AlgorithmStats stats, PhaseStats phase) {
+                FunctionTimer.builder("graphs.algorithm.phase", phase, PhaseStats::getCount,
+                        PhaseStats::getTotalNanos, TimeUnit.NANOSECONDS)
+                        .tag("algorithm", stats.getName())
+                        .tag("phase", phase.getName())
+                        .description("Wall time spent in one phase of the algorithm")
+                        .register(registry);
+            }
+        };
+        listeners.add(listener);
+        AlgorithmMetrics.addListener(listener);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (MetricsListener listener : listeners) {
+            AlgorithmMetrics.removeListener(listener);
+        }
+        listeners.clear();
+    }
+
+    private void counter(MeterRegistry registry, String name, AlgorithmStats stats,
+                         ToDoubleFunction<AlgorithmStats> count) {
+        FunctionCounter.builder(name, stats, count)
+                .tag("algorithm", stats.getName())
+                .register(registry);
+    }
+}
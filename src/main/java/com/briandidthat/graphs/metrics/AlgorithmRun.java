@@ -0,0 +1,93 @@
+package com.briandidthat.graphs.metrics;
+
+/**
+ * The counters of a single run of an algorithm. A run belongs to the thread that started it, so the counters are plain
+ * fields. Algorithms count into local variables in their inner loops and add them here once, then call finish() to fold
+ * the run into the totals of the algorithm. A run can be split into named phases; each call to phase() ends the
+ * previous phase. IF metrics are disabled, the run still counts but finish() does nothing.
+ */
+public class AlgorithmRun {
+    private AlgorithmStats stats;
+    private long start;
+    private String phase;
+    private long phaseStart;
+    private long verticesSettled;
+    private long edgesRelaxed;
+    private long heapPushes;
+    private long decreaseKeys;
+    private long passes;
+
+    AlgorithmRun(AlgorithmStats stats) {
+        this.stats = stats;
+        this.start = stats == null ? 0 : System.nanoTime();
+    }
+
+    // Ends the current phase, IF any, and starts a new one.
+    public void phase(String name) {
+        if (stats == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        endPhase(now);
+        phase = name;
+        phaseStart = now;
+    }
+
+    public void addVerticesSettled(long count) {
+        verticesSettled += count;
+    }
+
+    public void addEdgesRelaxed(long count) {
+        edgesRelaxed += count;
+    }
+
+    public void addHeapPushes(long count) {
+        heapPushes += count;
+    }
+
+    public void addDecreaseKeys(long count) {
+        decreaseKeys += count;
+    }
+
+    public void addPasses(long count) {
+        passes += count;
+    }
+
+    public void finish() {
+        if (stats == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        endPhase(now);
+        stats.record(this, now - start);
+        // A run only counts once, even IF finish is called again.
+        stats = null;
+    }
+
+    public long getVerticesSettled() {
+        return verticesSettled;
+    }
+
+    public long getEdgesRelaxed() {
+        return edgesRelaxed;
+    }
+
+    public long getHeapPushes() {
+        return heapPushes;
+    }
+
+    public long getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    public long getPasses() {
+        return passes;
+    }
+
+    private void endPhase(long now) {
+        if (phase != null) {
+            stats.recordPhase(phase, now - phaseStart);
+            phase = null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.briandidthat.graphs.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The running totals of one algorithm across all of its runs on all threads. Runs count into plain local fields and
+ * only add them to these LongAdders when they finish, so the hot loops never touch shared memory.
+ */
+public class AlgorithmStats {
+    private String name;
+    private LongAdder runs;
+    private LongAdder nanos;
+    private LongAdder verticesSettled;
+    private LongAdder edgesRelaxed;
+    private LongAdder heapPushes;
+    private LongAdder decreaseKeys;
+    private LongAdder passes;
+    private Map<String, PhaseStats> phases;
+
+    AlgorithmStats(String name) {
+        this.name = name;
+        this.runs = new LongAdder();
+        this.nanos = new LongAdder();
+        this.verticesSettled = new LongAdder();
+        this.edgesRelaxed = new LongAdder();
+        this.heapPushes = new LongAdder();
+        this.decreaseKeys = new LongAdder();
+        this.passes = new LongAdder();
+        this.phases = new ConcurrentHashMap<>();
+    }
+
+    void record(AlgorithmRun run, long elapsedNanos) {
+        runs.increment();
+        nanos.add(elapsedNanos);
+        verticesSettled.add(run.getVerticesSettled());
+        edgesRelaxed.add(run.getEdgesRelaxed());
+        heapPushes.add(run.getHeapPushes());
+        decreaseKeys.add(run.getDecreaseKeys());
+        passes.add(run.getPasses());
+    }
+
+    void recordPhase(String phase, long elapsedNanos) {
+        PhaseStats stats = phases.get(phase);
+        if (stats == null) {
+            PhaseStats created = new PhaseStats(phase);
+            stats = phases.putIfAbsent(phase, created);
+            if (stats == null) {
+                stats = created;
+                AlgorithmMetrics.phaseAdded(this, created);
+            }
+        }
+        stats.record(elapsedNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    public long getTotalNanos() {
+        return nanos.sum();
+    }
+
+    public long getVerticesSettled() {
+        return verticesSettled.sum();
+    }
+
+    public long getEdgesRelaxed() {
+        return edgesRelaxed.sum();
+    }
+
+    public long getHeapPushes() {
+        return heapPushes.sum();
+    }
+
+    public long getDecreaseKeys() {
+        return decreaseKeys.sum();
+    }
+
+    public long getPasses() {
+        return passes.sum();
+    }
+
+    public Collection<PhaseStats> getPhases() {
+        return phases.values();
+    }
+}
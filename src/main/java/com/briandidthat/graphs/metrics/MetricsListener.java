@@ -0,0 +1,9 @@
+package com.briandidthat.graphs.metrics;
+
+// Told about every algorithm and phase the first time it records a run, for example to register it with a meter
+// registry.
+public interface MetricsListener {
+    void algorithmAdded(AlgorithmStats stats);
+
+    void phaseAdded(AlgorithmStats stats, PhaseStats phase);
+}
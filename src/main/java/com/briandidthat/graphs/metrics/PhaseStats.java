@@ -0,0 +1,33 @@
+package com.briandidthat.graphs.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// The number of times one phase of an algorithm ran and the total time it took.
+public class PhaseStats {
+    private String name;
+    private LongAdder count;
+    private LongAdder nanos;
+
+    PhaseStats(String name) {
+        this.name = name;
+        this.count = new LongAdder();
+        this.nanos = new LongAdder();
+    }
+
+    void record(long elapsedNanos) {
+        count.increment();
+        nanos.add(elapsedNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return nanos.sum();
+    }
+}
@@ -0,0 +1,203 @@
+package com.briandidthat.graphs.model;
+
+import com.briandidthat.graphs.utils.ParallelHelper;
+
+import java.util.List;
+
+/**
+ * @Adjacency-Arrays
+ * This is a read-only compressed sparse row (CSR) snapshot of a graph. The neighbors of vertex v are stored in
+ * targets[offsets[v]] to targets[offsets[v + 1] - 1]. Algorithms that sweep every edge many times copy a graph into
+ * these flat int arrays once rather than calling getAdjacentVertices, which builds a new boxed list on every call.
+ * For a weighted graph, weights[i] holds the weight of the edge stored in targets[i], in an int, long or double array
+ * depending on the weight type of the graph. The snapshot does not see edges added to the graph after it was built.
+ *
+ * space-complexity: O(E + V)
+ * time-complexity: Iteration of Edges of on a vertex O(Degree of V)
+ */
+public class AdjacencyArrays {
+    private int vertices;
+    private int[] offsets;
+    private int[] targets;
+    private Graph.WeightType weightType;
+    private int[] weights;
+    private long[] longWeights;
+    private double[] doubleWeights;
+
+    public AdjacencyArrays(Graph graph) {
+        this(graph, false);
+    }
+
+    // When transpose is true, the snapshot holds the incoming edges of every vertex instead of the outgoing ones.
+    public AdjacencyArrays(Graph graph, boolean transpose) {
+        this(graph, transpose, true);
+    }
+
+    // When withWeights is false only the structure is copied, and the snapshot is unweighted even IF the graph is not.
+    // This is for callers that only need the neighbors and read any weights from the graph itself.
+    public AdjacencyArrays(Graph graph, boolean transpose, boolean withWeights) {
+        this.vertices = graph.getNumVertices();
+        this.weightType = withWeights && graph.isWeighted() ? graph.weightType() : null;
+        // Copy the adjacency of every vertex in parallel. Both graph implementations are safe to read concurrently.
+        int[][] adjacency = new int[vertices][];
+        ParallelHelper.forEach(vertices, v -> adjacency[v] = toArray(graph.getAdjacentVertices(v)));
+        // The weights are copied as longs whatever their type, a double as its bits, and narrowed again once they are
+        // in place.
+        long[][] adjacencyWeights = weightType != null ? new long[vertices][] : null;
+        if (adjacencyWeights != null) {
+            ParallelHelper.forEach(vertices, v -> {
+                adjacencyWeights[v] = new long[adjacency[v].length];
+                for (int i = 0; i < adjacency[v].length; i++) {
+                    adjacencyWeights[v][i] = weightBits(graph, v, adjacency[v][i]);
+                }
+            });
+        }
+
+        long[] flatWeights;
+        if (transpose && graph.graphType() == Graph.GraphType.DIRECTED) {
+            flatWeights = buildTranspose(adjacency, adjacencyWeights);
+        } else {
+            flatWeights = build(adjacency, adjacencyWeights);
+        }
+        if (weightType == Graph.WeightType.INT) {
+            this.weights = new int[flatWeights.length];
+            ParallelHelper.forEach(flatWeights.length, i -> weights[i] = (int) flatWeights[i]);
+        } else if (weightType == Graph.WeightType.LONG) {
+            this.longWeights = flatWeights;
+        } else if (weightType == Graph.WeightType.DOUBLE) {
+            this.doubleWeights = new double[flatWeights.length];
+            ParallelHelper.forEach(flatWeights.length, i -> doubleWeights[i] = Double.longBitsToDouble(flatWeights[i]));
+        }
+    }
+
+    private long weightBits(Graph graph, int v1, int v2) {
+        switch (weightType) {
+            case INT:
+                return graph.getWeightedEdge(v1, v2);
+            case LONG:
+                return graph.getLongWeightedEdge(v1, v2);
+            default:
+                return Double.doubleToLongBits(graph.getDoubleWeightedEdge(v1, v2));
+        }
+    }
+
+    private long[] build(int[][] adjacency, long[][] adjacencyWeights) {
+        this.offsets = new int[vertices + 1];
+        for (int v = 0; v < vertices; v++) {
+            offsets[v + 1] = offsets[v] + adjacency[v].length;
+        }
+
+        this.targets = new int[offsets[vertices]];
+        ParallelHelper.forEach(vertices, v -> System.arraycopy(adjacency[v], 0, targets, offsets[v], adjacency[v].length));
+        if (adjacencyWeights == null) {
+            return null;
+        }
+        long[] flatWeights = new long[targets.length];
+        ParallelHelper.forEach(vertices, v -> System.arraycopy(adjacencyWeights[v], 0, flatWeights, offsets[v],
+                adjacencyWeights[v].length));
+        return flatWeights;
+    }
+
+    private long[] buildTranspose(int[][] adjacency, long[][] adjacencyWeights) {
+        // Count the indegree of every vertex, then turn the counts into offsets.
+        this.offsets = new int[vertices + 1];
+        for (int[] neighbors : adjacency) {
+            for (int neighbor : neighbors) {
+                offsets[neighbor + 1]++;
+            }
+        }
+        for (int v = 0; v < vertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Place every edge u -> v into the incoming slot of v. Walking u in order keeps each slot sorted.
+        this.targets = new int[offsets[vertices]];
+        long[] flatWeights = adjacencyWeights != null ? new long[targets.length] : null;
+        int[] next = new int[vertices];
+        System.arraycopy(offsets, 0, next, 0, vertices);
+        for (int u = 0; u < vertices; u++) {
+            for (int i = 0; i < adjacency[u].length; i++) {
+                int slot = next[adjacency[u][i]]++;
+                targets[slot] = u;
+                if (flatWeights != null) {
+                    flatWeights[slot] = adjacencyWeights[u][i];
+                }
+            }
+        }
+        return flatWeights;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    public int getNumVertices() {
+        return vertices;
+    }
+
+    public int getNumEdges() {
+        return targets.length;
+    }
+
+    public boolean isWeighted() {
+        return weightType != null;
+    }
+
+    // Returns null IF the graph is not weighted.
+    public Graph.WeightType getWeightType() {
+        return weightType;
+    }
+
+    public int getDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    // The returned arrays are shared with the snapshot for speed and must not be modified.
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    // Returns null IF the graph is not weighted. Long and double weights are not narrowed to ints; use getLongWeights
+    // or getDoubleWeights for those.
+    public int[] getWeights() {
+        if (weightType != null && weightType != Graph.WeightType.INT) {
+            throw new IllegalArgumentException("The weights of this graph are not ints.");
+        }
+        return weights;
+    }
+
+    // Returns null IF the graph is not weighted. Int weights are widened into a new array on every call.
+    public long[] getLongWeights() {
+        if (weightType == Graph.WeightType.DOUBLE) {
+            throw new IllegalArgumentException("The weights of this graph are not longs.");
+        }
+        if (weights == null) {
+            return longWeights;
+        }
+        long[] widened = new long[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            widened[i] = weights[i];
+        }
+        return widened;
+    }
+
+    // Returns null IF the graph is not weighted. Int and long weights are widened into a new array on every call.
+    public double[] getDoubleWeights() {
+        if (doubleWeights != null || weightType == null) {
+            return doubleWeights;
+        }
+        double[] widened = new double[getNumEdges()];
+        for (int i = 0; i < widened.length; i++) {
+            widened[i] = weights != null ? weights[i] : longWeights[i];
+        }
+        return widened;
+    }
+}
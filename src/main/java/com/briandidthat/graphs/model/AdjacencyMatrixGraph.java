@@ -3,6 +3,7 @@ package com.briandidthat.graphs.model;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @Adjacency-Matrix-Graph
@@ -17,12 +18,15 @@ public class AdjacencyMatrixGraph implements Graph {
     private int vertices;
     private boolean isWeighted;
     private GraphType graphType;
+    private long version;
+    private List<GraphListener> listeners;
 
     public AdjacencyMatrixGraph(int vertices, boolean isWeighted, GraphType graphType) {
         this.vertices = vertices;
         this.isWeighted = isWeighted;
         this.graphType = graphType;
         this.adjacencyMatrix = new int[vertices][vertices];
+        this.listeners = new CopyOnWriteArrayList<>();
 
         for (int i = 0; i < vertices; i++) {
             for (int j = 0; j < vertices; j++) {
@@ -36,6 +40,11 @@ public class AdjacencyMatrixGraph implements Graph {
         return graphType;
     }
 
+    @Override
+    public boolean isWeighted() {
+        return isWeighted;
+    }
+
     @Override
     public void addEdge(int v1, int v2) {
         if (isWeighted) {
@@ -46,10 +55,13 @@ public class AdjacencyMatrixGraph implements Graph {
             throw new IllegalArgumentException("Invalid vertex number.");
         }
 
+        int previousWeight = adjacencyMatrix[v1][v2];
         adjacencyMatrix[v1][v2] = 1;
         if (graphType == GraphType.UNDIRECTED) {
             adjacencyMatrix[v2][v1] = 1;
         }
+        version++;
+        notifyListeners(v1, v2, previousWeight, 1);
     }
 
     @Override
@@ -62,10 +74,13 @@ public class AdjacencyMatrixGraph implements Graph {
             throw new IllegalArgumentException("Invalid vertex number.");
         }
 
+        int previousWeight = adjacencyMatrix[v1][v2];
         adjacencyMatrix[v1][v2] = weight;
         if (graphType == GraphType.UNDIRECTED) {
             adjacencyMatrix[v2][v1] = weight;
         }
+        version++;
+        notifyListeners(v1, v2, previousWeight, weight);
     }
 
     @Override
@@ -117,6 +132,33 @@ public class AdjacencyMatrixGraph implements Graph {
         return adjacentList;
     }
 
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void addListener(GraphListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(GraphListener listener) {
+        listeners.remove(listener);
+    }
+
+    // A weight of 0 is no edge, so setting it to 0 removes the edge.
+    private void notifyListeners(int v1, int v2, int previousWeight, int weight) {
+        if (previousWeight == weight) {
+            return;
+        }
+        GraphListener.Change change = previousWeight == 0 ? GraphListener.Change.ADDED
+                : weight == 0 ? GraphListener.Change.REMOVED : GraphListener.Change.WEIGHT_CHANGED;
+        for (GraphListener listener : listeners) {
+            listener.edgeChanged(this, v1, v2, change, previousWeight, weight);
+        }
+    }
+
     private boolean validateVertices(int numVertices, int... vertices) {
         for (int i = 0; i < vertices.length; i++) {
             if (vertices[i] >= numVertices || vertices[i] < 0) {
@@ -2,6 +2,7 @@ package com.briandidthat.graphs.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This graph implementation will use an adjacency set to track adjacent nodes. You would use an adjacency set or list
@@ -14,12 +15,15 @@ import java.util.List;
 public class AdjacencySetGraph implements Graph {
     private int vertices;
     private GraphType graphType;
+    private long version;
     private List<Node> vertexList;
+    private List<GraphListener> listeners;
 
     public AdjacencySetGraph(int vertices, GraphType graphType) {
         this.vertices = vertices;
         this.graphType = graphType;
         this.vertexList = new ArrayList<>();
+        this.listeners = new CopyOnWriteArrayList<>();
 
         for (int i = 0; i < vertices; i++) {
             vertexList.add(new Node(i));
@@ -31,16 +35,29 @@ public class AdjacencySetGraph implements Graph {
         return graphType;
     }
 
+    @Override
+    public boolean isWeighted() {
+        return false;
+    }
+
     @Override
     public void addEdge(int v1, int v2) {
         if (v1 >= vertices || v1 < 0 || v2 >= vertices || v2 < 0) {
             throw new IllegalArgumentException("Invalid vertex number.");
         }
 
+        boolean isNewEdge = !vertexList.get(v1).hasEdge(v2);
         vertexList.get(v1).addEdge(v2);
         if (graphType == GraphType.UNDIRECTED) {
             vertexList.get(v2).addEdge(v1);
         }
+        version++;
+
+        if (isNewEdge) {
+            for (GraphListener listener : listeners) {
+                listener.edgeChanged(this, v1, v2, GraphListener.Change.ADDED, 0, 1);
+            }
+        }
     }
 
     @Override
@@ -83,4 +100,19 @@ public class AdjacencySetGraph implements Graph {
 
         return vertexList.get(v).getAdjacentVertices();
     }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void addListener(GraphListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(GraphListener listener) {
+        listeners.remove(listener);
+    }
 }
@@ -0,0 +1,40 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * This class holds a component labeling of a graph. Component ids are compact, running from 0 to
+ * getNumComponents() - 1, so they can be used directly as array indexes.
+ */
+public class ComponentInfo {
+    private int[] componentIds;
+    private int[] componentSizes;
+
+    public ComponentInfo(int[] componentIds, int[] componentSizes) {
+        this.componentIds = componentIds;
+        this.componentSizes = componentSizes;
+    }
+
+    public int getNumComponents() {
+        return componentSizes.length;
+    }
+
+    public int getComponentId(int v) {
+        return componentIds[v];
+    }
+
+    public int getComponentSize(int componentId) {
+        return componentSizes[componentId];
+    }
+
+    public boolean isSameComponent(int v1, int v2) {
+        return componentIds[v1] == componentIds[v2];
+    }
+
+    // The returned arrays are shared with this object and must not be modified.
+    public int[] getComponentIds() {
+        return componentIds;
+    }
+
+    public int[] getComponentSizes() {
+        return componentSizes;
+    }
+}
@@ -22,10 +22,10 @@ public class DistanceEdgeInfo {
         this.lastVertex = lastVertex;
     }
 
-    public void setInfo(Integer distance, int numEdges, Integer lastVertex) {
+    public void setInfo(Integer lastVertex, Integer distance, int numEdges) {
+        this.lastVertex = lastVertex;
         this.distance = distance;
         this.numEdges = numEdges;
-        this.lastVertex = lastVertex;
     }
 
     public Integer getDistance() {
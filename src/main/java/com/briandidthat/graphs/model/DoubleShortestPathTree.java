@@ -0,0 +1,53 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * This class is the shortest path tree of a single source for a graph with double weights. It is the same as
+ * ShortestPathTree, but the distances are kept in a double array. An unreachable vertex has a distance of infinity and
+ * a last vertex of -1.
+ */
+public class DoubleShortestPathTree {
+    private int source;
+    private double[] distances;
+    private int[] lastVertices;
+    private RunStatus status;
+
+    public DoubleShortestPathTree(int source, double[] distances, int[] lastVertices, RunStatus status) {
+        this.source = source;
+        this.distances = distances;
+        this.lastVertices = lastVertices;
+        this.status = status;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getNumVertices() {
+        return distances.length;
+    }
+
+    public double getDistance(int v) {
+        return distances[v];
+    }
+
+    public int getLastVertex(int v) {
+        return lastVertices[v];
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public boolean isComplete() {
+        return status == RunStatus.COMPLETED;
+    }
+
+    public boolean hasPath(int destination) {
+        return lastVertices[destination] != -1;
+    }
+
+    // Returns the vertices from the source to the destination, or an empty array IF there is no path.
+    public int[] getPath(int destination) {
+        return ShortestPathTree.buildPath(source, lastVertices, destination);
+    }
+}
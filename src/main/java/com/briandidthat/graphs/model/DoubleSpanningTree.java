@@ -0,0 +1,52 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * This class holds the edges of a minimum spanning tree (or forest) of a graph with double weights. It is the same
+ * as SpanningTree, but the weights are kept in a double array.
+ */
+public class DoubleSpanningTree {
+    private int numVertices;
+    private int[] vertex1;
+    private int[] vertex2;
+    private double[] weights;
+
+    public DoubleSpanningTree(int numVertices, int[] vertex1, int[] vertex2, double[] weights) {
+        this.numVertices = numVertices;
+        this.vertex1 = vertex1;
+        this.vertex2 = vertex2;
+        this.weights = weights;
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public int getNumEdges() {
+        return weights.length;
+    }
+
+    public int getVertex1(int edge) {
+        return vertex1[edge];
+    }
+
+    public int getVertex2(int edge) {
+        return vertex2[edge];
+    }
+
+    public double getWeight(int edge) {
+        return weights[edge];
+    }
+
+    public double getTotalWeight() {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    // A spanning tree connects every vertex of the graph with numVertices - 1 edges.
+    public boolean isSpanning() {
+        return weights.length == Math.max(numVertices - 1, 0);
+    }
+}
@@ -8,18 +8,64 @@ public interface Graph {
         UNDIRECTED
     }
 
+    // The primitive type the weights are stored as. An int graph can be read as long or double weights, a long graph
+    // as double weights, but not the other way around.
+    enum WeightType {
+        INT,
+        LONG,
+        DOUBLE
+    }
+
     GraphType graphType();
 
+    boolean isWeighted();
+
     void addEdge(int v1, int v2);
 
     void addEdge(int v1, int v2, int weight);
 
     int getWeightedEdge(int v1, int v2);
 
+    default WeightType weightType() {
+        return WeightType.INT;
+    }
+
+    // Graphs that store int weights take a long weight only IF it fits in an int.
+    default void addEdge(int v1, int v2, long weight) {
+        if (weight > Integer.MAX_VALUE || weight < Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("The weight does not fit in this graph.");
+        }
+        addEdge(v1, v2, (int) weight);
+    }
+
+    // Graphs that store int or long weights take a double weight only IF it is a whole number that fits. Long.MAX_VALUE
+    // rounds up to 2^63 as a double, so the upper bound is written out.
+    default void addEdge(int v1, int v2, double weight) {
+        if (weight != Math.rint(weight) || weight >= 0x1p63 || weight < Long.MIN_VALUE) {
+            throw new IllegalArgumentException("The weight does not fit in this graph.");
+        }
+        addEdge(v1, v2, (long) weight);
+    }
+
+    default long getLongWeightedEdge(int v1, int v2) {
+        return getWeightedEdge(v1, v2);
+    }
+
+    default double getDoubleWeightedEdge(int v1, int v2) {
+        return getLongWeightedEdge(v1, v2);
+    }
+
     int getNumVertices();
 
     int getIndegree(int v);
 
     List<Integer> getAdjacentVertices(int v);
 
+    // A counter that goes up on every change to the graph, so results computed from it can tell when they are stale.
+    long getVersion();
+
+    void addListener(GraphListener listener);
+
+    void removeListener(GraphListener listener);
+
 }
@@ -0,0 +1,26 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * A listener that is told about every change to a graph it has been added to, so structures derived from the graph can
+ * update themselves instead of being rebuilt. Listeners are called on the thread that changed the graph.
+ */
+public interface GraphListener {
+    enum Change {
+        ADDED,
+        REMOVED,
+        WEIGHT_CHANGED
+    }
+
+    // Called after the edge v1 -> v2 was added, removed or had its weight changed. The weights are exact and in the
+    // weight type of the graph: int and long weights are passed as they are and double weights as their bits, which
+    // toDouble reads back. The previous weight of an added edge and the weight of a removed one are 0, and an
+    // unweighted edge has a weight of 1. For an undirected graph this is called once, for the edge as it was passed to
+    // addEdge.
+    void edgeChanged(Graph graph, int v1, int v2, Change change, long previousWeight, long weight);
+
+    // Reads a weight given to edgeChanged as a double, whatever the weight type of the graph.
+    static double toDouble(Graph graph, long weight) {
+        return graph.weightType() == Graph.WeightType.DOUBLE ? Double.longBitsToDouble(weight) : weight;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.briandidthat.graphs.model;
+
+import com.briandidthat.graphs.utils.WeightMath;
+
+/**
+ * This class holds the edges of a minimum spanning tree (or forest) of a graph with long weights. It is the same
+ * as SpanningTree, but the weights are kept in a long array.
+ */
+public class LongSpanningTree {
+    private int numVertices;
+    private int[] vertex1;
+    private int[] vertex2;
+    private long[] weights;
+
+    public LongSpanningTree(int numVertices, int[] vertex1, int[] vertex2, long[] weights) {
+        this.numVertices = numVertices;
+        this.vertex1 = vertex1;
+        this.vertex2 = vertex2;
+        this.weights = weights;
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public int getNumEdges() {
+        return weights.length;
+    }
+
+    public int getVertex1(int edge) {
+        return vertex1[edge];
+    }
+
+    public int getVertex2(int edge) {
+        return vertex2[edge];
+    }
+
+    public long getWeight(int edge) {
+        return weights[edge];
+    }
+
+    // The total saturates instead of overflowing.
+    public long getTotalWeight() {
+        long total = 0;
+        for (long weight : weights) {
+            total = WeightMath.saturatedAdd(total, weight);
+        }
+        return total;
+    }
+
+    // A spanning tree connects every vertex of the graph with numVertices - 1 edges.
+    public boolean isSpanning() {
+        return weights.length == Math.max(numVertices - 1, 0);
+    }
+}
@@ -0,0 +1,102 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * This class holds the estimates of a HyperBall run. neighbourhoodFunction[t] is the number of pairs (v, w) with w at
+ * most t hops from v, counting every vertex with itself at t = 0, so the last entry is the number of reachable pairs
+ * and its index is an estimate of the diameter. The closeness of v is 1 over the sum of the distances from v to the
+ * vertices it reaches, and its harmonic centrality is the sum of 1 over those distances. Every count is an estimate,
+ * with a relative error of about 1.04 / sqrt(registers per vertex).
+ *
+ * IF the run was stopped early, the function ends at the last finished iteration and the centralities only count the
+ * vertices found so far.
+ */
+public class NeighbourhoodFunction {
+    private double[] neighbourhoodFunction;
+    private double[] closeness;
+    private double[] harmonicCentrality;
+    private RunStatus status;
+
+    public NeighbourhoodFunction(double[] neighbourhoodFunction, double[] closeness, double[] harmonicCentrality,
+                                 RunStatus status) {
+        this.neighbourhoodFunction = neighbourhoodFunction;
+        this.closeness = closeness;
+        this.harmonicCentrality = harmonicCentrality;
+        this.status = status;
+    }
+
+    public double[] getNeighbourhoodFunction() {
+        return neighbourhoodFunction;
+    }
+
+    // The number of pairs at exactly each distance, starting at distance 0.
+    public double[] getDistanceDistribution() {
+        double[] distribution = new double[neighbourhoodFunction.length];
+        for (int t = 0; t < distribution.length; t++) {
+            distribution[t] = neighbourhoodFunction[t] - (t == 0 ? 0 : neighbourhoodFunction[t - 1]);
+        }
+        return distribution;
+    }
+
+    // The number of iterations that found new pairs, which estimates the longest shortest path.
+    public int getDiameter() {
+        return neighbourhoodFunction.length - 1;
+    }
+
+    // The average distance over the pairs of different vertices with a path between them.
+    public double getAverageDistance() {
+        double pairs = 0;
+        double total = 0;
+        for (int t = 1; t < neighbourhoodFunction.length; t++) {
+            double atDistance = neighbourhoodFunction[t] - neighbourhoodFunction[t - 1];
+            pairs += atDistance;
+            total += t * atDistance;
+        }
+        return pairs == 0 ? 0 : total / pairs;
+    }
+
+    public double getEffectiveDiameter() {
+        return getEffectiveDiameter(0.9);
+    }
+
+    // The distance within which the given fraction of the connected pairs of different vertices lie, interpolated
+    // between whole distances.
+    public double getEffectiveDiameter(double fraction) {
+        if (fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("The fraction must be in (0, 1].");
+        }
+        double base = neighbourhoodFunction[0];
+        double target = fraction * (neighbourhoodFunction[neighbourhoodFunction.length - 1] - base);
+        for (int t = 1; t < neighbourhoodFunction.length; t++) {
+            double reached = neighbourhoodFunction[t] - base;
+            if (reached >= target) {
+                double before = neighbourhoodFunction[t - 1] - base;
+                return t - 1 + (target - before) / (reached - before);
+            }
+        }
+        return 0;
+    }
+
+    public double getCloseness(int v) {
+        return closeness[v];
+    }
+
+    public double[] getCloseness() {
+        return closeness;
+    }
+
+    public double getHarmonicCentrality(int v) {
+        return harmonicCentrality[v];
+    }
+
+    public double[] getHarmonicCentrality() {
+        return harmonicCentrality;
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public boolean isComplete() {
+        return status == RunStatus.COMPLETED;
+    }
+}
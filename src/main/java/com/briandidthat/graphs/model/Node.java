@@ -19,6 +19,10 @@ public class Node {
         adjacencySet.add(vertex);
     }
 
+    public boolean hasEdge(int vertex) {
+        return adjacencySet.contains(vertex);
+    }
+
     public List<Integer> getAdjacentVertices() {
         List<Integer> sortedList = new ArrayList<>(adjacencySet);
 
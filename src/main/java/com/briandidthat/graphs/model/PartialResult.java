@@ -0,0 +1,27 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * This class pairs the result of an algorithm that can be stopped early with the way its run ended. IF the run did not
+ * complete, the value is the best result found before it stopped; each algorithm documents what that means for it.
+ */
+public class PartialResult<T> {
+    private T value;
+    private RunStatus status;
+
+    public PartialResult(T value, RunStatus status) {
+        this.value = value;
+        this.status = status;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public boolean isComplete() {
+        return status == RunStatus.COMPLETED;
+    }
+}
@@ -0,0 +1,70 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * This class holds the answers to a batch of shortest path queries, in the order the queries were given. The distance
+ * of a query is -1 IF its destination cannot be reached from its source. Paths are only kept when they were asked for.
+ *
+ * A batch that was stopped early has a status other than COMPLETED. The queries it did not get to are not answered:
+ * their distance is -1 and their path is empty, so check isAnswered() before reading them as unreachable.
+ */
+public class QueryResults {
+    private int[] distances;
+    private int[][] paths;
+    // Null when every query was answered.
+    private boolean[] answered;
+    private RunStatus status;
+    private QueryStatistics statistics;
+
+    public QueryResults(int[] distances, int[][] paths, QueryStatistics statistics) {
+        this(distances, paths, null, RunStatus.COMPLETED, statistics);
+    }
+
+    public QueryResults(int[] distances, int[][] paths, boolean[] answered, RunStatus status,
+                        QueryStatistics statistics) {
+        this.distances = distances;
+        this.paths = paths;
+        this.answered = answered;
+        this.status = status;
+        this.statistics = statistics;
+    }
+
+    public int getNumQueries() {
+        return distances.length;
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public boolean isComplete() {
+        return status == RunStatus.COMPLETED;
+    }
+
+    public boolean isAnswered(int query) {
+        return answered == null || answered[query];
+    }
+
+    public int getDistance(int query) {
+        return distances[query];
+    }
+
+    public boolean hasPath(int query) {
+        return distances[query] != -1;
+    }
+
+    // Returns the vertices from the source to the destination, or an empty array IF there is no path.
+    public int[] getPath(int query) {
+        if (paths == null) {
+            throw new IllegalStateException("The paths were not computed for this batch.");
+        }
+        return paths[query];
+    }
+
+    public int[] getDistances() {
+        return distances;
+    }
+
+    public QueryStatistics getStatistics() {
+        return statistics;
+    }
+}
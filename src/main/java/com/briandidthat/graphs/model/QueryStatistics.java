@@ -0,0 +1,70 @@
+package com.briandidthat.graphs.model;
+
+import java.util.Arrays;
+
+/**
+ * This class summarizes how long a batch of shortest path queries took: the wall clock time of the whole batch, the
+ * throughput, and percentiles of the latency of the single queries. A query's latency is the time its search took,
+ * so all the queries answered by one search share the same latency. All the times are in nanoseconds.
+ */
+public class QueryStatistics {
+    private int numQueries;
+    private int numSearches;
+    private long elapsedNanos;
+    // The latency of every query, sorted so percentiles are a lookup.
+    private long[] latencies;
+
+    public QueryStatistics(int numQueries, int numSearches, long elapsedNanos, long[] latencies) {
+        this.numQueries = numQueries;
+        this.numSearches = numSearches;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies.clone();
+        Arrays.sort(this.latencies);
+    }
+
+    public int getNumQueries() {
+        return numQueries;
+    }
+
+    // The number of searches run, one for every distinct source in the batch.
+    public int getNumSearches() {
+        return numSearches;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getQueriesPerSecond() {
+        return elapsedNanos == 0 ? 0 : numQueries * 1e9 / elapsedNanos;
+    }
+
+    // Returns the latency that the given percentage of queries (between 0 and 100) did not exceed, using the nearest
+    // rank method.
+    public long getLatencyPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        }
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+        return latencies[Math.max(rank - 1, 0)];
+    }
+
+    public long getMedianLatency() {
+        return getLatencyPercentile(50);
+    }
+
+    public long getMaxLatency() {
+        return latencies.length == 0 ? 0 : latencies[latencies.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d queries, %d searches in %.3f ms (%.0f queries/s), latency p50=%.3f ms p90=%.3f ms " +
+                        "p99=%.3f ms max=%.3f ms", numQueries, numSearches, elapsedNanos / 1e6, getQueriesPerSecond(),
+                getLatencyPercentile(50) / 1e6, getLatencyPercentile(90) / 1e6, getLatencyPercentile(99) / 1e6,
+                getMaxLatency() / 1e6);
+    }
+}
@@ -0,0 +1,32 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * This class holds the k shortest paths between two vertices, shortest first. Every path is a list of vertices from
+ * the source to the destination without repeated vertices. There are fewer than k paths IF the graph does not have k
+ * different paths between the two vertices.
+ */
+public class RankedPaths {
+    private int[][] paths;
+    private long[] distances;
+
+    public RankedPaths(int[][] paths, long[] distances) {
+        this.paths = paths;
+        this.distances = distances;
+    }
+
+    public int getNumPaths() {
+        return paths.length;
+    }
+
+    public int[] getPath(int rank) {
+        return paths[rank];
+    }
+
+    public long getDistance(int rank) {
+        return distances[rank];
+    }
+
+    public int getNumEdges(int rank) {
+        return paths[rank].length - 1;
+    }
+}
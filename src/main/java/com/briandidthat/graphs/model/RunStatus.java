@@ -0,0 +1,6 @@
+package com.briandidthat.graphs.model;
+
+// How a run of an algorithm ended. A run that was cancelled or ran out of time returns what it had found so far.
+public enum RunStatus {
+    COMPLETED, CANCELLED, DEADLINE_EXCEEDED
+}
@@ -0,0 +1,90 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * This class holds the shortest path tree of a single source: the distance to every vertex and the last vertex on the
+ * path to it, the same information as a distance table but in two int arrays. A last vertex of -1 means the vertex
+ * cannot be reached from the source. Paths are rebuilt on demand by following the last vertices back to the source,
+ * which takes O(path length).
+ *
+ * A tree whose run was stopped early has a status other than COMPLETED. Its paths are real paths from the source, but
+ * they may not be the shortest ones yet, and some reachable vertices may still have no path.
+ */
+public class ShortestPathTree {
+    private int source;
+    private int[] distances;
+    private int[] lastVertices;
+    private RunStatus status;
+
+    public ShortestPathTree(int source, int[] distances, int[] lastVertices) {
+        this(source, distances, lastVertices, RunStatus.COMPLETED);
+    }
+
+    public ShortestPathTree(int source, int[] distances, int[] lastVertices, RunStatus status) {
+        this.source = source;
+        this.distances = distances;
+        this.lastVertices = lastVertices;
+        this.status = status;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getNumVertices() {
+        return distances.length;
+    }
+
+    public int getDistance(int v) {
+        return distances[v];
+    }
+
+    public int getLastVertex(int v) {
+        return lastVertices[v];
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public boolean isComplete() {
+        return status == RunStatus.COMPLETED;
+    }
+
+    public boolean hasPath(int destination) {
+        return lastVertices[destination] != -1;
+    }
+
+    // Returns the vertices from the source to the destination, or an empty array IF there is no path.
+    public int[] getPath(int destination) {
+        return buildPath(source, lastVertices, destination);
+    }
+
+    // Shared with the long and double trees, which only differ in their distances.
+    static int[] buildPath(int source, int[] lastVertices, int destination) {
+        if (lastVertices[destination] == -1) {
+            return new int[0];
+        }
+
+        // Walk back to the source once to size the array, then fill it in from the end.
+        int length = 1;
+        for (int v = destination; v != source; v = lastVertices[v]) {
+            // Only a Bellman Ford run stopped in the middle of a negative cycle can leave a loop behind.
+            if (++length > lastVertices.length) {
+                throw new IllegalStateException("The path has a cycle.");
+            }
+        }
+        int[] path = new int[length];
+        int v = destination;
+        for (int i = length - 1; i > 0; i--) {
+            path[i] = v;
+            v = lastVertices[v];
+        }
+        path[0] = source;
+        return path;
+    }
+
+    // The approximate memory held by this tree, used to bound caches of trees.
+    public long sizeInBytes() {
+        return 16L + 2L * (16L + (long) Integer.BYTES * distances.length);
+    }
+}
@@ -0,0 +1,65 @@
+package com.briandidthat.graphs.model;
+
+/**
+ * This class holds the edges of a minimum spanning tree (or forest) in three parallel int arrays: edge i connects
+ * vertex1[i] and vertex2[i] with weight weights[i]. IF the graph is not connected, the tree only spans part of it and
+ * has fewer than numVertices - 1 edges.
+ */
+public class SpanningTree {
+    private int numVertices;
+    private int[] vertex1;
+    private int[] vertex2;
+    private int[] weights;
+
+    public SpanningTree(int numVertices, int[] vertex1, int[] vertex2, int[] weights) {
+        this.numVertices = numVertices;
+        this.vertex1 = vertex1;
+        this.vertex2 = vertex2;
+        this.weights = weights;
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public int getNumEdges() {
+        return weights.length;
+    }
+
+    public int getVertex1(int edge) {
+        return vertex1[edge];
+    }
+
+    public int getVertex2(int edge) {
+        return vertex2[edge];
+    }
+
+    public int getWeight(int edge) {
+        return weights[edge];
+    }
+
+    public long getTotalWeight() {
+        long total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    // A spanning tree connects every vertex of the graph with numVertices - 1 edges.
+    public boolean isSpanning() {
+        return weights.length == Math.max(numVertices - 1, 0);
+    }
+
+    public int[] getVertex1() {
+        return vertex1;
+    }
+
+    public int[] getVertex2() {
+        return vertex2;
+    }
+
+    public int[] getWeights() {
+        return weights;
+    }
+}
@@ -0,0 +1,216 @@
+package com.briandidthat.graphs.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @Weighted-Adjacency-List-Graph
+ * This graph implementation keeps a sorted array of neighbors per vertex with the weights next to them in a primitive
+ * long array, so it can hold int, long or double weights without boxing. A double weight is stored as its bits. Unlike
+ * the adjacency matrix, a weight of 0 is a real edge, and adding an edge that is already there changes its weight.
+ *
+ * Listeners get the stored weight bits as they are, so they see every change exactly, a new edge of weight 0 included.
+ *
+ * space-complexity: O(E + V)
+ * time-complexity: isEdgePresent: O(Log Degree of V), addEdge: O(Degree of V), Iteration of Edges of on a vertex
+ * O(Degree of V)
+ */
+public class WeightedAdjacencyListGraph implements Graph {
+    // Every vertex starts out with these shared empty arrays, so a vertex without edges costs no arrays of its own.
+    private static final int[] NO_NEIGHBORS = new int[0];
+    private static final long[] NO_WEIGHTS = new long[0];
+
+    private int vertices;
+    private WeightType weightType;
+    private GraphType graphType;
+    private int[][] neighbors;
+    private long[][] weights;
+    private int[] degrees;
+    private long version;
+    private List<GraphListener> listeners;
+
+    public WeightedAdjacencyListGraph(int vertices, WeightType weightType, GraphType graphType) {
+        this.vertices = vertices;
+        this.weightType = weightType;
+        this.graphType = graphType;
+        this.neighbors = new int[vertices][];
+        this.weights = new long[vertices][];
+        this.degrees = new int[vertices];
+        this.listeners = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < vertices; i++) {
+            neighbors[i] = NO_NEIGHBORS;
+            weights[i] = NO_WEIGHTS;
+        }
+    }
+
+    @Override
+    public GraphType graphType() {
+        return graphType;
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return true;
+    }
+
+    @Override
+    public WeightType weightType() {
+        return weightType;
+    }
+
+    @Override
+    public void addEdge(int v1, int v2) {
+        throw new IllegalArgumentException("This graph is weighted.");
+    }
+
+    @Override
+    public void addEdge(int v1, int v2, int weight) {
+        addEdge(v1, v2, (long) weight);
+    }
+
+    @Override
+    public void addEdge(int v1, int v2, long weight) {
+        if (weightType == WeightType.INT && (weight > Integer.MAX_VALUE || weight < Integer.MIN_VALUE)) {
+            throw new IllegalArgumentException("The weight does not fit in this graph.");
+        }
+        putEdge(v1, v2, weightType == WeightType.DOUBLE ? Double.doubleToLongBits(weight) : weight);
+    }
+
+    @Override
+    public void addEdge(int v1, int v2, double weight) {
+        if (weightType == WeightType.DOUBLE) {
+            putEdge(v1, v2, Double.doubleToLongBits(weight));
+        } else if (weight != Math.rint(weight) || weight >= 0x1p63 || weight < Long.MIN_VALUE) {
+            throw new IllegalArgumentException("The weight does not fit in this graph.");
+        } else {
+            addEdge(v1, v2, (long) weight);
+        }
+    }
+
+    // Returns 0 IF there is no edge, like the adjacency matrix.
+    @Override
+    public int getWeightedEdge(int v1, int v2) {
+        if (weightType == WeightType.DOUBLE) {
+            throw new IllegalArgumentException("The weights of this graph are not ints.");
+        }
+        long weight = getLongWeightedEdge(v1, v2);
+        if (weight > Integer.MAX_VALUE || weight < Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("The weight does not fit in an int.");
+        }
+        return (int) weight;
+    }
+
+    @Override
+    public long getLongWeightedEdge(int v1, int v2) {
+        if (weightType == WeightType.DOUBLE) {
+            throw new IllegalArgumentException("The weights of this graph are not longs.");
+        }
+        checkVertex(v1);
+        checkVertex(v2);
+        int i = Arrays.binarySearch(neighbors[v1], 0, degrees[v1], v2);
+        return i < 0 ? 0 : weights[v1][i];
+    }
+
+    @Override
+    public double getDoubleWeightedEdge(int v1, int v2) {
+        checkVertex(v1);
+        checkVertex(v2);
+        int i = Arrays.binarySearch(neighbors[v1], 0, degrees[v1], v2);
+        if (i < 0) {
+            return 0;
+        }
+        return weightType == WeightType.DOUBLE ? Double.longBitsToDouble(weights[v1][i]) : weights[v1][i];
+    }
+
+    @Override
+    public int getNumVertices() {
+        return vertices;
+    }
+
+    @Override
+    public int getIndegree(int v) {
+        checkVertex(v);
+        int inDegree = 0;
+        for (int i = 0; i < vertices; i++) {
+            if (Arrays.binarySearch(neighbors[i], 0, degrees[i], v) >= 0) {
+                inDegree++;
+            }
+        }
+        return inDegree;
+    }
+
+    @Override
+    public List<Integer> getAdjacentVertices(int v) {
+        checkVertex(v);
+        List<Integer> adjacentList = new ArrayList<>(degrees[v]);
+        for (int i = 0; i < degrees[v]; i++) {
+            adjacentList.add(neighbors[v][i]);
+        }
+        return adjacentList;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void addListener(GraphListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(GraphListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Stores the weight bits on the edge and, IF the graph is undirected, on the edge back.
+    private void putEdge(int v1, int v2, long bits) {
+        checkVertex(v1);
+        checkVertex(v2);
+        int i = Arrays.binarySearch(neighbors[v1], 0, degrees[v1], v2);
+        long previousBits = i < 0 ? 0 : weights[v1][i];
+        put(v1, v2, bits);
+        if (graphType == GraphType.UNDIRECTED) {
+            put(v2, v1, bits);
+        }
+        version++;
+
+        if (i < 0 || previousBits != bits) {
+            GraphListener.Change change = i < 0 ? GraphListener.Change.ADDED : GraphListener.Change.WEIGHT_CHANGED;
+            for (GraphListener listener : listeners) {
+                listener.edgeChanged(this, v1, v2, change, previousBits, bits);
+            }
+        }
+    }
+
+    private void put(int v1, int v2, long bits) {
+        int i = Arrays.binarySearch(neighbors[v1], 0, degrees[v1], v2);
+        if (i >= 0) {
+            weights[v1][i] = bits;
+            return;
+        }
+        // Insert in sorted order, growing the arrays IF they are full.
+        int position = -i - 1;
+        int degree = degrees[v1];
+        if (degree == neighbors[v1].length) {
+            int capacity = Math.max(4, degree * 2);
+            neighbors[v1] = Arrays.copyOf(neighbors[v1], capacity);
+            weights[v1] = Arrays.copyOf(weights[v1], capacity);
+        }
+        System.arraycopy(neighbors[v1], position, neighbors[v1], position + 1, degree - position);
+        System.arraycopy(weights[v1], position, weights[v1], position + 1, degree - position);
+        neighbors[v1][position] = v2;
+        weights[v1][position] = bits;
+        degrees[v1]++;
+    }
+
+    private void checkVertex(int v) {
+        if (v >= vertices || v < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.briandidthat.graphs.partition;
+
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+
+import java.util.Arrays;
+
+/**
+ * This class splits a graph into k balanced parts with few edges between them, in two steps:
+ *
+ * 1. Linear deterministic greedy (LDG) streaming: the vertices are visited once, in id order, and each goes to the part
+ *    that already holds most of its neighbors, weighted by how much room that part has left (neighbors * (1 - size /
+ *    capacity)). This is a single O(V * k + E) pass and already keeps most edges inside a part.
+ * 2. Label propagation refinement: in every round each vertex moves to the part holding most of its neighbors IF that
+ *    part has room and holds more of them than its current part. Rounds stop when no vertex moves.
+ *
+ * No part ever grows past the capacity, ceil((1 + imbalance) * V / k). Edge direction is ignored, since a cut edge
+ * costs communication whichever way it points. The result only depends on the graph and the settings.
+ */
+public class GraphPartitioner {
+    private int numParts;
+    private double imbalance;
+    private int refinementRounds;
+
+    public GraphPartitioner(int numParts) {
+        this(numParts, 0.05, 10);
+    }
+
+    public GraphPartitioner(int numParts, double imbalance, int refinementRounds) {
+        if (numParts < 1) {
+            throw new IllegalArgumentException("There must be at least one part.");
+        }
+        if (imbalance < 0) {
+            throw new IllegalArgumentException("The imbalance cannot be negative.");
+        }
+        this.numParts = numParts;
+        this.imbalance = imbalance;
+        this.refinementRounds = refinementRounds;
+    }
+
+    public Partitioning partition(Graph graph) {
+        AdjacencyArrays outgoing = new AdjacencyArrays(graph);
+        // An undirected graph already lists every neighbor as an outgoing edge.
+        AdjacencyArrays incoming = graph.graphType() == Graph.GraphType.UNDIRECTED ? null
+                : new AdjacencyArrays(graph, true);
+        int numVertices = outgoing.getNumVertices();
+        int capacity = Math.max(1, (int) Math.ceil((1 + imbalance) * numVertices / numParts));
+
+        int[] assignment = new int[numVertices];
+        int[] sizes = new int[numParts];
+        Arrays.fill(assignment, -1);
+        // The number of neighbors of the current vertex in every part, and the parts that have a non-zero count.
+        int[] counts = new int[numParts];
+        int[] touched = new int[numParts];
+
+        for (int v = 0; v < numVertices; v++) {
+            int numTouched = countNeighbors(v, outgoing, assignment, counts, touched, 0);
+            if (incoming != null) {
+                numTouched = countNeighbors(v, incoming, assignment, counts, touched, numTouched);
+            }
+            int best = -1;
+            double bestScore = -1;
+            for (int part = 0; part < numParts; part++) {
+                if (sizes[part] >= capacity) {
+                    continue;
+                }
+                double score = counts[part] * (1 - (double) sizes[part] / capacity);
+                // On a tie, prefer the smaller part, which also spreads out vertices without assigned neighbors.
+                if (score > bestScore || (score == bestScore && sizes[part] < sizes[best])) {
+                    best = part;
+                    bestScore = score;
+                }
+            }
+            assignment[v] = best;
+            sizes[best]++;
+            clearCounts(counts, touched, numTouched);
+        }
+
+        for (int round = 0; round < refinementRounds; round++) {
+            int moved = 0;
+            for (int v = 0; v < numVertices; v++) {
+                int numTouched = countNeighbors(v, outgoing, assignment, counts, touched, 0);
+                if (incoming != null) {
+                    numTouched = countNeighbors(v, incoming, assignment, counts, touched, numTouched);
+                }
+                int current = assignment[v];
+                int best = current;
+                for (int i = 0; i < numTouched; i++) {
+                    int part = touched[i];
+                    if (part != current && sizes[part] < capacity && counts[part] > counts[best]) {
+                        best = part;
+                    }
+                }
+                if (best != current) {
+                    assignment[v] = best;
+                    sizes[current]--;
+                    sizes[best]++;
+                    moved++;
+                }
+                clearCounts(counts, touched, numTouched);
+            }
+            if (moved == 0) {
+                break;
+            }
+        }
+
+        return new Partitioning(numParts, assignment);
+    }
+
+    // Adds the assigned neighbors of v to the counts of their parts. Returns the new number of touched parts.
+    private int countNeighbors(int v, AdjacencyArrays adjacency, int[] assignment, int[] counts, int[] touched,
+                               int numTouched) {
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+        for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+            int neighbor = targets[edge];
+            int part = assignment[neighbor];
+            if (neighbor == v || part == -1) {
+                continue;
+            }
+            if (counts[part]++ == 0) {
+                touched[numTouched++] = part;
+            }
+        }
+        return numTouched;
+    }
+
+    private void clearCounts(int[] counts, int[] touched, int numTouched) {
+        for (int i = 0; i < numTouched; i++) {
+            counts[touched[i]] = 0;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.briandidthat.graphs.partition;
+
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.utils.WeightMath;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs breadth first search and single source shortest paths over a partitioned graph, with every shard in
+ * its own local JVM. It is meant for trying out sharding on one machine: the workers are started with the same class
+ * path as this JVM (or the one given) and talk to the runner over loopback sockets.
+ *
+ * A query runs in steps. The runner sends every worker the boundary updates (vertex, distance, last vertex) for its
+ * own vertices, the workers relax edges inside their shards and reply with the ghosts they improved, and the runner
+ * keeps the best update per vertex and routes it to the owner for the next step. All updates go through the runner, so
+ * it is also the barrier between steps. The query is done when a step produces no updates. The distances are ints, so
+ * graphs with long or double weights are rejected. The workers add up the distances in longs, and a query throws IF
+ * the shortest distance to some vertex does not fit in an int.
+ */
+public class LocalClusterRunner implements AutoCloseable {
+    private static final int STARTUP_TIMEOUT_MILLIS = 60000;
+
+    private ServerSocket server;
+    private Process[] processes;
+    private Socket[] sockets;
+    private DataInputStream[] inputs;
+    private DataOutputStream[] outputs;
+    private Partitioning partitioning;
+    private int[][] ownedVertices;
+    private int lastSupersteps;
+
+    public LocalClusterRunner(int numWorkers) throws IOException {
+        this(numWorkers, System.getProperty("java.class.path"));
+    }
+
+    public LocalClusterRunner(int numWorkers, String classPath) throws IOException {
+        if (numWorkers < 1) {
+            throw new IllegalArgumentException("There must be at least one worker.");
+        }
+        this.processes = new Process[numWorkers];
+        this.sockets = new Socket[numWorkers];
+        this.inputs = new DataInputStream[numWorkers];
+        this.outputs = new DataOutputStream[numWorkers];
+        try {
+            server = new ServerSocket(0, numWorkers, InetAddress.getLoopbackAddress());
+            server.setSoTimeout(STARTUP_TIMEOUT_MILLIS);
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            for (int i = 0; i < numWorkers; i++) {
+                processes[i] = new ProcessBuilder(java, "-cp", classPath, ShardWorker.class.getName(),
+                        String.valueOf(server.getLocalPort()), String.valueOf(i))
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+            }
+            // The workers can connect in any order, so each one starts by sending its index.
+            for (int i = 0; i < numWorkers; i++) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                int index = in.readInt();
+                sockets[index] = socket;
+                inputs[index] = in;
+                outputs[index] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int getNumWorkers() {
+        return processes.length;
+    }
+
+    // The number of steps the last query took.
+    public int getLastSupersteps() {
+        return lastSupersteps;
+    }
+
+    // Sends every worker its shard. The partitioning must have one part per worker.
+    public void load(Graph graph, Partitioning partitioning) throws IOException {
+        if (partitioning.getNumParts() != processes.length) {
+            throw new IllegalArgumentException("The partitioning must have one part per worker.");
+        }
+        if (graph.isWeighted() && graph.weightType() != Graph.WeightType.INT) {
+            throw new IllegalArgumentException("The cluster runner only supports int weights.");
+        }
+        AdjacencyArrays adjacency = new AdjacencyArrays(graph);
+        if (adjacency.isWeighted()) {
+            for (int weight : adjacency.getWeights()) {
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Shortest path queries require non-negative weights.");
+                }
+            }
+        }
+        this.partitioning = partitioning;
+        this.ownedVertices = new int[processes.length][];
+        for (int part = 0; part < processes.length; part++) {
+            Shard shard = new Shard(adjacency, partitioning, part);
+            ownedVertices[part] = shard.getOwnedVertices();
+            outputs[part].writeByte(ShardWorker.LOAD);
+            shard.write(outputs[part]);
+            outputs[part].flush();
+        }
+    }
+
+    public ShortestPathTree breadthFirst(int source) throws IOException {
+        return query(ShardWorker.BREADTH_FIRST, source);
+    }
+
+    // Uses the edge weights, or 1 per edge IF the graph is unweighted.
+    public ShortestPathTree shortestPaths(int source) throws IOException {
+        return query(ShardWorker.SHORTEST_PATHS, source);
+    }
+
+    private ShortestPathTree query(byte mode, int source) throws IOException {
+        if (partitioning == null) {
+            throw new IllegalStateException("No graph has been loaded.");
+        }
+        int numVertices = partitioning.getNumVertices();
+        if (source >= numVertices || source < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        int numWorkers = processes.length;
+        for (DataOutputStream out : outputs) {
+            out.writeByte(ShardWorker.QUERY);
+            out.writeByte(mode);
+        }
+
+        // The best update seen for every boundary vertex, and the vertices whose update still has to go to the owner.
+        long[] known = new long[numVertices];
+        int[] knownLastVertices = new int[numVertices];
+        Arrays.fill(known, Long.MAX_VALUE);
+        boolean[] queued = new boolean[numVertices];
+        int[][] pending = new int[numWorkers][16];
+        int[] numPending = new int[numWorkers];
+
+        known[source] = 0;
+        knownLastVertices[source] = source;
+        queue(source, partitioning.getPart(source), queued, pending, numPending);
+
+        int supersteps = 0;
+        boolean[] active = new boolean[numWorkers];
+        while (true) {
+            boolean anyActive = false;
+            for (int worker = 0; worker < numWorkers; worker++) {
+                active[worker] = numPending[worker] > 0;
+                anyActive |= active[worker];
+            }
+            if (!anyActive) {
+                break;
+            }
+            supersteps++;
+
+            // Send all the updates first and only then read the replies, so the workers run their steps in parallel.
+            for (int worker = 0; worker < numWorkers; worker++) {
+                if (!active[worker]) {
+                    continue;
+                }
+                DataOutputStream out = outputs[worker];
+                out.writeByte(ShardWorker.STEP);
+                out.writeInt(numPending[worker]);
+                for (int i = 0; i < numPending[worker]; i++) {
+                    int v = pending[worker][i];
+                    out.writeInt(v);
+                    out.writeLong(known[v]);
+                    out.writeInt(knownLastVertices[v]);
+                    queued[v] = false;
+                }
+                out.flush();
+                numPending[worker] = 0;
+            }
+            for (int worker = 0; worker < numWorkers; worker++) {
+                if (!active[worker]) {
+                    continue;
+                }
+                DataInputStream in = inputs[worker];
+                int numUpdates = in.readInt();
+                for (int i = 0; i < numUpdates; i++) {
+                    int owner = in.readInt();
+                    int v = in.readInt();
+                    long distance = in.readLong();
+                    int lastVertex = in.readInt();
+                    // Only the best offer for a vertex is passed on.
+                    if (distance < known[v]) {
+                        known[v] = distance;
+                        knownLastVertices[v] = lastVertex;
+                        queue(v, owner, queued, pending, numPending);
+                    }
+                }
+            }
+        }
+        lastSupersteps = supersteps;
+
+        int[] distances = new int[numVertices];
+        int[] lastVertices = new int[numVertices];
+        for (int worker = 0; worker < numWorkers; worker++) {
+            outputs[worker].writeByte(ShardWorker.RESULT);
+            outputs[worker].flush();
+        }
+        // Every result is read before throwing, so the workers are left ready for the next query.
+        boolean tooLong = false;
+        for (int worker = 0; worker < numWorkers; worker++) {
+            DataInputStream in = inputs[worker];
+            for (int v : ownedVertices[worker]) {
+                long distance = in.readLong();
+                lastVertices[v] = in.readInt();
+                if (distance != Long.MAX_VALUE && distance >= Integer.MAX_VALUE) {
+                    tooLong = true;
+                } else {
+                    distances[v] = WeightMath.toIntDistance(distance);
+                }
+            }
+        }
+        if (tooLong) {
+            throw new IllegalArgumentException("The distances do not fit in an int. Use the long weights instead.");
+        }
+        return new ShortestPathTree(source, distances, lastVertices);
+    }
+
+    private void queue(int v, int owner, boolean[] queued, int[][] pending, int[] numPending) {
+        if (queued[v]) {
+            return;
+        }
+        queued[v] = true;
+        if (numPending[owner] == pending[owner].length) {
+            pending[owner] = Arrays.copyOf(pending[owner], numPending[owner] * 2);
+        }
+        pending[owner][numPending[owner]++] = v;
+    }
+
+    // Tells the workers to stop and waits for them to exit, killing any that do not.
+    @Override
+    public void close() {
+        for (int i = 0; i < processes.length; i++) {
+            try {
+                if (outputs[i] != null) {
+                    outputs[i].writeByte(ShardWorker.SHUTDOWN);
+                    outputs[i].flush();
+                }
+                if (sockets[i] != null) {
+                    sockets[i].close();
+                }
+            } catch (IOException e) {
+                // The worker is gone already; it is killed below IF it is still running.
+            }
+        }
+        for (Process process : processes) {
+            if (process == null) {
+                continue;
+            }
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (server != null) {
+                server.close();
+            }
+        } catch (IOException e) {
+            // Nothing is listening anymore either way.
+        }
+    }
+}
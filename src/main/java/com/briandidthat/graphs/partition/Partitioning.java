@@ -0,0 +1,91 @@
+package com.briandidthat.graphs.partition;
+
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+
+/**
+ * This class holds an assignment of every vertex of a graph to one of numParts parts, along with the size of every
+ * part. The edge cut (the number of edges between different parts) and the imbalance (the largest part relative to a
+ * perfectly even split) are the two numbers a partitioner tries to keep low.
+ */
+public class Partitioning {
+    private int numParts;
+    private int[] assignment;
+    private int[] sizes;
+
+    public Partitioning(int numParts, int[] assignment) {
+        if (numParts < 1) {
+            throw new IllegalArgumentException("There must be at least one part.");
+        }
+        this.numParts = numParts;
+        this.assignment = assignment;
+        this.sizes = new int[numParts];
+        for (int part : assignment) {
+            if (part >= numParts || part < 0) {
+                throw new IllegalArgumentException("Invalid part number.");
+            }
+            sizes[part]++;
+        }
+    }
+
+    public int getNumParts() {
+        return numParts;
+    }
+
+    public int getNumVertices() {
+        return assignment.length;
+    }
+
+    public int getPart(int vertex) {
+        return assignment[vertex];
+    }
+
+    public int getPartSize(int part) {
+        return sizes[part];
+    }
+
+    public int[] getAssignment() {
+        return assignment;
+    }
+
+    // The vertices of a part, in increasing order.
+    public int[] getVertices(int part) {
+        int[] vertices = new int[sizes[part]];
+        int size = 0;
+        for (int v = 0; v < assignment.length; v++) {
+            if (assignment[v] == part) {
+                vertices[size++] = v;
+            }
+        }
+        return vertices;
+    }
+
+    // The number of edges whose vertices are in different parts. An undirected edge is counted once.
+    public long getEdgeCut(Graph graph) {
+        AdjacencyArrays adjacency = new AdjacencyArrays(graph);
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+        boolean undirected = graph.graphType() == Graph.GraphType.UNDIRECTED;
+        long cut = 0;
+        for (int v = 0; v < adjacency.getNumVertices(); v++) {
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                if (assignment[targets[edge]] != assignment[v] && (!undirected || targets[edge] > v)) {
+                    cut++;
+                }
+            }
+        }
+        return cut;
+    }
+
+    // The size of the largest part divided by the average part size. 1.0 is a perfect balance.
+    public double getImbalance() {
+        if (assignment.length == 0) {
+            return 1.0;
+        }
+        int largest = 0;
+        for (int size : sizes) {
+            largest = Math.max(largest, size);
+        }
+        return largest / ((double) assignment.length / numParts);
+    }
+}
@@ -0,0 +1,194 @@
+package com.briandidthat.graphs.partition;
+
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class holds the part of a graph that one worker owns: its vertices and their outgoing edges, in local ids. The
+ * owned vertices get local ids 0 to numOwned - 1 in increasing global order. Vertices of other parts that owned vertices
+ * have edges to are ghosts: they get local ids from numOwned on, and the ghost table records their global id and the
+ * part that owns them, which is where updates to them have to be sent. Ghosts have no edges of their own.
+ *
+ * A shard is self contained, so it can be written to a stream and read back in another process. The weights are sent
+ * as ints, so only unweighted graphs and graphs with int weights can be sharded.
+ */
+public class Shard {
+    private int part;
+    private int[] ownedVertices;
+    private int[] ghostVertices;
+    private int[] ghostOwners;
+    private int[] offsets;
+    private int[] targets;
+    private int[] weights;
+
+    public Shard(AdjacencyArrays adjacency, Partitioning partitioning, int part) {
+        int numVertices = adjacency.getNumVertices();
+        if (partitioning.getNumVertices() != numVertices) {
+            throw new IllegalArgumentException("The partitioning does not match the graph.");
+        }
+        if (adjacency.isWeighted() && adjacency.getWeightType() != Graph.WeightType.INT) {
+            throw new IllegalArgumentException("Shards only support int weights.");
+        }
+        int[] globalOffsets = adjacency.getOffsets();
+        int[] globalTargets = adjacency.getTargets();
+        int[] globalWeights = adjacency.getWeights();
+
+        this.part = part;
+        this.ownedVertices = partitioning.getVertices(part);
+        int numOwned = ownedVertices.length;
+
+        // Map every global id this shard refers to onto its local id. Ghosts are numbered in increasing global order.
+        int[] localIds = new int[numVertices];
+        Arrays.fill(localIds, -1);
+        for (int i = 0; i < numOwned; i++) {
+            localIds[ownedVertices[i]] = i;
+        }
+        int numEdges = 0;
+        boolean[] isGhost = new boolean[numVertices];
+        int numGhosts = 0;
+        for (int v : ownedVertices) {
+            for (int edge = globalOffsets[v]; edge < globalOffsets[v + 1]; edge++) {
+                int target = globalTargets[edge];
+                if (localIds[target] == -1 && !isGhost[target]) {
+                    isGhost[target] = true;
+                    numGhosts++;
+                }
+                numEdges++;
+            }
+        }
+        this.ghostVertices = new int[numGhosts];
+        this.ghostOwners = new int[numGhosts];
+        int ghost = 0;
+        for (int v = 0; v < numVertices; v++) {
+            if (isGhost[v]) {
+                ghostVertices[ghost] = v;
+                ghostOwners[ghost] = partitioning.getPart(v);
+                localIds[v] = numOwned + ghost++;
+            }
+        }
+
+        this.offsets = new int[numOwned + 1];
+        this.targets = new int[numEdges];
+        this.weights = globalWeights == null ? null : new int[numEdges];
+        int size = 0;
+        for (int i = 0; i < numOwned; i++) {
+            int v = ownedVertices[i];
+            for (int edge = globalOffsets[v]; edge < globalOffsets[v + 1]; edge++) {
+                targets[size] = localIds[globalTargets[edge]];
+                if (weights != null) {
+                    weights[size] = globalWeights[edge];
+                }
+                size++;
+            }
+            offsets[i + 1] = size;
+        }
+    }
+
+    private Shard(int part, int[] ownedVertices, int[] ghostVertices, int[] ghostOwners, int[] offsets, int[] targets,
+                  int[] weights) {
+        this.part = part;
+        this.ownedVertices = ownedVertices;
+        this.ghostVertices = ghostVertices;
+        this.ghostOwners = ghostOwners;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public static Shard read(DataInputStream in) throws IOException {
+        int part = in.readInt();
+        int[] ownedVertices = readInts(in);
+        int[] ghostVertices = readInts(in);
+        int[] ghostOwners = readInts(in);
+        int[] offsets = readInts(in);
+        int[] targets = readInts(in);
+        int[] weights = in.readBoolean() ? readInts(in) : null;
+        return new Shard(part, ownedVertices, ghostVertices, ghostOwners, offsets, targets, weights);
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(part);
+        writeInts(out, ownedVertices);
+        writeInts(out, ghostVertices);
+        writeInts(out, ghostOwners);
+        writeInts(out, offsets);
+        writeInts(out, targets);
+        out.writeBoolean(weights != null);
+        if (weights != null) {
+            writeInts(out, weights);
+        }
+    }
+
+    public int getPart() {
+        return part;
+    }
+
+    public int getNumOwned() {
+        return ownedVertices.length;
+    }
+
+    public int getNumGhosts() {
+        return ghostVertices.length;
+    }
+
+    public int getNumEdges() {
+        return targets.length;
+    }
+
+    public boolean isGhost(int local) {
+        return local >= ownedVertices.length;
+    }
+
+    public int getGlobalId(int local) {
+        return isGhost(local) ? ghostVertices[local - ownedVertices.length] : ownedVertices[local];
+    }
+
+    // Returns the local id of a vertex this shard owns, or -1 IF it is owned by another shard.
+    public int getOwnedLocalId(int global) {
+        int index = Arrays.binarySearch(ownedVertices, global);
+        return index < 0 ? -1 : index;
+    }
+
+    // The part that owns the ghost with the given local id.
+    public int getGhostOwner(int local) {
+        return ghostOwners[local - ownedVertices.length];
+    }
+
+    public int[] getOwnedVertices() {
+        return ownedVertices;
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    // The local ids of the edge targets. Ids from getNumOwned() on are ghosts.
+    public int[] getTargets() {
+        return targets;
+    }
+
+    // Null IF the graph is unweighted.
+    public int[] getWeights() {
+        return weights;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
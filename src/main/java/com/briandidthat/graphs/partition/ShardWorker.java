@@ -0,0 +1,174 @@
+package com.briandidthat.graphs.partition;
+
+import com.briandidthat.graphs.utils.IndexedMinHeap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * The worker process of the LocalClusterRunner. It connects back to the runner, receives its shard and then answers
+ * commands until it is told to shut down. For a query, every step brings the best known distances of some of its own
+ * vertices; the worker runs Djikstra's algorithm inside its shard from the vertices that improved, and replies with the
+ * ghosts whose distance improved since they were last sent, so the runner can pass them on to their owners.
+ *
+ * The messages are plain ints over a DataOutputStream: a command byte followed by its arguments. Distances are sent
+ * as longs, so a path longer than an int does not wrap around; the runner narrows them once the query is done.
+ */
+public class ShardWorker {
+    static final byte LOAD = 1;
+    static final byte QUERY = 2;
+    static final byte STEP = 3;
+    static final byte RESULT = 4;
+    static final byte SHUTDOWN = 5;
+    // The query modes. Breadth first counts every edge as 1.
+    static final byte BREADTH_FIRST = 0;
+    static final byte SHORTEST_PATHS = 1;
+
+    private Shard shard;
+    private boolean unitWeights;
+    // Indexed by local id, owned vertices first and then ghosts. Last vertices are global ids.
+    private long[] distances;
+    private int[] lastVertices;
+    // The distance last sent for every ghost, and the ghosts that have improved on it during this step.
+    private long[] sentDistances;
+    private boolean[] changed;
+    private int[] changedGhosts;
+    private int numChanged;
+    private IndexedMinHeap heap;
+
+    ShardWorker() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: ShardWorker <runner port> <worker index>");
+        }
+        int port = Integer.parseInt(args[0]);
+        int index = Integer.parseInt(args[1]);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(index);
+            out.flush();
+            new ShardWorker().serve(in, out);
+        }
+    }
+
+    void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            byte command = in.readByte();
+            switch (command) {
+                case LOAD:
+                    load(Shard.read(in));
+                    break;
+                case QUERY:
+                    startQuery(in.readByte());
+                    break;
+                case STEP:
+                    step(in, out);
+                    break;
+                case RESULT:
+                    writeResult(out);
+                    break;
+                case SHUTDOWN:
+                    return;
+                default:
+                    throw new IOException("Unknown command " + command + ".");
+            }
+        }
+    }
+
+    private void load(Shard shard) {
+        this.shard = shard;
+        int numLocal = shard.getNumOwned() + shard.getNumGhosts();
+        this.distances = new long[numLocal];
+        this.lastVertices = new int[numLocal];
+        this.sentDistances = new long[shard.getNumGhosts()];
+        this.changed = new boolean[shard.getNumGhosts()];
+        this.changedGhosts = new int[shard.getNumGhosts()];
+        this.heap = new IndexedMinHeap(numLocal);
+    }
+
+    private void startQuery(byte mode) {
+        unitWeights = mode == BREADTH_FIRST || shard.getWeights() == null;
+        Arrays.fill(distances, Long.MAX_VALUE);
+        Arrays.fill(lastVertices, -1);
+        Arrays.fill(sentDistances, Long.MAX_VALUE);
+    }
+
+    private void step(DataInputStream in, DataOutputStream out) throws IOException {
+        int numUpdates = in.readInt();
+        for (int i = 0; i < numUpdates; i++) {
+            int local = shard.getOwnedLocalId(in.readInt());
+            long distance = in.readLong();
+            int lastVertex = in.readInt();
+            if (local != -1 && distance < distances[local]) {
+                distances[local] = distance;
+                lastVertices[local] = lastVertex;
+                heap.offer(local, distance);
+            }
+        }
+
+        int numOwned = shard.getNumOwned();
+        int[] offsets = shard.getOffsets();
+        int[] targets = shard.getTargets();
+        int[] weights = shard.getWeights();
+        while (!heap.isEmpty()) {
+            int currentVertex = heap.poll();
+            int currentGlobal = shard.getGlobalId(currentVertex);
+            for (int edge = offsets[currentVertex]; edge < offsets[currentVertex + 1]; edge++) {
+                int neighbor = targets[edge];
+                long distance = distances[currentVertex] + (unitWeights ? 1 : weights[edge]);
+                if (distance < distances[neighbor]) {
+                    distances[neighbor] = distance;
+                    lastVertices[neighbor] = currentGlobal;
+                    if (neighbor < numOwned) {
+                        heap.offer(neighbor, distance);
+                    } else if (!changed[neighbor - numOwned]) {
+                        // Ghosts are not expanded here, their owner does that once it hears about them.
+                        changed[neighbor - numOwned] = true;
+                        changedGhosts[numChanged++] = neighbor - numOwned;
+                    }
+                }
+            }
+        }
+
+        int numReplies = 0;
+        for (int i = 0; i < numChanged; i++) {
+            int ghost = changedGhosts[i];
+            if (distances[numOwned + ghost] < sentDistances[ghost]) {
+                numReplies++;
+            }
+        }
+        out.writeInt(numReplies);
+        for (int i = 0; i < numChanged; i++) {
+            int ghost = changedGhosts[i];
+            int local = numOwned + ghost;
+            if (distances[local] < sentDistances[ghost]) {
+                sentDistances[ghost] = distances[local];
+                out.writeInt(shard.getGhostOwner(local));
+                out.writeInt(shard.getGlobalId(local));
+                out.writeLong(distances[local]);
+                out.writeInt(lastVertices[local]);
+            }
+            changed[ghost] = false;
+        }
+        numChanged = 0;
+        out.flush();
+    }
+
+    // Writes the distance and last vertex of every owned vertex, in local id order.
+    private void writeResult(DataOutputStream out) throws IOException {
+        for (int i = 0; i < shard.getNumOwned(); i++) {
+            out.writeLong(distances[i]);
+            out.writeInt(lastVertices[i]);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,67 @@
+package com.briandidthat.graphs.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+/**
+ * An edge of a stored graph. An undirected edge is stored once, with source <= target. The weight of an edge of an
+ * unweighted graph is 1. Edges are read back in id order, which the index on (graph_id, id) serves directly.
+ */
+@Entity
+@Table(name = "graph_edge", indexes = @Index(name = "idx_graph_edge_graph", columnList = "graph_id, id"))
+public class EdgeEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "graph_id")
+    private GraphEntity graph;
+
+    @Column(name = "source", nullable = false)
+    private int source;
+
+    @Column(name = "target", nullable = false)
+    private int target;
+
+    @Column(name = "weight", nullable = false)
+    private int weight;
+
+    protected EdgeEntity() {
+    }
+
+    public EdgeEntity(GraphEntity graph, int source, int target, int weight) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+        this.weight = weight;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public GraphEntity getGraph() {
+        return graph;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
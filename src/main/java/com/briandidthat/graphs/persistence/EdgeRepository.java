@@ -0,0 +1,28 @@
+package com.briandidthat.graphs.persistence;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface EdgeRepository extends JpaRepository<EdgeEntity, Long> {
+    long countByGraphId(Long graphId);
+
+    // Keyset paging: the next page starts after the last id of the previous one, so a page costs the same no matter
+    // how deep into the edges it is. The rows come back as a projection rather than managed entities.
+    @Query("SELECT e.id AS id, e.source AS source, e.target AS targetVertex, e.weight AS weight FROM EdgeEntity e " +
+            "WHERE e.graph.id = :graphId AND e.id > :afterId ORDER BY e.id ASC")
+    Slice<EdgeRow> findEdgeRows(@Param("graphId") Long graphId, @Param("afterId") Long afterId, Pageable pageable);
+
+    // The target is read as targetVertex, since the projection proxy already has a getTarget() of its own.
+    interface EdgeRow {
+        Long getId();
+
+        int getSource();
+
+        int getTargetVertex();
+
+        int getWeight();
+    }
+}
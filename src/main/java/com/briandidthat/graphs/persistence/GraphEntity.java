@@ -0,0 +1,78 @@
+package com.briandidthat.graphs.persistence;
+
+import com.briandidthat.graphs.model.Graph;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * The stored description of a graph. Its vertices and edges live in their own tables and are written and read in bulk
+ * by the GraphPersistenceService rather than through this entity.
+ */
+@Entity
+@Table(name = "graph")
+public class GraphEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name")
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "graph_type", nullable = false)
+    private Graph.GraphType graphType;
+
+    @Column(name = "weighted", nullable = false)
+    private boolean weighted;
+
+    @Column(name = "num_vertices", nullable = false)
+    private int numVertices;
+
+    @Column(name = "num_edges", nullable = false)
+    private long numEdges;
+
+    protected GraphEntity() {
+    }
+
+    public GraphEntity(String name, Graph.GraphType graphType, boolean weighted, int numVertices) {
+        this.name = name;
+        this.graphType = graphType;
+        this.weighted = weighted;
+        this.numVertices = numVertices;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Graph.GraphType getGraphType() {
+        return graphType;
+    }
+
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public long getNumEdges() {
+        return numEdges;
+    }
+
+    public void setNumEdges(long numEdges) {
+        this.numEdges = numEdges;
+    }
+}
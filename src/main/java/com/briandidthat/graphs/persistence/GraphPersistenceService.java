@@ -0,0 +1,160 @@
+package com.briandidthat.graphs.persistence;
+
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * This service saves graphs to the database and loads them back. Only the graph row goes through JPA. The vertices and
+ * edges can run into the millions, so they are written with JDBC batch inserts (BATCH_SIZE rows per round trip)
+ * instead of one ORM insert per row, and read back page by page with keyset paging, so neither side ever holds more
+ * than one batch or page of rows. The weight column is an int, so graphs with long or double weights cannot be stored.
+ */
+@Service
+public class GraphPersistenceService {
+    private static final int BATCH_SIZE = 1000;
+    private static final int PAGE_SIZE = 10000;
+
+    private GraphRepository graphRepository;
+    private EdgeRepository edgeRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    public GraphPersistenceService(GraphRepository graphRepository, EdgeRepository edgeRepository,
+                                   JdbcTemplate jdbcTemplate) {
+        this.graphRepository = graphRepository;
+        this.edgeRepository = edgeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public GraphEntity save(String name, Graph graph) {
+        if (graph.isWeighted() && graph.weightType() != Graph.WeightType.INT) {
+            throw new IllegalArgumentException("Only graphs with int weights can be stored.");
+        }
+        AdjacencyArrays adjacency = new AdjacencyArrays(graph);
+        int numVertices = adjacency.getNumVertices();
+        int[] offsets = adjacency.getOffsets();
+        int[] targets = adjacency.getTargets();
+        int[] weights = adjacency.getWeights();
+        boolean undirected = graph.graphType() == Graph.GraphType.UNDIRECTED;
+
+        GraphEntity entity = graphRepository.save(new GraphEntity(name, graph.graphType(), graph.isWeighted(),
+                numVertices));
+        long graphId = entity.getId();
+
+        batchInsert("INSERT INTO graph_vertex (graph_id, vertex) VALUES (?, ?)", numVertices, (ps, v) -> {
+            ps.setLong(1, graphId);
+            ps.setInt(2, v);
+        });
+
+        // An undirected edge is listed by both of its vertices. Only store it from the smaller one.
+        int numEdges = 0;
+        int[] storedEdges = new int[adjacency.getNumEdges()];
+        int[] sources = new int[adjacency.getNumEdges()];
+        for (int v = 0; v < numVertices; v++) {
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                if (!undirected || targets[edge] >= v) {
+                    sources[numEdges] = v;
+                    storedEdges[numEdges++] = edge;
+                }
+            }
+        }
+        batchInsert("INSERT INTO graph_edge (graph_id, source, target, weight) VALUES (?, ?, ?, ?)", numEdges,
+                (ps, i) -> {
+                    int edge = storedEdges[i];
+                    ps.setLong(1, graphId);
+                    ps.setInt(2, sources[i]);
+                    ps.setInt(3, targets[edge]);
+                    ps.setInt(4, weights == null ? 1 : weights[edge]);
+                });
+
+        entity.setNumEdges(numEdges);
+        return entity;
+    }
+
+    // Loads a stored graph into a new graph: a weighted adjacency list with int weights IF it is weighted, an adjacency
+    // set otherwise. Both grow with the edges, so a large sparse graph loads without a V x V matrix.
+    @Transactional(readOnly = true)
+    public Graph load(Long graphId) {
+        GraphEntity entity = getGraphEntity(graphId);
+        Graph graph = entity.isWeighted()
+                ? new WeightedAdjacencyListGraph(entity.getNumVertices(), Graph.WeightType.INT, entity.getGraphType())
+                : new AdjacencySetGraph(entity.getNumVertices(), entity.getGraphType());
+        loadEdges(graphId, graph);
+        return graph;
+    }
+
+    // Adds the edges of a stored graph to any graph with at least as many vertices. The weights are only used IF the
+    // graph is weighted.
+    @Transactional(readOnly = true)
+    public void loadInto(Long graphId, Graph graph) {
+        GraphEntity entity = getGraphEntity(graphId);
+        if (graph.getNumVertices() < entity.getNumVertices()) {
+            throw new IllegalArgumentException("The graph does not have enough vertices.");
+        }
+        loadEdges(graphId, graph);
+    }
+
+    @Transactional
+    public void delete(Long graphId) {
+        GraphEntity entity = getGraphEntity(graphId);
+        jdbcTemplate.update("DELETE FROM graph_edge WHERE graph_id = ?", graphId);
+        jdbcTemplate.update("DELETE FROM graph_vertex WHERE graph_id = ?", graphId);
+        graphRepository.delete(entity);
+    }
+
+    private GraphEntity getGraphEntity(Long graphId) {
+        return graphRepository.findById(graphId)
+                .orElseThrow(() -> new IllegalArgumentException("There is no stored graph with id " + graphId + "."));
+    }
+
+    private void loadEdges(Long graphId, Graph graph) {
+        boolean weighted = graph.isWeighted();
+        long afterId = 0;
+        Slice<EdgeRepository.EdgeRow> page;
+        do {
+            page = edgeRepository.findEdgeRows(graphId, afterId, PageRequest.of(0, PAGE_SIZE));
+            for (EdgeRepository.EdgeRow row : page) {
+                if (weighted) {
+                    graph.addEdge(row.getSource(), row.getTargetVertex(), row.getWeight());
+                } else {
+                    graph.addEdge(row.getSource(), row.getTargetVertex());
+                }
+                afterId = row.getId();
+            }
+        } while (page.hasNext());
+    }
+
+    // Inserts count rows, BATCH_SIZE at a time, so the driver never holds more than one batch.
+    private void batchInsert(String sql, int count, RowSetter rowSetter) {
+        for (int start = 0; start < count; start += BATCH_SIZE) {
+            int batchStart = start;
+            int batchSize = Math.min(BATCH_SIZE, count - start);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    rowSetter.setValues(ps, batchStart + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batchSize;
+                }
+            });
+        }
+    }
+
+    private interface RowSetter {
+        void setValues(PreparedStatement ps, int row) throws SQLException;
+    }
+}
@@ -0,0 +1,9 @@
+package com.briandidthat.graphs.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface GraphRepository extends JpaRepository<GraphEntity, Long> {
+    Optional<GraphEntity> findByName(String name);
+}
@@ -0,0 +1,48 @@
+package com.briandidthat.graphs.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+// A vertex of a stored graph. The vertex number is its index in the graph, 0 to numVertices - 1.
+@Entity
+@Table(name = "graph_vertex", uniqueConstraints = @UniqueConstraint(columnNames = {"graph_id", "vertex"}))
+public class VertexEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "graph_id")
+    private GraphEntity graph;
+
+    @Column(name = "vertex", nullable = false)
+    private int vertex;
+
+    protected VertexEntity() {
+    }
+
+    public VertexEntity(GraphEntity graph, int vertex) {
+        this.graph = graph;
+        this.vertex = vertex;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public GraphEntity getGraph() {
+        return graph;
+    }
+
+    public int getVertex() {
+        return vertex;
+    }
+}
@@ -0,0 +1,7 @@
+package com.briandidthat.graphs.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface VertexRepository extends JpaRepository<VertexEntity, Long> {
+    long countByGraphId(Long graphId);
+}
@@ -0,0 +1,28 @@
+package com.briandidthat.graphs.pregel;
+
+/**
+ * A global value that every vertex can add to during a superstep, such as a sum or a maximum. The values added during
+ * one superstep are folded with the combiner, starting from the identity, and can be read by every vertex in the next
+ * superstep. Each partition folds its own values first, so vertices never contend on a shared value.
+ */
+public class Aggregator {
+    public static final Aggregator SUM = new Aggregator(0, MessageCombiner.SUM);
+    public static final Aggregator MIN = new Aggregator(Double.POSITIVE_INFINITY, MessageCombiner.MIN);
+    public static final Aggregator MAX = new Aggregator(Double.NEGATIVE_INFINITY, MessageCombiner.MAX);
+
+    private double identity;
+    private MessageCombiner combiner;
+
+    public Aggregator(double identity, MessageCombiner combiner) {
+        this.identity = identity;
+        this.combiner = combiner;
+    }
+
+    public double getIdentity() {
+        return identity;
+    }
+
+    public double combine(double value1, double value2) {
+        return combiner.combine(value1, value2);
+    }
+}
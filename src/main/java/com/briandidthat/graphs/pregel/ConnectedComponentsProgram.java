@@ -0,0 +1,30 @@
+package com.briandidthat.graphs.pregel;
+
+/**
+ * Connected components by label propagation. Every vertex starts with its own id as its label and keeps taking the
+ * smallest label it hears of, so every vertex ends up labeled with the smallest id in its component. This is meant for
+ * undirected graphs; on a directed graph labels only flow along the edges.
+ */
+public class ConnectedComponentsProgram implements VertexProgram {
+
+    @Override
+    public double initialValue(int vertex, int numVertices) {
+        return vertex;
+    }
+
+    @Override
+    public void compute(VertexContext context) {
+        if (context.getSuperstep() == 0) {
+            context.sendMessageToNeighbors(context.getValue());
+        } else if (context.hasMessage() && context.getMessage() < context.getValue()) {
+            context.setValue(context.getMessage());
+            context.sendMessageToNeighbors(context.getValue());
+        }
+        context.voteToHalt();
+    }
+
+    @Override
+    public MessageCombiner getCombiner() {
+        return MessageCombiner.MIN;
+    }
+}
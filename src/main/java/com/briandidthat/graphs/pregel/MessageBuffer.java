@@ -0,0 +1,41 @@
+package com.briandidthat.graphs.pregel;
+
+import java.util.Arrays;
+
+// The messages one partition sends to another in a superstep, as parallel primitive arrays. The buffer only grows, so
+// after the first few supersteps sending a message does not allocate.
+class MessageBuffer {
+    private int[] targets;
+    private double[] messages;
+    private int size;
+
+    MessageBuffer() {
+        this.targets = new int[16];
+        this.messages = new double[16];
+    }
+
+    void add(int target, double message) {
+        if (size == targets.length) {
+            targets = Arrays.copyOf(targets, size * 2);
+            messages = Arrays.copyOf(messages, size * 2);
+        }
+        targets[size] = target;
+        messages[size++] = message;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getTarget(int i) {
+        return targets[i];
+    }
+
+    double getMessage(int i) {
+        return messages[i];
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
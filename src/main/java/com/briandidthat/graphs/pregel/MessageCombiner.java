@@ -0,0 +1,11 @@
+package com.briandidthat.graphs.pregel;
+
+// Folds two messages to the same vertex into one. It must be commutative and associative, since messages arrive in no
+// particular order.
+public interface MessageCombiner {
+    MessageCombiner SUM = Double::sum;
+    MessageCombiner MIN = Math::min;
+    MessageCombiner MAX = Math::max;
+
+    double combine(double message1, double message2);
+}
@@ -0,0 +1,72 @@
+package com.briandidthat.graphs.pregel;
+
+/**
+ * PageRank as a vertex program, in the "push" style of the original Pregel paper: every superstep a vertex spreads its
+ * rank evenly over its outgoing edges and the SUM combiner adds up what arrives. The rank of dangling vertices is
+ * collected with an aggregator and handed back out evenly in the next superstep, the same as the PageRank class does
+ * without a personalization vector. It runs a fixed number of iterations, or stops early once the L1 change of an
+ * iteration (a second aggregator) drops below the tolerance.
+ */
+public class PageRankProgram implements VertexProgram {
+    private static final int DANGLING = 0;
+    private static final int CHANGE = 1;
+
+    private double dampingFactor;
+    private double tolerance;
+    private int maxIterations;
+
+    public PageRankProgram() {
+        this(0.85, 1e-6, 100);
+    }
+
+    public PageRankProgram(double dampingFactor, double tolerance, int maxIterations) {
+        if (dampingFactor < 0 || dampingFactor >= 1) {
+            throw new IllegalArgumentException("The damping factor must be in [0, 1).");
+        }
+        this.dampingFactor = dampingFactor;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    public double initialValue(int vertex, int numVertices) {
+        return 1.0 / numVertices;
+    }
+
+    @Override
+    public void compute(VertexContext context) {
+        int numVertices = context.getNumVertices();
+        if (context.getSuperstep() > 0) {
+            double incoming = context.hasMessage() ? context.getMessage() : 0;
+            double rank = (1 - dampingFactor) / numVertices +
+                    dampingFactor * (incoming + context.getAggregate(DANGLING) / numVertices);
+            context.aggregate(CHANGE, Math.abs(rank - context.getValue()));
+            context.setValue(rank);
+        }
+        if (context.getSuperstep() == maxIterations) {
+            context.voteToHalt();
+            return;
+        }
+        if (context.getOutDegree() == 0) {
+            context.aggregate(DANGLING, context.getValue());
+        } else {
+            context.sendMessageToNeighbors(context.getValue() / context.getOutDegree());
+        }
+    }
+
+    @Override
+    public MessageCombiner getCombiner() {
+        return MessageCombiner.SUM;
+    }
+
+    @Override
+    public Aggregator[] getAggregators() {
+        return new Aggregator[]{Aggregator.SUM, Aggregator.SUM};
+    }
+
+    // Superstep 0 only sends the initial ranks, so the first change is known once two supersteps are done.
+    @Override
+    public boolean shouldHalt(int superstep, double[] aggregates) {
+        return superstep > 1 && aggregates[CHANGE] < tolerance;
+    }
+}
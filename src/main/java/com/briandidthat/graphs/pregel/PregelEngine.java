@@ -0,0 +1,181 @@
+package com.briandidthat.graphs.pregel;
+
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.ParallelHelper;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a vertex-centric, bulk synchronous (Pregel style) compute engine. The vertices are split into contiguous
+ * partitions, and every superstep runs in two parallel phases separated by a barrier:
+ *
+ * 1. Compute: every partition calls the program for its active vertices. Messages are appended to an outbox per
+ *    (sending partition, receiving partition) pair, so no two threads ever write to the same buffer.
+ * 2. Deliver: every partition drains the outboxes addressed to it and folds the messages into one double per vertex
+ *    with the program's combiner. These inbox arrays are what the next compute phase reads.
+ *
+ * Vertex values and messages are doubles kept in primitive arrays, so a superstep does not box or allocate once the
+ * outboxes have grown to size. The program runs over an AdjacencyArrays snapshot of the graph; an undirected edge is
+ * an edge in both directions. The computation stops when every vertex has voted to halt and no messages are in
+ * flight, when the program asks to halt, after maxSupersteps, or when the cancellation token stops it, in which case
+ * the values of the last finished superstep are returned.
+ */
+public class PregelEngine {
+    // Partitions per thread. More partitions than threads lets the pool even out partitions that take longer.
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private ForkJoinPool pool;
+    private int maxSupersteps;
+
+    public PregelEngine() {
+        this(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+    }
+
+    public PregelEngine(ForkJoinPool pool, int maxSupersteps) {
+        if (maxSupersteps < 1) {
+            throw new IllegalArgumentException("The number of supersteps must be at least 1.");
+        }
+        this.pool = pool;
+        this.maxSupersteps = maxSupersteps;
+    }
+
+    public PregelResult run(Graph graph, VertexProgram program) {
+        return run(new AdjacencyArrays(graph), program, CancellationToken.NONE);
+    }
+
+    public PregelResult run(Graph graph, VertexProgram program, CancellationToken token) {
+        return run(new AdjacencyArrays(graph), program, token);
+    }
+
+    // The token is checked before every superstep.
+    public PregelResult run(AdjacencyArrays adjacency, VertexProgram program, CancellationToken token) {
+        int numVertices = adjacency.getNumVertices();
+        Aggregator[] aggregators = program.getAggregators();
+        double[] aggregates = new double[aggregators.length];
+        for (int i = 0; i < aggregators.length; i++) {
+            aggregates[i] = aggregators[i].getIdentity();
+        }
+        if (numVertices == 0) {
+            return new PregelResult(new double[0], 0, aggregates, RunStatus.COMPLETED);
+        }
+
+        int maxPartitions = Math.min(numVertices, pool.getParallelism() * PARTITIONS_PER_THREAD);
+        int partitionSize = (numVertices + maxPartitions - 1) / maxPartitions;
+        int numPartitions = (numVertices + partitionSize - 1) / partitionSize;
+
+        double[] values = new double[numVertices];
+        double[] inbox = new double[numVertices];
+        boolean[] hasMessage = new boolean[numVertices];
+        boolean[] halted = new boolean[numVertices];
+        // outboxes[p][q] holds the messages partition p sends to partition q.
+        MessageBuffer[][] outboxes = new MessageBuffer[numPartitions][numPartitions];
+        VertexContext[] contexts = new VertexContext[numPartitions];
+        // Int and long weights are widened to doubles once for the whole run.
+        double[] weights = adjacency.getDoubleWeights();
+        for (int p = 0; p < numPartitions; p++) {
+            for (int q = 0; q < numPartitions; q++) {
+                outboxes[p][q] = new MessageBuffer();
+            }
+            contexts[p] = new VertexContext(p, partitionSize, adjacency.getOffsets(), adjacency.getTargets(),
+                    weights, values, inbox, hasMessage, halted, outboxes[p], aggregators, aggregates);
+        }
+        ParallelHelper.forEach(pool, numVertices, v -> values[v] = program.initialValue(v, numVertices));
+
+        MessageCombiner combiner = program.getCombiner();
+        AlgorithmRun run = AlgorithmMetrics.start("pregel");
+        RunStatus status = RunStatus.COMPLETED;
+        AtomicLong activeVertices = new AtomicLong();
+        long computed = 0;
+        long messages = 0;
+        int superstep = 0;
+        while (superstep < maxSupersteps) {
+            if (token.isCancelled()) {
+                status = token.getStatus();
+                break;
+            }
+
+            // Compute: run the program on every vertex that is active or has a message.
+            run.phase("compute");
+            int currentSuperstep = superstep;
+            activeVertices.set(0);
+            AtomicLong computeCalls = new AtomicLong();
+            ParallelHelper.forEachRange(pool, numPartitions, 1, (start, end) -> {
+                for (int p = start; p < end; p++) {
+                    VertexContext context = contexts[p];
+                    context.startSuperstep(currentSuperstep);
+                    long active = 0;
+                    long calls = 0;
+                    int last = Math.min(numVertices, (p + 1) * partitionSize);
+                    for (int v = p * partitionSize; v < last; v++) {
+                        if (halted[v] && !hasMessage[v]) {
+                            continue;
+                        }
+                        // A message wakes up a halted vertex.
+                        halted[v] = false;
+                        context.moveTo(v);
+                        program.compute(context);
+                        hasMessage[v] = false;
+                        calls++;
+                        if (!halted[v]) {
+                            active++;
+                        }
+                    }
+                    activeVertices.addAndGet(active);
+                    computeCalls.addAndGet(calls);
+                }
+            });
+
+            // Fold the aggregates of the partitions, in partition order so the result does not depend on timing.
+            for (int i = 0; i < aggregators.length; i++) {
+                double value = aggregators[i].getIdentity();
+                for (VertexContext context : contexts) {
+                    value = aggregators[i].combine(value, context.getPartialAggregate(i));
+                }
+                aggregates[i] = value;
+            }
+            long sent = 0;
+            for (VertexContext context : contexts) {
+                sent += context.getMessagesSent();
+            }
+
+            // Deliver: every partition folds the messages addressed to it into its inbox entries.
+            run.phase("deliver");
+            ParallelHelper.forEachRange(pool, numPartitions, 1, (start, end) -> {
+                for (int q = start; q < end; q++) {
+                    for (int p = 0; p < numPartitions; p++) {
+                        MessageBuffer buffer = outboxes[p][q];
+                        for (int i = 0; i < buffer.size(); i++) {
+                            int target = buffer.getTarget(i);
+                            if (hasMessage[target]) {
+                                inbox[target] = combiner.combine(inbox[target], buffer.getMessage(i));
+                            } else {
+                                inbox[target] = buffer.getMessage(i);
+                                hasMessage[target] = true;
+                            }
+                        }
+                        buffer.clear();
+                    }
+                }
+            });
+
+            superstep++;
+            computed += computeCalls.get();
+            messages += sent;
+            if ((activeVertices.get() == 0 && sent == 0) || program.shouldHalt(superstep, aggregates)) {
+                break;
+            }
+        }
+
+        run.addPasses(superstep);
+        run.addVerticesSettled(computed);
+        run.addEdgesRelaxed(messages);
+        run.finish();
+        return new PregelResult(values, superstep, aggregates, status);
+    }
+}
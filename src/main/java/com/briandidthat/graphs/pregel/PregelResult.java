@@ -0,0 +1,42 @@
+package com.briandidthat.graphs.pregel;
+
+import com.briandidthat.graphs.model.RunStatus;
+
+// The final vertex values of a Pregel computation, the number of supersteps it ran and the aggregates of the last one.
+public class PregelResult {
+    private double[] values;
+    private int supersteps;
+    private double[] aggregates;
+    private RunStatus status;
+
+    public PregelResult(double[] values, int supersteps, double[] aggregates, RunStatus status) {
+        this.values = values;
+        this.supersteps = supersteps;
+        this.aggregates = aggregates;
+        this.status = status;
+    }
+
+    public double getValue(int vertex) {
+        return values[vertex];
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public int getSupersteps() {
+        return supersteps;
+    }
+
+    public double getAggregate(int index) {
+        return aggregates[index];
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public boolean isComplete() {
+        return status == RunStatus.COMPLETED;
+    }
+}
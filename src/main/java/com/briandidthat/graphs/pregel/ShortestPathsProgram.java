@@ -0,0 +1,44 @@
+package com.briandidthat.graphs.pregel;
+
+/**
+ * Single source shortest paths as a vertex program. The source starts at 0 and every other vertex at infinity; a vertex
+ * that learns a shorter distance passes it on to its neighbors and goes back to sleep. The MIN combiner means a vertex
+ * only ever sees the best offer of a superstep. Negative weights are fine as long as there is no negative cycle. An
+ * unreachable vertex keeps a value of Double.POSITIVE_INFINITY.
+ */
+public class ShortestPathsProgram implements VertexProgram {
+    private int source;
+
+    public ShortestPathsProgram(int source) {
+        this.source = source;
+    }
+
+    @Override
+    public double initialValue(int vertex, int numVertices) {
+        if (source >= numVertices || source < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        return vertex == source ? 0 : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public void compute(VertexContext context) {
+        boolean improved = context.getSuperstep() == 0 && context.getVertex() == source;
+        if (context.hasMessage() && context.getMessage() < context.getValue()) {
+            context.setValue(context.getMessage());
+            improved = true;
+        }
+        if (improved) {
+            double distance = context.getValue();
+            for (int i = 0; i < context.getOutDegree(); i++) {
+                context.sendMessage(context.getTarget(i), distance + context.getWeight(i));
+            }
+        }
+        context.voteToHalt();
+    }
+
+    @Override
+    public MessageCombiner getCombiner() {
+        return MessageCombiner.MIN;
+    }
+}
@@ -0,0 +1,143 @@
+package com.briandidthat.graphs.pregel;
+
+/**
+ * The view a vertex program has of the vertex it is computing. The engine keeps one context per partition and moves it
+ * from vertex to vertex, so a program must not hold on to it after compute() returns. Messages are routed to the
+ * outbox of the partition that owns the target, and aggregated values are folded into this partition's own copy.
+ */
+public class VertexContext {
+    private int partition;
+    private int partitionSize;
+    private int numVertices;
+    private int[] offsets;
+    private int[] targets;
+    private double[] weights;
+    private double[] values;
+    private double[] inbox;
+    private boolean[] hasMessage;
+    private boolean[] halted;
+    private MessageBuffer[] outboxes;
+    private Aggregator[] aggregators;
+    private double[] previousAggregates;
+    private double[] partialAggregates;
+    private int superstep;
+    private int vertex;
+    private long messagesSent;
+
+    VertexContext(int partition, int partitionSize, int[] offsets, int[] targets, double[] weights, double[] values,
+                  double[] inbox, boolean[] hasMessage, boolean[] halted, MessageBuffer[] outboxes,
+                  Aggregator[] aggregators, double[] previousAggregates) {
+        this.partition = partition;
+        this.partitionSize = partitionSize;
+        this.numVertices = values.length;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.values = values;
+        this.inbox = inbox;
+        this.hasMessage = hasMessage;
+        this.halted = halted;
+        this.outboxes = outboxes;
+        this.aggregators = aggregators;
+        this.previousAggregates = previousAggregates;
+        this.partialAggregates = new double[aggregators.length];
+    }
+
+    public int getVertex() {
+        return vertex;
+    }
+
+    public int getSuperstep() {
+        return superstep;
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public double getValue() {
+        return values[vertex];
+    }
+
+    public void setValue(double value) {
+        values[vertex] = value;
+    }
+
+    public boolean hasMessage() {
+        return hasMessage[vertex];
+    }
+
+    // The combined message sent to this vertex in the previous superstep. Only valid IF hasMessage() is true.
+    public double getMessage() {
+        return inbox[vertex];
+    }
+
+    public int getOutDegree() {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    // The target of the i-th outgoing edge of this vertex.
+    public int getTarget(int i) {
+        return targets[offsets[vertex] + i];
+    }
+
+    // The weight of the i-th outgoing edge of this vertex, or 1 IF the graph is unweighted. Weights are doubles like
+    // the vertex values, whatever the weight type of the graph, so a long weight above 2^53 is rounded.
+    public double getWeight(int i) {
+        return weights == null ? 1 : weights[offsets[vertex] + i];
+    }
+
+    public void sendMessage(int target, double message) {
+        if (target >= numVertices || target < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        outboxes[target / partitionSize].add(target, message);
+        messagesSent++;
+    }
+
+    public void sendMessageToNeighbors(double message) {
+        for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+            int target = targets[edge];
+            outboxes[target / partitionSize].add(target, message);
+        }
+        messagesSent += offsets[vertex + 1] - offsets[vertex];
+    }
+
+    // The vertex stays inactive, and compute() is not called for it, until it receives a message.
+    public void voteToHalt() {
+        halted[vertex] = true;
+    }
+
+    public void aggregate(int index, double value) {
+        partialAggregates[index] = aggregators[index].combine(partialAggregates[index], value);
+    }
+
+    // The aggregated value of the previous superstep. In superstep 0 this is the identity of the aggregator.
+    public double getAggregate(int index) {
+        return previousAggregates[index];
+    }
+
+    void startSuperstep(int superstep) {
+        this.superstep = superstep;
+        this.messagesSent = 0;
+        for (int i = 0; i < aggregators.length; i++) {
+            partialAggregates[i] = aggregators[i].getIdentity();
+        }
+    }
+
+    void moveTo(int vertex) {
+        this.vertex = vertex;
+    }
+
+    long getMessagesSent() {
+        return messagesSent;
+    }
+
+    double getPartialAggregate(int index) {
+        return partialAggregates[index];
+    }
+}
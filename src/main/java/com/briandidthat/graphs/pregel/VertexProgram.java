@@ -0,0 +1,32 @@
+package com.briandidthat.graphs.pregel;
+
+/**
+ * The user code of a Pregel computation. compute() is called for every active vertex in every superstep, with the
+ * combined message sent to it in the previous superstep. A vertex becomes inactive when it votes to halt and active
+ * again when it receives a message. The computation ends when every vertex is inactive and no messages are in flight,
+ * or when shouldHalt() says so.
+ *
+ * compute() is called from several threads at once, for different vertices. It may only change its own vertex through
+ * the context, so a program should not keep mutable state of its own.
+ */
+public interface VertexProgram {
+
+    double initialValue(int vertex, int numVertices);
+
+    void compute(VertexContext context);
+
+    // Folds the messages sent to one vertex in a superstep. Every program has one, which lets the engine keep a single
+    // double per vertex instead of a list of messages.
+    MessageCombiner getCombiner();
+
+    // The aggregators of this program. Vertices refer to them by their index in this array.
+    default Aggregator[] getAggregators() {
+        return new Aggregator[0];
+    }
+
+    // Called after every superstep with the number of supersteps done and the aggregated values of the last one, which
+    // the program must not change.
+    default boolean shouldHalt(int superstep, double[] aggregates) {
+        return false;
+    }
+}
@@ -0,0 +1,78 @@
+package com.briandidthat.graphs.utils;
+
+import com.briandidthat.graphs.model.RunStatus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class tells a long running algorithm when to stop. A token is stopped when cancel() is called, when its deadline
+ * (IF it has one) passes, or when the thread checking it is interrupted. Reading the clock is not free, so algorithms
+ * do not check the token on every step: they check it once every CHECK_INTERVAL units of work (relaxed edges, settled
+ * vertices) or once per pass, and then return the best result they have so far along with the reason they stopped.
+ *
+ * The same token can be shared by several threads and algorithms, so one cancel() stops all of them. NONE never stops,
+ * and is what the algorithms use when they are called without a token.
+ */
+public class CancellationToken {
+    public static final CancellationToken NONE = new CancellationToken(false, 0);
+    // The number of units of work between two checks of the token. This is a power of two, so (count & CHECK_MASK) == 0
+    // is a cheap way to decide when to check.
+    public static final int CHECK_INTERVAL = 1 << 12;
+    public static final int CHECK_MASK = CHECK_INTERVAL - 1;
+
+    private boolean hasDeadline;
+    private long deadline;
+    // Null until the token is stopped, then the reason it was stopped. Once set, it never changes.
+    private volatile RunStatus reason;
+
+    // A token without a deadline, which only stops when it is cancelled or the thread is interrupted.
+    public CancellationToken() {
+        this(false, 0);
+    }
+
+    // A token that stops by itself once the timeout has passed.
+    public CancellationToken(long timeout, TimeUnit unit) {
+        this(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    private CancellationToken(boolean hasDeadline, long deadline) {
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+    }
+
+    public void cancel() {
+        stop(RunStatus.CANCELLED);
+    }
+
+    public boolean isCancelled() {
+        if (reason != null) {
+            return true;
+        }
+        if (this == NONE) {
+            return false;
+        }
+        if (hasDeadline && System.nanoTime() - deadline >= 0) {
+            stop(RunStatus.DEADLINE_EXCEEDED);
+            return true;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            stop(RunStatus.CANCELLED);
+            return true;
+        }
+        return false;
+    }
+
+    // Returns why the token was stopped, or COMPLETED IF it has not been stopped. This is the status to report for a
+    // run that checked the token.
+    public RunStatus getStatus() {
+        RunStatus current = reason;
+        return current == null ? RunStatus.COMPLETED : current;
+    }
+
+    private synchronized void stop(RunStatus status) {
+        // NONE is shared by every caller that did not ask for cancellation, so it cannot be stopped.
+        if (reason == null && this != NONE) {
+            reason = status;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.briandidthat.graphs.utils;
+
+import com.briandidthat.graphs.model.Graph;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class fills graphs with seeded random edges for load and scale testing. The same seed always gives the same
+ * graph, whatever the number of threads: the edges are generated in fixed size chunks, and every chunk gets its own
+ * SplittableRandom split off a root generator in chunk order. The chunks are generated in parallel, a wave at a time,
+ * and then added to the graph in chunk order on the calling thread, since the graphs do not support concurrent writes.
+ *
+ * Generators add the requested number of edges but do not check for duplicates, so a dense random graph can end up
+ * with fewer distinct edges. IF the graph is weighted, every edge gets a weight between 1 and MAX_WEIGHT. An undirected
+ * graph gets every edge in both directions through addEdge. It's constructor is private to restrict instantiation of
+ * the class. The methods will be static.
+ */
+public class GraphGenerator {
+    public static final int MAX_WEIGHT = 100;
+    // The number of edges generated from one random stream. This is fixed, so the output does not depend on the pool.
+    private static final int CHUNK_SIZE = 1 << 16;
+    // The R-MAT probabilities of the Graph 500 benchmark.
+    private static final double RMAT_A = 0.57;
+    private static final double RMAT_B = 0.19;
+    private static final double RMAT_C = 0.19;
+
+    private GraphGenerator() {}
+
+    // Fills in a v1 v2 pair for the edge with the given index.
+    private interface EdgeSampler {
+        void sample(SplittableRandom random, long index, int[] edge);
+    }
+
+    // Erdos-Renyi G(n, m): numEdges edges between uniformly random pairs of distinct vertices.
+    public static Graph erdosRenyi(Graph graph, long numEdges, long seed) {
+        int numVertices = graph.getNumVertices();
+        checkVertices(numVertices, 2);
+        generate(graph, numEdges, seed, (random, index, edge) -> {
+            do {
+                edge[0] = random.nextInt(numVertices);
+                edge[1] = random.nextInt(numVertices);
+            } while (edge[0] == edge[1]);
+        });
+        return graph;
+    }
+
+    public static Graph rmat(Graph graph, long numEdges, long seed) {
+        return rmat(graph, numEdges, RMAT_A, RMAT_B, RMAT_C, seed);
+    }
+
+    // R-MAT (a stochastic Kronecker graph): every edge picks one quadrant of the adjacency matrix with probabilities a,
+    // b, c and 1 - a - b - c, then recurses into it until it reaches a single cell. This gives the skewed degrees of
+    // real networks. Cells outside of the graph (when the vertex count is not a power of two) and self loops are drawn
+    // again.
+    public static Graph rmat(Graph graph, long numEdges, double a, double b, double c, long seed) {
+        int numVertices = graph.getNumVertices();
+        checkVertices(numVertices, 2);
+        if (a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+            throw new IllegalArgumentException("Invalid R-MAT probabilities.");
+        }
+        int scale = 32 - Integer.numberOfLeadingZeros(numVertices - 1);
+        generate(graph, numEdges, seed, (random, index, edge) -> {
+            do {
+                int v1 = 0;
+                int v2 = 0;
+                for (int bit = scale - 1; bit >= 0; bit--) {
+                    double r = random.nextDouble();
+                    if (r >= a + b + c) {
+                        v1 |= 1 << bit;
+                        v2 |= 1 << bit;
+                    } else if (r >= a + b) {
+                        v1 |= 1 << bit;
+                    } else if (r >= a) {
+                        v2 |= 1 << bit;
+                    }
+                }
+                edge[0] = v1;
+                edge[1] = v2;
+            } while (edge[0] >= numVertices || edge[1] >= numVertices || edge[0] == edge[1]);
+        });
+        return graph;
+    }
+
+    // A rows x columns lattice, like a road grid: vertex (row, column) is row * columns + column and is connected to the
+    // vertices to its right and below. On a directed graph the edges go both ways. IF the graph is weighted, the weights
+    // are random so the shortest paths are not trivial.
+    public static Graph grid(Graph graph, int rows, int columns, long seed) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > graph.getNumVertices()) {
+            throw new IllegalArgumentException("The grid does not fit in the graph.");
+        }
+        long horizontal = (long) rows * (columns - 1);
+        long vertical = (long) (rows - 1) * columns;
+        boolean directed = graph.graphType() == Graph.GraphType.DIRECTED;
+        // A directed graph gets every lattice edge twice: even indices go one way, odd indices the other way.
+        long numEdges = (horizontal + vertical) * (directed ? 2 : 1);
+        generate(graph, numEdges, seed, (random, index, edge) -> {
+            long e = directed ? index / 2 : index;
+            int v1;
+            int v2;
+            if (e < horizontal) {
+                int row = (int) (e / (columns - 1));
+                int column = (int) (e % (columns - 1));
+                v1 = row * columns + column;
+                v2 = v1 + 1;
+            } else {
+                v1 = (int) (e - horizontal);
+                v2 = v1 + columns;
+            }
+            boolean reverse = directed && index % 2 == 1;
+            edge[0] = reverse ? v2 : v1;
+            edge[1] = reverse ? v1 : v2;
+        });
+        return graph;
+    }
+
+    // A random directed acyclic graph. The vertices are put in a random order and every edge goes from an earlier to a
+    // later vertex in that order, so the graph can always be sorted topologically, but the order is not simply the ids.
+    public static Graph randomDag(Graph graph, long numEdges, long seed) {
+        if (graph.graphType() != Graph.GraphType.DIRECTED) {
+            throw new IllegalArgumentException("A DAG requires a directed graph.");
+        }
+        int numVertices = graph.getNumVertices();
+        checkVertices(numVertices, 2);
+        // The order comes from its own stream, so it does not shift the edge streams.
+        int[] order = new int[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            order[v] = v;
+        }
+        SplittableRandom shuffle = new SplittableRandom(~seed);
+        for (int i = numVertices - 1; i > 0; i--) {
+            int j = shuffle.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        generate(graph, numEdges, seed, (random, index, edge) -> {
+            int p1;
+            int p2;
+            do {
+                p1 = random.nextInt(numVertices);
+                p2 = random.nextInt(numVertices);
+            } while (p1 == p2);
+            edge[0] = order[Math.min(p1, p2)];
+            edge[1] = order[Math.max(p1, p2)];
+        });
+        return graph;
+    }
+
+    // Barabasi-Albert preferential attachment: vertices arrive one at a time and connect to edgesPerVertex earlier
+    // vertices, picked with a probability proportional to their degree. Every new edge depends on all the edges before
+    // it, so unlike the other generators this one runs on a single thread.
+    public static Graph barabasiAlbert(Graph graph, int edgesPerVertex, long seed) {
+        int numVertices = graph.getNumVertices();
+        if (edgesPerVertex < 1) {
+            throw new IllegalArgumentException("Every vertex needs at least one edge.");
+        }
+        checkVertices(numVertices, edgesPerVertex + 1);
+        SplittableRandom random = new SplittableRandom(seed);
+        boolean weighted = graph.isWeighted();
+
+        // Every edge adds both of its vertices to this list, so picking a uniform entry picks a vertex by degree.
+        long numEndpoints = 2L * edgesPerVertex * numVertices;
+        if (numEndpoints > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The graph is too large for preferential attachment.");
+        }
+        int[] endpoints = new int[(int) numEndpoints];
+        int size = 0;
+        int[] chosen = new int[edgesPerVertex];
+
+        // Start from a small clique, so the first picks have degrees to go by.
+        for (int v1 = 0; v1 <= edgesPerVertex; v1++) {
+            for (int v2 = v1 + 1; v2 <= edgesPerVertex; v2++) {
+                addEdge(graph, weighted, v1, v2, random);
+                endpoints[size++] = v1;
+                endpoints[size++] = v2;
+            }
+        }
+        for (int v = edgesPerVertex + 1; v < numVertices; v++) {
+            // Pick distinct targets. There are at least edgesPerVertex earlier vertices, so this ends.
+            for (int i = 0; i < edgesPerVertex; i++) {
+                int target;
+                boolean duplicate;
+                do {
+                    target = endpoints[random.nextInt(size)];
+                    duplicate = false;
+                    for (int j = 0; j < i; j++) {
+                        duplicate |= chosen[j] == target;
+                    }
+                } while (duplicate);
+                chosen[i] = target;
+            }
+            for (int i = 0; i < edgesPerVertex; i++) {
+                addEdge(graph, weighted, v, chosen[i], random);
+                endpoints[size++] = v;
+                endpoints[size++] = chosen[i];
+            }
+        }
+        return graph;
+    }
+
+    // Generates numEdges edges in chunks of CHUNK_SIZE. A wave of chunks is generated in parallel into int arrays and
+    // then added to the graph in chunk order.
+    private static void generate(Graph graph, long numEdges, long seed, EdgeSampler sampler) {
+        if (numEdges < 0) {
+            throw new IllegalArgumentException("The number of edges cannot be negative.");
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        boolean weighted = graph.isWeighted();
+        long numChunks = (numEdges + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int waveSize = pool.getParallelism() * 4;
+        SplittableRandom root = new SplittableRandom(seed);
+
+        int[][] sources = new int[waveSize][];
+        int[][] targets = new int[waveSize][];
+        int[][] weights = new int[waveSize][];
+        for (long waveStart = 0; waveStart < numChunks; waveStart += waveSize) {
+            long firstChunk = waveStart;
+            int chunksInWave = (int) Math.min(waveSize, numChunks - waveStart);
+            // Split the streams on this thread, in chunk order, so every chunk always gets the same stream.
+            SplittableRandom[] randoms = new SplittableRandom[chunksInWave];
+            for (int i = 0; i < chunksInWave; i++) {
+                randoms[i] = root.split();
+            }
+
+            ParallelHelper.forEachRange(pool, chunksInWave, 1, (start, end) -> {
+                int[] edge = new int[2];
+                for (int i = start; i < end; i++) {
+                    long first = (firstChunk + i) * CHUNK_SIZE;
+                    int size = (int) Math.min(CHUNK_SIZE, numEdges - first);
+                    if (sources[i] == null) {
+                        sources[i] = new int[CHUNK_SIZE];
+                        targets[i] = new int[CHUNK_SIZE];
+                        weights[i] = new int[CHUNK_SIZE];
+                    }
+                    SplittableRandom random = randoms[i];
+                    for (int e = 0; e < size; e++) {
+                        sampler.sample(random, first + e, edge);
+                        sources[i][e] = edge[0];
+                        targets[i][e] = edge[1];
+                        weights[i][e] = weighted ? 1 + random.nextInt(MAX_WEIGHT) : 1;
+                    }
+                }
+            });
+
+            for (int i = 0; i < chunksInWave; i++) {
+                int size = (int) Math.min(CHUNK_SIZE, numEdges - (firstChunk + i) * CHUNK_SIZE);
+                for (int e = 0; e < size; e++) {
+                    if (weighted) {
+                        graph.addEdge(sources[i][e], targets[i][e], weights[i][e]);
+                    } else {
+                        graph.addEdge(sources[i][e], targets[i][e]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addEdge(Graph graph, boolean weighted, int v1, int v2, SplittableRandom random) {
+        if (weighted) {
+            graph.addEdge(v1, v2, 1 + random.nextInt(MAX_WEIGHT));
+        } else {
+            graph.addEdge(v1, v2);
+        }
+    }
+
+    private static void checkVertices(int numVertices, int minimum) {
+        if (numVertices < minimum) {
+            throw new IllegalArgumentException("The graph needs at least " + minimum + " vertices.");
+        }
+    }
+}
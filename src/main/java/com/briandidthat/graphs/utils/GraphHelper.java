@@ -1,7 +1,11 @@
 package com.briandidthat.graphs.utils;
 
-import com.briandidthat.graphs.model.DistanceInfo;
+import com.briandidthat.graphs.metrics.AlgorithmMetrics;
+import com.briandidthat.graphs.metrics.AlgorithmRun;
 import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.model.ShortestPathTree;
 
 import java.util.*;
 
@@ -13,144 +17,298 @@ import java.util.*;
 public class GraphHelper {
     private GraphHelper() {}
 
-    // This is a post order traversal, where all the children will be processed before the parent node
-    public static void depthFirstTraversal(Graph graph, int[] visited, int current) {
-        if (visited[current] == 1) {
-            return;
+    // This is a post order traversal, where all the children will be processed before the parent node. It returns the
+    // vertices in the order they were processed. An explicit stack is used so deep graphs do not overflow the call
+    // stack.
+    public static int[] depthFirstTraversal(Graph graph, int[] visited, int current) {
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNumVertices())) {
+            return depthFirstTraversal(graph, visited, workspace, current, CancellationToken.NONE).getValue();
         }
+    }
 
-        visited[current] = 1;
-        List<Integer> list = graph.getAdjacentVertices(current);
-        for (int vertex : list) {
-            depthFirstTraversal(graph, visited, vertex);
-        }
+    // The same traversal without a visited array from the caller. The vertices visited are tracked in the workspace of
+    // the thread, so only the vertices reached are touched.
+    public static int[] depthFirstTraversal(Graph graph, int current) {
+        return depthFirstTraversal(graph, current, CancellationToken.NONE).getValue();
+    }
 
-        System.out.print(current + "-->");
+    // The token is checked every CHECK_INTERVAL vertices visited. IF it stops the run, the vertices already processed
+    // are returned, in the order they were processed.
+    public static PartialResult<int[]> depthFirstTraversal(Graph graph, int current, CancellationToken token) {
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNumVertices())) {
+            return depthFirstTraversal(graph, null, workspace, current, token);
+        }
     }
 
-    // This is a traditional breadth first traversal using a queue.
-    public static void breadthFirstTraversal(Graph graph, int[] visited, int current) {
-        LinkedList<Integer> queue = new LinkedList<>();
-        queue.push(current);
+    // IF visited is null, the workspace stamps stand in for it.
+    private static PartialResult<int[]> depthFirstTraversal(Graph graph, int[] visited, SearchWorkspace workspace,
+                                                            int current, CancellationToken token) {
+        if (isVisited(visited, workspace, current)) {
+            return new PartialResult<>(new int[0], RunStatus.COMPLETED);
+        }
+
+        AlgorithmRun run = AlgorithmMetrics.start("dfs");
+        int[] order = workspace.getScratch(0);
+        int size = 0;
+        // Every stack entry keeps the adjacent vertices of its vertex and which of them is explored next.
+        int[] stack = workspace.getScratch(1);
+        int[] nextNeighbor = workspace.getScratch(2);
+        List<List<Integer>> adjacentLists = new ArrayList<>();
+        int top = 0;
+        stack[0] = current;
+        nextNeighbor[0] = 0;
+        adjacentLists.add(graph.getAdjacentVertices(current));
+        visit(visited, workspace, current);
+        long numVisited = 1;
+        long relaxed = 0;
+        RunStatus status = RunStatus.COMPLETED;
 
-        while (!queue.isEmpty()) {
-            int vertex = queue.pollFirst();
-            if (visited[vertex] == 1) {
-                continue;
+        while (top >= 0) {
+            List<Integer> list = adjacentLists.get(top);
+            if (nextNeighbor[top] < list.size()) {
+                int v = list.get(nextNeighbor[top]++);
+                relaxed++;
+                if (!isVisited(visited, workspace, v)) {
+                    if ((++numVisited & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                        status = token.getStatus();
+                        break;
+                    }
+                    visit(visited, workspace, v);
+                    top++;
+                    stack[top] = v;
+                    nextNeighbor[top] = 0;
+                    adjacentLists.add(graph.getAdjacentVertices(v));
+                }
+            } else {
+                // All the children are done, so the vertex itself can be processed.
+                order[size++] = stack[top];
+                adjacentLists.remove(top);
+                top--;
             }
+        }
+
+        run.addVerticesSettled(size);
+        run.addEdgesRelaxed(relaxed);
+        run.finish();
+        return new PartialResult<>(Arrays.copyOf(order, size), status);
+    }
+
+    // This is a traditional breadth first traversal using a queue. It returns the vertices in the order they were
+    // visited.
+    public static int[] breadthFirstTraversal(Graph graph, int[] visited, int current) {
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNumVertices())) {
+            return breadthFirstTraversal(graph, visited, workspace, current, CancellationToken.NONE).getValue();
+        }
+    }
+
+    // The same traversal without a visited array from the caller. The vertices visited are tracked in the workspace of
+    // the thread, so only the vertices reached are touched.
+    public static int[] breadthFirstTraversal(Graph graph, int current) {
+        return breadthFirstTraversal(graph, current, CancellationToken.NONE).getValue();
+    }
+
+    // The token is checked every CHECK_INTERVAL vertices expanded. IF it stops the run, the vertices visited so far are
+    // returned, in the order they were visited.
+    public static PartialResult<int[]> breadthFirstTraversal(Graph graph, int current, CancellationToken token) {
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNumVertices())) {
+            return breadthFirstTraversal(graph, null, workspace, current, token);
+        }
+    }
+
+    private static PartialResult<int[]> breadthFirstTraversal(Graph graph, int[] visited, SearchWorkspace workspace,
+                                                              int current, CancellationToken token) {
+        if (isVisited(visited, workspace, current)) {
+            return new PartialResult<>(new int[0], RunStatus.COMPLETED);
+        }
 
-            System.out.print(vertex + "->");
-            visited[vertex] = 1;
+        AlgorithmRun run = AlgorithmMetrics.start("bfs");
+        // Every vertex enters the queue once, so the queue doubles as the visit order.
+        int[] queue = workspace.getScratch(0);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = current;
+        visit(visited, workspace, current);
+        long relaxed = 0;
+        RunStatus status = RunStatus.COMPLETED;
 
-            List<Integer> list = graph.getAdjacentVertices(vertex);
-            for (int v : list) {
-                if (visited[v] != 1) {
-                    queue.push(v);
+        while (head < tail) {
+            if (((head + 1) & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                status = token.getStatus();
+                break;
+            }
+            int vertex = queue[head++];
+            for (int v : graph.getAdjacentVertices(vertex)) {
+                relaxed++;
+                if (!isVisited(visited, workspace, v)) {
+                    visit(visited, workspace, v);
+                    queue[tail++] = v;
                 }
             }
         }
+
+        run.addVerticesSettled(head);
+        run.addEdgesRelaxed(relaxed);
+        run.finish();
+        return new PartialResult<>(Arrays.copyOf(queue, tail), status);
+    }
+
+    private static boolean isVisited(int[] visited, SearchWorkspace workspace, int v) {
+        return visited != null ? visited[v] == 1 : workspace.isVisited(v);
     }
 
-    // This is a topological sort method
+    private static void visit(int[] visited, SearchWorkspace workspace, int v) {
+        if (visited != null) {
+            visited[v] = 1;
+        } else {
+            workspace.visit(v);
+        }
+    }
+
+    // This is a topological sort method. It is Kahn's algorithm: the vertices without incoming edges go first, and
+    // removing them frees up the vertices whose incoming edges all came from them. The indegrees are counted in one
+    // pass over the edges, so the sort is O(V + E) whatever graph it is given.
     public static List<Integer> topologicalSort(Graph graph) {
-        LinkedList<Integer> queue = new LinkedList<>();
-        Map<Integer, Integer> indegreeMap = new HashMap<>();
-
-        for (int vertex = 0; vertex < graph.getNumVertices(); vertex++) {
-            int inDegree = graph.getIndegree(vertex);
-            indegreeMap.put(vertex, inDegree);
-            if (inDegree == 0) {
-                // add all the vertices with a indegree of 0 to the queue of vertices to explore
-                queue.add(vertex);
+        return topologicalSort(graph, CancellationToken.NONE).getValue();
+    }
+
+    // The token is checked every CHECK_INTERVAL vertices. IF it stops the run, the vertices sorted so far are returned;
+    // they are the start of a topological order, and the graph has not been checked for a cycle.
+    public static PartialResult<List<Integer>> topologicalSort(Graph graph, CancellationToken token) {
+        AlgorithmRun run = AlgorithmMetrics.start("topological-sort");
+        run.phase("indegrees");
+        int numVertices = graph.getNumVertices();
+        int[] indegrees = new int[numVertices];
+        for (int vertex = 0; vertex < numVertices; vertex++) {
+            if ((vertex & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                run.finish();
+                return new PartialResult<>(new ArrayList<>(), token.getStatus());
+            }
+            for (int adjacentVertex : graph.getAdjacentVertices(vertex)) {
+                indegrees[adjacentVertex]++;
             }
         }
 
-        List<Integer> sortedList = new ArrayList<>();
-        while (!queue.isEmpty()) {
-            // Dequeue the nodes from the list if there are more than one. IF more than one element exists then it means
-            // that the graph has more than one topological sort solution.
-            int vertex = queue.pollLast();
-            sortedList.add(vertex);
+        run.phase("sort");
+        // The vertices ready to be sorted. The last one added is taken first.
+        int[] ready = new int[numVertices];
+        int numReady = 0;
+        for (int vertex = 0; vertex < numVertices; vertex++) {
+            if (indegrees[vertex] == 0) {
+                // add all the vertices with a indegree of 0 to the vertices to explore
+                ready[numReady++] = vertex;
+            }
+        }
 
-            List<Integer> adjacentVertices = graph.getAdjacentVertices(vertex);
-            for (int adjacentVertex : adjacentVertices) {
-                int updatedIndegree = indegreeMap.get(adjacentVertex) - 1;
-                indegreeMap.remove(adjacentVertex);
-                indegreeMap.put(adjacentVertex, updatedIndegree);
+        List<Integer> sortedList = new ArrayList<>(numVertices);
+        long relaxed = 0;
+        RunStatus status = RunStatus.COMPLETED;
+        while (numReady > 0) {
+            if (((sortedList.size() + 1) & CancellationToken.CHECK_MASK) == 0 && token.isCancelled()) {
+                status = token.getStatus();
+                break;
+            }
+            // IF more than one vertex is ready then it means that the graph has more than one topological sort
+            // solution.
+            int vertex = ready[--numReady];
+            sortedList.add(vertex);
 
-                if (updatedIndegree == 0) {
-                    queue.add(adjacentVertex);
+            for (int adjacentVertex : graph.getAdjacentVertices(vertex)) {
+                relaxed++;
+                if (--indegrees[adjacentVertex] == 0) {
+                    ready[numReady++] = adjacentVertex;
                 }
             }
         }
+        run.addVerticesSettled(sortedList.size());
+        run.addEdgesRelaxed(relaxed);
+        run.finish();
         // If the following is true, the graph has a cycle and cannot be topologically sorted.
-        if (sortedList.size() != graph.getNumVertices()) {
+        if (status == RunStatus.COMPLETED && sortedList.size() != numVertices) {
             throw new RuntimeException("The graph has a cycle.");
         }
 
-        return sortedList;
+        return new PartialResult<>(sortedList, status);
     }
 
-    // Helper method to build a distance table for shortest path calculation
-    private static Map<Integer, DistanceInfo> buildDistanceTable(Graph graph, int source) {
-        Map<Integer, DistanceInfo> distanceTable = new HashMap<>();
-        for (int j = 0; j < graph.getNumVertices(); j++) {
-            // Set an entry in the distance table for every vertex in the graph
-            distanceTable.put(j, new DistanceInfo(false));
+    // Build the shortest path tree of an unweighted graph with a breadth first search. A vertex that cannot be reached
+    // has a distance and last vertex of -1.
+    public static ShortestPathTree buildShortestPathTree(Graph graph, int source) {
+        int numVertices = graph.getNumVertices();
+        if (source >= numVertices || source < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
         }
+        AlgorithmRun run = AlgorithmMetrics.start("bfs");
+        int[] distances = new int[numVertices];
+        int[] lastVertices = new int[numVertices];
+        Arrays.fill(distances, -1);
+        Arrays.fill(lastVertices, -1);
 
         // Initialize the distance to the source and the last vertex in the path to the source.
-        distanceTable.get(source).setDistance(0);
-        distanceTable.get(source).setLastVertex(source);
-        // Initialize a queue, and add the source
-        LinkedList<Integer> queue = new LinkedList<>();
-        queue.add(source);
-
-        while (!queue.isEmpty()) {
-            int currentVertex = queue.pollFirst();
-            for (int i : graph.getAdjacentVertices(currentVertex)) {
-                int currentDistance = distanceTable.get(i).getDistance();
-                // IF the vertex is seen for the first time, then update it's entry in the distance table.
-                if (currentDistance == -1) {
-                    currentDistance = 1 + distanceTable.get(currentVertex).getDistance();
-                    distanceTable.get(i).setDistance(currentDistance);
-                    distanceTable.get(i).setLastVertex(currentVertex);
-                    // Enqueue the neighbor only if it has other adjacent vertices
-                    if (!graph.getAdjacentVertices(i).isEmpty()) {
-                        queue.add(i);
+        distances[source] = 0;
+        lastVertices[source] = source;
+        long relaxed = 0;
+        int tail;
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) {
+            int[] queue = workspace.getScratch(0);
+            int head = 0;
+            tail = 0;
+            queue[tail++] = source;
+
+            while (head < tail) {
+                int currentVertex = queue[head++];
+                for (int v : graph.getAdjacentVertices(currentVertex)) {
+                    relaxed++;
+                    // IF the vertex is seen for the first time, then update it's entry in the distance table.
+                    if (distances[v] == -1) {
+                        distances[v] = distances[currentVertex] + 1;
+                        lastVertices[v] = currentVertex;
+                        queue[tail++] = v;
                     }
                 }
             }
         }
+        // Every vertex that entered the queue was settled.
+        run.addVerticesSettled(tail);
+        run.addEdgesRelaxed(relaxed);
+        run.finish();
 
-        return distanceTable;
+        return new ShortestPathTree(source, distances, lastVertices);
     }
 
-    // This will find the shortest path from the source to a destination for an unweighted graph
-    public static void findShortestPath(Graph graph, int source, int destination) {
-        // Build the distance table for the whole graph starting from the source node.
-        Map<Integer, DistanceInfo> distanceTable = buildDistanceTable(graph,source);
-        // Since this will involve backtracking, we will use a stack.
-        Stack<Integer> stack = new Stack<>();
-        stack.push(destination);
-
-        int previousVertex = distanceTable.get(destination).getLastVertex();
-        while(previousVertex != -1 && previousVertex != source) {
-            // Backtrack by getting the last vertex of every node and adding it to the stack.
-            stack.push(previousVertex);
-            previousVertex = distanceTable.get(previousVertex).getLastVertex();
-        }
-        // IF no valid last vertex was found in the distance table, there was no path from source to destination.
-        if (previousVertex == -1) {
-            System.out.println("There is no path from node: " + source + " to node: " + destination);
-        }
-        else {
-            System.out.print("The shortest path is: " + source);
-            while(!stack.isEmpty()) {
-                System.out.print(" -> " + stack.pop());
-            }
+    // This will find the shortest path from the source to a destination for an unweighted graph. It returns the
+    // vertices on the path, or an empty array IF there is no path. The search stops as soon as it reaches the
+    // destination and keeps its state in the workspace of the thread, so it only costs the part of the graph it
+    // explored.
+    public static int[] findShortestPath(Graph graph, int source, int destination) {
+        int numVertices = graph.getNumVertices();
+        if (source >= numVertices || source < 0 || destination >= numVertices || destination < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        AlgorithmRun run = AlgorithmMetrics.start("bfs");
+        long relaxed = 0;
+        int tail = 0;
+        try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) {
+            int[] queue = workspace.getScratch(0);
+            int head = 0;
+            queue[tail++] = source;
+            workspace.set(source, 0, source);
 
-            System.out.println();
+            while (head < tail && !workspace.isVisited(destination)) {
+                int currentVertex = queue[head++];
+                long distance = workspace.getDistance(currentVertex) + 1;
+                for (int v : graph.getAdjacentVertices(currentVertex)) {
+                    relaxed++;
+                    if (!workspace.isVisited(v)) {
+                        workspace.set(v, distance, currentVertex);
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            return workspace.getPath(source, destination);
+        } finally {
+            run.addVerticesSettled(tail);
+            run.addEdgesRelaxed(relaxed);
+            run.finish();
         }
     }
 
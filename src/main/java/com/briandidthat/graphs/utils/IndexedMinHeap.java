@@ -0,0 +1,125 @@
+package com.briandidthat.graphs.utils;
+
+import java.util.Arrays;
+
+/**
+ * This is a binary min heap of vertex ids keyed by a long priority, stored entirely in primitive arrays. Unlike a
+ * PriorityQueue of VertexInfo objects, it knows where each vertex sits in the heap, so lowering the priority of a
+ * vertex is an O(log V) decrease-key instead of an O(V) remove followed by a new insert.
+ *
+ * time-complexity: add/decreaseKey/poll O(log V), contains/peek O(1)
+ */
+public class IndexedMinHeap {
+    private int[] heap;
+    private long[] keys;
+    // The position of every vertex in the heap array, or -1 if the vertex is not in the heap.
+    private int[] positions;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new long[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int vertex) {
+        return positions[vertex] != -1;
+    }
+
+    public long getKey(int vertex) {
+        return keys[vertex];
+    }
+
+    // Adds the vertex, or lowers its key IF it is already in the heap with a higher key. Returns false if nothing changed.
+    public boolean offer(int vertex, long key) {
+        if (positions[vertex] == -1) {
+            keys[vertex] = key;
+            heap[size] = vertex;
+            positions[vertex] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (key < keys[vertex]) {
+            keys[vertex] = key;
+            siftUp(positions[vertex]);
+            return true;
+        }
+        return false;
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    public long peekKey() {
+        return keys[heap[0]];
+    }
+
+    // Removes and returns the vertex with the lowest key.
+    public int poll() {
+        int vertex = heap[0];
+        positions[vertex] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return vertex;
+    }
+
+    // Empties the heap in O(size) so it can be reused by the next search.
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int vertex = heap[index];
+        long key = keys[vertex];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            positions[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = vertex;
+        positions[vertex] = index;
+    }
+
+    private void siftDown(int index) {
+        int vertex = heap[index];
+        long key = keys[vertex];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[heap[child]] >= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            positions[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = vertex;
+        positions[vertex] = index;
+    }
+}
@@ -0,0 +1,94 @@
+package com.briandidthat.graphs.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * This class contains helper methods for splitting work over a range of vertex ids across a fork join pool. It's
+ * constructor is private to restrict instantiation of the class. The methods will be static.
+ */
+
+public class ParallelHelper {
+    // Ranges smaller than this are not worth handing to another thread.
+    private static final int MIN_CHUNK_SIZE = 1024;
+    // Create a few more chunks than threads so a slow chunk does not leave the other threads idle.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelHelper() {}
+
+    // A unit of work covering the ids from start (inclusive) to end (exclusive).
+    public interface RangeTask {
+        void run(int start, int end);
+    }
+
+    // Runs the task over [0, size) split into contiguous chunks on the common pool.
+    public static void forEachRange(int size, RangeTask task) {
+        forEachRange(ForkJoinPool.commonPool(), size, task);
+    }
+
+    // Runs the task over [0, size) split into contiguous chunks on the given pool. This blocks until every chunk is done.
+    public static void forEachRange(ForkJoinPool pool, int size, RangeTask task) {
+        forEachRange(pool, size, MIN_CHUNK_SIZE, task);
+    }
+
+    // The same as above, for work where even a handful of ids is expensive enough to hand to another thread.
+    public static void forEachRange(ForkJoinPool pool, int size, int minChunkSize, RangeTask task) {
+        if (size <= 0) {
+            return;
+        }
+
+        int numChunks = numChunks(pool, size, minChunkSize);
+        // IF there is only one chunk, run it on the calling thread and skip the pool entirely.
+        if (numChunks == 1) {
+            task.run(0, size);
+            return;
+        }
+
+        int chunkSize = (size + numChunks - 1) / numChunks;
+        List<RecursiveAction> actions = new ArrayList<>(numChunks);
+        for (int start = 0; start < size; start += chunkSize) {
+            int chunkStart = start;
+            int chunkEnd = Math.min(size, start + chunkSize);
+            actions.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    task.run(chunkStart, chunkEnd);
+                }
+            });
+        }
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(actions);
+            }
+        });
+    }
+
+    // Runs the action once for every id in [0, size) on the common pool.
+    public static void forEach(int size, IntConsumer action) {
+        forEach(ForkJoinPool.commonPool(), size, action);
+    }
+
+    // Runs the action once for every id in [0, size) on the given pool.
+    public static void forEach(ForkJoinPool pool, int size, IntConsumer action) {
+        forEachRange(pool, size, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                action.accept(i);
+            }
+        });
+    }
+
+    // The number of chunks forEachRange will split a range of the given size into.
+    public static int numChunks(ForkJoinPool pool, int size) {
+        return numChunks(pool, size, MIN_CHUNK_SIZE);
+    }
+
+    private static int numChunks(ForkJoinPool pool, int size, int minChunkSize) {
+        int maxChunks = Math.max(1, size / minChunkSize);
+        return Math.max(1, Math.min(maxChunks, pool.getParallelism() * CHUNKS_PER_THREAD));
+    }
+}
@@ -0,0 +1,157 @@
+package com.briandidthat.graphs.utils;
+
+import java.util.Arrays;
+
+/**
+ * This class is a pool of the arrays a graph search needs, kept per thread so searches on different threads never
+ * share them. Every acquire starts a new epoch, and an entry of a vertex is only valid IF its stamp equals the current
+ * epoch, so a search starts in O(1) instead of clearing O(V) arrays, and it only ever touches the vertices it explores.
+ * A small query on a huge graph then costs O(explored) rather than O(V) in allocation and initialization.
+ *
+ * The arrays grow to the largest graph the thread has searched and are kept until trim() is called. The heap and the
+ * scratch arrays are only allocated the first time they are asked for. IF a thread acquires a workspace while it still
+ * holds one (a search inside a search), it gets a new one that is not pooled. A workspace is released by closing it:
+ *
+ *     try (SearchWorkspace workspace = SearchWorkspace.acquire(numVertices)) { ... }
+ */
+public class SearchWorkspace implements AutoCloseable {
+    public static final int NUM_SCRATCH = 3;
+
+    private static final ThreadLocal<SearchWorkspace> POOL = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    private int capacity;
+    private int epoch;
+    private boolean inUse;
+    // stamps[v] == epoch IF v has an entry (visited, with a distance and last vertex). marks is a second, separate set.
+    private int[] stamps = new int[0];
+    private int[] marks = new int[0];
+    private long[] distances = new long[0];
+    private int[] lastVertices = new int[0];
+    private int[][] scratch = new int[NUM_SCRATCH][0];
+    private long[] longScratch = new long[0];
+    private IndexedMinHeap heap;
+
+    private SearchWorkspace() {}
+
+    // Returns the workspace of this thread for a graph of numVertices vertices, with no vertex visited or marked.
+    public static SearchWorkspace acquire(int numVertices) {
+        SearchWorkspace workspace = POOL.get();
+        if (workspace.inUse) {
+            workspace = new SearchWorkspace();
+        }
+        workspace.inUse = true;
+        workspace.ensureCapacity(numVertices);
+        if (++workspace.epoch == 0) {
+            Arrays.fill(workspace.stamps, 0);
+            Arrays.fill(workspace.marks, 0);
+            workspace.epoch = 1;
+        }
+        return workspace;
+    }
+
+    // Drops the arrays of this thread, for example after searching a graph that is much larger than the usual ones.
+    public static void trim() {
+        POOL.remove();
+    }
+
+    private void ensureCapacity(int numVertices) {
+        if (numVertices > capacity) {
+            capacity = numVertices;
+            stamps = new int[capacity];
+            distances = new long[capacity];
+            lastVertices = new int[capacity];
+            // The other arrays are replaced when they are next asked for.
+            marks = new int[0];
+            heap = null;
+            epoch = 0;
+        }
+    }
+
+    public boolean isVisited(int v) {
+        return stamps[v] == epoch;
+    }
+
+    // Visits the vertex without a distance or last vertex.
+    public void visit(int v) {
+        set(v, Long.MAX_VALUE, -1);
+    }
+
+    // Visits the vertex, or updates it IF it was visited already.
+    public void set(int v, long distance, int lastVertex) {
+        stamps[v] = epoch;
+        distances[v] = distance;
+        lastVertices[v] = lastVertex;
+    }
+
+    // Returns Long.MAX_VALUE IF the vertex has not been visited.
+    public long getDistance(int v) {
+        return stamps[v] == epoch ? distances[v] : Long.MAX_VALUE;
+    }
+
+    // Returns -1 IF the vertex has not been visited.
+    public int getLastVertex(int v) {
+        return stamps[v] == epoch ? lastVertices[v] : -1;
+    }
+
+    // Returns the vertices from the source to the destination by following the last vertices, or an empty array IF the
+    // destination has not been visited.
+    public int[] getPath(int source, int destination) {
+        if (!isVisited(destination)) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int v = destination; v != source; v = lastVertices[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int i = length - 1, v = destination; i >= 0; i--, v = lastVertices[v]) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    public boolean isMarked(int v) {
+        return marks.length > v && marks[v] == epoch;
+    }
+
+    public void mark(int v) {
+        if (marks.length < capacity) {
+            marks = new int[capacity];
+        }
+        marks[v] = epoch;
+    }
+
+    // An int array of at least numVertices entries, for a queue or a stack. It is not cleared between searches.
+    public int[] getScratch(int index) {
+        if (scratch[index].length < capacity) {
+            scratch[index] = new int[capacity];
+        }
+        return scratch[index];
+    }
+
+    // A long array of at least numVertices entries, for a search that needs a dense table. It is not cleared between
+    // searches and is not tied to the stamps.
+    public long[] getLongScratch() {
+        if (longScratch.length < capacity) {
+            longScratch = new long[capacity];
+        }
+        return longScratch;
+    }
+
+    // An empty heap with room for every vertex.
+    public IndexedMinHeap getHeap() {
+        if (heap == null) {
+            heap = new IndexedMinHeap(capacity);
+        }
+        return heap;
+    }
+
+    // Empties the heap and hands the workspace back to the pool.
+    @Override
+    public void close() {
+        if (heap != null) {
+            heap.clear();
+        }
+        inUse = false;
+    }
+}
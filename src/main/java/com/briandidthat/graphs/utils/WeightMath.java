@@ -0,0 +1,45 @@
+package com.briandidthat.graphs.utils;
+
+/**
+ * This class holds the arithmetic the shortest path and spanning tree algorithms use for long and double weights. Long
+ * distances saturate at Long.MAX_VALUE and Long.MIN_VALUE instead of wrapping around, so an unreachable (infinite)
+ * distance plus an edge stays infinite. Double distances need no help there, since they already overflow to infinity.
+ * Double weights are turned into long keys that sort the same way, so they can go in an IndexedMinHeap or a long sort.
+ * It's constructor is private to restrict instantiation of the class.
+ */
+public class WeightMath {
+    private WeightMath() {}
+
+    // a + b, clamped to the range of a long instead of overflowing.
+    public static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        // The sum overflowed IF both operands have the same sign and the sum has the other one.
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return sum;
+    }
+
+    // Narrows a distance to an int, for the algorithms that return int distances. The unreachable distance maps to
+    // Integer.MAX_VALUE, the same value the int algorithms use.
+    public static int toIntDistance(long distance) {
+        if (distance == Long.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        if (distance >= Integer.MAX_VALUE || distance < Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("The distances do not fit in an int. Use the long weights instead.");
+        }
+        return (int) distance;
+    }
+
+    // A long that orders the same way as the double: the bits of a positive double already sort like its value, and
+    // flipping all but the sign bit of a negative one makes those sort in reverse, below the positive ones.
+    public static long sortableKey(double value) {
+        long bits = Double.doubleToLongBits(value == 0.0 ? 0.0 : value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    public static double fromSortableKey(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+    }
+}
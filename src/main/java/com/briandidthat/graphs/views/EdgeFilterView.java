@@ -0,0 +1,64 @@
+package com.briandidthat.graphs.views;
+
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.GraphListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A view with only the edges of the base graph that pass a predicate, for example the edges under a weight threshold.
+ * The predicate gets the weight of the edge, or 1 IF the base is unweighted. On an undirected graph the predicate sees
+ * every edge from both ends, so it should give the same answer for v1 -> v2 as for v2 -> v1. The predicate works on
+ * ints, so a base with long or double weights can only be filtered IF its weights fit in an int.
+ */
+public class EdgeFilterView extends GraphView {
+    private EdgePredicate predicate;
+
+    public interface EdgePredicate {
+        boolean test(int v1, int v2, int weight);
+    }
+
+    public EdgeFilterView(Graph base, EdgePredicate predicate) {
+        super(base);
+        this.predicate = predicate;
+    }
+
+    // A filtered out edge has a weight of 0, the same as a missing edge.
+    @Override
+    public int getWeightedEdge(int v1, int v2) {
+        int weight = getBase().getWeightedEdge(v1, v2);
+        return weight != 0 && predicate.test(v1, v2, weight) ? weight : 0;
+    }
+
+    @Override
+    public List<Integer> getAdjacentVertices(int v) {
+        Graph base = getBase();
+        boolean weighted = base.isWeighted();
+        List<Integer> neighbors = base.getAdjacentVertices(v);
+        List<Integer> adjacent = new ArrayList<>(neighbors.size());
+        for (int neighbor : neighbors) {
+            if (predicate.test(v, neighbor, weighted ? base.getWeightedEdge(v, neighbor) : 1)) {
+                adjacent.add(neighbor);
+            }
+        }
+        return adjacent;
+    }
+
+    @Override
+    protected void baseEdgeChanged(int v1, int v2, GraphListener.Change change, long previousWeight, long weight) {
+        boolean wasInView = change != GraphListener.Change.ADDED && passes(v1, v2, previousWeight);
+        boolean isInView = change != GraphListener.Change.REMOVED && passes(v1, v2, weight);
+        if (wasInView && isInView) {
+            notifyListeners(v1, v2, change, previousWeight, weight);
+        } else if (wasInView) {
+            notifyListeners(v1, v2, GraphListener.Change.REMOVED, previousWeight, 0);
+        } else if (isInView) {
+            notifyListeners(v1, v2, GraphListener.Change.ADDED, 0, weight);
+        }
+    }
+
+    private boolean passes(int v1, int v2, long weight) {
+        return predicate.test(v1, v2, getBase().isWeighted() ? toIntWeight(weight) : 1);
+    }
+}
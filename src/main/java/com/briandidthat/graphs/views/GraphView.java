@@ -0,0 +1,130 @@
+package com.briandidthat.graphs.views;
+
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.GraphListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The base of the read-only graph views. A view wraps a base graph and answers every query by looking at the base, so
+ * creating one costs next to nothing and changes to the base show through straight away. Adjacency lists are worked
+ * out on every call, which makes a view cheaper in memory but slower to read than a copy; an algorithm that reads the
+ * same view many times can take an AdjacencyArrays snapshot of it first.
+ *
+ * The version of a view is the version of its base. Listeners added to a view hear about the changes to the base that
+ * are part of the view, in the ids and weights of the view. Views can be stacked on top of each other.
+ */
+public abstract class GraphView implements Graph {
+    private Graph base;
+    private List<GraphListener> listeners;
+    private GraphListener baseListener;
+
+    protected GraphView(Graph base) {
+        this.base = base;
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    public Graph getBase() {
+        return base;
+    }
+
+    @Override
+    public GraphType graphType() {
+        return base.graphType();
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return base.isWeighted();
+    }
+
+    @Override
+    public WeightType weightType() {
+        return base.weightType();
+    }
+
+    @Override
+    public void addEdge(int v1, int v2) {
+        throw new UnsupportedOperationException("Graph views are read-only.");
+    }
+
+    @Override
+    public void addEdge(int v1, int v2, int weight) {
+        throw new UnsupportedOperationException("Graph views are read-only.");
+    }
+
+    @Override
+    public int getNumVertices() {
+        return base.getNumVertices();
+    }
+
+    @Override
+    public int getIndegree(int v) {
+        checkVertex(v);
+        int inDegree = 0;
+        for (int i = 0; i < getNumVertices(); i++) {
+            if (getAdjacentVertices(i).contains(v)) {
+                inDegree++;
+            }
+        }
+        return inDegree;
+    }
+
+    @Override
+    public long getVersion() {
+        return base.getVersion();
+    }
+
+    // The view only listens to its base while it has listeners of its own.
+    @Override
+    public synchronized void addListener(GraphListener listener) {
+        if (baseListener == null) {
+            baseListener = (graph, v1, v2, change, previousWeight, weight) ->
+                    baseEdgeChanged(v1, v2, change, previousWeight, weight);
+            base.addListener(baseListener);
+        }
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void removeListener(GraphListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && baseListener != null) {
+            base.removeListener(baseListener);
+            baseListener = null;
+        }
+    }
+
+    // Called for every change to the base graph. A view translates it into its own ids and weights and passes it on
+    // with notifyListeners, or drops it IF the edge is not part of the view. The weights are in the base's weight type.
+    protected abstract void baseEdgeChanged(int v1, int v2, GraphListener.Change change, long previousWeight,
+                                            long weight);
+
+    protected void notifyListeners(int v1, int v2, GraphListener.Change change, long previousWeight, long weight) {
+        if (change == GraphListener.Change.WEIGHT_CHANGED && previousWeight == weight) {
+            return;
+        }
+        for (GraphListener listener : listeners) {
+            listener.edgeChanged(this, v1, v2, change, previousWeight, weight);
+        }
+    }
+
+    // Reads a weight of the base as an int, for the views whose functions work on ints. It throws like getWeightedEdge
+    // of the base would IF the weight is not an int.
+    protected int toIntWeight(long weight) {
+        if (base.weightType() == WeightType.DOUBLE) {
+            throw new IllegalArgumentException("The weights of this graph are not ints.");
+        }
+        if (weight > Integer.MAX_VALUE || weight < Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("The weight does not fit in an int.");
+        }
+        return (int) weight;
+    }
+
+    protected void checkVertex(int v) {
+        if (v >= getNumVertices() || v < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.briandidthat.graphs.views;
+
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.GraphListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A view of the subgraph induced by a set of vertices: those vertices and the edges between them. By default the
+ * vertices keep their ids, and the vertices outside of the set are still there but have no edges. IF compactIds is
+ * true, the view instead has one vertex per vertex in the set, numbered 0 to k - 1 in the order they were given, which
+ * is what algorithms that allocate per vertex want. Either way the view keeps one int per base vertex to map ids, and
+ * no edges.
+ */
+public class InducedSubgraphView extends GraphView {
+    private boolean compact;
+    // The base id of every view vertex. Only used for compact ids.
+    private int[] baseVertices;
+    // The view id of every base vertex, or -1 IF it is not in the subgraph.
+    private int[] viewIds;
+
+    public InducedSubgraphView(Graph base, int[] vertices) {
+        this(base, vertices, false);
+    }
+
+    public InducedSubgraphView(Graph base, int[] vertices, boolean compactIds) {
+        super(base);
+        this.compact = compactIds;
+        this.baseVertices = compactIds ? vertices.clone() : null;
+        this.viewIds = new int[base.getNumVertices()];
+        Arrays.fill(viewIds, -1);
+        for (int i = 0; i < vertices.length; i++) {
+            int v = vertices[i];
+            if (v >= viewIds.length || v < 0) {
+                throw new IllegalArgumentException("Invalid vertex number.");
+            }
+            if (viewIds[v] != -1) {
+                throw new IllegalArgumentException("The vertex " + v + " is listed twice.");
+            }
+            viewIds[v] = compactIds ? i : v;
+        }
+    }
+
+    @Override
+    public int getNumVertices() {
+        return compact ? baseVertices.length : viewIds.length;
+    }
+
+    // Whether a vertex of this view is one of the subgraph's vertices. With compact ids they all are.
+    public boolean contains(int v) {
+        checkVertex(v);
+        return compact || viewIds[v] != -1;
+    }
+
+    public int getBaseVertex(int v) {
+        checkVertex(v);
+        return compact ? baseVertices[v] : v;
+    }
+
+    // Returns the id in this view of a base vertex, or -1 IF it is not in the subgraph.
+    public int getViewVertex(int baseVertex) {
+        if (baseVertex >= viewIds.length || baseVertex < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+        return viewIds[baseVertex];
+    }
+
+    @Override
+    public int getWeightedEdge(int v1, int v2) {
+        // Ask the base first, so an unweighted base still throws.
+        int weight = getBase().getWeightedEdge(getBaseVertex(v1), getBaseVertex(v2));
+        return contains(v1) && contains(v2) ? weight : 0;
+    }
+
+    @Override
+    public long getLongWeightedEdge(int v1, int v2) {
+        long weight = getBase().getLongWeightedEdge(getBaseVertex(v1), getBaseVertex(v2));
+        return contains(v1) && contains(v2) ? weight : 0;
+    }
+
+    @Override
+    public double getDoubleWeightedEdge(int v1, int v2) {
+        double weight = getBase().getDoubleWeightedEdge(getBaseVertex(v1), getBaseVertex(v2));
+        return contains(v1) && contains(v2) ? weight : 0;
+    }
+
+    @Override
+    public List<Integer> getAdjacentVertices(int v) {
+        if (!contains(v)) {
+            return Collections.emptyList();
+        }
+        List<Integer> neighbors = getBase().getAdjacentVertices(getBaseVertex(v));
+        List<Integer> adjacent = new ArrayList<>(neighbors.size());
+        for (int neighbor : neighbors) {
+            int id = viewIds[neighbor];
+            if (id != -1) {
+                adjacent.add(id);
+            }
+        }
+        return adjacent;
+    }
+
+    @Override
+    protected void baseEdgeChanged(int v1, int v2, GraphListener.Change change, long previousWeight, long weight) {
+        if (viewIds[v1] != -1 && viewIds[v2] != -1) {
+            notifyListeners(viewIds[v1], viewIds[v2], change, previousWeight, weight);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.briandidthat.graphs.views;
+
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.GraphListener;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A view of the base graph with every edge reversed. The weight of v1 -> v2 is the weight of v2 -> v1 in the base.
+ * Neither graph can list the incoming edges of a vertex without a full scan, so on first use this view builds an index
+ * of incoming edges (an AdjacencyArrays snapshot of the offsets and targets, without the weights), and rebuilds it
+ * when the version of the base changes. Weights are always read from the base. An undirected graph is its own
+ * transpose and needs no index.
+ */
+public class TransposeView extends GraphView {
+    private AdjacencyArrays incoming;
+    private long incomingVersion;
+
+    public TransposeView(Graph base) {
+        super(base);
+        this.incomingVersion = -1;
+    }
+
+    @Override
+    public int getWeightedEdge(int v1, int v2) {
+        return getBase().getWeightedEdge(v2, v1);
+    }
+
+    @Override
+    public long getLongWeightedEdge(int v1, int v2) {
+        return getBase().getLongWeightedEdge(v2, v1);
+    }
+
+    @Override
+    public double getDoubleWeightedEdge(int v1, int v2) {
+        return getBase().getDoubleWeightedEdge(v2, v1);
+    }
+
+    @Override
+    public int getIndegree(int v) {
+        return getBase().getAdjacentVertices(v).size();
+    }
+
+    @Override
+    public List<Integer> getAdjacentVertices(int v) {
+        if (graphType() == GraphType.UNDIRECTED) {
+            return getBase().getAdjacentVertices(v);
+        }
+        checkVertex(v);
+        AdjacencyArrays index = getIncoming();
+        int[] offsets = index.getOffsets();
+        return new IntRange(index.getTargets(), offsets[v], offsets[v + 1]);
+    }
+
+    @Override
+    protected void baseEdgeChanged(int v1, int v2, GraphListener.Change change, long previousWeight, long weight) {
+        notifyListeners(v2, v1, change, previousWeight, weight);
+    }
+
+    private synchronized AdjacencyArrays getIncoming() {
+        long version = getBase().getVersion();
+        if (incoming == null || incomingVersion != version) {
+            incoming = new AdjacencyArrays(getBase(), true, false);
+            incomingVersion = version;
+        }
+        return incoming;
+    }
+
+    // A read-only list over part of an int array.
+    private static class IntRange extends AbstractList<Integer> implements RandomAccess {
+        private int[] values;
+        private int start;
+        private int end;
+
+        private IntRange(int[] values, int start, int end) {
+            this.values = values;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Integer get(int index) {
+            if (index >= end - start || index < 0) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return values[start + index];
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
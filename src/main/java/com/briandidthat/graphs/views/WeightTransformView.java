@@ -0,0 +1,65 @@
+package com.briandidthat.graphs.views;
+
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.GraphListener;
+
+import java.util.List;
+
+/**
+ * A view with the same edges as the base graph but different weights, for example scaled or negated weights for a
+ * what-if analysis. The function gets the weight of the base edge, or 1 IF the base is unweighted, so the view is
+ * always weighted. The function should not return 0, which means there is no edge.
+ */
+public class WeightTransformView extends GraphView {
+    private WeightFunction function;
+
+    public interface WeightFunction {
+        int apply(int v1, int v2, int weight);
+    }
+
+    public WeightTransformView(Graph base, WeightFunction function) {
+        super(base);
+        this.function = function;
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return true;
+    }
+
+    // The function works on ints, so the view has int weights whatever the base has.
+    @Override
+    public WeightType weightType() {
+        return WeightType.INT;
+    }
+
+    @Override
+    public int getWeightedEdge(int v1, int v2) {
+        Graph base = getBase();
+        int weight;
+        if (base.isWeighted()) {
+            weight = base.getWeightedEdge(v1, v2);
+        } else {
+            weight = base.getAdjacentVertices(v1).contains(v2) ? 1 : 0;
+        }
+        return weight == 0 ? 0 : function.apply(v1, v2, weight);
+    }
+
+    @Override
+    public List<Integer> getAdjacentVertices(int v) {
+        return getBase().getAdjacentVertices(v);
+    }
+
+    @Override
+    protected void baseEdgeChanged(int v1, int v2, GraphListener.Change change, long previousWeight, long weight) {
+        notifyListeners(v1, v2, change, transform(v1, v2, change != GraphListener.Change.ADDED, previousWeight),
+                transform(v1, v2, change != GraphListener.Change.REMOVED, weight));
+    }
+
+    private int transform(int v1, int v2, boolean isEdge, long weight) {
+        if (!isEdge) {
+            return 0;
+        }
+        return function.apply(v1, v2, getBase().isWeighted() ? toIntWeight(weight) : 1);
+    }
+}
@@ -0,0 +1,227 @@
+package com.briandidthat.graphs.web;
+
+import com.briandidthat.graphs.algorithms.BellmanFord;
+import com.briandidthat.graphs.algorithms.Djikstras;
+import com.briandidthat.graphs.algorithms.GraphTraversal;
+import com.briandidthat.graphs.algorithms.Kruskals;
+import com.briandidthat.graphs.algorithms.Prims;
+import com.briandidthat.graphs.algorithms.ShortestDistance;
+import com.briandidthat.graphs.algorithms.ShortestPathQueryEngine;
+import com.briandidthat.graphs.algorithms.ShortestPathTreeBuilder;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.QueryResults;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.model.SpanningTree;
+import com.briandidthat.graphs.utils.CancellationToken;
+import com.briandidthat.graphs.utils.GraphHelper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The REST API of the graph service. Graphs are uploaded as an edge list in the request body and read as a stream.
+ * Every query runs on the QueryExecutor, so the servlet thread is released while it runs. Results that grow with the
+ * graph (traversals, orderings, spanning trees and query batches) are streamed back as newline delimited JSON, one
+ * object per line, rather than being built up as one big document.
+ */
+@RestController
+@RequestMapping("/graphs")
+public class GraphController {
+    // Spring 5.2 does not have a constant for newline delimited JSON yet.
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private GraphService graphService;
+    private QueryExecutor queryExecutor;
+
+    public GraphController(GraphService graphService, QueryExecutor queryExecutor) {
+        this.graphService = graphService;
+        this.queryExecutor = queryExecutor;
+    }
+
+    // The body is read straight from the request stream, so a large upload is never buffered as a whole.
+    @PostMapping
+    public ResponseEntity<GraphSummary> upload(HttpServletRequest request,
+                                               @RequestParam int vertices,
+                                               @RequestParam(defaultValue = "DIRECTED") Graph.GraphType type,
+                                               @RequestParam(defaultValue = "false") boolean weighted)
+            throws IOException {
+        String id = graphService.upload(request.getInputStream(), vertices, type, weighted);
+        return ResponseEntity.status(HttpStatus.CREATED).body(new GraphSummary(id, graphService.getGraph(id)));
+    }
+
+    @GetMapping("/{id}")
+    public GraphSummary getGraph(@PathVariable String id) {
+        return new GraphSummary(id, graphService.getGraph(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteGraph(@PathVariable String id) {
+        graphService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/shortest-path")
+    public DeferredResult<PathResponse> findShortestPath(@PathVariable String id,
+                                                         @RequestParam int source,
+                                                         @RequestParam int destination,
+                                                         @RequestParam(defaultValue = "dijkstra") String algorithm) {
+        Graph graph = graphService.getGraph(id);
+        ShortestPathTreeBuilder builder = getBuilder(algorithm);
+        checkVertex(graph, source);
+        checkVertex(graph, destination);
+        CancellationToken token = queryExecutor.newCancellationToken();
+        return queryExecutor.submit(() -> {
+            ShortestPathTree tree = builder.buildShortestPathTree(graph, source, token);
+            // A path from a stopped search may not be the shortest one, so do not pass it off as an answer.
+            if (!tree.isComplete()) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The query timed out.");
+            }
+            long distance = tree.hasPath(destination) ? tree.getDistance(destination) : -1;
+            return new PathResponse(source, destination, distance, tree.getPath(destination));
+        });
+    }
+
+    // Answers a batch of queries with the query engine and streams one line per query, in the order of the request.
+    // IF the batch reaches the query deadline, the queries it did not get to are streamed with "answered":false.
+    @PostMapping("/{id}/shortest-paths")
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> findShortestPaths(
+            @PathVariable String id, @RequestBody ShortestPathsRequest request) {
+        if (request.getSources() == null || request.getDestinations() == null) {
+            throw new IllegalArgumentException("Every query needs a source and a destination.");
+        }
+        int[] sources = request.getSources();
+        int[] destinations = request.getDestinations();
+        ShortestPathQueryEngine engine = graphService.getQueryEngine(id);
+        CancellationToken token = queryExecutor.newCancellationToken();
+        return queryExecutor.submit(() -> {
+            QueryResults results = engine.execute(sources, destinations, false, token);
+            return ndjson(writer -> {
+                for (int i = 0; i < results.getNumQueries(); i++) {
+                    writer.write("{\"source\":" + sources[i] + ",\"destination\":" + destinations[i] +
+                            (results.isAnswered(i) ? ",\"distance\":" + results.getDistance(i)
+                                    : ",\"answered\":false") + "}\n");
+                }
+            });
+        });
+    }
+
+    @GetMapping("/{id}/spanning-tree")
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> spanningTree(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "kruskals") String algorithm,
+            @RequestParam(defaultValue = "0") int source) {
+        Graph graph = graphService.getGraph(id);
+        if (!algorithm.equals("kruskals") && !algorithm.equals("prims")) {
+            throw new IllegalArgumentException("Unknown spanning tree algorithm: " + algorithm + ".");
+        }
+        CancellationToken token = queryExecutor.newCancellationToken();
+        return queryExecutor.submit(() -> {
+            SpanningTree tree = complete(algorithm.equals("prims") ? new Prims().spanningTree(graph, source, token)
+                    : new Kruskals().spanningTree(graph, token));
+            return ndjson(writer -> {
+                for (int i = 0; i < tree.getNumEdges(); i++) {
+                    writer.write("{\"vertex1\":" + tree.getVertex1(i) + ",\"vertex2\":" + tree.getVertex2(i) +
+                            ",\"weight\":" + tree.getWeight(i) + "}\n");
+                }
+            });
+        });
+    }
+
+    @GetMapping("/{id}/topological-sort")
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> topologicalSort(@PathVariable String id) {
+        Graph graph = graphService.getGraph(id);
+        CancellationToken token = queryExecutor.newCancellationToken();
+        return queryExecutor.submit(() -> {
+            List<Integer> order = complete(GraphHelper.topologicalSort(graph, token));
+            return ndjson(writer -> {
+                for (int vertex : order) {
+                    writer.write("{\"vertex\":" + vertex + "}\n");
+                }
+            });
+        });
+    }
+
+    @GetMapping("/{id}/traversal")
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> traverse(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "bfs") String order,
+            @RequestParam(defaultValue = "0") int start) {
+        Graph graph = graphService.getGraph(id);
+        if (!order.equals("bfs") && !order.equals("dfs")) {
+            throw new IllegalArgumentException("Unknown traversal order: " + order + ".");
+        }
+        checkVertex(graph, start);
+        CancellationToken token = queryExecutor.newCancellationToken();
+        return queryExecutor.submit(() -> {
+            int[] vertices = complete(order.equals("bfs") ? GraphHelper.breadthFirstTraversal(graph, start, token)
+                    : GraphHelper.depthFirstTraversal(graph, start, token));
+            return ndjson(writer -> {
+                for (int vertex : vertices) {
+                    writer.write("{\"vertex\":" + vertex + "}\n");
+                }
+            });
+        });
+    }
+
+    private ShortestPathTreeBuilder getBuilder(String algorithm) {
+        switch (algorithm) {
+            case "bfs":
+                return new GraphTraversal();
+            case "dijkstra":
+                return new Djikstras();
+            case "bellman-ford":
+                return new BellmanFord();
+            case "shortest-distance":
+                return new ShortestDistance();
+            default:
+                throw new IllegalArgumentException("Unknown shortest path algorithm: " + algorithm + ".");
+        }
+    }
+
+    // A stopped run only has part of the answer, and these endpoints have no way to say which part, so it is a timeout.
+    private <T> T complete(PartialResult<T> result) {
+        if (!result.isComplete()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The query timed out.");
+        }
+        return result.getValue();
+    }
+
+    private void checkVertex(Graph graph, int v) {
+        if (v >= graph.getNumVertices() || v < 0) {
+            throw new IllegalArgumentException("Invalid vertex number.");
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(LineWriter lines) {
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            lines.write(writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private interface LineWriter {
+        void write(Writer writer) throws IOException;
+    }
+}
@@ -0,0 +1,9 @@
+package com.briandidthat.graphs.web;
+
+public class GraphNotFoundException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public GraphNotFoundException(String id) {
+        super("There is no graph with id " + id + ".");
+    }
+}
@@ -0,0 +1,115 @@
+package com.briandidthat.graphs.web;
+
+import com.briandidthat.graphs.algorithms.ShortestPathQueryEngine;
+import com.briandidthat.graphs.io.GraphReader;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This service keeps the uploaded graphs in memory under a generated id. A graph is only published once it has been
+ * read completely, so queries never see a half loaded graph. The stored graphs are not changed afterwards, which is
+ * what makes it safe for several queries to read one graph at the same time.
+ *
+ * The graph is allocated before a single edge has been read, so the number of vertices an upload may ask for is capped
+ * by graphs.upload.max-vertices. Both representations are sparse, so the rest of the memory grows with the edges that
+ * actually arrive, and graphs.upload.max-edges stops an upload while it streams in once it has sent too many. The
+ * number of graphs held at once is capped by graphs.upload.max-graphs. A slot is taken before an upload is read and
+ * given back IF the upload fails or the graph is deleted, so concurrent uploads cannot overshoot the cap.
+ */
+@Service
+public class GraphService {
+    private Map<String, Graph> graphs;
+    private Map<String, ShortestPathQueryEngine> engines;
+    private int maxVertices;
+    private long maxEdges;
+    private int maxGraphs;
+    // The graphs stored plus the uploads in progress.
+    private AtomicInteger numSlots;
+
+    public GraphService(@Value("${graphs.upload.max-vertices:1000000}") int maxVertices,
+                        @Value("${graphs.upload.max-edges:10000000}") long maxEdges,
+                        @Value("${graphs.upload.max-graphs:64}") int maxGraphs) {
+        if (maxVertices < 1) {
+            throw new IllegalArgumentException("The vertex limit must be at least 1.");
+        }
+        if (maxEdges < 0) {
+            throw new IllegalArgumentException("The edge limit must not be negative.");
+        }
+        if (maxGraphs < 1) {
+            throw new IllegalArgumentException("The graph limit must be at least 1.");
+        }
+        this.maxVertices = maxVertices;
+        this.maxEdges = maxEdges;
+        this.maxGraphs = maxGraphs;
+        this.numSlots = new AtomicInteger();
+        this.graphs = new ConcurrentHashMap<>();
+        this.engines = new ConcurrentHashMap<>();
+    }
+
+    // Reads an edge list with one edge per line, "v1 v2" or "v1 v2 weight" for a weighted graph. The stream is read in
+    // blocks by the GraphReader, so the upload is never held in memory as a whole.
+    public String upload(InputStream in, int vertices, Graph.GraphType graphType, boolean weighted) throws IOException {
+        if (vertices <= 0) {
+            throw new IllegalArgumentException("The number of vertices must be positive.");
+        }
+        if (vertices > maxVertices) {
+            throw new IllegalArgumentException("A graph can have at most " + maxVertices + " vertices.");
+        }
+        if (numSlots.incrementAndGet() > maxGraphs) {
+            numSlots.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.INSUFFICIENT_STORAGE,
+                    "The server already holds " + maxGraphs + " graphs. Delete one before uploading another.");
+        }
+
+        boolean stored = false;
+        try {
+            Graph graph = weighted ? new WeightedAdjacencyListGraph(vertices, Graph.WeightType.INT, graphType)
+                    : new AdjacencySetGraph(vertices, graphType);
+
+            GraphReader.readEdgeList(in, graph, maxEdges);
+
+            String id = UUID.randomUUID().toString();
+            graphs.put(id, graph);
+            stored = true;
+            return id;
+        } finally {
+            if (!stored) {
+                numSlots.decrementAndGet();
+            }
+        }
+    }
+
+    public Graph getGraph(String id) {
+        Graph graph = graphs.get(id);
+        if (graph == null) {
+            throw new GraphNotFoundException(id);
+        }
+        return graph;
+    }
+
+    // One query engine per graph, so the snapshot it builds is reused by every batch on that graph.
+    public ShortestPathQueryEngine getQueryEngine(String id) {
+        Graph graph = getGraph(id);
+        return engines.computeIfAbsent(id, key -> new ShortestPathQueryEngine(graph));
+    }
+
+    public void delete(String id) {
+        if (graphs.remove(id) == null) {
+            throw new GraphNotFoundException(id);
+        }
+        engines.remove(id);
+        numSlots.decrementAndGet();
+    }
+}
@@ -0,0 +1,33 @@
+package com.briandidthat.graphs.web;
+
+import com.briandidthat.graphs.model.Graph;
+
+public class GraphSummary {
+    private String id;
+    private int vertices;
+    private Graph.GraphType type;
+    private boolean weighted;
+
+    public GraphSummary(String id, Graph graph) {
+        this.id = id;
+        this.vertices = graph.getNumVertices();
+        this.type = graph.graphType();
+        this.weighted = graph.isWeighted();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getVertices() {
+        return vertices;
+    }
+
+    public Graph.GraphType getType() {
+        return type;
+    }
+
+    public boolean isWeighted() {
+        return weighted;
+    }
+}
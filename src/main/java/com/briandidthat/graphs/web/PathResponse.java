@@ -0,0 +1,32 @@
+package com.briandidthat.graphs.web;
+
+// The answer to a single shortest path query. A distance of -1 and an empty path mean there is no path.
+public class PathResponse {
+    private int source;
+    private int destination;
+    private long distance;
+    private int[] path;
+
+    public PathResponse(int source, int destination, long distance, int[] path) {
+        this.source = source;
+        this.destination = destination;
+        this.distance = distance;
+        this.path = path;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getDestination() {
+        return destination;
+    }
+
+    public long getDistance() {
+        return distance;
+    }
+
+    public int[] getPath() {
+        return path;
+    }
+}
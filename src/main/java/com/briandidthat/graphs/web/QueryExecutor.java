@@ -0,0 +1,94 @@
+package com.briandidthat.graphs.web;
+
+import com.briandidthat.graphs.utils.CancellationToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * This component runs the queries of the REST API off the servlet threads. The pool has a fixed number of threads and
+ * a bounded queue: once the queue is full, new queries are rejected straight away (and answered with 503) instead of
+ * piling up, which is the backpressure that keeps the service responsive under load. A query that does not finish
+ * within the timeout is answered with 503 as well and its thread is interrupted. Interrupting a thread does not stop
+ * the work on it by itself: only an algorithm that checks a cancellation token notices, and anything else keeps the
+ * thread busy until it is done. So every query should be given a token.
+ *
+ * The tokens have a deadline a little shorter than the timeout. Algorithms that check them stop at the deadline and
+ * return what they have, so a batch can answer the queries it finished instead of failing as a whole.
+ *
+ * It deliberately wraps the pool rather than being an Executor bean, so Spring Boot still sets up its own task executor
+ * for the streaming responses.
+ */
+@Component
+public class QueryExecutor {
+    private ThreadPoolExecutor pool;
+    private long timeoutMillis;
+    private long deadlineMillis;
+
+    public QueryExecutor(@Value("${graphs.query.threads:0}") int threads,
+                         @Value("${graphs.query.queue-capacity:256}") int queueCapacity,
+                         @Value("${graphs.query.timeout-millis:30000}") long timeoutMillis,
+                         @Value("${graphs.query.deadline-millis:25000}") long deadlineMillis) {
+        if (deadlineMillis >= timeoutMillis) {
+            throw new IllegalArgumentException("The query deadline must be shorter than the timeout.");
+        }
+        int numThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "graph-query-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // AbortPolicy throws a RejectedExecutionException when the queue is full.
+        this.pool = new ThreadPoolExecutor(numThreads, numThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public <T> DeferredResult<T> submit(Supplier<T> query) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        Future<?> future = pool.submit(() -> {
+            try {
+                result.setResult(query.get());
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            }
+        });
+        result.onTimeout(() -> {
+            future.cancel(true);
+            result.setErrorResult(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The query timed out."));
+        });
+        return result;
+    }
+
+    // A token for one query. It stops at the query deadline, or earlier IF the query times out and its thread is
+    // interrupted.
+    public CancellationToken newCancellationToken() {
+        return new CancellationToken(deadlineMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public int getQueueSize() {
+        return pool.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
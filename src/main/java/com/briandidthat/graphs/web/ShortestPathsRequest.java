@@ -0,0 +1,23 @@
+package com.briandidthat.graphs.web;
+
+// A batch of shortest path queries: query i goes from sources[i] to destinations[i].
+public class ShortestPathsRequest {
+    private int[] sources;
+    private int[] destinations;
+
+    public int[] getSources() {
+        return sources;
+    }
+
+    public void setSources(int[] sources) {
+        this.sources = sources;
+    }
+
+    public int[] getDestinations() {
+        return destinations;
+    }
+
+    public void setDestinations(int[] destinations) {
+        this.destinations = destinations;
+    }
+}
@@ -0,0 +1,99 @@
+package com.briandidthat.graphs;
+
+import com.briandidthat.graphs.model.AdjacencyMatrixGraph;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Small seeded random graphs and brute force reference answers for the algorithm tests. The references are the
+ * simplest correct versions (relax every edge V times, a plain queue), so they share no code with what they check.
+ */
+public final class TestGraphs {
+	public static final long UNREACHABLE = Long.MAX_VALUE;
+
+	private TestGraphs() {
+	}
+
+	// A weighted graph with numEdges random edges and weights between minWeight and maxWeight.
+	public static Graph weighted(long seed, int vertices, int numEdges, Graph.GraphType graphType, int minWeight,
+								 int maxWeight) {
+		Random random = new Random(seed);
+		Graph graph = new AdjacencyMatrixGraph(vertices, true, graphType);
+		for (int e = 0; e < numEdges; e++) {
+			int v1 = random.nextInt(vertices);
+			int v2 = random.nextInt(vertices);
+			if (v1 != v2) {
+				graph.addEdge(v1, v2, minWeight + random.nextInt(maxWeight - minWeight + 1));
+			}
+		}
+		return graph;
+	}
+
+	public static Graph unweighted(long seed, int vertices, int numEdges, Graph.GraphType graphType) {
+		Random random = new Random(seed);
+		Graph graph = new AdjacencySetGraph(vertices, graphType);
+		for (int e = 0; e < numEdges; e++) {
+			int v1 = random.nextInt(vertices);
+			int v2 = random.nextInt(vertices);
+			if (v1 != v2) {
+				graph.addEdge(v1, v2);
+			}
+		}
+		return graph;
+	}
+
+	// Bellman-Ford with long weights. Unreached vertices are UNREACHABLE. Assumes there is no negative cycle.
+	public static long[] distances(Graph graph, int source) {
+		int n = graph.getNumVertices();
+		long[] distances = new long[n];
+		Arrays.fill(distances, UNREACHABLE);
+		distances[source] = 0;
+		for (int pass = 0; pass < n; pass++) {
+			for (int v = 0; v < n; v++) {
+				if (distances[v] == UNREACHABLE) {
+					continue;
+				}
+				for (int neighbor : graph.getAdjacentVertices(v)) {
+					long weight = graph.isWeighted() ? graph.getLongWeightedEdge(v, neighbor) : 1;
+					distances[neighbor] = Math.min(distances[neighbor], distances[v] + weight);
+				}
+			}
+		}
+		return distances;
+	}
+
+	// Breadth first hop counts, or -1 for unreached vertices.
+	public static int[] hops(Graph graph, int source) {
+		int[] hops = new int[graph.getNumVertices()];
+		Arrays.fill(hops, -1);
+		hops[source] = 0;
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		queue.add(source);
+		while (!queue.isEmpty()) {
+			int v = queue.poll();
+			for (int neighbor : graph.getAdjacentVertices(v)) {
+				if (hops[neighbor] == -1) {
+					hops[neighbor] = hops[v] + 1;
+					queue.add(neighbor);
+				}
+			}
+		}
+		return hops;
+	}
+
+	// The total weight of a path given as its vertices.
+	public static long pathWeight(Graph graph, int[] path) {
+		long total = 0;
+		for (int i = 1; i < path.length; i++) {
+			if (!graph.getAdjacentVertices(path[i - 1]).contains(path[i])) {
+				throw new AssertionError("There is no edge " + path[i - 1] + " -> " + path[i]);
+			}
+			total += graph.isWeighted() ? graph.getLongWeightedEdge(path[i - 1], path[i]) : 1;
+		}
+		return total;
+	}
+}
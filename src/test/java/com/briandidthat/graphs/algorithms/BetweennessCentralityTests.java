@@ -0,0 +1,126 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BetweennessCentralityTests {
+
+	@Test
+	void matchesPairwisePathCountsOnUnweightedGraphs() {
+		for (long seed = 0; seed < 5; seed++) {
+			Graph directed = TestGraphs.unweighted(seed, 40, 100, Graph.GraphType.DIRECTED);
+			assertClose(reference(directed), new BetweennessCentrality().exact(directed));
+			Graph undirected = TestGraphs.unweighted(seed, 40, 60, Graph.GraphType.UNDIRECTED);
+			assertClose(reference(undirected), new BetweennessCentrality().exact(undirected));
+		}
+	}
+
+	@Test
+	void matchesPairwisePathCountsOnWeightedGraphs() {
+		for (long seed = 0; seed < 5; seed++) {
+			// Small weights give many ties, so several shortest paths share the same length.
+			Graph graph = TestGraphs.weighted(seed, 35, 120, Graph.GraphType.DIRECTED, 1, 3);
+			assertClose(reference(graph), new BetweennessCentrality().exact(graph));
+		}
+	}
+
+	@Test
+	void samplingIsSeededAndExactWithEverySource() {
+		Graph graph = TestGraphs.unweighted(3, 50, 150, Graph.GraphType.DIRECTED);
+		BetweennessCentrality betweenness = new BetweennessCentrality();
+		assertArrayEquals(betweenness.approximate(graph, 10, 42), betweenness.approximate(graph, 10, 42));
+		assertClose(betweenness.exact(graph), betweenness.approximate(graph, 50, 1));
+		assertThrows(IllegalArgumentException.class, () -> betweenness.approximate(graph, 0, 1));
+	}
+
+	@Test
+	void theMiddleOfAPathCarriesEveryPair() {
+		Graph graph = new AdjacencySetGraph(5, Graph.GraphType.UNDIRECTED);
+		for (int v = 1; v < 5; v++) {
+			graph.addEdge(v - 1, v);
+		}
+		assertClose(new double[]{0, 3, 4, 3, 0}, new BetweennessCentrality().exact(graph));
+	}
+
+	@Test
+	void rejectsDoubleAndNegativeWeights() {
+		Graph doubles = new WeightedAdjacencyListGraph(3, Graph.WeightType.DOUBLE, Graph.GraphType.DIRECTED);
+		assertThrows(IllegalArgumentException.class, () -> new BetweennessCentrality().exact(doubles));
+		Graph negative = new WeightedAdjacencyListGraph(3, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		negative.addEdge(0, 1, -1);
+		assertThrows(IllegalArgumentException.class, () -> new BetweennessCentrality().exact(negative));
+	}
+
+	// Sums sigma(s, v) * sigma(v, t) / sigma(s, t) over every pair s, t with v on a shortest path between them.
+	private static double[] reference(Graph graph) {
+		int n = graph.getNumVertices();
+		long[][] distances = new long[n][];
+		double[][] numPaths = new double[n][];
+		for (int s = 0; s < n; s++) {
+			distances[s] = TestGraphs.distances(graph, s);
+			numPaths[s] = countPaths(graph, s, distances[s]);
+		}
+		double[] centrality = new double[n];
+		for (int s = 0; s < n; s++) {
+			for (int t = 0; t < n; t++) {
+				if (s == t || distances[s][t] == TestGraphs.UNREACHABLE) {
+					continue;
+				}
+				for (int v = 0; v < n; v++) {
+					if (v == s || v == t || distances[s][v] == TestGraphs.UNREACHABLE
+							|| distances[v][t] == TestGraphs.UNREACHABLE) {
+						continue;
+					}
+					if (distances[s][v] + distances[v][t] == distances[s][t]) {
+						centrality[v] += numPaths[s][v] * numPaths[v][t] / numPaths[s][t];
+					}
+				}
+			}
+		}
+		if (graph.graphType() == Graph.GraphType.UNDIRECTED) {
+			for (int v = 0; v < n; v++) {
+				centrality[v] /= 2;
+			}
+		}
+		return centrality;
+	}
+
+	// The weights are positive, so every shortest path predecessor of a vertex is strictly closer to the source.
+	private static double[] countPaths(Graph graph, int source, long[] distance) {
+		int n = graph.getNumVertices();
+		Integer[] order = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+		Arrays.sort(order, Comparator.comparingLong(v -> distance[v]));
+		double[] numPaths = new double[n];
+		numPaths[source] = 1;
+		for (int v : order) {
+			if (distance[v] == TestGraphs.UNREACHABLE) {
+				break;
+			}
+			for (int neighbor : graph.getAdjacentVertices(v)) {
+				long weight = graph.isWeighted() ? graph.getLongWeightedEdge(v, neighbor) : 1;
+				if (distance[v] + weight == distance[neighbor]) {
+					numPaths[neighbor] += numPaths[v];
+				}
+			}
+		}
+		return numPaths;
+	}
+
+	private static void assertClose(double[] expected, double[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int v = 0; v < expected.length; v++) {
+			assertEquals(expected[v], actual[v], 1e-9 * Math.max(1, expected[v]));
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencyArrays;
+import com.briandidthat.graphs.model.ComponentInfo;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CancellationTests {
+
+	private static CancellationToken cancelled() {
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		return token;
+	}
+
+	@Test
+	void stoppedComponentsSplitButNeverJoin() {
+		Graph directed = TestGraphs.unweighted(3, 20_000, 40_000, Graph.GraphType.DIRECTED);
+		Graph undirected = TestGraphs.unweighted(3, 20_000, 15_000, Graph.GraphType.UNDIRECTED);
+		StronglyConnectedComponents scc = new StronglyConnectedComponents();
+		ConnectedComponents cc = new ConnectedComponents();
+		AdjacencyArrays outgoing = new AdjacencyArrays(directed);
+		AdjacencyArrays incoming = new AdjacencyArrays(directed, true);
+
+		assertFiner(scc.tarjan(outgoing, cancelled()), scc.tarjan(outgoing));
+		assertFiner(scc.forwardBackward(outgoing, incoming, cancelled()), scc.tarjan(outgoing));
+		assertFiner(cc.findComponents(undirected, cancelled()), cc.findComponents(undirected));
+	}
+
+	@Test
+	void unstoppedTokensGiveTheFullResult() {
+		Graph directed = TestGraphs.unweighted(5, 2_000, 5_000, Graph.GraphType.DIRECTED);
+		Graph undirected = TestGraphs.unweighted(5, 2_000, 1_500, Graph.GraphType.UNDIRECTED);
+		CancellationToken token = new CancellationToken();
+		PartialResult<ComponentInfo> scc = new StronglyConnectedComponents().findComponents(directed, token);
+		assertEquals(RunStatus.COMPLETED, scc.getStatus());
+		assertArrayEquals(new StronglyConnectedComponents().findComponents(directed).getComponentIds(),
+				scc.getValue().getComponentIds());
+		assertArrayEquals(new ConnectedComponents().findComponents(undirected).getComponentIds(),
+				new ConnectedComponents().findComponents(undirected, token).getValue().getComponentIds());
+		int[] sources = {0, 1, 2};
+		assertArrayEquals(new MultiSourceBfs().findDistances(directed, sources),
+				new MultiSourceBfs().findDistances(directed, sources, token).getValue());
+
+		PartialResult<ReachabilityIndex> index = ReachabilityIndex.build(directed, 1 << 20, token);
+		PartialResult<ContractionHierarchy> hierarchy = ContractionHierarchy.build(directed, token);
+		assertTrue(index.isComplete());
+		assertTrue(hierarchy.isComplete());
+		int[] hops = TestGraphs.hops(directed, 0);
+		for (int v = 0; v < 2_000; v++) {
+			assertEquals(hops[v] != -1, index.getValue().canReach(0, v));
+			assertEquals(hops[v], hierarchy.getValue().findDistance(0, v));
+		}
+	}
+
+	@Test
+	void stoppedBuildsReportIt() {
+		Graph graph = TestGraphs.unweighted(7, 10_000, 30_000, Graph.GraphType.DIRECTED);
+		PartialResult<int[][]> distances = new MultiSourceBfs().findDistances(graph, new int[]{0, 1}, cancelled());
+		assertEquals(RunStatus.CANCELLED, distances.getStatus());
+		assertEquals(0, distances.getValue()[0][0]);
+
+		PartialResult<ContractionHierarchy> hierarchy = ContractionHierarchy.build(graph, cancelled());
+		assertEquals(RunStatus.CANCELLED, hierarchy.getStatus());
+		assertNull(hierarchy.getValue());
+
+		PartialResult<ReachabilityIndex> index = ReachabilityIndex.build(graph, 1L << 30, cancelled());
+		assertEquals(RunStatus.CANCELLED, index.getStatus());
+		assertNull(index.getValue());
+	}
+
+	// Every component of the partial labeling must lie inside one component of the full one.
+	private static void assertFiner(PartialResult<ComponentInfo> partial, ComponentInfo full) {
+		assertEquals(RunStatus.CANCELLED, partial.getStatus());
+		ComponentInfo components = partial.getValue();
+		assertNotNull(components);
+		int[] fullIdOf = new int[components.getNumComponents()];
+		Arrays.fill(fullIdOf, -1);
+		int total = 0;
+		for (int v = 0; v < full.getComponentIds().length; v++) {
+			int id = components.getComponentId(v);
+			if (fullIdOf[id] == -1) {
+				fullIdOf[id] = full.getComponentId(v);
+			}
+			assertEquals(fullIdOf[id], full.getComponentId(v));
+		}
+		for (int size : components.getComponentSizes()) {
+			total += size;
+		}
+		assertEquals(full.getComponentIds().length, total);
+	}
+}
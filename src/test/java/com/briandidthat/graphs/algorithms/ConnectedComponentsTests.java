@@ -0,0 +1,74 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.ComponentInfo;
+import com.briandidthat.graphs.model.Graph;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConnectedComponentsTests {
+
+	@Test
+	void matchesBreadthFirstSearch() {
+		for (long seed = 0; seed < 10; seed++) {
+			// Few edges per vertex, so there are many components of different sizes.
+			Graph graph = TestGraphs.unweighted(seed, 120, 90, Graph.GraphType.UNDIRECTED);
+			assertMatches(graph, new ConnectedComponents().findComponents(graph));
+		}
+	}
+
+	@Test
+	void skipsTheLargestComponentCorrectly() {
+		// Big enough for the sampling to find a giant component, with a few small ones on the side.
+		Graph graph = TestGraphs.unweighted(7, 3000, 4500, Graph.GraphType.UNDIRECTED);
+		assertMatches(graph, new ConnectedComponents().findComponents(graph));
+	}
+
+	@Test
+	void numbersComponentsByTheirLowestVertex() {
+		Graph graph = new AdjacencySetGraph(6, Graph.GraphType.UNDIRECTED);
+		graph.addEdge(5, 2);
+		graph.addEdge(4, 1);
+		graph.addEdge(1, 3);
+
+		ComponentInfo components = new ConnectedComponents().findComponents(graph);
+		assertEquals(3, components.getNumComponents());
+		assertEquals(0, components.getComponentId(0));
+		assertEquals(1, components.getComponentId(4));
+		assertEquals(2, components.getComponentId(5));
+		assertEquals(3, components.getComponentSize(1));
+	}
+
+	@Test
+	void rejectsDirectedGraphs() {
+		Graph graph = new AdjacencySetGraph(3, Graph.GraphType.DIRECTED);
+		assertThrows(IllegalArgumentException.class, () -> new ConnectedComponents().findComponents(graph));
+	}
+
+	private static void assertMatches(Graph graph, ComponentInfo components) {
+		int numVertices = graph.getNumVertices();
+		int numComponents = 0;
+		boolean[] counted = new boolean[numVertices];
+		for (int v = 0; v < numVertices; v++) {
+			int[] hops = TestGraphs.hops(graph, v);
+			int size = 0;
+			for (int u = 0; u < numVertices; u++) {
+				assertEquals(hops[u] != -1, components.isSameComponent(v, u));
+				if (hops[u] != -1) {
+					size++;
+				}
+			}
+			assertEquals(size, components.getComponentSize(components.getComponentId(v)));
+			if (!counted[v]) {
+				numComponents++;
+				for (int u = 0; u < numVertices; u++) {
+					counted[u] |= hops[u] != -1;
+				}
+			}
+		}
+		assertEquals(numComponents, components.getNumComponents());
+	}
+}
@@ -0,0 +1,62 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContractionHierarchyTests {
+
+	@Test
+	void matchesBellmanFordOnWeightedGraphs() {
+		for (long seed = 0; seed < 6; seed++) {
+			assertMatches(TestGraphs.weighted(seed, 60, 200, Graph.GraphType.DIRECTED, 0, 20));
+			assertMatches(TestGraphs.weighted(seed, 60, 120, Graph.GraphType.UNDIRECTED, 1, 20));
+		}
+	}
+
+	@Test
+	void matchesBreadthFirstSearchOnUnweightedGraphs() {
+		for (long seed = 0; seed < 4; seed++) {
+			assertMatches(TestGraphs.unweighted(seed, 70, 160, Graph.GraphType.DIRECTED));
+		}
+	}
+
+	@Test
+	void distancesPastTheIntRangeDoNotWrap() {
+		// Every path of two or more edges is longer than Integer.MAX_VALUE.
+		assertMatches(TestGraphs.weighted(5, 40, 120, Graph.GraphType.DIRECTED, 1500000000, 2000000000));
+	}
+
+	@Test
+	void rejectsDoubleAndNegativeWeights() {
+		Graph doubles = new WeightedAdjacencyListGraph(3, Graph.WeightType.DOUBLE, Graph.GraphType.DIRECTED);
+		assertThrows(IllegalArgumentException.class, () -> new ContractionHierarchy(doubles));
+		Graph negative = new WeightedAdjacencyListGraph(3, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		negative.addEdge(0, 1, -1);
+		assertThrows(IllegalArgumentException.class, () -> new ContractionHierarchy(negative));
+	}
+
+	private static void assertMatches(Graph graph) {
+		ContractionHierarchy hierarchy = new ContractionHierarchy(graph);
+		for (int source = 0; source < graph.getNumVertices(); source++) {
+			long[] distances = TestGraphs.distances(graph, source);
+			for (int destination = 0; destination < graph.getNumVertices(); destination++) {
+				int[] path = hierarchy.findShortestPath(source, destination);
+				if (distances[destination] == TestGraphs.UNREACHABLE) {
+					assertEquals(-1, hierarchy.findDistance(source, destination));
+					assertEquals(0, path.length);
+					continue;
+				}
+				assertEquals(distances[destination], hierarchy.findDistance(source, destination));
+				// The unpacked path is a real path of the graph, from source to destination, with that length.
+				assertEquals(source, path[0]);
+				assertEquals(destination, path[path.length - 1]);
+				assertEquals(distances[destination], TestGraphs.pathWeight(graph, path));
+			}
+		}
+	}
+}
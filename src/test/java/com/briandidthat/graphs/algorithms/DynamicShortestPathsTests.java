@@ -0,0 +1,96 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencyMatrixGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.GraphListener;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DynamicShortestPathsTests {
+
+	@Test
+	void updatesMatchRecomputing() {
+		for (long seed = 0; seed < 10; seed++) {
+			for (Graph.GraphType graphType : Graph.GraphType.values()) {
+				Random random = new Random(seed);
+				// The matrix removes an edge when its weight is set to 0, the list keeps it as a free edge.
+				Graph matrix = new AdjacencyMatrixGraph(20, true, graphType);
+				Graph list = new WeightedAdjacencyListGraph(20, Graph.WeightType.LONG, graphType);
+				try (DynamicShortestPaths onMatrix = new DynamicShortestPaths(matrix, 0);
+					 DynamicShortestPaths onList = new DynamicShortestPaths(list, 0)) {
+					for (int change = 0; change < 150; change++) {
+						int v1 = random.nextInt(20);
+						int v2 = random.nextInt(20);
+						if (v1 == v2) {
+							continue;
+						}
+						int weight = random.nextInt(12);
+						matrix.addEdge(v1, v2, weight);
+						list.addEdge(v1, v2, weight * 1_000_000_000L);
+						assertMatches(matrix, onMatrix);
+						assertMatches(list, onList);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void freeEdgesAreSeen() {
+		Graph graph = new WeightedAdjacencyListGraph(3, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		graph.addEdge(0, 2, 10);
+		graph.addEdge(1, 2, 1);
+		try (DynamicShortestPaths paths = new DynamicShortestPaths(graph, 0)) {
+			graph.addEdge(0, 1, 0);
+			assertEquals(1, paths.getDistance(2));
+		}
+	}
+
+	@Test
+	void longWeightsAreExact() {
+		Graph graph = new WeightedAdjacencyListGraph(3, Graph.WeightType.LONG, Graph.GraphType.DIRECTED);
+		graph.addEdge(1, 2, 4_000_000_000L);
+		try (DynamicShortestPaths paths = new DynamicShortestPaths(graph, 0)) {
+			graph.addEdge(0, 1, 3_000_000_000L);
+			assertEquals(7_000_000_000L, paths.getDistance(2));
+			// Both weights are clamped to the same int, but the change still has to reach the tree.
+			graph.addEdge(0, 1, 4_000_000_000L);
+			assertEquals(8_000_000_000L, paths.getDistance(2));
+			graph.addEdge(1, 2, Long.MAX_VALUE);
+			assertEquals(-1, paths.getDistance(2));
+		}
+	}
+
+	@Test
+	void doubleWeightsAreRejected() {
+		Graph graph = new WeightedAdjacencyListGraph(2, Graph.WeightType.DOUBLE, Graph.GraphType.DIRECTED);
+		assertThrows(IllegalArgumentException.class, () -> new DynamicShortestPaths(graph, 0));
+	}
+
+	@Test
+	void listenersGetExactChanges() {
+		Graph graph = new WeightedAdjacencyListGraph(2, Graph.WeightType.DOUBLE, Graph.GraphType.DIRECTED);
+		List<String> changes = new ArrayList<>();
+		graph.addListener((changed, v1, v2, change, previousWeight, weight) -> changes.add(change + " " +
+				GraphListener.toDouble(changed, previousWeight) + " " + GraphListener.toDouble(changed, weight)));
+		graph.addEdge(0, 1, 2.4);
+		graph.addEdge(0, 1, 2.2);
+		graph.addEdge(0, 1, 2.2);
+		assertEquals("[ADDED 0.0 2.4, WEIGHT_CHANGED 2.4 2.2]", changes.toString());
+	}
+
+	private static void assertMatches(Graph graph, DynamicShortestPaths paths) {
+		long[] expected = TestGraphs.distances(graph, 0);
+		for (int v = 0; v < graph.getNumVertices(); v++) {
+			assertEquals(expected[v] == TestGraphs.UNREACHABLE ? -1 : expected[v], paths.getDistance(v));
+		}
+	}
+}
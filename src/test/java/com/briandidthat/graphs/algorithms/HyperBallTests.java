@@ -0,0 +1,91 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.NeighbourhoodFunction;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperBallTests {
+
+	@Test
+	void estimatesAreCloseToTheExactNeighbourhoodFunction() {
+		for (Graph.GraphType graphType : Graph.GraphType.values()) {
+			Graph graph = TestGraphs.unweighted(3, 1500, 3000, graphType);
+			double[] exact = new double[graph.getNumVertices()];
+			double exactHarmonic = 0;
+			int diameter = 0;
+			for (int v = 0; v < graph.getNumVertices(); v++) {
+				for (int hops : TestGraphs.hops(graph, v)) {
+					if (hops != -1) {
+						exact[hops]++;
+						diameter = Math.max(diameter, hops);
+						exactHarmonic += hops == 0 ? 0 : 1.0 / hops;
+					}
+				}
+			}
+			for (int t = 1; t <= diameter; t++) {
+				exact[t] += exact[t - 1];
+			}
+
+			// With 2^10 registers, one counter is off by about 3%, and the sums over many vertices by less.
+			NeighbourhoodFunction estimate = new HyperBall(ForkJoinPool.commonPool(), 10, 0).run(graph);
+			double[] function = estimate.getNeighbourhoodFunction();
+			assertTrue(estimate.getDiameter() <= diameter && estimate.getDiameter() >= diameter - 2);
+			assertEquals(1500, function[0], 1500 * 0.01);
+			for (int t = 1; t < function.length; t++) {
+				assertEquals(exact[t], function[t], exact[t] * 0.05);
+			}
+			double harmonic = 0;
+			for (double centrality : estimate.getHarmonicCentrality()) {
+				harmonic += centrality;
+			}
+			assertEquals(exactHarmonic, harmonic, exactHarmonic * 0.05);
+		}
+	}
+
+	@Test
+	void isDeterministicForASeed() {
+		Graph graph = TestGraphs.unweighted(4, 500, 1500, Graph.GraphType.DIRECTED);
+		HyperBall hyperBall = new HyperBall(ForkJoinPool.commonPool(), 6, 9);
+		assertArrayEquals(hyperBall.run(graph).getNeighbourhoodFunction(),
+				hyperBall.run(graph).getNeighbourhoodFunction());
+	}
+
+	@Test
+	void aStarHasDiameterTwo() {
+		Graph star = new AdjacencySetGraph(50, Graph.GraphType.UNDIRECTED);
+		for (int v = 1; v < 50; v++) {
+			star.addEdge(0, v);
+		}
+		NeighbourhoodFunction estimate = new HyperBall(ForkJoinPool.commonPool(), 8, 0).run(star);
+		assertEquals(2, estimate.getDiameter());
+		// The center is one hop from everything, so it has the highest closeness.
+		for (int v = 1; v < 50; v++) {
+			assertTrue(estimate.getCloseness(0) > estimate.getCloseness(v));
+		}
+	}
+
+	@Test
+	void stopsWhenCancelledAndChecksItsArguments() {
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		Graph graph = TestGraphs.unweighted(5, 100, 300, Graph.GraphType.DIRECTED);
+		NeighbourhoodFunction estimate = new HyperBall().run(graph, token);
+		assertEquals(RunStatus.CANCELLED, estimate.getStatus());
+		assertEquals(0, estimate.getDiameter());
+
+		assertThrows(IllegalArgumentException.class, () -> new HyperBall(ForkJoinPool.commonPool(), 3, 0));
+		assertThrows(IllegalArgumentException.class, () -> new HyperBall(ForkJoinPool.commonPool(), 17, 0));
+		assertThrows(IllegalArgumentException.class, () -> new HyperBall().run(graph).getEffectiveDiameter(0));
+	}
+}
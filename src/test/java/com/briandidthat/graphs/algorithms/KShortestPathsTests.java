@@ -0,0 +1,86 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.RankedPaths;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KShortestPathsTests {
+
+	@Test
+	void pathsMatchEnumeration() {
+		for (long seed = 0; seed < 20; seed++) {
+			Graph graph = TestGraphs.weighted(seed, 9, 24, Graph.GraphType.DIRECTED, 0, 9);
+			for (boolean preferFewerEdges : new boolean[]{false, true}) {
+				List<long[]> expected = allPaths(graph, 0, 8, preferFewerEdges);
+				RankedPaths paths = new KShortestPaths(ForkJoinPool.commonPool(), preferFewerEdges)
+						.findPaths(graph, 0, 8, 10);
+				assertEquals(Math.min(10, expected.size()), paths.getNumPaths());
+				Set<String> seen = new HashSet<>();
+				for (int rank = 0; rank < paths.getNumPaths(); rank++) {
+					int[] path = paths.getPath(rank);
+					assertTrue(seen.add(Arrays.toString(path)));
+					assertEquals(path.length, Arrays.stream(path).distinct().count());
+					assertEquals(TestGraphs.pathWeight(graph, path), paths.getDistance(rank));
+					assertEquals(expected.get(rank)[0], paths.getDistance(rank));
+					if (preferFewerEdges) {
+						assertEquals(expected.get(rank)[1], paths.getNumEdges(rank));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void distancesLongerThanAnIntDoNotOverflow() {
+		Graph graph = new WeightedAdjacencyListGraph(4, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		graph.addEdge(0, 1, 2_000_000_000);
+		graph.addEdge(1, 3, 2_000_000_000);
+		graph.addEdge(0, 2, 2_100_000_000);
+		graph.addEdge(2, 3, 2_100_000_000);
+		for (boolean preferFewerEdges : new boolean[]{false, true}) {
+			RankedPaths paths = new KShortestPaths(ForkJoinPool.commonPool(), preferFewerEdges)
+					.findPaths(graph, 0, 3, 3);
+			assertEquals(2, paths.getNumPaths());
+			assertEquals(4_000_000_000L, paths.getDistance(0));
+			assertEquals(4_200_000_000L, paths.getDistance(1));
+			assertEquals("[0, 2, 3]", Arrays.toString(paths.getPath(1)));
+		}
+	}
+
+	// The distance and number of edges of every loopless path, in the order the paths should be ranked.
+	private static List<long[]> allPaths(Graph graph, int source, int destination, boolean preferFewerEdges) {
+		List<long[]> paths = new ArrayList<>();
+		enumerate(graph, source, destination, new boolean[graph.getNumVertices()], 0, 0, paths);
+		paths.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+				: preferFewerEdges ? Long.compare(a[1], b[1]) : 0);
+		return paths;
+	}
+
+	private static void enumerate(Graph graph, int v, int destination, boolean[] onPath, long distance, int edges,
+								  List<long[]> paths) {
+		if (v == destination) {
+			paths.add(new long[]{distance, edges});
+			return;
+		}
+		onPath[v] = true;
+		for (int neighbor : graph.getAdjacentVertices(v)) {
+			if (!onPath[neighbor]) {
+				enumerate(graph, neighbor, destination, onPath, distance + graph.getLongWeightedEdge(v, neighbor),
+						edges + 1, paths);
+			}
+		}
+		onPath[v] = false;
+	}
+}
@@ -0,0 +1,48 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultiSourceBfsTests {
+
+	@Test
+	void matchesOneBreadthFirstSearchPerSource() {
+		for (long seed = 0; seed < 5; seed++) {
+			Graph graph = TestGraphs.unweighted(seed, 150, 300, Graph.GraphType.DIRECTED);
+			// More than one batch of 64, and a last batch that is only partly full.
+			int[] sources = new int[150];
+			for (int i = 0; i < sources.length; i++) {
+				sources[i] = (i * 37) % 150;
+			}
+			int[][] distances = new MultiSourceBfs().findDistances(graph, sources);
+			assertEquals(sources.length, distances.length);
+			for (int i = 0; i < sources.length; i++) {
+				assertArrayEquals(TestGraphs.hops(graph, sources[i]), distances[i]);
+			}
+		}
+	}
+
+	@Test
+	void followsUndirectedEdgesBothWays() {
+		Graph graph = TestGraphs.unweighted(9, 80, 100, Graph.GraphType.UNDIRECTED);
+		int[] sources = {0, 79, 40, 0};
+		int[][] distances = new MultiSourceBfs().findDistances(graph, sources);
+		for (int i = 0; i < sources.length; i++) {
+			assertArrayEquals(TestGraphs.hops(graph, sources[i]), distances[i]);
+		}
+	}
+
+	@Test
+	void handlesNoSourcesAndInvalidSources() {
+		Graph graph = new AdjacencySetGraph(3, Graph.GraphType.DIRECTED);
+		assertEquals(0, new MultiSourceBfs().findDistances(graph, new int[0]).length);
+		assertThrows(IllegalArgumentException.class, () -> new MultiSourceBfs().findDistances(graph, new int[]{3}));
+		assertThrows(IllegalArgumentException.class, () -> new MultiSourceBfs().findDistances(graph, new int[]{-1}));
+	}
+}
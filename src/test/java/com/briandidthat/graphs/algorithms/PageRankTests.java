@@ -0,0 +1,96 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageRankTests {
+	private static final double DAMPING = 0.85;
+
+	@Test
+	void matchesSequentialPowerIteration() {
+		PageRank pageRank = new PageRank(DAMPING, 1e-13, 1000, ForkJoinPool.commonPool());
+		for (long seed = 0; seed < 5; seed++) {
+			// Sparse enough that some vertices have no outgoing edges.
+			Graph graph = TestGraphs.unweighted(seed, 60, 90, Graph.GraphType.DIRECTED);
+			assertClose(reference(graph, null), pageRank.rank(graph));
+		}
+		Graph undirected = TestGraphs.unweighted(11, 60, 90, Graph.GraphType.UNDIRECTED);
+		assertClose(reference(undirected, null), pageRank.rank(undirected));
+	}
+
+	@Test
+	void jumpsFollowThePersonalization() {
+		PageRank pageRank = new PageRank(DAMPING, 1e-13, 1000, ForkJoinPool.commonPool());
+		Graph graph = TestGraphs.unweighted(4, 40, 70, Graph.GraphType.DIRECTED);
+		double[] personalization = new double[40];
+		personalization[3] = 2;
+		personalization[17] = 6;
+		double[] rank = pageRank.rank(graph, personalization);
+		assertClose(reference(graph, personalization), rank);
+		assertEquals(1, Arrays.stream(rank).sum(), 1e-9);
+	}
+
+	@Test
+	void aCycleRanksEveryVertexTheSame() {
+		Graph graph = new AdjacencySetGraph(5, Graph.GraphType.DIRECTED);
+		for (int v = 0; v < 5; v++) {
+			graph.addEdge(v, (v + 1) % 5);
+		}
+		for (double rank : new PageRank().rank(graph)) {
+			assertEquals(0.2, rank, 1e-9);
+		}
+	}
+
+	@Test
+	void rejectsBadArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new PageRank(1, 1e-6, 10, ForkJoinPool.commonPool()));
+		Graph graph = new AdjacencySetGraph(3, Graph.GraphType.DIRECTED);
+		assertThrows(IllegalArgumentException.class, () -> new PageRank().rank(graph, new double[2]));
+		assertEquals(0, new PageRank().rank(new AdjacencySetGraph(0, Graph.GraphType.DIRECTED)).length);
+	}
+
+	// Push style power iteration over the graph itself, run for a fixed number of iterations.
+	private static double[] reference(Graph graph, double[] personalization) {
+		int n = graph.getNumVertices();
+		double[] jump = new double[n];
+		double total = personalization == null ? n : Arrays.stream(personalization).sum();
+		for (int v = 0; v < n; v++) {
+			jump[v] = (personalization == null ? 1 : personalization[v]) / total;
+		}
+		double[] rank = new double[n];
+		Arrays.fill(rank, 1.0 / n);
+		for (int iteration = 0; iteration < 2000; iteration++) {
+			double[] next = new double[n];
+			double dangling = 0;
+			for (int v = 0; v < n; v++) {
+				int degree = graph.getAdjacentVertices(v).size();
+				if (degree == 0) {
+					dangling += rank[v];
+				}
+				for (int neighbor : graph.getAdjacentVertices(v)) {
+					next[neighbor] += rank[v] / degree;
+				}
+			}
+			for (int v = 0; v < n; v++) {
+				next[v] = (1 - DAMPING) * jump[v] + DAMPING * (next[v] + dangling * jump[v]);
+			}
+			rank = next;
+		}
+		return rank;
+	}
+
+	private static void assertClose(double[] expected, double[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int v = 0; v < expected.length; v++) {
+			assertEquals(expected[v], actual[v], 1e-9);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReachabilityIndexTests {
+
+	@Test
+	void closureMatchesBreadthFirstSearch() {
+		for (long seed = 0; seed < 8; seed++) {
+			Graph graph = TestGraphs.unweighted(seed, 90, 130, Graph.GraphType.DIRECTED);
+			ReachabilityIndex index = new ReachabilityIndex(graph);
+			assertTrue(index.hasTransitiveClosure());
+			assertMatches(graph, index);
+		}
+	}
+
+	@Test
+	void labelsAndSearchMatchBreadthFirstSearch() {
+		for (long seed = 0; seed < 8; seed++) {
+			// Without room for the closure, every query goes through the labels and the pruned search.
+			Graph graph = TestGraphs.unweighted(seed, 90, 130, Graph.GraphType.DIRECTED);
+			ReachabilityIndex index = new ReachabilityIndex(graph, 0);
+			assertFalse(index.hasTransitiveClosure());
+			assertMatches(graph, index);
+		}
+	}
+
+	@Test
+	void verticesOnOneCycleReachEachOther() {
+		Graph graph = new AdjacencySetGraph(4, Graph.GraphType.DIRECTED);
+		graph.addEdge(0, 1);
+		graph.addEdge(1, 2);
+		graph.addEdge(2, 0);
+		ReachabilityIndex index = new ReachabilityIndex(graph, 0);
+		assertTrue(index.canReach(2, 1));
+		assertTrue(index.canReach(3, 3));
+		assertFalse(index.canReach(0, 3));
+		assertThrows(IllegalArgumentException.class, () -> index.canReach(0, 4));
+	}
+
+	private static void assertMatches(Graph graph, ReachabilityIndex index) {
+		for (int v = 0; v < graph.getNumVertices(); v++) {
+			int[] hops = TestGraphs.hops(graph, v);
+			for (int u = 0; u < graph.getNumVertices(); u++) {
+				assertEquals(hops[u] != -1, index.canReach(v, u));
+			}
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.QueryResults;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import com.briandidthat.graphs.utils.CancellationToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShortestPathQueryEngineTests {
+
+	@Test
+	void answersEveryQueryLikeBellmanFord() {
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		try {
+			for (long seed = 0; seed < 4; seed++) {
+				Graph graph = TestGraphs.weighted(seed, 50, 150, Graph.GraphType.DIRECTED, 1, 30);
+				ShortestPathQueryEngine engine = new ShortestPathQueryEngine(graph, pool, 3);
+				// Sources repeat, so several queries share one search.
+				Random random = new Random(seed);
+				int[] sources = new int[300];
+				int[] destinations = new int[300];
+				for (int i = 0; i < sources.length; i++) {
+					sources[i] = random.nextInt(10);
+					destinations[i] = random.nextInt(50);
+				}
+
+				QueryResults results = engine.execute(sources, destinations, true);
+				assertTrue(results.isComplete());
+				assertEquals(Arrays.stream(sources).distinct().count(), results.getStatistics().getNumSearches());
+				assertMatches(graph, sources, destinations, results);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void rebuildsTheSnapshotWhenTheGraphChanges() {
+		Graph graph = TestGraphs.weighted(5, 30, 60, Graph.GraphType.UNDIRECTED, 5, 30);
+		ShortestPathQueryEngine engine = new ShortestPathQueryEngine(graph);
+		int[] sources = {0};
+		int[] destinations = {29};
+		engine.execute(sources, destinations);
+
+		graph.addEdge(0, 29, 1);
+		QueryResults results = engine.execute(sources, destinations, true);
+		assertEquals(1, results.getDistance(0));
+		assertEquals(2, results.getPath(0).length);
+	}
+
+	@Test
+	void aStoppedBatchLeavesQueriesUnanswered() {
+		Graph graph = TestGraphs.weighted(6, 30, 60, Graph.GraphType.DIRECTED, 1, 30);
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		QueryResults results = new ShortestPathQueryEngine(graph).execute(new int[]{0, 1}, new int[]{2, 3}, false,
+				token);
+		assertEquals(RunStatus.CANCELLED, results.getStatus());
+		assertFalse(results.isAnswered(0));
+		assertFalse(results.isAnswered(1));
+	}
+
+	@Test
+	void rejectsBadBatchesAndWeights() {
+		Graph graph = TestGraphs.weighted(7, 10, 20, Graph.GraphType.DIRECTED, 1, 30);
+		ShortestPathQueryEngine engine = new ShortestPathQueryEngine(graph);
+		assertThrows(IllegalArgumentException.class, () -> engine.execute(new int[]{0, 1}, new int[]{2}));
+		assertThrows(IllegalArgumentException.class, () -> engine.execute(new int[]{0}, new int[]{10}));
+		assertThrows(IllegalStateException.class, () -> engine.execute(new int[]{0}, new int[]{1}).getPath(0));
+		Graph longs = new WeightedAdjacencyListGraph(3, Graph.WeightType.LONG, Graph.GraphType.DIRECTED);
+		assertThrows(IllegalArgumentException.class, () -> new ShortestPathQueryEngine(longs));
+	}
+
+	private static void assertMatches(Graph graph, int[] sources, int[] destinations, QueryResults results) {
+		for (int i = 0; i < sources.length; i++) {
+			assertTrue(results.isAnswered(i));
+			long expected = TestGraphs.distances(graph, sources[i])[destinations[i]];
+			if (expected == TestGraphs.UNREACHABLE) {
+				assertFalse(results.hasPath(i));
+				assertEquals(0, results.getPath(i).length);
+				continue;
+			}
+			assertEquals(expected, results.getDistance(i));
+			int[] path = results.getPath(i);
+			assertEquals(sources[i], path[0]);
+			assertEquals(destinations[i], path[path.length - 1]);
+			assertEquals(expected, TestGraphs.pathWeight(graph, path));
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShortestPathTreeCacheTests {
+
+	@Test
+	void reusesTreesUntilTheGraphChanges() {
+		Graph graph = TestGraphs.weighted(1, 30, 80, Graph.GraphType.DIRECTED, 1, 10);
+		CountingBuilder builder = new CountingBuilder();
+		ShortestPathTreeCache cache = new ShortestPathTreeCache(builder, 1 << 20);
+
+		ShortestPathTree first = cache.getShortestPathTree(graph, 0);
+		assertSame(first, cache.getShortestPathTree(graph, 0));
+		assertEquals(1, builder.builds.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		// A new edge bumps the version, so the next lookup rebuilds the tree and sees the edge.
+		graph.addEdge(0, 29, 1);
+		ShortestPathTree rebuilt = cache.getShortestPathTree(graph, 0);
+		assertNotSame(first, rebuilt);
+		assertEquals(1, rebuilt.getDistance(29));
+		assertEquals(2, builder.builds.get());
+		assertEquals(1, cache.getInvalidations());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedTree() {
+		Graph graph = TestGraphs.weighted(2, 30, 80, Graph.GraphType.DIRECTED, 1, 10);
+		CountingBuilder builder = new CountingBuilder();
+		long treeBytes = builder.buildShortestPathTree(graph, 0).sizeInBytes();
+		ShortestPathTreeCache cache = new ShortestPathTreeCache(builder, 2 * treeBytes);
+
+		cache.getShortestPathTree(graph, 0);
+		cache.getShortestPathTree(graph, 1);
+		// Touch 0, so 1 is now the least recently used.
+		cache.getShortestPathTree(graph, 0);
+		cache.getShortestPathTree(graph, 2);
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(2 * treeBytes, cache.getUsedBytes());
+
+		int builds = builder.builds.get();
+		cache.getShortestPathTree(graph, 0);
+		assertEquals(builds, builder.builds.get());
+		cache.getShortestPathTree(graph, 1);
+		assertEquals(builds + 1, builder.builds.get());
+	}
+
+	@Test
+	void keysGraphsByIdentity() {
+		Graph graph = TestGraphs.weighted(3, 20, 50, Graph.GraphType.DIRECTED, 1, 10);
+		Graph copy = TestGraphs.weighted(3, 20, 50, Graph.GraphType.DIRECTED, 1, 10);
+		ShortestPathTreeCache cache = new ShortestPathTreeCache(new CountingBuilder(), 1 << 20);
+		cache.getShortestPathTree(graph, 0);
+		cache.getShortestPathTree(copy, 0);
+		assertEquals(2, cache.size());
+
+		cache.invalidate(graph);
+		assertEquals(1, cache.size());
+		cache.clear();
+		assertEquals(0, cache.getUsedBytes());
+		assertThrows(IllegalArgumentException.class, () -> new ShortestPathTreeCache(new CountingBuilder(), 0));
+	}
+
+	@Test
+	void concurrentLookupsGetCorrectTrees() throws Exception {
+		Graph graph = TestGraphs.weighted(4, 60, 240, Graph.GraphType.DIRECTED, 1, 50);
+		ShortestPathTreeCache cache = new ShortestPathTreeCache(new CountingBuilder(), 1 << 20);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				int source = i % 10;
+				futures.add(pool.submit(() -> {
+					long[] expected = TestGraphs.distances(graph, source);
+					ShortestPathTree tree = cache.getShortestPathTree(graph, source);
+					for (int v = 0; v < graph.getNumVertices(); v++) {
+						assertEquals(expected[v] == TestGraphs.UNREACHABLE ? -1 : expected[v],
+								tree.hasPath(v) ? tree.getDistance(v) : -1);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(200, cache.getHits() + cache.getMisses());
+	}
+
+	private static class CountingBuilder implements ShortestPathTreeBuilder {
+		private AtomicInteger builds = new AtomicInteger();
+		private Djikstras djikstras = new Djikstras();
+
+		@Override
+		public ShortestPathTree buildShortestPathTree(Graph graph, int source) {
+			builds.incrementAndGet();
+			return djikstras.buildShortestPathTree(graph, source);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.ComponentInfo;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.utils.GraphHelper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StronglyConnectedComponentsTests {
+
+	@Test
+	void bothModesMatchMutualReachability() {
+		StronglyConnectedComponents scc = new StronglyConnectedComponents();
+		for (long seed = 0; seed < 10; seed++) {
+			Graph graph = TestGraphs.unweighted(seed, 80, 120, Graph.GraphType.DIRECTED);
+			assertMatches(graph, scc.tarjan(graph));
+			assertMatches(graph, scc.forwardBackward(graph));
+		}
+	}
+
+	@Test
+	void forwardBackwardForksOnLargeGraphs() {
+		// More vertices than the fork threshold, so the decomposition is split across tasks.
+		StronglyConnectedComponents scc = new StronglyConnectedComponents();
+		Graph graph = TestGraphs.unweighted(3, 10000, 14000, Graph.GraphType.DIRECTED);
+		ComponentInfo tarjan = scc.tarjan(graph);
+		ComponentInfo forwardBackward = scc.forwardBackward(graph);
+		assertEquals(tarjan.getNumComponents(), forwardBackward.getNumComponents());
+		// The ids differ between the modes, but they must map one to one.
+		int[] mapped = new int[tarjan.getNumComponents()];
+		Arrays.fill(mapped, -1);
+		for (int v = 0; v < graph.getNumVertices(); v++) {
+			int id = tarjan.getComponentId(v);
+			if (mapped[id] == -1) {
+				mapped[id] = forwardBackward.getComponentId(v);
+			}
+			assertEquals(mapped[id], forwardBackward.getComponentId(v));
+		}
+		assertEquals(tarjan.getNumComponents(), Arrays.stream(mapped).distinct().count());
+	}
+
+	@Test
+	void tarjanNumbersComponentsInReverseTopologicalOrder() {
+		StronglyConnectedComponents scc = new StronglyConnectedComponents();
+		Graph graph = TestGraphs.unweighted(5, 100, 180, Graph.GraphType.DIRECTED);
+		ComponentInfo components = scc.tarjan(graph);
+		for (int v = 0; v < graph.getNumVertices(); v++) {
+			for (int neighbor : graph.getAdjacentVertices(v)) {
+				assertTrue(components.getComponentId(v) >= components.getComponentId(neighbor));
+			}
+		}
+
+		// The condensation has one vertex per component and no cycle.
+		Graph condensation = scc.condense(graph, components);
+		assertEquals(components.getNumComponents(), condensation.getNumVertices());
+		assertEquals(components.getNumComponents(), GraphHelper.topologicalSort(condensation).size());
+	}
+
+	@Test
+	void tarjanHandlesLongPathsWithoutRecursion() {
+		int numVertices = 200000;
+		Graph graph = new AdjacencySetGraph(numVertices, Graph.GraphType.DIRECTED);
+		for (int v = 1; v < numVertices; v++) {
+			graph.addEdge(v - 1, v);
+		}
+		graph.addEdge(numVertices - 1, 0);
+
+		ComponentInfo components = new StronglyConnectedComponents().tarjan(graph);
+		assertEquals(1, components.getNumComponents());
+		assertEquals(numVertices, components.getComponentSize(0));
+	}
+
+	@Test
+	void rejectsUndirectedGraphs() {
+		Graph graph = new AdjacencySetGraph(3, Graph.GraphType.UNDIRECTED);
+		assertThrows(IllegalArgumentException.class, () -> new StronglyConnectedComponents().findComponents(graph));
+	}
+
+	private static void assertMatches(Graph graph, ComponentInfo components) {
+		int numVertices = graph.getNumVertices();
+		int[][] hops = new int[numVertices][];
+		for (int v = 0; v < numVertices; v++) {
+			hops[v] = TestGraphs.hops(graph, v);
+		}
+		for (int v = 0; v < numVertices; v++) {
+			for (int u = 0; u < numVertices; u++) {
+				boolean mutual = hops[v][u] != -1 && hops[u][v] != -1;
+				assertEquals(mutual, components.isSameComponent(v, u));
+			}
+		}
+	}
+}
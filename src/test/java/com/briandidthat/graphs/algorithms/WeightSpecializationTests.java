@@ -0,0 +1,59 @@
+package com.briandidthat.graphs.algorithms;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WeightSpecializationTests {
+
+	// The first path found to 2 is longer than an int, but the shortest one fits.
+	private static Graph detourGraph() {
+		Graph graph = new WeightedAdjacencyListGraph(4, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		graph.addEdge(0, 1, 1_000_000_000);
+		graph.addEdge(1, 2, 1_200_000_000);
+		graph.addEdge(0, 3, 1_500_000_000);
+		graph.addEdge(3, 2, 1);
+		return graph;
+	}
+
+	@Test
+	void intSearchesOnlyNarrowFinalDistances() {
+		Graph graph = detourGraph();
+		assertEquals(1_500_000_001L, new Djikstras().buildLongShortestPathTree(graph, 0).getDistance(2));
+		assertEquals(1_500_000_001, new Djikstras().buildShortestPathTree(graph, 0).getDistance(2));
+		assertEquals(1_500_000_001, new ShortestDistance().buildShortestPathTree(graph, 0).getDistance(2));
+		assertEquals(1_500_000_001, new BellmanFord().buildShortestPathTree(graph, 0).getDistance(2));
+		assertEquals(1_500_000_001L, TestGraphs.pathWeight(graph, new ShortestDistance().findShortestPath(graph, 0, 2)));
+	}
+
+	@Test
+	void intSearchesThrowWhenAFinalDistanceDoesNotFit() {
+		Graph graph = new WeightedAdjacencyListGraph(3, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		graph.addEdge(0, 1, 1_500_000_000);
+		graph.addEdge(1, 2, 1_500_000_000);
+		assertThrows(IllegalArgumentException.class, () -> new Djikstras().buildShortestPathTree(graph, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ShortestDistance().buildShortestPathTree(graph, 0));
+		assertThrows(IllegalArgumentException.class, () -> new BellmanFord().buildShortestPathTree(graph, 0));
+		assertEquals(3_000_000_000L, new Djikstras().buildLongShortestPathTree(graph, 0).getDistance(2));
+	}
+
+	@Test
+	void intSearchesMatchBruteForce() {
+		for (long seed = 0; seed < 30; seed++) {
+			Graph graph = TestGraphs.weighted(seed, 25, 80, Graph.GraphType.DIRECTED, 1, 50);
+			long[] expected = TestGraphs.distances(graph, 0);
+			ShortestPathTree djikstras = new Djikstras().buildShortestPathTree(graph, 0);
+			ShortestPathTree shortestDistance = new ShortestDistance().buildShortestPathTree(graph, 0);
+			for (int v = 0; v < 25; v++) {
+				int distance = expected[v] == TestGraphs.UNREACHABLE ? Integer.MAX_VALUE : (int) expected[v];
+				assertEquals(distance, djikstras.getDistance(v));
+				assertEquals(distance, shortestDistance.getDistance(v));
+			}
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.briandidthat.graphs.benchmarks;
+
+import com.briandidthat.graphs.model.AdjacencyMatrixGraph;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+
+import java.util.Random;
+
+/**
+ * Builds the seeded random graphs the benchmarks run on, so every run and every representation sees the same edges.
+ * A representation is named by the @Param value of the benchmarks; add a case here for a new Graph implementation.
+ */
+final class BenchmarkGraphs {
+	static final long SEED = 42;
+
+	private BenchmarkGraphs() {
+	}
+
+	static Graph newGraph(String representation, int vertices, Graph.GraphType graphType, boolean weighted) {
+		switch (representation) {
+			case "matrix":
+				return new AdjacencyMatrixGraph(vertices, weighted, graphType);
+			case "set":
+				if (weighted) {
+					throw new IllegalArgumentException("The adjacency set does not support weights.");
+				}
+				return new AdjacencySetGraph(vertices, graphType);
+			case "list":
+				if (!weighted) {
+					throw new IllegalArgumentException("The weighted adjacency list needs weights.");
+				}
+				return new WeightedAdjacencyListGraph(vertices, Graph.WeightType.INT, graphType);
+			default:
+				throw new IllegalArgumentException("Unknown representation: " + representation);
+		}
+	}
+
+	// A random graph with about vertices * averageDegree edges. IF acyclic is true, every edge goes from a smaller to a
+	// larger id, so the graph can be sorted topologically. Weights are between 1 and 100.
+	static Graph randomGraph(String representation, int vertices, int averageDegree, Graph.GraphType graphType,
+							 boolean weighted, boolean acyclic) {
+		Graph graph = newGraph(representation, vertices, graphType, weighted);
+		Random random = new Random(SEED);
+		long numEdges = (long) vertices * averageDegree;
+		for (long e = 0; e < numEdges; e++) {
+			int v1 = random.nextInt(vertices);
+			int v2 = random.nextInt(vertices);
+			if (v1 == v2) {
+				continue;
+			}
+			if (acyclic && v1 > v2) {
+				int swap = v1;
+				v1 = v2;
+				v2 = swap;
+			}
+			if (weighted) {
+				graph.addEdge(v1, v2, 1 + random.nextInt(100));
+			} else {
+				graph.addEdge(v1, v2);
+			}
+		}
+		// Connect the vertices in a chain as well, so searches from 0 reach the whole graph.
+		for (int v = 0; v + 1 < vertices; v++) {
+			if (weighted) {
+				graph.addEdge(v, v + 1, 100);
+			} else {
+				graph.addEdge(v, v + 1);
+			}
+		}
+		return graph;
+	}
+}
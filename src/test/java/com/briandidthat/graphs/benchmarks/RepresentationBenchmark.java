@@ -0,0 +1,68 @@
+package com.briandidthat.graphs.benchmarks;
+
+import com.briandidthat.graphs.model.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the graph representations on the operations every algorithm is built from: adding edges, listing the
+ * adjacent vertices and computing indegrees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepresentationBenchmark {
+	@Param({"matrix", "set"})
+	private String representation;
+
+	@Param({"1000", "4000"})
+	private int vertices;
+
+	@Param({"4", "32"})
+	private int averageDegree;
+
+	private Graph graph;
+
+	@Setup
+	public void setUp() {
+		graph = BenchmarkGraphs.randomGraph(representation, vertices, averageDegree, Graph.GraphType.DIRECTED, false,
+				false);
+	}
+
+	@Benchmark
+	public Graph build() {
+		return BenchmarkGraphs.randomGraph(representation, vertices, averageDegree, Graph.GraphType.DIRECTED, false,
+				false);
+	}
+
+	@Benchmark
+	public void adjacentVertices(Blackhole blackhole) {
+		for (int v = 0; v < graph.getNumVertices(); v++) {
+			blackhole.consume(graph.getAdjacentVertices(v));
+		}
+	}
+
+	@Benchmark
+	public long indegrees() {
+		long total = 0;
+		for (int v = 0; v < graph.getNumVertices(); v++) {
+			total += graph.getIndegree(v);
+		}
+		return total;
+	}
+}
@@ -0,0 +1,67 @@
+package com.briandidthat.graphs.benchmarks;
+
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.utils.GraphHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The unweighted algorithms on both representations. The graphs are acyclic, so the topological sort has an answer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraversalBenchmark {
+	@Param({"matrix", "set"})
+	private String representation;
+
+	@Param({"1000", "4000"})
+	private int vertices;
+
+	@Param({"4", "32"})
+	private int averageDegree;
+
+	private Graph graph;
+
+	@Setup
+	public void setUp() {
+		graph = BenchmarkGraphs.randomGraph(representation, vertices, averageDegree, Graph.GraphType.DIRECTED, false,
+				true);
+	}
+
+	@Benchmark
+	public int[] breadthFirstTraversal() {
+		return GraphHelper.breadthFirstTraversal(graph, new int[vertices], 0);
+	}
+
+	@Benchmark
+	public int[] depthFirstTraversal() {
+		return GraphHelper.depthFirstTraversal(graph, new int[vertices], 0);
+	}
+
+	@Benchmark
+	public List<Integer> topologicalSort() {
+		return GraphHelper.topologicalSort(graph);
+	}
+
+	@Benchmark
+	public ShortestPathTree breadthFirstShortestPaths() {
+		return GraphHelper.buildShortestPathTree(graph, 0);
+	}
+}
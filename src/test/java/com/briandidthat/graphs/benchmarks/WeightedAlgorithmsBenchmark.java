@@ -0,0 +1,80 @@
+package com.briandidthat.graphs.benchmarks;
+
+import com.briandidthat.graphs.algorithms.BellmanFord;
+import com.briandidthat.graphs.algorithms.Djikstras;
+import com.briandidthat.graphs.algorithms.Kruskals;
+import com.briandidthat.graphs.algorithms.Prims;
+import com.briandidthat.graphs.algorithms.ShortestDistance;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.model.SpanningTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The weighted shortest path and spanning tree algorithms, on the adjacency matrix and the weighted adjacency list. A
+ * new weighted representation only needs to be added to the representation parameter and to BenchmarkGraphs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeightedAlgorithmsBenchmark {
+	@Param({"matrix", "list"})
+	private String representation;
+
+	@Param({"500", "2000"})
+	private int vertices;
+
+	@Param({"4", "32"})
+	private int averageDegree;
+
+	private Graph directedGraph;
+	private Graph undirectedGraph;
+
+	@Setup
+	public void setUp() {
+		directedGraph = BenchmarkGraphs.randomGraph(representation, vertices, averageDegree, Graph.GraphType.DIRECTED,
+				true, false);
+		undirectedGraph = BenchmarkGraphs.randomGraph(representation, vertices, averageDegree,
+				Graph.GraphType.UNDIRECTED, true, false);
+	}
+
+	@Benchmark
+	public ShortestPathTree djikstras() {
+		return new Djikstras().buildShortestPathTree(directedGraph, 0);
+	}
+
+	@Benchmark
+	public ShortestPathTree shortestDistance() {
+		return new ShortestDistance().buildShortestPathTree(directedGraph, 0);
+	}
+
+	@Benchmark
+	public ShortestPathTree bellmanFord() {
+		return new BellmanFord().buildShortestPathTree(directedGraph, 0);
+	}
+
+	@Benchmark
+	public SpanningTree prims() {
+		return new Prims().spanningTree(undirectedGraph, 0);
+	}
+
+	@Benchmark
+	public SpanningTree kruskals() {
+		return new Kruskals().spanningTree(undirectedGraph);
+	}
+}
@@ -0,0 +1,152 @@
+package com.briandidthat.graphs.io;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GraphReaderWriterTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void edgeListsRoundTripEveryWeightType() throws IOException {
+		for (Graph.GraphType graphType : Graph.GraphType.values()) {
+			for (Graph.WeightType weightType : Graph.WeightType.values()) {
+				Graph graph = randomGraph(1, 200, 600, weightType, graphType);
+				Path path = directory.resolve("graph-" + graphType + "-" + weightType + ".txt");
+				GraphWriter.writeEdgeList(graph, path);
+
+				Graph read = new WeightedAdjacencyListGraph(200, weightType, graphType);
+				GraphReader.readEdgeList(path, read);
+				assertSameGraph(graph, read);
+			}
+		}
+	}
+
+	@Test
+	void largeCompressedEdgeListsAreParsedInSegments() throws IOException {
+		// Big enough that the block is split into several segments that are parsed in parallel.
+		Graph graph = TestGraphs.unweighted(2, 5000, 40000, Graph.GraphType.DIRECTED);
+		Path path = directory.resolve("graph.txt.gz");
+		GraphWriter.writeEdgeList(graph, path);
+
+		Graph read = GraphReader.readEdgeList(path, Graph.GraphType.DIRECTED, false);
+		assertFalse(read.isWeighted());
+		assertSameGraph(graph, read);
+	}
+
+	@Test
+	void dimacsRoundTripsAndRejectsDoubles() throws IOException {
+		Graph graph = randomGraph(3, 100, 300, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		Path path = directory.resolve("graph.gr");
+		GraphWriter.writeDimacs(graph, path);
+		assertSameGraph(graph, GraphReader.readDimacs(path));
+
+		Graph doubles = randomGraph(3, 10, 20, Graph.WeightType.DOUBLE, Graph.GraphType.DIRECTED);
+		assertThrows(IllegalArgumentException.class, () -> GraphWriter.writeDimacs(doubles, path));
+	}
+
+	@Test
+	void matrixMarketRoundTripsSymmetricAndRealMatrices() throws IOException {
+		Graph undirected = randomGraph(4, 80, 200, Graph.WeightType.INT, Graph.GraphType.UNDIRECTED);
+		Path path = directory.resolve("undirected.mtx");
+		GraphWriter.writeMatrixMarket(undirected, path);
+		Graph read = GraphReader.readMatrixMarket(path);
+		assertEquals(Graph.GraphType.UNDIRECTED, read.graphType());
+		assertSameGraph(undirected, read);
+
+		Graph real = randomGraph(5, 80, 200, Graph.WeightType.DOUBLE, Graph.GraphType.DIRECTED);
+		path = directory.resolve("real.mtx");
+		GraphWriter.writeMatrixMarket(real, path);
+		read = GraphReader.readMatrixMarket(path);
+		assertEquals(Graph.WeightType.DOUBLE, read.weightType());
+		assertSameGraph(real, read);
+	}
+
+	@Test
+	void edgeListsAcceptCommentsAndSeparators() throws IOException {
+		Path path = write("edges.txt", "# a comment\n% another\n0 1 5\n1\t2\t7\n2,3,-4\n\n3 0 2\n");
+		Graph graph = new WeightedAdjacencyListGraph(4, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		GraphReader.readEdgeList(path, graph);
+		assertEquals(5, graph.getWeightedEdge(0, 1));
+		assertEquals(7, graph.getWeightedEdge(1, 2));
+		assertEquals(-4, graph.getWeightedEdge(2, 3));
+		assertEquals(2, graph.getWeightedEdge(3, 0));
+	}
+
+	@Test
+	void rejectsMalformedFiles() throws IOException {
+		Path wrongCount = write("wrong.gr", "p sp 3 2\na 1 2 4\n");
+		assertThrows(IllegalArgumentException.class, () -> GraphReader.readDimacs(wrongCount));
+		Path tooHeavy = write("heavy.gr", "p sp 2 1\na 1 2 3000000000\n");
+		assertThrows(IllegalArgumentException.class, () -> GraphReader.readDimacs(tooHeavy));
+		Path noHeader = write("empty.mtx", "% only a comment\n");
+		assertThrows(IllegalArgumentException.class, () -> GraphReader.readMatrixMarket(noHeader));
+	}
+
+	private Path write(String name, String text) throws IOException {
+		Path path = directory.resolve(name);
+		Files.write(path, text.getBytes(StandardCharsets.US_ASCII));
+		return path;
+	}
+
+	// Distinct random edges. Long weights go past the int range and double weights have a fractional part.
+	private static Graph randomGraph(long seed, int vertices, int numEdges, Graph.WeightType weightType,
+									 Graph.GraphType graphType) {
+		Random random = new Random(seed);
+		Graph graph = new WeightedAdjacencyListGraph(vertices, weightType, graphType);
+		for (int e = 0; e < numEdges; e++) {
+			int v1 = random.nextInt(vertices);
+			int v2 = random.nextInt(vertices);
+			if (v1 == v2 || graph.getAdjacentVertices(v1).contains(v2)) {
+				continue;
+			}
+			if (weightType == Graph.WeightType.INT) {
+				graph.addEdge(v1, v2, random.nextInt(1000) - 100);
+			} else if (weightType == Graph.WeightType.LONG) {
+				graph.addEdge(v1, v2, random.nextLong() >> 8);
+			} else {
+				graph.addEdge(v1, v2, random.nextDouble() * 1000);
+			}
+		}
+		return graph;
+	}
+
+	private static void assertSameGraph(Graph expected, Graph actual) {
+		assertEquals(expected.getNumVertices(), actual.getNumVertices());
+		for (int v = 0; v < expected.getNumVertices(); v++) {
+			List<Integer> expectedNeighbors = new ArrayList<>(expected.getAdjacentVertices(v));
+			List<Integer> actualNeighbors = new ArrayList<>(actual.getAdjacentVertices(v));
+			Collections.sort(expectedNeighbors);
+			Collections.sort(actualNeighbors);
+			assertEquals(expectedNeighbors, actualNeighbors);
+			if (!expected.isWeighted()) {
+				continue;
+			}
+			for (int neighbor : expectedNeighbors) {
+				if (expected.weightType() == Graph.WeightType.DOUBLE) {
+					assertEquals(expected.getDoubleWeightedEdge(v, neighbor),
+							actual.getDoubleWeightedEdge(v, neighbor));
+				} else {
+					assertEquals(expected.getLongWeightedEdge(v, neighbor), actual.getLongWeightedEdge(v, neighbor));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.briandidthat.graphs.metrics;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.algorithms.BetweennessCentrality;
+import com.briandidthat.graphs.algorithms.ConnectedComponents;
+import com.briandidthat.graphs.algorithms.ContractionHierarchy;
+import com.briandidthat.graphs.algorithms.DynamicShortestPaths;
+import com.briandidthat.graphs.algorithms.MultiSourceBfs;
+import com.briandidthat.graphs.algorithms.ReachabilityIndex;
+import com.briandidthat.graphs.algorithms.StronglyConnectedComponents;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.utils.GraphHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlgorithmMetricsTests {
+
+	@Test
+	void everyAlgorithmRecordsItsRuns() {
+		Graph directed = TestGraphs.unweighted(1, 200, 800, Graph.GraphType.DIRECTED);
+		Graph undirected = TestGraphs.unweighted(2, 200, 400, Graph.GraphType.UNDIRECTED);
+		Graph weighted = TestGraphs.weighted(3, 60, 240, Graph.GraphType.DIRECTED, 1, 20);
+
+		assertRecorded("betweenness", () -> new BetweennessCentrality().exact(directed));
+		assertRecorded("connected-components", () -> new ConnectedComponents().findComponents(undirected));
+		assertRecorded("scc-tarjan", () -> new StronglyConnectedComponents().tarjan(directed));
+		assertRecorded("scc-forward-backward", () -> new StronglyConnectedComponents().forwardBackward(directed));
+		assertRecorded("ms-bfs", () -> new MultiSourceBfs().findDistances(directed, new int[]{0, 1, 2}));
+		assertRecorded("reachability-index", () -> new ReachabilityIndex(directed));
+		assertRecorded("contraction-hierarchy", () -> new ContractionHierarchy(weighted));
+		assertRecorded("dynamic-shortest-paths", () -> new DynamicShortestPaths(weighted, 0).close());
+		assertRecorded("dfs", () -> GraphHelper.depthFirstTraversal(directed, 0));
+		assertRecorded("bfs", () -> GraphHelper.breadthFirstTraversal(directed, 0));
+	}
+
+	@Test
+	void topologicalSortCountsEveryEdge() {
+		Graph graph = new AdjacencySetGraph(4, Graph.GraphType.DIRECTED);
+		graph.addEdge(0, 1);
+		graph.addEdge(0, 2);
+		graph.addEdge(1, 3);
+		graph.addEdge(2, 3);
+
+		// The stats are live totals, so the counts are read before the run.
+		AlgorithmStats before = AlgorithmMetrics.getStats("topological-sort");
+		long runsBefore = runs(before);
+		long settledBefore = verticesSettled(before);
+		long relaxedBefore = edgesRelaxed(before);
+		GraphHelper.topologicalSort(graph);
+		AlgorithmStats after = AlgorithmMetrics.getStats("topological-sort");
+		assertEquals(runsBefore + 1, after.getRuns());
+		assertEquals(settledBefore + 4, after.getVerticesSettled());
+		assertEquals(relaxedBefore + 4, after.getEdgesRelaxed());
+	}
+
+	@Test
+	void dynamicShortestPathsRecordsEveryChange() {
+		Graph graph = new AdjacencySetGraph(3, Graph.GraphType.DIRECTED);
+		graph.addEdge(0, 1);
+		try (DynamicShortestPaths paths = new DynamicShortestPaths(graph, 0)) {
+			long before = runs(AlgorithmMetrics.getStats("dynamic-shortest-paths"));
+			graph.addEdge(1, 2);
+			assertEquals(before + 1, AlgorithmMetrics.getStats("dynamic-shortest-paths").getRuns());
+			assertEquals(2, paths.getDistance(2));
+		}
+	}
+
+	@Test
+	void binderStopsListeningOnShutdown() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AlgorithmMetricsBinder binder = new AlgorithmMetricsBinder();
+		binder.bindTo(registry);
+		binder.shutdown();
+
+		// An algorithm that first runs after the shutdown must not reach the registry.
+		AlgorithmMetrics.start("metrics-test-after-shutdown").finish();
+		assertNull(registry.find("graphs.algorithm.runs").tag("algorithm", "metrics-test-after-shutdown").meter());
+
+		// The algorithms seen while bound still have their meters.
+		AlgorithmMetrics.start("metrics-test-before-shutdown").finish();
+		SimpleMeterRegistry bound = new SimpleMeterRegistry();
+		AlgorithmMetricsBinder other = new AlgorithmMetricsBinder();
+		other.bindTo(bound);
+		assertNotNull(bound.find("graphs.algorithm.runs").tag("algorithm", "metrics-test-before-shutdown").meter());
+		other.shutdown();
+	}
+
+	private static void assertRecorded(String algorithm, Runnable body) {
+		AlgorithmStats before = AlgorithmMetrics.getStats(algorithm);
+		long runsBefore = runs(before);
+		long settledBefore = verticesSettled(before);
+		body.run();
+		AlgorithmStats after = AlgorithmMetrics.getStats(algorithm);
+		assertNotNull(after, algorithm);
+		assertEquals(runsBefore + 1, after.getRuns(), algorithm);
+		assertTrue(after.getVerticesSettled() > settledBefore, algorithm);
+	}
+
+	private static long runs(AlgorithmStats stats) {
+		return stats == null ? 0 : stats.getRuns();
+	}
+
+	private static long verticesSettled(AlgorithmStats stats) {
+		return stats == null ? 0 : stats.getVerticesSettled();
+	}
+
+	private static long edgesRelaxed(AlgorithmStats stats) {
+		return stats == null ? 0 : stats.getEdgesRelaxed();
+	}
+}
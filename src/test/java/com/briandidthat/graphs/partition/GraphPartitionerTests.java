@@ -0,0 +1,91 @@
+package com.briandidthat.graphs.partition;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.utils.GraphGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphPartitionerTests {
+
+	@Test
+	void partsStayUnderTheCapacityAndTheCutIsCounted() {
+		for (Graph.GraphType graphType : Graph.GraphType.values()) {
+			for (int numParts = 1; numParts <= 7; numParts += 3) {
+				Graph graph = TestGraphs.unweighted(numParts, 500, 1500, graphType);
+				Partitioning partitioning = new GraphPartitioner(numParts, 0.1, 10).partition(graph);
+				int capacity = (int) Math.ceil(1.1 * 500 / numParts);
+				int total = 0;
+				for (int part = 0; part < numParts; part++) {
+					assertTrue(partitioning.getPartSize(part) <= capacity);
+					assertEquals(partitioning.getPartSize(part), partitioning.getVertices(part).length);
+					total += partitioning.getPartSize(part);
+				}
+				assertEquals(500, total);
+				assertEquals(cut(graph, partitioning), partitioning.getEdgeCut(graph));
+			}
+		}
+	}
+
+	@Test
+	void cutsFarFewerEdgesThanRoundRobin() {
+		Graph grid = GraphGenerator.grid(new AdjacencySetGraph(1600, Graph.GraphType.UNDIRECTED), 40, 40, 1);
+		int[] roundRobin = new int[1600];
+		for (int v = 0; v < 1600; v++) {
+			roundRobin[v] = v % 4;
+		}
+		long baseline = new Partitioning(4, roundRobin).getEdgeCut(grid);
+		Partitioning partitioning = new GraphPartitioner(4).partition(grid);
+		assertTrue(partitioning.getEdgeCut(grid) * 5 < baseline);
+		assertTrue(partitioning.getImbalance() <= 1.05 + 1e-9);
+	}
+
+	@Test
+	void separateComponentsAreNotCut() {
+		// Two cliques of ten vertices with nothing between them.
+		Graph graph = new AdjacencySetGraph(20, Graph.GraphType.UNDIRECTED);
+		for (int v = 0; v < 20; v++) {
+			for (int u = v + 1; u < 20; u++) {
+				if (v / 10 == u / 10) {
+					graph.addEdge(v, u);
+				}
+			}
+		}
+		Partitioning partitioning = new GraphPartitioner(2, 0, 10).partition(graph);
+		assertEquals(0, partitioning.getEdgeCut(graph));
+		assertEquals(1.0, partitioning.getImbalance());
+	}
+
+	@Test
+	void isDeterministic() {
+		Graph graph = TestGraphs.unweighted(9, 800, 3000, Graph.GraphType.DIRECTED);
+		assertArrayEquals(new GraphPartitioner(5).partition(graph).getAssignment(),
+				new GraphPartitioner(5).partition(graph).getAssignment());
+	}
+
+	@Test
+	void rejectsBadArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new GraphPartitioner(0));
+		assertThrows(IllegalArgumentException.class, () -> new GraphPartitioner(2, -0.1, 10));
+		assertThrows(IllegalArgumentException.class, () -> new Partitioning(2, new int[]{0, 2}));
+		assertEquals(1.0, new Partitioning(3, new int[0]).getImbalance());
+	}
+
+	// Every edge between two parts, counted once for an undirected graph.
+	private static long cut(Graph graph, Partitioning partitioning) {
+		long cut = 0;
+		for (int v = 0; v < graph.getNumVertices(); v++) {
+			for (int neighbor : graph.getAdjacentVertices(v)) {
+				if (partitioning.getPart(v) != partitioning.getPart(neighbor)) {
+					cut++;
+				}
+			}
+		}
+		return graph.graphType() == Graph.GraphType.UNDIRECTED ? cut / 2 : cut;
+	}
+}
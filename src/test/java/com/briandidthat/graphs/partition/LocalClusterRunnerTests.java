@@ -0,0 +1,59 @@
+package com.briandidthat.graphs.partition;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.ShortestPathTree;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalClusterRunnerTests {
+
+	@Test
+	void queriesMatchBruteForce() throws IOException {
+		Graph graph = TestGraphs.weighted(7, 40, 120, Graph.GraphType.DIRECTED, 1, 20);
+		Partitioning partitioning = new GraphPartitioner(2).partition(graph);
+		try (LocalClusterRunner runner = new LocalClusterRunner(2)) {
+			runner.load(graph, partitioning);
+			for (int source = 0; source < 40; source += 13) {
+				long[] distances = TestGraphs.distances(graph, source);
+				int[] hops = TestGraphs.hops(graph, source);
+				ShortestPathTree shortestPaths = runner.shortestPaths(source);
+				ShortestPathTree breadthFirst = runner.breadthFirst(source);
+				for (int v = 0; v < 40; v++) {
+					assertEquals(distances[v] == TestGraphs.UNREACHABLE ? Integer.MAX_VALUE : distances[v],
+							shortestPaths.getDistance(v));
+					assertEquals(hops[v] == -1 ? Integer.MAX_VALUE : hops[v], breadthFirst.getDistance(v));
+				}
+			}
+		}
+	}
+
+	@Test
+	void distancesLongerThanAnIntAreRejected() throws IOException {
+		Graph detour = new WeightedAdjacencyListGraph(4, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		detour.addEdge(0, 1, 1_500_000_000);
+		detour.addEdge(1, 2, 1_500_000_000);
+		detour.addEdge(0, 3, 1_000_000_000);
+		detour.addEdge(3, 2, 1_000_000_000);
+		Graph tooLong = new WeightedAdjacencyListGraph(4, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		tooLong.addEdge(0, 1, 1_500_000_000);
+		tooLong.addEdge(1, 2, 1_500_000_000);
+		tooLong.addEdge(0, 3, 1_000_000_000);
+		Partitioning partitioning = new Partitioning(2, new int[]{0, 1, 0, 1});
+		try (LocalClusterRunner runner = new LocalClusterRunner(2)) {
+			runner.load(detour, partitioning);
+			// The first path to 2 is longer than an int, the shortest one is not.
+			assertEquals(2_000_000_000, runner.shortestPaths(0).getDistance(2));
+
+			runner.load(tooLong, partitioning);
+			assertThrows(IllegalArgumentException.class, () -> runner.shortestPaths(0));
+			// The workers are still usable after a rejected query.
+			assertEquals(2, runner.breadthFirst(0).getDistance(2));
+		}
+	}
+}
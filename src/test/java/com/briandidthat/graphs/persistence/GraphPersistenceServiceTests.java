@@ -0,0 +1,68 @@
+package com.briandidthat.graphs.persistence;
+
+import com.briandidthat.graphs.model.AdjacencyMatrixGraph;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(GraphPersistenceService.class)
+class GraphPersistenceServiceTests {
+
+	@Autowired
+	private GraphPersistenceService graphPersistenceService;
+
+	@Autowired
+	private EdgeRepository edgeRepository;
+
+	@Autowired
+	private VertexRepository vertexRepository;
+
+	@Test
+	void savesAndLoadsWeightedGraph() {
+		Graph graph = new AdjacencyMatrixGraph(4, true, Graph.GraphType.DIRECTED);
+		graph.addEdge(0, 1, 5);
+		graph.addEdge(1, 2, 3);
+		graph.addEdge(2, 0, 7);
+		graph.addEdge(3, 2, 1);
+
+		GraphEntity entity = graphPersistenceService.save("weighted", graph);
+		assertEquals(4, entity.getNumEdges());
+		assertEquals(4, vertexRepository.countByGraphId(entity.getId()));
+
+		Graph loaded = graphPersistenceService.load(entity.getId());
+		assertEquals(Graph.GraphType.DIRECTED, loaded.graphType());
+		assertTrue(loaded.isWeighted());
+		for (int v = 0; v < 4; v++) {
+			assertEquals(graph.getAdjacentVertices(v), loaded.getAdjacentVertices(v));
+			for (int neighbor : graph.getAdjacentVertices(v)) {
+				assertEquals(graph.getWeightedEdge(v, neighbor), loaded.getWeightedEdge(v, neighbor));
+			}
+		}
+	}
+
+	@Test
+	void storesUndirectedEdgesOnce() {
+		Graph graph = new AdjacencySetGraph(3, Graph.GraphType.UNDIRECTED);
+		graph.addEdge(0, 1);
+		graph.addEdge(1, 2);
+
+		GraphEntity entity = graphPersistenceService.save("undirected", graph);
+		assertEquals(2, edgeRepository.countByGraphId(entity.getId()));
+
+		// Load into a bigger graph of another implementation.
+		Graph loaded = new AdjacencySetGraph(5, Graph.GraphType.UNDIRECTED);
+		graphPersistenceService.loadInto(entity.getId(), loaded);
+		assertTrue(loaded.getAdjacentVertices(1).contains(0));
+		assertTrue(loaded.getAdjacentVertices(1).contains(2));
+		assertFalse(loaded.getAdjacentVertices(0).contains(2));
+		assertTrue(loaded.getAdjacentVertices(4).isEmpty());
+	}
+}
@@ -0,0 +1,103 @@
+package com.briandidthat.graphs.pregel;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.algorithms.PageRank;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.RunStatus;
+import com.briandidthat.graphs.utils.CancellationToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PregelEngineTests {
+	// Three threads split the vertices into twelve partitions, so most messages cross partitions.
+	private static final ForkJoinPool POOL = new ForkJoinPool(3);
+
+	@Test
+	void componentsAreLabeledWithTheirSmallestVertex() {
+		PregelEngine engine = new PregelEngine(POOL, Integer.MAX_VALUE);
+		for (long seed = 0; seed < 5; seed++) {
+			Graph graph = TestGraphs.unweighted(seed, 150, 110, Graph.GraphType.UNDIRECTED);
+			PregelResult result = engine.run(graph, new ConnectedComponentsProgram());
+			assertTrue(result.isComplete());
+			for (int v = 0; v < graph.getNumVertices(); v++) {
+				assertEquals(lowest(TestGraphs.hops(graph, v)), result.getValue(v));
+			}
+		}
+	}
+
+	@Test
+	void shortestPathsMatchBellmanFord() {
+		PregelEngine engine = new PregelEngine(POOL, Integer.MAX_VALUE);
+		for (long seed = 0; seed < 5; seed++) {
+			Graph graph = TestGraphs.weighted(seed, 80, 240, Graph.GraphType.DIRECTED, 1, 50);
+			long[] expected = TestGraphs.distances(graph, 0);
+			PregelResult result = engine.run(graph, new ShortestPathsProgram(0));
+			for (int v = 0; v < graph.getNumVertices(); v++) {
+				if (expected[v] == TestGraphs.UNREACHABLE) {
+					assertEquals(Double.POSITIVE_INFINITY, result.getValue(v));
+				} else {
+					assertEquals(expected[v], result.getValue(v));
+				}
+			}
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> engine.run(new AdjacencySetGraph(3, Graph.GraphType.DIRECTED), new ShortestPathsProgram(3)));
+	}
+
+	@Test
+	void pageRankMatchesThePageRankClass() {
+		PregelEngine engine = new PregelEngine(POOL, Integer.MAX_VALUE);
+		PageRank pageRank = new PageRank(0.85, 1e-13, 1000, ForkJoinPool.commonPool());
+		// Sparse enough that some vertices are dangling.
+		Graph graph = TestGraphs.unweighted(6, 60, 90, Graph.GraphType.DIRECTED);
+		double[] expected = pageRank.rank(graph);
+		PregelResult result = engine.run(graph, new PageRankProgram(0.85, 1e-13, 1000));
+		assertTrue(result.getSupersteps() < 1000);
+		for (int v = 0; v < graph.getNumVertices(); v++) {
+			assertEquals(expected[v], result.getValue(v), 1e-9);
+		}
+		assertThrows(IllegalArgumentException.class, () -> new PageRankProgram(1, 1e-6, 10));
+	}
+
+	@Test
+	void stopsAfterTheLastSuperstepOrWhenCancelled() {
+		// On a path, the smallest label moves one hop per superstep.
+		Graph graph = new AdjacencySetGraph(10, Graph.GraphType.UNDIRECTED);
+		for (int v = 1; v < 10; v++) {
+			graph.addEdge(v - 1, v);
+		}
+		PregelResult limited = new PregelEngine(ForkJoinPool.commonPool(), 3).run(graph,
+				new ConnectedComponentsProgram());
+		assertEquals(3, limited.getSupersteps());
+		assertEquals(0, limited.getValue(2));
+		assertEquals(1, limited.getValue(3));
+
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		PregelResult cancelled = new PregelEngine().run(graph, new ConnectedComponentsProgram(), token);
+		assertFalse(cancelled.isComplete());
+		assertEquals(RunStatus.CANCELLED, cancelled.getStatus());
+		assertEquals(0, cancelled.getSupersteps());
+		assertEquals(9, cancelled.getValue(9));
+
+		assertEquals(0, new PregelEngine().run(new AdjacencySetGraph(0, Graph.GraphType.UNDIRECTED),
+				new ConnectedComponentsProgram()).getValues().length);
+		assertThrows(IllegalArgumentException.class, () -> new PregelEngine(ForkJoinPool.commonPool(), 0));
+	}
+
+	// The smallest vertex reached by a search.
+	private static int lowest(int[] hops) {
+		int v = 0;
+		while (hops[v] == -1) {
+			v++;
+		}
+		return v;
+	}
+}
@@ -0,0 +1,100 @@
+package com.briandidthat.graphs.utils;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.GraphListener;
+import com.briandidthat.graphs.model.WeightedAdjacencyListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphGeneratorTests {
+
+	@Test
+	void theSameSeedGivesTheSameEdgesInTheSameOrder() {
+		// More edges than one chunk, so several random streams are involved.
+		long numEdges = 200000;
+		List<long[]> first = record(graph -> GraphGenerator.erdosRenyi(graph, numEdges, 7));
+		List<long[]> second = record(graph -> GraphGenerator.erdosRenyi(graph, numEdges, 7));
+		// A repeated edge with the same weight changes nothing and is not reported, so a few edges are missing.
+		assertTrue(first.size() > numEdges * 99 / 100);
+		assertEquals(first.size(), second.size());
+		for (int i = 0; i < first.size(); i++) {
+			assertEquals(first.get(i)[0], second.get(i)[0]);
+			assertEquals(first.get(i)[1], second.get(i)[1]);
+			assertEquals(first.get(i)[2], second.get(i)[2]);
+		}
+
+		List<long[]> other = record(graph -> GraphGenerator.erdosRenyi(graph, numEdges, 8));
+		assertNotEquals(first.get(0)[0] * 5000 + first.get(0)[1], other.get(0)[0] * 5000 + other.get(0)[1]);
+	}
+
+	@Test
+	void randomEdgesHaveNoSelfLoopsAndValidWeights() {
+		for (List<long[]> edges : List.of(record(graph -> GraphGenerator.erdosRenyi(graph, 20000, 1)),
+				record(graph -> GraphGenerator.rmat(graph, 20000, 2)))) {
+			assertTrue(edges.size() > 19800);
+			for (long[] edge : edges) {
+				assertNotEquals(edge[0], edge[1]);
+				assertTrue(edge[0] >= 0 && edge[0] < 5000 && edge[1] >= 0 && edge[1] < 5000);
+				assertTrue(edge[2] >= 1 && edge[2] <= GraphGenerator.MAX_WEIGHT);
+			}
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> GraphGenerator.rmat(new AdjacencySetGraph(8, Graph.GraphType.DIRECTED), 10, 0.6, 0.3, 0.3, 1));
+	}
+
+	@Test
+	void gridsAreLattices() {
+		Graph graph = GraphGenerator.grid(new AdjacencySetGraph(12, Graph.GraphType.UNDIRECTED), 3, 4, 1);
+		// Corners have two neighbors, inner vertices four, and the far corner is rows + columns - 2 hops away.
+		assertEquals(2, graph.getAdjacentVertices(0).size());
+		assertEquals(4, graph.getAdjacentVertices(5).size());
+		assertEquals(5, TestGraphs.hops(graph, 0)[11]);
+
+		Graph directed = GraphGenerator.grid(new AdjacencySetGraph(12, Graph.GraphType.DIRECTED), 3, 4, 1);
+		assertEquals(5, TestGraphs.hops(directed, 11)[0]);
+		assertThrows(IllegalArgumentException.class,
+				() -> GraphGenerator.grid(new AdjacencySetGraph(11, Graph.GraphType.DIRECTED), 3, 4, 1));
+	}
+
+	@Test
+	void randomDagsCanBeSorted() {
+		Graph graph = GraphGenerator.randomDag(new AdjacencySetGraph(500, Graph.GraphType.DIRECTED), 3000, 4);
+		assertEquals(500, GraphHelper.topologicalSort(graph).size());
+		assertThrows(IllegalArgumentException.class,
+				() -> GraphGenerator.randomDag(new AdjacencySetGraph(5, Graph.GraphType.UNDIRECTED), 3, 4));
+	}
+
+	@Test
+	void preferentialAttachmentConnectsEveryVertex() {
+		Graph graph = GraphGenerator.barabasiAlbert(new AdjacencySetGraph(300, Graph.GraphType.UNDIRECTED), 3, 5);
+		for (int v = 0; v < 300; v++) {
+			assertTrue(graph.getAdjacentVertices(v).size() >= 3);
+		}
+		for (int hops : TestGraphs.hops(graph, 0)) {
+			assertTrue(hops >= 0);
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> GraphGenerator.barabasiAlbert(new AdjacencySetGraph(3, Graph.GraphType.UNDIRECTED), 3, 5));
+	}
+
+	// Runs the generator on a weighted graph of 5000 vertices and returns every edge it added, as v1, v2, weight.
+	private static List<long[]> record(Function<Graph, Graph> generator) {
+		Graph graph = new WeightedAdjacencyListGraph(5000, Graph.WeightType.INT, Graph.GraphType.DIRECTED);
+		List<long[]> edges = new ArrayList<>();
+		GraphListener listener = (g, v1, v2, change, previousWeight, weight) -> edges.add(new long[]{v1, v2, weight});
+		graph.addListener(listener);
+		generator.apply(graph);
+		graph.removeListener(listener);
+		return edges;
+	}
+}
@@ -0,0 +1,108 @@
+package com.briandidthat.graphs.utils;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencySetGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.PartialResult;
+import com.briandidthat.graphs.model.RunStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphHelperTests {
+
+	@Test
+	void topologicalSortOrdersEveryEdge() {
+		for (long seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			// Edges only go from a lower to a higher position in a shuffled order, so the graph has no cycle.
+			int[] positions = shuffled(random, 50);
+			Graph graph = new AdjacencySetGraph(50, Graph.GraphType.DIRECTED);
+			for (int e = 0; e < 150; e++) {
+				int a = random.nextInt(50);
+				int b = random.nextInt(50);
+				if (positions[a] < positions[b]) {
+					graph.addEdge(a, b);
+				}
+			}
+			List<Integer> order = GraphHelper.topologicalSort(graph);
+			assertEquals(50, order.size());
+			int[] rank = new int[50];
+			for (int i = 0; i < order.size(); i++) {
+				rank[order.get(i)] = i;
+			}
+			for (int v = 0; v < 50; v++) {
+				for (int neighbor : graph.getAdjacentVertices(v)) {
+					assertTrue(rank[v] < rank[neighbor]);
+				}
+			}
+		}
+	}
+
+	@Test
+	void topologicalSortRejectsCycles() {
+		Graph graph = new AdjacencySetGraph(3, Graph.GraphType.DIRECTED);
+		graph.addEdge(0, 1);
+		graph.addEdge(1, 2);
+		graph.addEdge(2, 1);
+		assertThrows(RuntimeException.class, () -> GraphHelper.topologicalSort(graph));
+	}
+
+	@Test
+	void traversalsVisitWhatBreadthFirstSearchReaches() {
+		for (long seed = 0; seed < 20; seed++) {
+			Graph graph = TestGraphs.unweighted(seed, 40, 70, Graph.GraphType.DIRECTED);
+			int[] hops = TestGraphs.hops(graph, 0);
+			int[] breadthFirst = GraphHelper.breadthFirstTraversal(graph, 0);
+			int[] depthFirst = GraphHelper.depthFirstTraversal(graph, 0);
+			long reached = Arrays.stream(hops).filter(h -> h != -1).count();
+			assertEquals(reached, breadthFirst.length);
+			assertEquals(reached, depthFirst.length);
+			for (int i = 1; i < breadthFirst.length; i++) {
+				assertTrue(hops[breadthFirst[i - 1]] <= hops[breadthFirst[i]]);
+			}
+			// Post order: the start vertex is processed last.
+			assertEquals(0, depthFirst[depthFirst.length - 1]);
+			assertArrayEquals(breadthFirst, GraphHelper.breadthFirstTraversal(graph, new int[40], 0));
+			assertArrayEquals(depthFirst, GraphHelper.depthFirstTraversal(graph, new int[40], 0));
+		}
+	}
+
+	@Test
+	void stoppedRunsReturnWhatTheyHave() {
+		Graph graph = TestGraphs.unweighted(1, 20_000, 60_000, Graph.GraphType.DIRECTED);
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		PartialResult<int[]> breadthFirst = GraphHelper.breadthFirstTraversal(graph, 0, token);
+		PartialResult<int[]> depthFirst = GraphHelper.depthFirstTraversal(graph, 0, token);
+		PartialResult<List<Integer>> order = GraphHelper.topologicalSort(graph, token);
+		assertEquals(RunStatus.CANCELLED, breadthFirst.getStatus());
+		assertEquals(RunStatus.CANCELLED, depthFirst.getStatus());
+		assertEquals(RunStatus.CANCELLED, order.getStatus());
+		assertFalse(breadthFirst.isComplete());
+		assertTrue(breadthFirst.getValue().length < 20_000);
+		assertTrue(order.getValue().isEmpty());
+	}
+
+	private static int[] shuffled(Random random, int n) {
+		int[] values = new int[n];
+		for (int i = 0; i < n; i++) {
+			values[i] = i;
+		}
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = values[i];
+			values[i] = values[j];
+			values[j] = swap;
+		}
+		return values;
+	}
+}
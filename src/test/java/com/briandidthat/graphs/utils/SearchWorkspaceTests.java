@@ -0,0 +1,111 @@
+package com.briandidthat.graphs.utils;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.algorithms.Djikstras;
+import com.briandidthat.graphs.model.Graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchWorkspaceTests {
+
+	@Test
+	void aNewAcquireForgetsTheLastSearch() {
+		SearchWorkspace first;
+		try (SearchWorkspace workspace = SearchWorkspace.acquire(10)) {
+			first = workspace;
+			workspace.set(3, 42, 1);
+			workspace.mark(5);
+			assertTrue(workspace.isVisited(3));
+			assertEquals(42, workspace.getDistance(3));
+			assertTrue(workspace.isMarked(5));
+		}
+		try (SearchWorkspace workspace = SearchWorkspace.acquire(10)) {
+			// The same arrays are handed out again, with every entry out of date.
+			assertSame(first, workspace);
+			assertFalse(workspace.isVisited(3));
+			assertEquals(Long.MAX_VALUE, workspace.getDistance(3));
+			assertEquals(-1, workspace.getLastVertex(3));
+			assertFalse(workspace.isMarked(5));
+			assertEquals(0, workspace.getPath(0, 3).length);
+		}
+	}
+
+	@Test
+	void growsAndHandsOutASeparateWorkspaceWhileOneIsHeld() {
+		SearchWorkspace.trim();
+		try (SearchWorkspace outer = SearchWorkspace.acquire(4)) {
+			outer.set(2, 7, 2);
+			try (SearchWorkspace inner = SearchWorkspace.acquire(4)) {
+				assertNotSame(outer, inner);
+				assertFalse(inner.isVisited(2));
+			}
+			assertTrue(outer.isVisited(2));
+		}
+		try (SearchWorkspace workspace = SearchWorkspace.acquire(1000)) {
+			assertTrue(workspace.getScratch(0).length >= 1000);
+			assertTrue(workspace.getLongScratch().length >= 1000);
+			workspace.set(0, 0, 0);
+			workspace.set(500, 3, 0);
+			workspace.set(999, 5, 500);
+			assertArrayEquals(new int[]{0, 500, 999}, workspace.getPath(0, 999));
+			assertTrue(workspace.getHeap().isEmpty());
+		}
+	}
+
+	@Test
+	void repeatedSearchesMatchBellmanFord() {
+		Djikstras djikstras = new Djikstras();
+		// A large graph first, so the smaller searches after it run on bigger arrays holding old entries.
+		Graph large = TestGraphs.weighted(1, 400, 2000, Graph.GraphType.DIRECTED, 1, 30);
+		djikstras.findShortestPath(large, 0, 399);
+		for (long seed = 0; seed < 5; seed++) {
+			Graph graph = TestGraphs.weighted(seed, 60, 150, Graph.GraphType.DIRECTED, 1, 30);
+			long[] distances = TestGraphs.distances(graph, 0);
+			for (int destination = 0; destination < 60; destination++) {
+				int[] path = djikstras.findShortestPath(graph, 0, destination);
+				if (distances[destination] == TestGraphs.UNREACHABLE) {
+					assertEquals(0, path.length);
+				} else {
+					assertEquals(distances[destination], TestGraphs.pathWeight(graph, path));
+				}
+			}
+		}
+	}
+
+	@Test
+	void threadsDoNotShareWorkspaces() throws InterruptedException, ExecutionException {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Graph graph = TestGraphs.weighted(8, 200, 1000, Graph.GraphType.DIRECTED, 1, 30);
+			long[] distances = TestGraphs.distances(graph, 0);
+			Future<?>[] futures = new Future<?>[8];
+			for (int i = 0; i < futures.length; i++) {
+				int offset = i;
+				futures[i] = executor.submit(() -> {
+					for (int destination = offset; destination < 200; destination += 8) {
+						int[] path = new Djikstras().findShortestPath(graph, 0, destination);
+						long expected = distances[destination];
+						assertEquals(expected == TestGraphs.UNREACHABLE ? 0 : expected,
+								path.length == 0 ? 0 : TestGraphs.pathWeight(graph, path));
+					}
+				});
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package com.briandidthat.graphs.views;
+
+import com.briandidthat.graphs.TestGraphs;
+import com.briandidthat.graphs.model.AdjacencyMatrixGraph;
+import com.briandidthat.graphs.model.Graph;
+import com.briandidthat.graphs.model.GraphListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphViewTests {
+
+	@Test
+	void viewsMatchCopiesOfTheBase() {
+		Graph base = TestGraphs.weighted(1, 60, 300, Graph.GraphType.DIRECTED, 1, 100);
+		int[] subset = {7, 3, 42, 15, 8, 30, 51};
+		EdgeFilterView light = new EdgeFilterView(base, (v1, v2, weight) -> weight < 50);
+		InducedSubgraphView induced = new InducedSubgraphView(base, subset, true);
+		TransposeView transpose = new TransposeView(base);
+		WeightTransformView doubled = new WeightTransformView(base, (v1, v2, weight) -> 2 * weight);
+
+		for (int v = 0; v < 60; v++) {
+			for (int u = 0; u < 60; u++) {
+				int weight = base.getWeightedEdge(v, u);
+				assertEquals(weight < 50 ? weight : 0, light.getWeightedEdge(v, u));
+				assertEquals(weight != 0 && weight < 50, light.getAdjacentVertices(v).contains(u));
+				assertEquals(weight, transpose.getWeightedEdge(u, v));
+				assertEquals(weight != 0, transpose.getAdjacentVertices(u).contains(v));
+				assertEquals(2 * weight, doubled.getWeightedEdge(v, u));
+			}
+			assertEquals(base.getAdjacentVertices(v).size(), transpose.getIndegree(v));
+		}
+		assertEquals(subset.length, induced.getNumVertices());
+		for (int i = 0; i < subset.length; i++) {
+			assertEquals(i, induced.getViewVertex(subset[i]));
+			for (int j = 0; j < subset.length; j++) {
+				assertEquals(base.getWeightedEdge(subset[i], subset[j]), induced.getWeightedEdge(i, j));
+				assertEquals(base.getWeightedEdge(subset[i], subset[j]) != 0,
+						induced.getAdjacentVertices(i).contains(j));
+			}
+		}
+		assertEquals(-1, induced.getViewVertex(0));
+	}
+
+	@Test
+	void changesToTheBaseShowThroughStackedViews() {
+		Graph base = new AdjacencyMatrixGraph(4, true, Graph.GraphType.DIRECTED);
+		base.addEdge(0, 1, 5);
+		// The edges under 10 with their direction reversed.
+		TransposeView view = new TransposeView(new EdgeFilterView(base, (v1, v2, weight) -> weight < 10));
+		assertEquals(List.of(0), view.getAdjacentVertices(1));
+
+		base.addEdge(2, 1, 3);
+		base.addEdge(3, 1, 30);
+		// The version changed, so the incoming index is rebuilt.
+		assertEquals(base.getVersion(), view.getVersion());
+		assertEquals(List.of(0, 2), view.getAdjacentVertices(1));
+		assertEquals(3, view.getWeightedEdge(1, 2));
+		assertEquals(0, view.getWeightedEdge(1, 3));
+	}
+
+	@Test
+	void listenersHearChangesInTheIdsOfTheView() {
+		Graph base = new AdjacencyMatrixGraph(5, true, Graph.GraphType.DIRECTED);
+		List<String> filtered = new ArrayList<>();
+		List<String> induced = new ArrayList<>();
+		List<String> transposed = new ArrayList<>();
+		List<String> transformed = new ArrayList<>();
+		EdgeFilterView filterView = new EdgeFilterView(base, (v1, v2, weight) -> weight < 10);
+		InducedSubgraphView inducedView = new InducedSubgraphView(base, new int[]{4, 1}, true);
+		filterView.addListener(recorder(filtered));
+		GraphListener inducedListener = recorder(induced);
+		inducedView.addListener(inducedListener);
+		new TransposeView(base).addListener(recorder(transposed));
+		new WeightTransformView(base, (v1, v2, weight) -> -weight).addListener(recorder(transformed));
+
+		base.addEdge(1, 4, 5);
+		base.addEdge(1, 4, 20);
+		base.addEdge(1, 4, 0);
+		base.addEdge(0, 2, 7);
+
+		// The filter sees the edge leave the view when its weight goes over 10, and not its removal after that.
+		assertEquals(List.of("ADDED 1 4 0 5", "REMOVED 1 4 5 0", "ADDED 0 2 0 7"), filtered);
+		assertEquals(List.of("ADDED 1 0 0 5", "WEIGHT_CHANGED 1 0 5 20", "REMOVED 1 0 20 0"), induced);
+		assertEquals("ADDED 4 1 0 5", transposed.get(0));
+		assertEquals(List.of("ADDED 1 4 0 -5", "WEIGHT_CHANGED 1 4 -5 -20", "REMOVED 1 4 -20 0", "ADDED 0 2 0 -7"),
+				transformed);
+
+		// A removed listener hears nothing more.
+		inducedView.removeListener(inducedListener);
+		base.addEdge(4, 1, 1);
+		assertEquals(3, induced.size());
+	}
+
+	@Test
+	void viewsAreReadOnlyAndCheckTheirArguments() {
+		Graph base = new AdjacencyMatrixGraph(3, true, Graph.GraphType.UNDIRECTED);
+		base.addEdge(0, 1, 4);
+		TransposeView transpose = new TransposeView(base);
+		// An undirected graph is its own transpose.
+		assertEquals(base.getAdjacentVertices(1), transpose.getAdjacentVertices(1));
+		assertThrows(UnsupportedOperationException.class, () -> transpose.addEdge(1, 2, 3));
+		assertThrows(UnsupportedOperationException.class, () -> transpose.addEdge(1, 2));
+		assertThrows(IllegalArgumentException.class, () -> new InducedSubgraphView(base, new int[]{0, 0}));
+		assertThrows(IllegalArgumentException.class, () -> new InducedSubgraphView(base, new int[]{3}));
+
+		InducedSubgraphView sparse = new InducedSubgraphView(base, new int[]{1, 2});
+		assertEquals(3, sparse.getNumVertices());
+		assertTrue(sparse.getAdjacentVertices(0).isEmpty());
+		assertEquals(0, sparse.getWeightedEdge(1, 0));
+	}
+
+	// Records every change as "CHANGE v1 v2 previousWeight weight".
+	private static GraphListener recorder(List<String> changes) {
+		return (graph, v1, v2, change, previousWeight, weight) ->
+				changes.add(change + " " + v1 + " " + v2 + " " + previousWeight + " " + weight);
+	}
+}
@@ -0,0 +1,62 @@
+package com.briandidthat.graphs.web;
+
+import com.briandidthat.graphs.model.Graph;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GraphServiceTests {
+
+	@Test
+	void uploadsUpToTheLimits() throws IOException {
+		GraphService service = new GraphService(4, 3, 2);
+		String id = service.upload(edges("0 1\n1 2\n2 3\n"), 4, Graph.GraphType.DIRECTED, false);
+		Graph graph = service.getGraph(id);
+		assertEquals(List.of(1), graph.getAdjacentVertices(0));
+		assertEquals(List.of(3), graph.getAdjacentVertices(2));
+		assertEquals(List.of(), graph.getAdjacentVertices(3));
+	}
+
+	@Test
+	void rejectsTooManyVertices() {
+		GraphService service = new GraphService(4, 3, 2);
+		assertThrows(IllegalArgumentException.class,
+				() -> service.upload(edges("0 1\n"), 5, Graph.GraphType.DIRECTED, false));
+	}
+
+	@Test
+	void stopsAnUploadWithTooManyEdges() throws IOException {
+		GraphService service = new GraphService(4, 3, 1);
+		assertThrows(IllegalArgumentException.class,
+				() -> service.upload(edges("0 1\n1 2\n2 3\n3 0\n"), 4, Graph.GraphType.DIRECTED, false));
+		// The failed upload gave its slot back.
+		service.upload(edges("0 1\n"), 4, Graph.GraphType.DIRECTED, false);
+	}
+
+	@Test
+	void rejectsUploadsOnceFullUntilOneIsDeleted() throws IOException {
+		GraphService service = new GraphService(4, 3, 2);
+		String first = service.upload(edges("0 1\n"), 4, Graph.GraphType.DIRECTED, false);
+		service.upload(edges("1 2\n"), 4, Graph.GraphType.DIRECTED, false);
+
+		ResponseStatusException full = assertThrows(ResponseStatusException.class,
+				() -> service.upload(edges("2 3\n"), 4, Graph.GraphType.DIRECTED, false));
+		assertEquals(HttpStatus.INSUFFICIENT_STORAGE, full.getStatus());
+
+		service.delete(first);
+		service.upload(edges("2 3\n"), 4, Graph.GraphType.DIRECTED, false);
+	}
+
+	private static InputStream edges(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+	}
+}